@@ -1,9 +1,9 @@
 package APSPSolver;
 
 import graphReader.GraphReader;
+import util.Matrix;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 public abstract class APSPSolver {
 
@@ -23,5 +23,57 @@ public abstract class APSPSolver {
 
     public abstract Number getDistanceFrom(int i, int j);
 
+    /**
+     * Solvers that store a predecessor matrix should override this, as the default implementation reconstructs the
+     * whole shortest path.
+     *
+     * @return the node before j on a shortest path from i to j, i if i = j, or -1 if there is no path from i to j
+     */
+    public int getPredecessor(int i, int j) {
+        if (i == j) {
+            return i;
+        }
+        return this.getShortestPath(i, j).map(path -> path.get(path.size() - 2)).orElse(-1);
+    }
+
+    /**
+     * Walks back from j to i in a predecessor matrix where P[i, j] = j means that no path from i to j has been found,
+     * as computed by {@link MatSquare} and {@link BlockedFloydWarshall}
+     *
+     * @return the shortest path [i, ..., j], or empty if there is no path or i = j
+     */
+    protected Optional<List<Integer>> getShortestPathFromPredecessors(Matrix<Number> predecessorMatrix, int i, int j) {
+        Deque<Integer> path = new LinkedList<>();
+
+        if (predecessorMatrix.get(i, j).intValue() == j) {
+            return Optional.empty();
+        }
+
+        do {
+            int pred = predecessorMatrix.get(i, j).intValue();
+            if (pred == j) {
+                throw new IllegalStateException(String.format("The predecessor matrix should not have self-references: Pred(%d, %d)=%d", i, j, pred));
+            } else if (path.size() > this.n) {
+                throw new IllegalStateException(String.format("Encountered infinite loop in path from %d to %d", i, j));
+            }
+            path.addFirst(j);
+            j = pred;
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    /**
+     * @return the predecessor of j in a predecessor matrix with the same convention as
+     * {@link #getShortestPathFromPredecessors(Matrix, int, int)}, following that of {@link #getPredecessor(int, int)}
+     */
+    protected static int getPredecessorFromPredecessors(Matrix<Number> predecessorMatrix, int i, int j) {
+        if (i == j) {
+            return i;
+        }
+        int pred = predecessorMatrix.get(i, j).intValue();
+        return pred == j ? -1 : pred;
+    }
+
     public abstract void solve();
 }
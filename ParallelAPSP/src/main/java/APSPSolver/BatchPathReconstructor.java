@@ -0,0 +1,280 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread-safe reconstruction of many shortest paths at once, without the boxing and linked list nodes of
+ * {@link APSPSolver#getShortestPath(int, int)}:
+ * <ul>
+ *     <li>The predecessors of the solver are copied once into a flat int array, which is never modified afterwards,
+ *     so any number of threads can query it concurrently</li>
+ *     <li>A single path can be written into a caller-provided int buffer with {@link #getShortestPath(int, int, int[],
+ *     int)}</li>
+ *     <li>A batch of (i, j) pairs is reconstructed in parallel into a {@link PathArena}, where all the paths are
+ *     stored back to back in one int array. The path lengths are counted in a first parallel pass, and their prefix
+ *     sums give each path its own slice of the arena, which is then filled in a second parallel pass.</li>
+ * </ul>
+ * The paths follow the same convention as {@link APSPSolver#getShortestPath(int, int)}: they include both i and j,
+ * and are empty if i = j or there is no path from i to j.
+ *
+ * <p>The predecessors are copied sequentially with {@link APSPSolver#getPredecessor(int, int)}, as solvers are not
+ * required to support concurrent queries. This takes O(n^2) time for solvers that store a predecessor matrix, but
+ * for e.g. {@link graphReader.GraphCompressor}, each entry requires reconstructing a whole path. The copy is then
+ * amortized over all the following batches.</p>
+ */
+public class BatchPathReconstructor {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // number of queries handled by one task, which is large enough to amortize the task overhead
+    private static final int GRAIN_SIZE = 4096;
+
+    private final int n;
+    private final int[] predecessors;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param solver a solver that {@link APSPSolver#solve()} has been called on
+     * @param pool the fork-join pool that the batches are reconstructed in
+     * @throws IllegalArgumentException if the graph has too many nodes for its n x n predecessor table to fit in an
+     * array
+     */
+    public BatchPathReconstructor(APSPSolver solver, ForkJoinPool pool) {
+        this.n = solver.n;
+        this.pool = pool;
+        // the predecessors are indexed with an int, so the n x n table must fit in a single array
+        long tableSize = (long) this.n * this.n;
+        if (tableSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format("The predecessor table of a graph with %d nodes has %d "
+                    + "entries, which is more than the %d that fit in an array", this.n, tableSize,
+                    Integer.MAX_VALUE - 8));
+        }
+        this.predecessors = new int[(int) tableSize];
+        for (int i = 0; i < this.n; i++) {
+            for (int j = 0; j < this.n; j++) {
+                this.predecessors[i * this.n + j] = solver.getPredecessor(i, j);
+            }
+        }
+    }
+
+    public BatchPathReconstructor(APSPSolver solver) {
+        this(solver, ForkJoinPool.commonPool());
+    }
+
+    public int getNumberOfNodes() {
+        return this.n;
+    }
+
+    /**
+     * @return the number of nodes on the shortest path from i to j, including both i and j, or 0 if i = j or there
+     * is no path from i to j
+     */
+    public int getPathLength(int i, int j) {
+        if (i == j || this.predecessors[i * this.n + j] == -1) {
+            return 0;
+        }
+        int length = 1;
+        int rowStart = i * this.n;
+        while (j != i) {
+            int pred = this.predecessors[rowStart + j];
+            if (pred == j || pred == -1) {
+                throw new IllegalStateException(String.format("The predecessors are inconsistent: Pred(%d, %d)=%d", i, j, pred));
+            } else if (length > this.n) {
+                throw new IllegalStateException(String.format("Encountered infinite loop in path from %d to %d", i, j));
+            }
+            j = pred;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the shortest path from i to j into buffer[offset, offset + length)
+     *
+     * @param buffer the array to write into, which must have room for {@link #getPathLength(int, int)} nodes after
+     *               the offset
+     * @return the number of nodes written, which is 0 if i = j or there is no path from i to j
+     */
+    public int getShortestPath(int i, int j, int[] buffer, int offset) {
+        int length = this.getPathLength(i, j);
+        if (offset < 0 || offset + length > buffer.length) {
+            throw new IndexOutOfBoundsException(String.format("A path of %d nodes does not fit in a buffer of " +
+                    "length %d at offset %d", length, buffer.length, offset));
+        }
+        this.writePath(i, j, buffer, offset, length);
+        return length;
+    }
+
+    /**
+     * Fills in the path backwards from j, given that its length is already known
+     */
+    private void writePath(int i, int j, int[] buffer, int offset, int length) {
+        int rowStart = i * this.n;
+        for (int k = offset + length - 1; k >= offset; k--) {
+            buffer[k] = j;
+            j = this.predecessors[rowStart + j];
+        }
+    }
+
+    /**
+     * Reconstructs the shortest paths from sources[q] to targets[q] for every query q in parallel
+     *
+     * @param sources start node of each query
+     * @param targets end node of each query
+     * @return the paths, in the same order as the queries
+     */
+    public PathArena getShortestPaths(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException(String.format("There are %d sources but %d targets", sources.length,
+                    targets.length));
+        }
+        int numQueries = sources.length;
+        int[] offsets = new int[numQueries + 1];
+
+        // first pass: count the length of each path
+        this.pool.invoke(new QueryRangeTask(0, numQueries,
+                q -> offsets[q + 1] = this.getPathLength(sources[q], targets[q])));
+
+        long total = 0;
+        for (int q = 1; q <= numQueries; q++) {
+            total += offsets[q];
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("The paths of the batch have more than 2^31 nodes in total, so "
+                        + "it must be split into smaller batches");
+            }
+            offsets[q] = (int) total;
+        }
+
+        // second pass: each path is written into its own slice of the arena
+        int[] nodes = new int[(int) total];
+        this.pool.invoke(new QueryRangeTask(0, numQueries,
+                q -> this.writePath(sources[q], targets[q], nodes, offsets[q], offsets[q + 1] - offsets[q])));
+        return new PathArena(nodes, offsets);
+    }
+
+    private interface QueryHandler {
+        void handle(int query);
+    }
+
+    /**
+     * Runs the handler on the queries in [from, to), splitting the range in two while it is larger than the grain
+     * size
+     */
+    private static class QueryRangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final QueryHandler handler;
+
+        QueryRangeTask(int from, int to, QueryHandler handler) {
+            this.from = from;
+            this.to = to;
+            this.handler = handler;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= GRAIN_SIZE) {
+                for (int q = this.from; q < this.to; q++) {
+                    this.handler.handle(q);
+                }
+                return;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            invokeAll(new QueryRangeTask(this.from, mid, this.handler),
+                    new QueryRangeTask(mid, this.to, this.handler));
+        }
+    }
+
+    /**
+     * The paths of a batch of queries, stored back to back in a single array. The path of query q is
+     * nodes[offsets[q], offsets[q + 1]).
+     */
+    public static class PathArena {
+        private final int[] nodes;
+        private final int[] offsets;
+
+        PathArena(int[] nodes, int[] offsets) {
+            this.nodes = nodes;
+            this.offsets = offsets;
+        }
+
+        public int getNumberOfPaths() {
+            return this.offsets.length - 1;
+        }
+
+        /**
+         * @return the number of nodes on path q, which is 0 if there was no path
+         */
+        public int getPathLength(int q) {
+            return this.offsets[q + 1] - this.offsets[q];
+        }
+
+        /**
+         * @return the k-th node on path q
+         */
+        public int getNode(int q, int k) {
+            if (k < 0 || k >= this.getPathLength(q)) {
+                throw new IndexOutOfBoundsException(String.format("Node %d is outside path %d of length %d", k, q,
+                        this.getPathLength(q)));
+            }
+            return this.nodes[this.offsets[q] + k];
+        }
+
+        /**
+         * @return the start of path q in {@link #getNodes()}
+         */
+        public int getOffset(int q) {
+            return this.offsets[q];
+        }
+
+        /**
+         * @return the backing array of all the paths, which must not be modified
+         */
+        public int[] getNodes() {
+            return this.nodes;
+        }
+
+        /**
+         * @return path q as a boxed list, in the same format as {@link APSPSolver#getShortestPath(int, int)}
+         */
+        public Optional<List<Integer>> getPath(int q) {
+            int length = this.getPathLength(q);
+            if (length == 0) {
+                return Optional.empty();
+            }
+            List<Integer> path = new ArrayList<>(length);
+            for (int k = this.offsets[q]; k < this.offsets[q + 1]; k++) {
+                path.add(this.nodes[k]);
+            }
+            return Optional.of(path);
+        }
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+
+        BatchPathReconstructor reconstructor = new BatchPathReconstructor(solver);
+        PathArena paths = reconstructor.getShortestPaths(new int[]{0, 0, 3}, new int[]{4, 0, 8});
+        for (int q = 0; q < paths.getNumberOfPaths(); q++) {
+            System.out.println(paths.getPath(q));
+        }
+    }
+}
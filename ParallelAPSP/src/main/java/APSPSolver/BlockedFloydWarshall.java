@@ -0,0 +1,145 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import matrixMultiplication.FloydWarshall;
+import memoryModel.CommunicationChannelException;
+import util.LoggerFormatter;
+import util.Matrix;
+import work.Manager;
+import work.WorkerInstantiationException;
+import work.WorkersFailedToCompleteException;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Solves APSP with the blocked Floyd-Warshall algorithm on a grid of p x p processing elements, see
+ * {@link FloydWarshall}. Compared to {@link MatSquare}, this does O(n^3) instead of O(n^3 log n) work, at the cost of
+ * 2p synchronisation rounds instead of p rounds per squaring.
+ */
+public class BlockedFloydWarshall extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    protected final int p;
+    protected Matrix<Number> distanceMatrix;
+    protected Matrix<Number> predecessorMatrix;
+
+    /**
+     * @param graphReader input graph
+     * @param p the problem will be solved by p x p processing elements. If the graph has fewer than p nodes, the
+     *          grid is shrunk to fit.
+     */
+    public BlockedFloydWarshall(GraphReader graphReader, int p) {
+        super(graphReader);
+        this.p = Math.min(p, this.n);
+    }
+
+    /**
+     * Creates a solver where the number of processing elements matches the problem size
+     * @param graphReader input graph
+     */
+    public BlockedFloydWarshall(GraphReader graphReader) {
+        this(graphReader, graphReader.getNumberOfNodes());
+    }
+
+    protected Map<String, Matrix<Number>> prepareInitialMemory() {
+        Matrix<Number> originalAdjMatrix = this.graph.getAdjacencyMatrix();
+        Matrix<Number> distMatrix = new Matrix<>(this.n);
+        Matrix<Number> predMatrix = new Matrix<>(this.n);
+        for (int i = 0; i < this.n; i++) {
+            for (int j = 0; j < this.n; j++) {
+                distMatrix.set(i, j, i == j ? 0.0 : originalAdjMatrix.get(i, j).doubleValue());
+                // same predecessor convention as MatSquare, where P[i, j] = j means no path has been found
+                predMatrix.set(i, j, this.graph.hasEdge(i, j) ? i : j);
+            }
+        }
+
+        Map<String, Matrix<Number>> initialMemory = new HashMap<>();
+        initialMemory.put("A", distMatrix);
+        initialMemory.put("P", predMatrix);
+        return initialMemory;
+    }
+
+    /**
+     * @return the number of computation phases needed on the p x p grid
+     */
+    protected int getNumberOfPhases() {
+        return 2 * this.p;
+    }
+
+    @Override
+    public void solve() {
+        Manager manager;
+        try {
+            manager = new Manager(this.n, this.p, this.getNumberOfPhases(), this.prepareInitialMemory(),
+                    FloydWarshall.class);
+        } catch (WorkerInstantiationException e) {
+            System.err.println("The solver was not able to complete: ");
+            e.printStackTrace();
+            return;
+        }
+
+        this.manageWork(manager);
+    }
+
+    protected void manageWork(Manager manager) {
+        // unlike repeated squaring, a single run computes the full closure
+        try {
+            manager.doWork();
+        } catch (CommunicationChannelException | WorkersFailedToCompleteException e) {
+            System.err.println("The solver encountered an error during execution: ");
+            e.printStackTrace();
+            return;
+        }
+
+        this.distanceMatrix = manager.getResult("dist");
+        this.predecessorMatrix = manager.getResult("pred", true);
+        LOGGER.log(Level.FINE, "The computed distance matrix is:\n" + this.distanceMatrix);
+        LOGGER.log(Level.FINE, "The computed predecessor matrix is:\n" + this.predecessorMatrix);
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.predecessorMatrix == null) {
+            throw new IllegalStateException("Solve must be called before querying shortest path");
+        }
+        return this.getShortestPathFromPredecessors(this.predecessorMatrix, i, j);
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.predecessorMatrix == null) {
+            throw new IllegalStateException("Solve must be called before querying shortest path");
+        }
+        return getPredecessorFromPredecessors(this.predecessorMatrix, i, j);
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        if (this.distanceMatrix == null) {
+            throw new IllegalStateException("Solve must be called before querying distance between nodes");
+        }
+        return this.distanceMatrix.get(i, j);
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        APSPSolver solver = new BlockedFloydWarshall(graphReader, 3);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 4));
+        System.out.println(solver.getDistanceFrom(0, 4));
+    }
+}
@@ -0,0 +1,432 @@
+package APSPSolver;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.LoggerFormatter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delta-stepping single-source shortest paths (Meyer and Sanders), which parallelises the relaxations within a single
+ * source, for graphs that are too large for one source per thread as in {@link ParallelDijkstra}.
+ *
+ * <p>The tentative distances are kept in buckets of width delta. The smallest non-empty bucket is processed by
+ * repeatedly relaxing the light edges (weight at most delta) of all its nodes in parallel, as these can re-insert
+ * nodes into the same bucket. Once the bucket stays empty, the heavy edges of all the nodes removed from it are
+ * relaxed in parallel. The relaxations update a shared primitive distance array with compare-and-set, and each
+ * fork-join task collects the nodes it improved, which are then placed into their new buckets. A small delta
+ * approaches Dijkstra's algorithm with little parallelism, while a large delta approaches Bellman-Ford with redundant
+ * relaxations.</p>
+ *
+ * <p>The predecessors are not tracked during the relaxations, since the distance and predecessor of a node cannot be
+ * updated together atomically. Instead, they are derived from the final distances afterwards, where any edge (u, v)
+ * with dist[u] + w(u, v) = dist[v] is a valid last edge on a shortest path to v.</p>
+ *
+ * <p>{@link #solveSingleSource(int)} can be used on its own for one-to-all queries, and {@link #solve()} runs it for
+ * every source to solve APSP.</p>
+ */
+public class DeltaStepping extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // frontiers smaller than this are relaxed in the calling thread
+    private static final int GRAIN_SIZE = 256;
+
+    private final double delta;
+    private final ForkJoinPool pool;
+
+    // CSR adjacency where the light edges of each node are stored before its heavy edges
+    private final int[] rowOffsets;
+    private final int[] lightEnd;
+    private final int[] targets;
+    private final double[] weights;
+
+    private double[][] distances;
+    private int[][] predecessors;
+
+    /**
+     * @param graphReader input graph, which must not have negative edge weights
+     * @param delta the bucket width
+     * @param pool the fork-join pool the relaxations are run in
+     */
+    public DeltaStepping(GraphReader graphReader, double delta, ForkJoinPool pool) {
+        super(graphReader);
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("The bucket width must be positive, but was " + delta);
+        }
+        this.delta = delta;
+        this.pool = pool;
+
+        // partition the edges of each row into light and heavy edges
+        CSRGraph csrGraph = new CSRGraph(graphReader);
+        this.rowOffsets = new int[this.n + 1];
+        this.lightEnd = new int[this.n];
+        this.targets = new int[csrGraph.getNumberOfEntries()];
+        this.weights = new double[csrGraph.getNumberOfEntries()];
+        for (int u = 0; u < this.n; u++) {
+            int start = csrGraph.getRowStart(u);
+            int end = csrGraph.getRowEnd(u);
+            int light = start;
+            int heavy = end;
+            for (int pos = start; pos < end; pos++) {
+                double w = csrGraph.getWeight(pos);
+                if (w < 0) {
+                    throw new IllegalArgumentException("Delta-stepping does not support negative edge weights");
+                }
+                int dest = w <= delta ? light++ : --heavy;
+                this.targets[dest] = csrGraph.getTarget(pos);
+                this.weights[dest] = w;
+            }
+            this.rowOffsets[u + 1] = end;
+            this.lightEnd[u] = light;
+        }
+    }
+
+    public DeltaStepping(GraphReader graphReader, double delta) {
+        this(graphReader, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver where delta is the average edge weight
+     */
+    public DeltaStepping(GraphReader graphReader) {
+        this(graphReader, getDefaultDelta(graphReader));
+    }
+
+    /**
+     * @return the average edge weight of the graph, or 1 if it has no positive weights
+     */
+    public static double getDefaultDelta(GraphReader graphReader) {
+        double average = graphReader.getEdges().stream().mapToDouble(e -> e.z()).average().orElse(1.0);
+        return average > 0 ? average : 1.0;
+    }
+
+    public double getDelta() {
+        return this.delta;
+    }
+
+    /**
+     * The shortest distances and predecessors from a single source node
+     */
+    public static class SingleSourceResult {
+        private final int source;
+        private final double[] distances;
+        private final int[] predecessors;
+
+        private SingleSourceResult(int source, double[] distances, int[] predecessors) {
+            this.source = source;
+            this.distances = distances;
+            this.predecessors = predecessors;
+        }
+
+        public int getSource() {
+            return this.source;
+        }
+
+        public double getDistance(int j) {
+            return this.distances[j];
+        }
+
+        /**
+         * @return the node before j on a shortest path from the source, the source itself if j is the source, or -1
+         * if j cannot be reached
+         */
+        public int getPredecessor(int j) {
+            return this.predecessors[j];
+        }
+
+        public Optional<List<Integer>> getShortestPath(int j) {
+            return DeltaStepping.getShortestPath(this.source, j, this.predecessors);
+        }
+    }
+
+    /**
+     * Computes the shortest paths from the source to all other nodes
+     *
+     * @param source ID of the source node
+     * @return the distances and predecessors
+     */
+    public SingleSourceResult solveSingleSource(int source) {
+        if (source < 0 || source >= this.n) {
+            throw new IllegalArgumentException("The source " + source + " is not a node in the graph");
+        }
+        double[] distance = new double[this.n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0.0;
+
+        // the bucket round in which each node was last taken out of a bucket, used to skip duplicate entries
+        int[] lastProcessedBucket = new int[this.n];
+        int[] lastSettledBucket = new int[this.n];
+        Arrays.fill(lastProcessedBucket, -1);
+        Arrays.fill(lastSettledBucket, -1);
+
+        int round = 0;
+        TreeMap<Long, IntBuffer> buckets = new TreeMap<>();
+        buckets.computeIfAbsent(0L, b -> new IntBuffer()).add(source);
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntBuffer> firstBucket = buckets.pollFirstEntry();
+            long bucketIndex = firstBucket.getKey();
+            int stamp = round++;
+            IntBuffer settled = new IntBuffer();
+            IntBuffer entries = firstBucket.getValue();
+
+            // relax the light edges until no more nodes are placed in this bucket
+            while (entries != null) {
+                IntBuffer frontier = new IntBuffer();
+                for (int k = 0; k < entries.size; k++) {
+                    int v = entries.elements[k];
+                    // the node might have moved to a lower bucket since it was added, or be a duplicate
+                    if (getBucket(distance[v]) != bucketIndex || lastProcessedBucket[v] == stamp) {
+                        continue;
+                    }
+                    lastProcessedBucket[v] = stamp;
+                    frontier.add(v);
+                    if (lastSettledBucket[v] != stamp) {
+                        lastSettledBucket[v] = stamp;
+                        settled.add(v);
+                    }
+                }
+                relaxAll(frontier, distance, true, buckets);
+                entries = buckets.remove(bucketIndex);
+                // nodes that were improved again within this bucket must be relaxed again
+                if (entries != null) {
+                    for (int k = 0; k < entries.size; k++) {
+                        lastProcessedBucket[entries.elements[k]] = -1;
+                    }
+                }
+            }
+            // the heavy edges always lead to later buckets, so they only need to be relaxed once
+            relaxAll(settled, distance, false, buckets);
+        }
+
+        return new SingleSourceResult(source, distance, findPredecessors(source, distance));
+    }
+
+    private long getBucket(double distance) {
+        return (long) (distance / this.delta);
+    }
+
+    /**
+     * Relaxes the light or heavy edges of all the nodes in the frontier, in parallel if the frontier is large, and
+     * adds the improved nodes to their new buckets
+     */
+    private void relaxAll(IntBuffer frontier, double[] distance, boolean light, TreeMap<Long, IntBuffer> buckets) {
+        if (frontier.size == 0) {
+            return;
+        }
+        ConcurrentLinkedQueue<IntBuffer> improved = new ConcurrentLinkedQueue<>();
+        RelaxTask task = new RelaxTask(frontier.elements, 0, frontier.size, distance, light, improved);
+        if (frontier.size <= GRAIN_SIZE) {
+            task.compute();
+        } else {
+            this.pool.invoke(task);
+        }
+        // the tasks have finished, so the final distances of the improved nodes decide their buckets
+        for (IntBuffer nodes : improved) {
+            for (int k = 0; k < nodes.size; k++) {
+                int v = nodes.elements[k];
+                buckets.computeIfAbsent(getBucket(distance[v]), b -> new IntBuffer()).add(v);
+            }
+        }
+    }
+
+    private class RelaxTask extends RecursiveAction {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final double[] distance;
+        private final boolean light;
+        private final ConcurrentLinkedQueue<IntBuffer> improved;
+
+        RelaxTask(int[] frontier, int from, int to, double[] distance, boolean light,
+                  ConcurrentLinkedQueue<IntBuffer> improved) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.distance = distance;
+            this.light = light;
+            this.improved = improved;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > GRAIN_SIZE) {
+                int mid = (this.from + this.to) / 2;
+                invokeAll(new RelaxTask(this.frontier, this.from, mid, this.distance, this.light, this.improved),
+                        new RelaxTask(this.frontier, mid, this.to, this.distance, this.light, this.improved));
+                return;
+            }
+            IntBuffer improvedNodes = new IntBuffer();
+            for (int k = this.from; k < this.to; k++) {
+                int u = this.frontier[k];
+                double distU = (double) DISTANCE.getVolatile(this.distance, u);
+                int start = this.light ? rowOffsets[u] : lightEnd[u];
+                int end = this.light ? lightEnd[u] : rowOffsets[u + 1];
+                for (int pos = start; pos < end; pos++) {
+                    int v = targets[pos];
+                    double newDist = distU + weights[pos];
+                    // retry until the distance is lowered, or another thread has lowered it even further
+                    double oldDist = (double) DISTANCE.getVolatile(this.distance, v);
+                    while (newDist < oldDist) {
+                        if (DISTANCE.compareAndSet(this.distance, v, oldDist, newDist)) {
+                            improvedNodes.add(v);
+                            break;
+                        }
+                        oldDist = (double) DISTANCE.getVolatile(this.distance, v);
+                    }
+                }
+            }
+            if (improvedNodes.size > 0) {
+                this.improved.add(improvedNodes);
+            }
+        }
+    }
+
+    /**
+     * Chooses a predecessor for each reachable node from the final distances. A predecessor with a strictly smaller
+     * distance is used where possible, as these can never form cycles. The remaining nodes, which are only reached
+     * through zero-weight edges or edges that are too light to change the distance, are then attached by a search
+     * from the source along the edges that are tight.
+     */
+    private int[] findPredecessors(int source, double[] distance) {
+        int[] pred = new int[this.n];
+        Arrays.fill(pred, -1);
+        pred[source] = source;
+        for (int u = 0; u < this.n; u++) {
+            if (distance[u] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            for (int pos = this.rowOffsets[u]; pos < this.rowOffsets[u + 1]; pos++) {
+                int v = this.targets[pos];
+                if (v != source && pred[v] == -1 && distance[u] < distance[v]
+                        && distance[u] + this.weights[pos] == distance[v]) {
+                    pred[v] = u;
+                }
+            }
+        }
+
+        boolean allAttached = true;
+        for (int v = 0; v < this.n; v++) {
+            if (pred[v] == -1 && distance[v] != Double.POSITIVE_INFINITY) {
+                allAttached = false;
+                break;
+            }
+        }
+        if (allAttached) {
+            return pred;
+        }
+        // redo the remaining nodes with a search over tight edges, which visits every node before its successors
+        Arrays.fill(pred, -1);
+        pred[source] = source;
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int pos = this.rowOffsets[u]; pos < this.rowOffsets[u + 1]; pos++) {
+                int v = this.targets[pos];
+                if (pred[v] == -1 && distance[u] + this.weights[pos] == distance[v]) {
+                    pred[v] = u;
+                    queue.add(v);
+                }
+            }
+        }
+        return pred;
+    }
+
+    @Override
+    public void solve() {
+        LOGGER.info("DeltaStepping: Solving " + this.n + " sources with delta=" + this.delta + " and parallelism "
+                + this.pool.getParallelism());
+        this.distances = new double[this.n][];
+        this.predecessors = new int[this.n][];
+        for (int source = 0; source < this.n; source++) {
+            SingleSourceResult result = this.solveSingleSource(source);
+            this.distances[source] = result.distances;
+            this.predecessors[source] = result.predecessors;
+        }
+    }
+
+    private static Optional<List<Integer>> getShortestPath(int i, int j, int[] preds) {
+        if (preds[j] == -1 || i == j) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            if (preds[j] == j) {
+                throw new IllegalStateException(String.format("The predecessor list should not have self-references: Pred(%d, %d)=%d", i, j, j));
+            }
+            path.addFirst(j);
+            j = preds[j];
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return getShortestPath(i, j, this.predecessors[i]);
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return this.predecessors[i][j];
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        if (this.distances == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths length");
+        }
+        return this.distances[i][j];
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private static class IntBuffer {
+        private int[] elements = new int[16];
+        private int size;
+
+        void add(int element) {
+            if (this.size == this.elements.length) {
+                this.elements = Arrays.copyOf(this.elements, 2 * this.size);
+            }
+            this.elements[this.size++] = element;
+        }
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        DeltaStepping deltaStepping = new DeltaStepping(graphReader);
+        SingleSourceResult result = deltaStepping.solveSingleSource(0);
+
+        System.out.println("Delta: " + deltaStepping.getDelta());
+        System.out.println(result.getShortestPath(42));
+        System.out.println(result.getDistance(42));
+    }
+}
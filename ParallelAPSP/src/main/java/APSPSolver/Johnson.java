@@ -0,0 +1,157 @@
+package APSPSolver;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Johnson's algorithm, which solves APSP on sparse graphs that may have negative edge weights in O(nm log n) time,
+ * instead of the dense O(n^3 log n) work done by {@link MatSquare}:
+ * <ol>
+ *     <li>Bellman-Ford is run from a virtual node with a zero-weight edge to every node, giving potentials h such
+ *     that h[v] <= h[u] + w(u, v) for every edge. If the graph has a negative cycle, the potentials never converge,
+ *     and a {@link NegativeCycleException} is thrown instead.</li>
+ *     <li>Every edge is reweighted to w'(u, v) = w(u, v) + h[u] - h[v] >= 0, which changes the length of every path
+ *     from i to j by the same amount h[i] - h[j], so the shortest paths are preserved.</li>
+ *     <li>Dijkstra is run from every source in parallel on the reweighted graph, see {@link ParallelDijkstra}, and
+ *     the distances are converted back with d(i, j) = d'(i, j) - h[i] + h[j].</li>
+ * </ol>
+ * If no edge weight is negative, the potentials are all zero, so the Bellman-Ford pass is skipped.
+ */
+public class Johnson extends ParallelDijkstra {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private CSRGraph reweightedGraph;
+
+    public Johnson(GraphReader graphReader, ForkJoinPool pool) {
+        super(graphReader, pool);
+    }
+
+    public Johnson(GraphReader graphReader) {
+        super(graphReader);
+    }
+
+    @Override
+    protected CSRGraph createSearchGraph() {
+        return this.reweightedGraph;
+    }
+
+    /**
+     * @throws NegativeCycleException if the graph has a cycle of negative total weight
+     */
+    @Override
+    public void solve() {
+        CSRGraph csrGraph = new CSRGraph(this.graph);
+        double[] potentials = computePotentials(csrGraph);
+
+        double[] reweighted = new double[csrGraph.getNumberOfEntries()];
+        for (int u = 0; u < this.n; u++) {
+            for (int pos = csrGraph.getRowStart(u); pos < csrGraph.getRowEnd(u); pos++) {
+                // rounding errors may make tight edges slightly negative
+                double w = csrGraph.getWeight(pos) + potentials[u] - potentials[csrGraph.getTarget(pos)];
+                reweighted[pos] = Math.max(0.0, w);
+            }
+        }
+        this.reweightedGraph = csrGraph.withWeights(reweighted);
+
+        super.solve();
+
+        // undo the reweighting
+        for (int i = 0; i < this.n; i++) {
+            double[] row = this.distances[i];
+            for (int j = 0; j < this.n; j++) {
+                if (row[j] != Double.POSITIVE_INFINITY) {
+                    row[j] = row[j] - potentials[i] + potentials[j];
+                }
+            }
+        }
+        this.reweightedGraph = null;
+    }
+
+    /**
+     * Runs Bellman-Ford from a virtual node connected to every node with weight 0, stopping early once a round does
+     * not improve any distance. All the shortest paths from the virtual node have at most n - 1 edges after the
+     * first, so if round n still improves a distance, the graph has a negative cycle.
+     *
+     * @return the shortest distance from the virtual node to each node, which is at most 0
+     */
+    private double[] computePotentials(CSRGraph csrGraph) {
+        double[] potentials = new double[this.n];
+        boolean hasNegativeWeights = false;
+        for (int pos = 0; pos < csrGraph.getNumberOfEntries(); pos++) {
+            hasNegativeWeights |= csrGraph.getWeight(pos) < 0;
+        }
+        if (!hasNegativeWeights) {
+            return potentials;
+        }
+
+        int[] parent = new int[this.n];
+        Arrays.fill(parent, -1);
+        for (int round = 1; round <= this.n; round++) {
+            int lastImproved = -1;
+            for (int u = 0; u < this.n; u++) {
+                for (int pos = csrGraph.getRowStart(u); pos < csrGraph.getRowEnd(u); pos++) {
+                    int v = csrGraph.getTarget(pos);
+                    double newPotential = potentials[u] + csrGraph.getWeight(pos);
+                    if (newPotential < potentials[v]) {
+                        potentials[v] = newPotential;
+                        parent[v] = u;
+                        lastImproved = v;
+                    }
+                }
+            }
+            if (lastImproved == -1) {
+                LOGGER.fine("Johnson: The potentials converged after " + round + " Bellman-Ford rounds");
+                return potentials;
+            }
+            if (round == this.n) {
+                List<Integer> cycle = findCycle(parent, lastImproved);
+                throw new NegativeCycleException("The graph has a negative cycle: " + cycle, cycle);
+            }
+        }
+        return potentials;
+    }
+
+    /**
+     * Follows the parent pointers from a node that was improved in round n. After n steps, we are guaranteed to be on
+     * the negative cycle, which is then traced out.
+     */
+    private List<Integer> findCycle(int[] parent, int start) {
+        int v = start;
+        for (int k = 0; k < this.n; k++) {
+            v = parent[v];
+        }
+        Deque<Integer> cycle = new LinkedList<>();
+        int u = v;
+        do {
+            cycle.addFirst(u);
+            u = parent[u];
+        } while (u != v);
+        cycle.addFirst(v);
+        return new ArrayList<>(cycle);
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader = new GraphReader(Arrays.asList(
+                new Triple<>(0, 1, 4.0),
+                new Triple<>(0, 2, 1.0),
+                new Triple<>(2, 1, -2.0),
+                new Triple<>(1, 3, 1.0),
+                new Triple<>(3, 2, 3.0)), true);
+
+        APSPSolver solver = new Johnson(graphReader);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 3));
+        System.out.println(solver.getDistanceFrom(0, 3));
+    }
+}
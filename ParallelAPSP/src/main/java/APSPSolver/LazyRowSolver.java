@@ -0,0 +1,289 @@
+package APSPSolver;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.IndexedDaryHeap;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * APSP solver for consumers that only query a small subset of the sources. Instead of solving all n single-source
+ * problems up front, {@link #solve()} only prepares the graph, and the row of a source is solved with Dijkstra the
+ * first time it is queried:
+ * <ul>
+ *     <li>The solved rows are kept as primitive arrays in an LRU cache, whose capacity is given in bytes, so at most
+ *     a bounded number of rows are in memory at once. The least recently queried row is evicted when the cache is
+ *     full, and solved again if it is queried later.</li>
+ *     <li>The solver is thread-safe. If several threads query a source that is not cached at the same time, only one
+ *     of them solves it, and the others wait for its result instead of duplicating the work.</li>
+ *     <li>The number of cache hits, misses, evictions and deduplicated queries are counted, so the capacity can be
+ *     tuned to the access pattern.</li>
+ * </ul>
+ * The same predecessor convention as in {@link ParallelDijkstra} is used.
+ */
+public class LazyRowSolver extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+    // object headers of the two arrays and the row
+    private static final long ROW_OVERHEAD_BYTES = 48;
+
+    private final long maxCacheBytes;
+    private final int maxCachedRows;
+    private final int heapArity;
+
+    private CSRGraph csrGraph;
+    private ThreadLocal<IndexedDaryHeap> heaps;
+    // access-ordered, so the eldest entry is the least recently used
+    private LinkedHashMap<Integer, Row> cache;
+    private final Map<Integer, CompletableFuture<Row>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * @param graphReader input graph, which must not have negative edge weights
+     * @param maxCacheBytes the maximum size of the cached rows in bytes. At least one row is always cached.
+     * @param heapArity the number of children of each node in the priority queue
+     */
+    public LazyRowSolver(GraphReader graphReader, long maxCacheBytes, int heapArity) {
+        super(graphReader);
+        if (maxCacheBytes < 0) {
+            throw new IllegalArgumentException("The cache size must be non-negative, but was " + maxCacheBytes);
+        }
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxCachedRows = (int) Math.max(1, Math.min(this.n, maxCacheBytes / getRowBytes(this.n)));
+        this.heapArity = heapArity;
+    }
+
+    public LazyRowSolver(GraphReader graphReader, long maxCacheBytes) {
+        this(graphReader, maxCacheBytes, ParallelDijkstra.DEFAULT_HEAP_ARITY);
+    }
+
+    public LazyRowSolver(GraphReader graphReader) {
+        this(graphReader, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * @return the number of bytes used by a cached row of a graph with n nodes
+     */
+    public static long getRowBytes(int n) {
+        return (long) n * (Double.BYTES + Integer.BYTES) + ROW_OVERHEAD_BYTES;
+    }
+
+    /**
+     * The distances and predecessors from a single source
+     */
+    private static class Row {
+        final double[] distances;
+        final int[] predecessors;
+
+        Row(double[] distances, int[] predecessors) {
+            this.distances = distances;
+            this.predecessors = predecessors;
+        }
+    }
+
+    /**
+     * Prepares the graph and clears the cache. No rows are solved until they are queried.
+     */
+    @Override
+    public void solve() {
+        this.csrGraph = new CSRGraph(this.graph);
+        this.heaps = ThreadLocal.withInitial(() -> new IndexedDaryHeap(this.n, this.heapArity));
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Row> eldest) {
+                if (this.size() > LazyRowSolver.this.maxCachedRows) {
+                    LazyRowSolver.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        LOGGER.info(String.format("LazyRowSolver: Caching at most %d of %d rows in %d MiB", this.maxCachedRows,
+                this.n, this.maxCacheBytes >> 20));
+    }
+
+    private Row getRow(int source) {
+        if (this.cache == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        Row row;
+        synchronized (this.cache) {
+            row = this.cache.get(source);
+        }
+        if (row != null) {
+            this.hits.increment();
+            return row;
+        }
+
+        // make sure only one thread solves the source, and let the others wait for it
+        CompletableFuture<Row> future = new CompletableFuture<>();
+        CompletableFuture<Row> existing = this.inFlight.putIfAbsent(source, future);
+        if (existing != null) {
+            this.deduplicated.increment();
+            return existing.join();
+        }
+        try {
+            // another thread may have cached the row after we checked the cache
+            synchronized (this.cache) {
+                row = this.cache.get(source);
+            }
+            if (row != null) {
+                this.hits.increment();
+            } else {
+                this.misses.increment();
+                row = this.solveFromSource(source);
+                synchronized (this.cache) {
+                    this.cache.put(source, row);
+                }
+            }
+            future.complete(row);
+            return row;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            // the row is cached before it is removed from here, so no thread solves it twice
+            this.inFlight.remove(source, future);
+        }
+    }
+
+    private Row solveFromSource(int source) {
+        IndexedDaryHeap heap = this.heaps.get();
+        double[] distance = new double[this.n];
+        int[] prev = new int[this.n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, -1);
+        distance[source] = 0.0;
+        prev[source] = source;
+
+        heap.clear();
+        heap.insertOrDecreaseKey(source, 0.0);
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            double curDist = distance[cur];
+            for (int pos = this.csrGraph.getRowStart(cur), end = this.csrGraph.getRowEnd(cur); pos < end; pos++) {
+                int next = this.csrGraph.getTarget(pos);
+                double newDist = curDist + this.csrGraph.getWeight(pos);
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    prev[next] = cur;
+                    heap.insertOrDecreaseKey(next, newDist);
+                }
+            }
+        }
+        return new Row(distance, prev);
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        int[] preds = this.getRow(i).predecessors;
+
+        if (preds[j] == -1 || i == j) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            if (preds[j] == j) {
+                throw new IllegalStateException(String.format("The predecessor list should not have self-references: Pred(%d, %d)=%d", i, j, j));
+            }
+            path.addFirst(j);
+            j = preds[j];
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        return this.getRow(i).predecessors[j];
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        return this.getRow(i).distances[j];
+    }
+
+    /**
+     * @return the maximum number of rows kept in the cache
+     */
+    public int getMaxCachedRows() {
+        return this.maxCachedRows;
+    }
+
+    public int getNumberOfCachedRows() {
+        if (this.cache == null) {
+            return 0;
+        }
+        synchronized (this.cache) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * @return the number of queries whose row was already cached
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of rows solved, which is the number of queries whose row was neither cached nor being solved
+     * by another thread
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of rows removed from the cache to make room for others
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of queries that waited for another thread to solve their row, instead of solving it again
+     */
+    public long getDeduplicatedQueries() {
+        return this.deduplicated.sum();
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/2000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        // room for 100 of the 2000 rows
+        LazyRowSolver solver = new LazyRowSolver(graphReader, 100 * getRowBytes(graphReader.getNumberOfNodes()));
+        solver.solve();
+
+        Random random = new Random(42);
+        for (int q = 0; q < 10000; q++) {
+            // most queries go to a few popular sources
+            int source = random.nextInt(10) < 9 ? random.nextInt(50) : random.nextInt(2000);
+            solver.getDistanceFrom(source, random.nextInt(2000));
+        }
+        System.out.println(String.format("hits=%d, misses=%d, evictions=%d", solver.getHits(), solver.getMisses(),
+                solver.getEvictions()));
+    }
+}
@@ -1,17 +1,28 @@
 package APSPSolver;
 
+import graphReader.CSRGraph;
 import graphReader.GraphReader;
+import javafx.util.Pair;
+import matrixMultiplication.BroadcastMinPlusProduct;
+import matrixMultiplication.DistanceOnlyFoxOtto;
+import matrixMultiplication.FloatFoxOtto;
 import matrixMultiplication.FoxOtto;
+import matrixMultiplication.IntegerFoxOtto;
 import matrixMultiplication.MinPlusProduct;
 import memoryModel.CommunicationChannelException;
+import util.IndexedDaryHeap;
 import util.LoggerFormatter;
 import util.Matrix;
+import util.Triple;
 import work.Manager;
 import work.WorkerInstantiationException;
 import work.WorkersFailedToCompleteException;
 
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,11 +30,25 @@ public class MatSquare extends APSPSolver {
 
     private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
 
+    // number of sources used to estimate the number of edges on the shortest paths
+    private static final int HOP_ESTIMATE_SAMPLES = 8;
+    private static final long HOP_ESTIMATE_SEED = 42;
+
     protected final int n;
     protected final int p;
+    protected final int q;
     protected final Class<? extends MinPlusProduct> minPlusProductImplementation;
     protected Matrix<Number> distanceMatrix;
     protected Matrix<Number> predecessorMatrix;
+    private long privateMemorySizeInBytes;
+    private int numberOfSquarings;
+    // used to reconstruct paths when the predecessor matrix is not computed. It is replaced rather than modified
+    private volatile List<List<Pair<Integer, Double>>> incomingEdges;
+    // the original graph and a buffer for one row of the distance matrix, used by isClosed
+    private CSRGraph closureGraph;
+    private double[] closureRow;
+    // the graph after the changes made with updateEdge, or null if there have been none since the last solve
+    private CSRGraph updatedGraph;
 
     /**
      * Creates a MatSquare solver, where p x p processing elements are used
@@ -34,16 +59,65 @@ public class MatSquare extends APSPSolver {
      */
     public MatSquare(GraphReader graphReader, int p,
                      Class<? extends MinPlusProduct> minPlusProductImplementation) {
+        this(graphReader, p, p, minPlusProductImplementation);
+    }
+
+    /**
+     * Creates a MatSquare solver, where a rectangular grid of p x q processing elements is used. If the problem size
+     * is not divisible by p or q, the last rows and columns of processing elements handle smaller blocks, so the
+     * graph is not padded with dummy nodes. If the graph has fewer than p (or q) nodes, the grid is shrunk to fit. Note that {@link matrixMultiplication.GeneralisedFoxOtto} requires
+     * p = q, so {@link BroadcastMinPlusProduct} should be used for rectangular grids.
+     *
+     * @param graphReader input graph
+     * @param p number of rows of processing elements
+     * @param q number of columns of processing elements
+     * @param minPlusProductImplementation procedure to perform the distance product and predecessor matrix computation
+     */
+    public MatSquare(GraphReader graphReader, int p, int q,
+                     Class<? extends MinPlusProduct> minPlusProductImplementation) {
         super(graphReader);
-        this.p = p;
-        // problem size can be distributed nicely
-        if (super.n % p == 0) {
-            this.n = super.n;
-        } else {
-            // add a few extra nodes, but no more than p new nodes
-            this.n = super.n + (p - super.n % p);
+        this.n = super.n;
+        // every processing element needs at least one row and column, so small graphs use a smaller grid
+        if (p > this.n || q > this.n) {
+            LOGGER.info(String.format("The graph has only %d nodes, so the %d x %d grid of processing elements is " +
+                    "shrunk to fit the problem", this.n, p, q));
         }
+        this.p = Math.min(p, this.n);
+        this.q = Math.min(q, this.n);
         this.minPlusProductImplementation = minPlusProductImplementation;
+
+        if (this.usesIntegerWeights() && !graphReader.hasIntegerWeights()) {
+            throw new IllegalArgumentException("The min-plus product " + minPlusProductImplementation.getSimpleName()
+                    + " requires integer edge weights, but the graph has non-integer weights");
+        }
+        if (this.usesIntegerWeights() && !graphReader.hasIntegerDistances()) {
+            throw new IllegalArgumentException("The min-plus product " + minPlusProductImplementation.getSimpleName()
+                    + " saturates at Integer.MAX_VALUE, which the shortest distances of this graph may reach");
+        }
+    }
+
+    /**
+     * @return true if the min-plus product works on Integers, in which case the distances are stored as ints in the
+     * private memories and Integer.MAX_VALUE represents infinity
+     */
+    protected boolean usesIntegerWeights() {
+        return IntegerFoxOtto.class.isAssignableFrom(this.minPlusProductImplementation);
+    }
+
+    /**
+     * @return true if the min-plus product works on single precision Floats, in which case the computed distances
+     * are within a relative error of {@link FloatFoxOtto#getRelativeErrorBound(int)} of the exact distances
+     */
+    protected boolean usesFloatWeights() {
+        return FloatFoxOtto.class.isAssignableFrom(this.minPlusProductImplementation);
+    }
+
+    /**
+     * @return false if the min-plus product only computes distances, in which case no predecessor matrix is sent
+     * between the processing elements, and shortest paths are reconstructed from the distance matrix instead
+     */
+    protected boolean computesPredecessors() {
+        return !DistanceOnlyFoxOtto.class.isAssignableFrom(this.minPlusProductImplementation);
     }
 
     /**
@@ -59,7 +133,9 @@ public class MatSquare extends APSPSolver {
     protected Map<String, Matrix<Number>> prepareInitialMemory() {
         Map<String, Matrix<Number>> initialMemory = new HashMap<>();
 
-        Matrix<Number> originalAdjMatrix = this.graph.getAdjacencyMatrix();
+        Matrix<Number> originalAdjMatrix = this.usesIntegerWeights()
+                ? this.graph.getIntegerAdjacencyMatrix()
+                : this.graph.getAdjacencyMatrix();
         // The entry D[i, j] contains the weight of edge (i, j), defaulting to \infty if there is no such edge
         Matrix<Number> distMatrix = new Matrix<>(this.n);
         // The entry P[i, j] contains the predecessor of j in the shortest path i -~-> j, defaulting to value j
@@ -72,12 +148,12 @@ public class MatSquare extends APSPSolver {
                     distMatrix.set(i, j, 0);
                 }
                 // from original adjacency matrix
-                else if (i < super.n && j < super.n) {
+                else {
                     distMatrix.set(i, j, originalAdjMatrix.get(i, j));
                 }
-                // dummy node
-                else {
-                    distMatrix.set(i, j, Double.POSITIVE_INFINITY);
+                // round the weights to single precision
+                if (this.usesFloatWeights()) {
+                    distMatrix.set(i, j, distMatrix.get(i, j).floatValue());
                 }
 
                 // setup the predecessor matrix as well
@@ -92,7 +168,9 @@ public class MatSquare extends APSPSolver {
         // We want to square the weight matrix, so input it as both "A" and "B"
         initialMemory.put("A", distMatrix);
         initialMemory.put("B", distMatrix);
-        initialMemory.put("P", predMatrix);
+        if (this.computesPredecessors()) {
+            initialMemory.put("P", predMatrix);
+        }
 
         // log initial conditions
         LOGGER.fine("Distance matrix before start:\n" + distMatrix);
@@ -110,7 +188,8 @@ public class MatSquare extends APSPSolver {
         // create the manager
         Manager manager;
         try {
-            manager = new Manager(this.n, this.p, this.p, initialMemory, this.minPlusProductImplementation);
+            manager = new Manager(this.n, this.p, this.q, this.getNumberOfPhases(), initialMemory,
+                    this.minPlusProductImplementation);
         } catch (WorkerInstantiationException e) {
             System.err.println("The solver was not able to complete: ");
             e.printStackTrace();
@@ -120,16 +199,73 @@ public class MatSquare extends APSPSolver {
         this.manageWork(manager);
     }
 
+    /**
+     * @return a manager with empty private memories, which can solve any graph with the same number of nodes as this
+     * one, using the same grid and min-plus product
+     */
+    Manager createManager() throws WorkerInstantiationException {
+        return new Manager(this.n, this.p, this.q, this.getNumberOfPhases(), null, this.minPlusProductImplementation);
+    }
+
+    /**
+     * Solves the graph with a manager from {@link #createManager()}, possibly of another solver, instead of creating a
+     * new one. The private memories are cleared and overwritten with the input, so they can be reused by the next
+     * graph.
+     */
+    void solve(Manager manager) {
+        manager.clearPrivateMemory();
+        manager.setPrivateMemory(this.prepareInitialMemory());
+        this.manageWork(manager);
+    }
+
+    /**
+     * Solves a graph with at most one node without a manager. No squarings are needed, as the only distance is 0 from
+     * the node to itself, and the processing element grid would be empty for a graph without nodes.
+     */
+    void solveTrivially() {
+        if (this.n > 1) {
+            throw new IllegalStateException("Only graphs with at most one node can be solved without squaring, but "
+                    + "the graph has " + this.n + " nodes");
+        }
+        this.distanceMatrix = new Matrix<>(this.n, () -> this.toStoredDistance(0.0));
+        this.predecessorMatrix = this.computesPredecessors() ? new Matrix<>(this.n, () -> 0) : null;
+        this.numberOfSquarings = 0;
+        this.updatedGraph = null;
+        this.incomingEdges = this.predecessorMatrix == null ? this.findIncomingEdges() : null;
+    }
+
+    /**
+     * @return the number of computation phases needed for one min-plus product on the p x q grid. This is p for
+     * square grids and the number of common panels of the row and column distributions otherwise.
+     */
+    protected int getNumberOfPhases() {
+        return BroadcastMinPlusProduct.getNumberOfPhases(this.p, this.q, this.n);
+    }
+
+    /**
+     * Squares the distance matrix until it contains all the shortest paths. After k squarings, all shortest paths with
+     * at most 2^k edges have been found, so ceil(log2 n) squarings always suffice. However, the shortest paths often
+     * have far fewer edges, so the number of edges h is first estimated with {@link #estimateHopDiameter}, and only
+     * ceil(log2 h) squarings are done. The result is then verified with {@link #isClosed(Matrix)}, and while it fails,
+     * another squaring is done, up to the ceil(log2 n) limit.
+     */
     protected void manageWork(Manager manager) {
         // we store our results here
         Matrix<Number> distMatrix = null;
         Matrix<Number> predMatrix = null;
 
         // repeatedly square the distance- and predecessor matrix with min-plus product
-        int numIterations = (int) Math.ceil(Math.log(this.n) / Math.log(2));
-        LOGGER.info("The graph size is " + this.n + " so " + numIterations + " MinPlusProduct iterations are required.");
-        for (int i = 0; i < numIterations; i++) {
-            LOGGER.info("Starting Manager to square the matrix (iteration " + i + " / " + numIterations + ")");
+        int maxIterations = (int) Math.ceil(Math.log(this.n) / Math.log(2));
+        int hopDiameter = estimateHopDiameter(this.graph, HOP_ESTIMATE_SAMPLES, HOP_ESTIMATE_SEED);
+        int numIterations = Math.min(maxIterations, Math.max(1, (int) Math.ceil(Math.log(hopDiameter) / Math.log(2))));
+        LOGGER.info("The graph size is " + this.n + " and the shortest paths have an estimated " + hopDiameter
+                + " edges, so " + numIterations + " of at most " + maxIterations
+                + " MinPlusProduct iterations are planned.");
+        this.numberOfSquarings = 0;
+        for (int i = 0; i < maxIterations; i++) {
+            // i is counted from 0, and the iterations after the planned ones are the extra squarings
+            LOGGER.info("Starting Manager to square the matrix (iteration " + i + " / " + maxIterations
+                    + (i < numIterations ? "" : ", extra squaring") + ")");
             // run the algorithm
             try {
                 manager.doWork();
@@ -138,48 +274,477 @@ public class MatSquare extends APSPSolver {
                 e.printStackTrace();
                 return;
             }
+            this.numberOfSquarings++;
 
-            // Read output after final iteration
-            if (i == numIterations - 1) {
-                distMatrix = manager.getResult("dist");
+            // Read output once the planned iterations are done, and stop if it holds all the shortest paths
+            if (i >= numIterations - 1) {
+                distMatrix = manager.getResult("dist", this.usesIntegerWeights());
                 LOGGER.fine("Distance matrix at iteration " + i + " is:\n" + distMatrix);
-                predMatrix = manager.getResult("pred", true);
-                LOGGER.fine("Pred matrix are iteration " + i + " is:\n" + predMatrix);
+                if (i < maxIterations - 1 && !this.isClosed(distMatrix)) {
+                    LOGGER.info("The hop diameter was underestimated, so another iteration is required");
+                    continue;
+                }
+                if (this.computesPredecessors()) {
+                    predMatrix = manager.getResult("pred", true);
+                    LOGGER.fine("Pred matrix are iteration " + i + " is:\n" + predMatrix);
+                }
+                break;
             }
             // This statement is not required because at the end of FoxOtto, the memory will already
             //   be in the correct positions for the next execution of FoxOtto
 //            manager.setPrivateMemory(Map.of("A", distMatrix, "B", distMatrix, "P", predMatrix));
         }
 
+        // with integer weights, infinity is represented as Integer.MAX_VALUE internally
+        if (this.usesIntegerWeights() && distMatrix != null) {
+            for (int i = 0; i < this.n; i++) {
+                for (int j = 0; j < this.n; j++) {
+                    if (distMatrix.get(i, j).intValue() == Integer.MAX_VALUE) {
+                        distMatrix.set(i, j, Double.POSITIVE_INFINITY);
+                    }
+                }
+            }
+        }
+
+        // keep the distances in single precision, as boxed Floats take up less heap than Doubles
+        if (this.usesFloatWeights() && distMatrix != null) {
+            for (int i = 0; i < this.n; i++) {
+                for (int j = 0; j < this.n; j++) {
+                    distMatrix.set(i, j, distMatrix.get(i, j).floatValue());
+                }
+            }
+        }
+
+        this.privateMemorySizeInBytes = manager.getPrivateMemorySizeInBytes();
+
         // log and save
         LOGGER.log(Level.FINE, "The computed distance matrix is:\n" + distMatrix);
         LOGGER.log(Level.FINE, "The computed predecessor matrix is:\n" + predMatrix);
         this.predecessorMatrix = predMatrix;
         this.distanceMatrix = distMatrix;
+        this.updatedGraph = null;
+        // built here rather than on the first query, so that paths can be queried from several threads
+        this.incomingEdges = predMatrix == null ? this.findIncomingEdges() : null;
+    }
+
+    /**
+     * @return the number of bytes the processing elements used to store the values in their private memories
+     */
+    public long getPrivateMemorySizeInBytes() {
+        if (this.distanceMatrix == null) {
+            throw new IllegalStateException("Solve must be called before querying the memory usage");
+        }
+        return this.privateMemorySizeInBytes;
+    }
+
+    /**
+     * @return the number of min-plus products done by the last call to {@link #solve()}
+     */
+    public int getNumberOfSquarings() {
+        return this.numberOfSquarings;
+    }
+
+    /**
+     * Estimates the largest number of edges needed by a shortest path, by running Dijkstra from a few random sources
+     * and recording the fewest edges among the shortest paths to each node. This is a lower bound on the true value,
+     * so the result should be verified, e.g. with {@link #isClosed(Matrix)}.
+     *
+     * @param graph input graph
+     * @param numSamples number of sources to run Dijkstra from
+     * @param seed seed for choosing the sources
+     * @return the largest number of edges found on a shortest path, at least 1
+     */
+    public static int estimateHopDiameter(GraphReader graph, int numSamples, long seed) {
+        int n = graph.getNumberOfNodes();
+        CSRGraph csrGraph = new CSRGraph(graph);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, 4);
+        double[] distance = new double[n];
+        int[] hops = new int[n];
+        Random random = new Random(seed);
+
+        int hopDiameter = 1;
+        for (int sample = 0; sample < Math.min(numSamples, n); sample++) {
+            int source = random.nextInt(n);
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            distance[source] = 0.0;
+            hops[source] = 0;
+            heap.clear();
+            heap.insertOrDecreaseKey(source, 0.0);
+            while (!heap.isEmpty()) {
+                int cur = heap.poll();
+                hopDiameter = Math.max(hopDiameter, hops[cur]);
+                for (int pos = csrGraph.getRowStart(cur); pos < csrGraph.getRowEnd(cur); pos++) {
+                    int next = csrGraph.getTarget(pos);
+                    double newDist = distance[cur] + csrGraph.getWeight(pos);
+                    // among equally short paths, prefer the one with the fewest edges
+                    if (newDist < distance[next] || (newDist == distance[next] && hops[cur] + 1 < hops[next])) {
+                        distance[next] = newDist;
+                        hops[next] = hops[cur] + 1;
+                        heap.insertOrDecreaseKey(next, newDist);
+                    }
+                }
+            }
+        }
+        return hopDiameter;
+    }
+
+    /**
+     * Checks whether the distance matrix satisfies D[i, v] <= D[i, u] + w(u, v) for every edge (u, v) and node i. All
+     * the entries of D are lengths of actual paths, so this holds exactly when D holds the shortest distances. This
+     * takes O(nm) time, which is far cheaper than another squaring for sparse graphs.
+     *
+     * @param distMatrix the current distance matrix
+     * @return true if no distance can be improved with a single edge
+     */
+    protected boolean isClosed(Matrix<Number> distMatrix) {
+        // the squarings sum the weights in a different order than along the edges, so allow for rounding errors
+        double slack = this.usesIntegerWeights() ? 0.0
+                : this.usesFloatWeights() ? FloatFoxOtto.getRelativeErrorBound(this.n)
+                : 1E-9;
+        // the graph and the row buffer are reused by every check, as there can be several per solve
+        if (this.closureGraph == null) {
+            this.closureGraph = new CSRGraph(this.graph);
+            this.closureRow = new double[this.n];
+        }
+        CSRGraph csrGraph = this.closureGraph;
+        double[] row = this.closureRow;
+        for (int i = 0; i < this.n; i++) {
+            for (int j = 0; j < this.n; j++) {
+                double d = distMatrix.get(i, j).doubleValue();
+                row[j] = this.usesIntegerWeights() && d == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : d;
+            }
+            for (int u = 0; u < this.n; u++) {
+                if (row[u] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int pos = csrGraph.getRowStart(u); pos < csrGraph.getRowEnd(u); pos++) {
+                    double rowV = row[csrGraph.getTarget(pos)];
+                    double bound = rowV == Double.POSITIVE_INFINITY ? rowV : rowV - slack * Math.abs(rowV);
+                    if (row[u] + csrGraph.getWeight(pos) < bound) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
     }
 
     public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.distanceMatrix == null) {
+            throw new IllegalStateException("Solve must be called before querying shortest path");
+        }
         if (this.predecessorMatrix == null) {
+            return this.reconstructShortestPath(i, j);
+        }
+        return this.getShortestPathFromPredecessors(this.predecessorMatrix, i, j);
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.distanceMatrix == null) {
             throw new IllegalStateException("Solve must be called before querying shortest path");
         }
-        Deque<Integer> path = new LinkedList<>();
+        if (this.predecessorMatrix == null) {
+            return super.getPredecessor(i, j);
+        }
+        return getPredecessorFromPredecessors(this.predecessorMatrix, i, j);
+    }
+
+    /**
+     * @return the incoming edges (u, w(u, v)) of each node v in the current graph, including the changes made with
+     * {@link #updateEdge}, where removed edges are left out
+     */
+    private List<List<Pair<Integer, Double>>> findIncomingEdges() {
+        List<List<Pair<Integer, Double>>> incoming = new ArrayList<>(this.n);
+        for (int v = 0; v < this.n; v++) {
+            incoming.add(new ArrayList<>());
+        }
+        if (this.updatedGraph != null) {
+            // the edges have been changed with updateEdge, and removed edges have infinite weight
+            for (int u = 0; u < this.n; u++) {
+                for (int pos = this.updatedGraph.getRowStart(u); pos < this.updatedGraph.getRowEnd(u); pos++) {
+                    if (this.updatedGraph.getWeight(pos) != Double.POSITIVE_INFINITY) {
+                        incoming.get(this.updatedGraph.getTarget(pos)).add(new Pair<>(u, this.updatedGraph.getWeight(pos)));
+                    }
+                }
+            }
+        } else {
+            for (Triple<Integer, Integer, Double> e : this.graph.getEdges()) {
+                incoming.get(e.y()).add(new Pair<>(e.x(), e.z()));
+                if (!this.graph.isDirected()) {
+                    incoming.get(e.x()).add(new Pair<>(e.y(), e.z()));
+                }
+            }
+        }
+        return incoming;
+    }
+
+    /**
+     * @return the nodes u with an edge (u, v) such that dist[i, u] + w(u, v) = dist[i, v], allowing for rounding
+     * errors, ordered by how well they explain the distance
+     */
+    private Iterator<Integer> getTightPredecessors(int i, int v) {
+        double distToV = this.distanceMatrix.get(i, v).doubleValue();
+        List<Pair<Integer, Double>> candidates = new ArrayList<>();
+        for (Pair<Integer, Double> edge : this.incomingEdges.get(v)) {
+            int u = edge.getKey();
+            if (u == v) {
+                continue;
+            }
+            double distToU = u == i ? 0.0 : this.distanceMatrix.get(i, u).doubleValue();
+            double slack = Math.abs(distToU + edge.getValue() - distToV);
+            if (slack <= 1E-6 * Math.max(1.0, distToV)) {
+                candidates.add(new Pair<>(u, slack));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Pair::getValue));
+        return candidates.stream().map(Pair::getKey).iterator();
+    }
 
-        if (this.predecessorMatrix.get(i, j).intValue() == j) {
+    /**
+     * Reconstructs a shortest path from i to j using only the distance matrix, by searching backwards from j along
+     * edges (u, v) such that dist[i, u] + w(u, v) = dist[i, v]. With zero-weight edges, such an edge might lead to a
+     * node from which i cannot be reached without revisiting a node, so the search backtracks and tries the other
+     * edges, never visiting a node twice. This takes O(m) time per query in the worst case, but usually
+     * O(length * degree), compared to O(length) when the predecessor matrix is available. If there are several
+     * shortest paths, the one found might not be the same as the one given by the predecessor matrix.
+     *
+     * @param i source node
+     * @param j destination node
+     * @return the shortest path, or an empty optional if i = j or there is no path from i to j
+     */
+    private Optional<List<Integer>> reconstructShortestPath(int i, int j) {
+        if (i == j || this.distanceMatrix.get(i, j).doubleValue() == Double.POSITIVE_INFINITY) {
             return Optional.empty();
         }
 
-        do {
-            int pred = this.predecessorMatrix.get(i, j).intValue();
-            if (pred == j) {
-                throw new IllegalStateException(String.format("The predecessor matrix should not have self-references: Pred(%d, %d)=%d", i, j, pred));
-            } else if (path.size() > this.n) {
-                throw new IllegalStateException(String.format("Encountered infinite loop in path from %d to %d", i, j));
+        // the path from the current node to j, and the predecessors of each of its nodes that are left to try
+        Deque<Integer> path = new ArrayDeque<>();
+        Deque<Iterator<Integer>> untriedPredecessors = new ArrayDeque<>();
+        boolean[] visited = new boolean[this.n];
+        path.addFirst(j);
+        untriedPredecessors.addFirst(this.getTightPredecessors(i, j));
+        visited[j] = true;
+        while (!path.isEmpty()) {
+            Iterator<Integer> predecessors = untriedPredecessors.peekFirst();
+            // dead end, so backtrack
+            if (!predecessors.hasNext()) {
+                path.removeFirst();
+                untriedPredecessors.removeFirst();
+                continue;
+            }
+            int u = predecessors.next();
+            // a node that has been visited is either on the path or cannot reach i
+            if (visited[u]) {
+                continue;
+            }
+            visited[u] = true;
+            path.addFirst(u);
+            if (u == i) {
+                return Optional.of(new ArrayList<>(path));
+            }
+            untriedPredecessors.addFirst(this.getTightPredecessors(i, u));
+        }
+        throw new IllegalStateException(String.format("The distance matrix is inconsistent with the graph on the " +
+                "path from %d to %d", i, j));
+    }
+
+    /**
+     * Changes the weight of the edge (u, v), or of both directions if the graph is undirected, and updates the solved
+     * distance and predecessor matrices to match, without doing all the squarings of {@link #solve()} again:
+     * <ul>
+     *     <li>If the weight decreases, which includes adding a new edge, every path i -> u -> v -> j is considered
+     *     with D[i, j] = min(D[i, j], D[i, u] + w + D[v, j]), and the predecessor of j becomes that on the path from
+     *     v. This takes O(n^2) time, and the rows are relaxed in parallel, which is safe because row v and column u
+     *     can never improve.</li>
+     *     <li>If the weight increases, which includes removing the edge with a weight of positive infinity, only the
+     *     rows whose shortest path tree uses the edge can change. These are the rows i where P[i, v] = u, or where
+     *     the edge is tight if the predecessor matrix is not computed, and they are solved again with Dijkstra on
+     *     the updated graph in parallel.</li>
+     * </ul>
+     * The graph reader given on construction is not changed, so the next call to {@link #solve()} solves the original
+     * graph and discards the updates.
+     *
+     * @param u start node of the edge
+     * @param v end node of the edge
+     * @param w the new non-negative weight, which must be an integer if the min-plus product uses integer weights
+     */
+    public void updateEdge(int u, int v, double w) {
+        if (this.distanceMatrix == null) {
+            throw new IllegalStateException("Solve must be called before updating edges");
+        }
+        if (u < 0 || u >= this.n || v < 0 || v >= this.n || u == v) {
+            throw new IllegalArgumentException(String.format("(%d, %d) is not a valid edge in a graph with %d nodes",
+                    u, v, this.n));
+        }
+        if (!(w >= 0)) {
+            throw new IllegalArgumentException("Edge weights must be non-negative, but was " + w);
+        }
+        if (this.usesIntegerWeights() && w != Double.POSITIVE_INFINITY && w != Math.rint(w)) {
+            throw new IllegalArgumentException("The min-plus product " + this.minPlusProductImplementation
+                    .getSimpleName() + " requires integer edge weights, but was " + w);
+        }
+        if (this.usesIntegerWeights() && w != Double.POSITIVE_INFINITY
+                && !GraphReader.fitsIntegerDistances(this.n, w)) {
+            throw new IllegalArgumentException("The min-plus product " + this.minPlusProductImplementation
+                    .getSimpleName() + " saturates at Integer.MAX_VALUE, which paths with edges of weight " + w
+                    + " may reach");
+        }
+
+        if (this.updatedGraph == null) {
+            this.updatedGraph = new CSRGraph(this.graph);
+        }
+        double oldWeight = this.updatedGraph.getEdgeWeight(u, v);
+        this.updatedGraph = this.updatedGraph.withEdgeWeight(u, v, w);
+        if (!this.graph.isDirected()) {
+            this.updatedGraph = this.updatedGraph.withEdgeWeight(v, u, w);
+        }
+        if (this.predecessorMatrix == null) {
+            this.incomingEdges = this.findIncomingEdges();
+        }
+
+        if (w < oldWeight) {
+            LOGGER.fine(String.format("MatSquare: Weight of (%d, %d) decreased from %f to %f, relaxing all pairs",
+                    u, v, oldWeight, w));
+            // each direction is relaxed separately, as row v and column u only stay fixed within a direction
+            this.relaxThroughEdge(u, v, w);
+            if (!this.graph.isDirected()) {
+                this.relaxThroughEdge(v, u, w);
             }
-            path.addFirst(j);
-            j = pred;
-        } while (i !=  j);
-        path.addFirst(i);
-        return Optional.of(new ArrayList<>(path));
+        } else if (w > oldWeight) {
+            boolean[] affected = new boolean[this.n];
+            int numAffected = 0;
+            for (int i = 0; i < this.n; i++) {
+                affected[i] = this.usesEdge(i, u, v, oldWeight)
+                        || (!this.graph.isDirected() && this.usesEdge(i, v, u, oldWeight));
+                numAffected += affected[i] ? 1 : 0;
+            }
+            LOGGER.fine(String.format("MatSquare: Weight of (%d, %d) increased from %f to %f, solving %d affected " +
+                    "rows again", u, v, oldWeight, w, numAffected));
+            CSRGraph csrGraph = this.updatedGraph;
+            ThreadLocal<IndexedDaryHeap> heaps = ThreadLocal.withInitial(() -> new IndexedDaryHeap(this.n, 4));
+            ForkJoinPool.commonPool().invoke(new RowRangeTask(0, this.n, i -> {
+                if (affected[i]) {
+                    this.solveRow(csrGraph, heaps.get(), i);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Sets D[i, j] = min(D[i, j], D[i, u] + w + D[v, j]) for all i and j in parallel
+     */
+    private void relaxThroughEdge(int u, int v, double w) {
+        ForkJoinPool.commonPool().invoke(new RowRangeTask(0, this.n, i -> {
+            double toU = this.distanceMatrix.get(i, u).doubleValue();
+            if (toU == Double.POSITIVE_INFINITY) {
+                return;
+            }
+            for (int j = 0; j < this.n; j++) {
+                double newDist = toU + w + this.distanceMatrix.get(v, j).doubleValue();
+                if (newDist < this.distanceMatrix.get(i, j).doubleValue()) {
+                    this.distanceMatrix.set(i, j, this.toStoredDistance(newDist));
+                    if (this.predecessorMatrix != null) {
+                        this.predecessorMatrix.set(i, j, j == v ? u : this.predecessorMatrix.get(v, j).intValue());
+                    }
+                }
+            }
+        }));
+    }
+
+    /**
+     * @return true if the shortest path tree of row i uses the edge (u, v) with the given weight
+     */
+    private boolean usesEdge(int i, int u, int v, double weight) {
+        if (i == v) {
+            return false;
+        }
+        if (this.predecessorMatrix != null) {
+            return this.predecessorMatrix.get(i, v).intValue() == u;
+        }
+        double toU = this.distanceMatrix.get(i, u).doubleValue();
+        double toV = this.distanceMatrix.get(i, v).doubleValue();
+        return toU != Double.POSITIVE_INFINITY && toU + weight <= toV + 1E-9 * Math.max(1.0, toV);
+    }
+
+    /**
+     * Overwrites row i of the distance and predecessor matrices with the result of Dijkstra from node i
+     */
+    private void solveRow(CSRGraph csrGraph, IndexedDaryHeap heap, int i) {
+        double[] distance = new double[this.n];
+        int[] prev = new int[this.n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[i] = 0.0;
+        // P[i, j] = j means that no path has been found
+        for (int j = 0; j < this.n; j++) {
+            prev[j] = j;
+        }
+
+        heap.clear();
+        heap.insertOrDecreaseKey(i, 0.0);
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            for (int pos = csrGraph.getRowStart(cur); pos < csrGraph.getRowEnd(cur); pos++) {
+                int next = csrGraph.getTarget(pos);
+                double newDist = distance[cur] + csrGraph.getWeight(pos);
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    prev[next] = cur;
+                    heap.insertOrDecreaseKey(next, newDist);
+                }
+            }
+        }
+
+        for (int j = 0; j < this.n; j++) {
+            this.distanceMatrix.set(i, j, this.toStoredDistance(distance[j]));
+            if (this.predecessorMatrix != null) {
+                this.predecessorMatrix.set(i, j, prev[j]);
+            }
+        }
+    }
+
+    /**
+     * @return the distance boxed in the same type as the solved distance matrix uses
+     */
+    private Number toStoredDistance(double distance) {
+        if (distance == Double.POSITIVE_INFINITY) {
+            return distance;
+        } else if (this.usesIntegerWeights()) {
+            return (int) Math.round(distance);
+        } else if (this.usesFloatWeights()) {
+            return (float) distance;
+        }
+        return distance;
+    }
+
+    /**
+     * Applies an operation to each row in [from, to), splitting the range in two while it is large
+     */
+    private static class RowRangeTask extends RecursiveAction {
+        private static final int GRAIN_SIZE = 16;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer rowOperation;
+
+        RowRangeTask(int from, int to, IntConsumer rowOperation) {
+            this.from = from;
+            this.to = to;
+            this.rowOperation = rowOperation;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= GRAIN_SIZE) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.rowOperation.accept(i);
+                }
+                return;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            invokeAll(new RowRangeTask(this.from, mid, this.rowOperation),
+                    new RowRangeTask(mid, this.to, this.rowOperation));
+        }
     }
 
     @Override
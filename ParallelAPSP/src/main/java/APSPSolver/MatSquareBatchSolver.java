@@ -0,0 +1,213 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import matrixMultiplication.GeneralisedFoxOtto;
+import matrixMultiplication.MinPlusProduct;
+import util.LoggerFormatter;
+import work.Manager;
+import work.WorkerInstantiationException;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Solves many small graphs with {@link MatSquare}, without the overhead of setting up a new {@link Manager} and thread
+ * pool for each of them:
+ * <ul>
+ *     <li>The graphs are solved concurrently on one long-lived executor, with one graph per task. The workers of each
+ *     graph are run on the thread of its task, as small graphs have too little work per phase to benefit from
+ *     spreading it over several threads, and a task waiting for workers queued behind other graphs in the same
+ *     executor could otherwise deadlock it.</li>
+ *     <li>Managers are pooled by problem size. When a graph is solved, an idle manager for graphs of its size is
+ *     reused if there is one, so its workers, private memories and communication buffers are only created once for
+ *     each size and thread, and are overwritten by the input of the next graph. A manager is only returned to the
+ *     pool if its graph was solved, and graphs with at most one node are solved without one.</li>
+ *     <li>The throughput of the last batch is recorded, see {@link #getGraphsPerSecond()}.</li>
+ * </ul>
+ */
+public class MatSquareBatchSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private final int p;
+    private final Class<? extends MinPlusProduct> minPlusProductImplementation;
+    private final ExecutorService executorService;
+    private final boolean ownsExecutorService;
+
+    // idle managers, keyed by the number of nodes of the graphs they can solve
+    private final Map<Integer, Queue<Manager>> idleManagers = new ConcurrentHashMap<>();
+    private final ExecutorService sameThreadExecutor = new SameThreadExecutorService();
+    private final LongAdder managersCreated = new LongAdder();
+    private double graphsPerSecond;
+
+    /**
+     * @param p each graph is solved by p x p processing elements, or fewer if it has fewer than p nodes
+     * @param minPlusProductImplementation procedure to perform the distance product and predecessor matrix computation
+     * @param executorService a long-lived executor that the graphs are solved on. It is not shut down by this solver.
+     */
+    public MatSquareBatchSolver(int p, Class<? extends MinPlusProduct> minPlusProductImplementation,
+                                ExecutorService executorService) {
+        this(p, minPlusProductImplementation, executorService, false);
+    }
+
+    /**
+     * Creates a batch solver with its own fixed thread pool of one thread per available processor, which is shut
+     * down with {@link #shutdown()}
+     */
+    public MatSquareBatchSolver(int p, Class<? extends MinPlusProduct> minPlusProductImplementation) {
+        this(p, minPlusProductImplementation,
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    private MatSquareBatchSolver(int p, Class<? extends MinPlusProduct> minPlusProductImplementation,
+                                 ExecutorService executorService, boolean ownsExecutorService) {
+        if (p < 1) {
+            throw new IllegalArgumentException("The grid of processing elements must be at least 1 x 1, but p was " + p);
+        }
+        this.p = p;
+        this.minPlusProductImplementation = minPlusProductImplementation;
+        this.executorService = executorService;
+        this.ownsExecutorService = ownsExecutorService;
+    }
+
+    /**
+     * Solves all the graphs concurrently, and blocks until they are done
+     *
+     * @param graphs the graphs to solve
+     * @return a solved solver for each graph, in the same order as the graphs
+     * @throws IllegalStateException if any of the graphs could not be solved
+     */
+    public List<MatSquare> solveAll(List<GraphReader> graphs) {
+        long startTime = System.nanoTime();
+        List<Future<MatSquare>> futures = new ArrayList<>(graphs.size());
+        for (GraphReader graph : graphs) {
+            futures.add(this.executorService.submit(() -> this.solveOne(graph)));
+        }
+
+        List<MatSquare> solvers = new ArrayList<>(graphs.size());
+        try {
+            for (Future<MatSquare> future : futures) {
+                solvers.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            // don't solve the rest of the batch
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("A graph of the batch could not be solved", e);
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1E9;
+        this.graphsPerSecond = graphs.size() / seconds;
+        LOGGER.info(String.format("MatSquareBatchSolver: Solved %d graphs in %.3f s (%.1f graphs/s) with %d managers",
+                graphs.size(), seconds, this.graphsPerSecond, this.getNumberOfManagersCreated()));
+        return solvers;
+    }
+
+    private MatSquare solveOne(GraphReader graph) {
+        MatSquare solver = new MatSquare(graph, this.p, this.minPlusProductImplementation);
+        int n = graph.getNumberOfNodes();
+        // there is nothing to square, and no grid of processing elements to do it
+        if (n <= 1) {
+            solver.solveTrivially();
+            return solver;
+        }
+        Queue<Manager> managers = this.idleManagers.computeIfAbsent(n, key -> new ConcurrentLinkedQueue<>());
+        Manager manager = managers.poll();
+        if (manager == null) {
+            try {
+                manager = solver.createManager();
+            } catch (WorkerInstantiationException e) {
+                throw new IllegalStateException("The workers could not be created", e);
+            }
+            manager.setExecutorService(this.sameThreadExecutor);
+            this.managersCreated.increment();
+        }
+        solver.solve(manager);
+        // a manager that failed may be left with the data of an unfinished phase, so it is not reused
+        if (solver.distanceMatrix == null) {
+            throw new IllegalStateException("MatSquare failed to solve a graph with " + n + " nodes");
+        }
+        managers.offer(manager);
+        return solver;
+    }
+
+    /**
+     * @return the number of graphs solved per second in the last call to {@link #solveAll(List)}
+     */
+    public double getGraphsPerSecond() {
+        return this.graphsPerSecond;
+    }
+
+    /**
+     * @return the number of managers created so far. Each graph that did not get one of these had its workers and
+     * private memories reused.
+     */
+    public long getNumberOfManagersCreated() {
+        return this.managersCreated.sum();
+    }
+
+    /**
+     * Shuts down the executor if it was created by this solver
+     */
+    public void shutdown() {
+        if (this.ownsExecutorService) {
+            this.executorService.shutdown();
+        }
+    }
+
+    /**
+     * Runs every task directly on the thread that submits it, so a manager's phases complete before
+     * {@link Manager#doWork()} waits for them
+     */
+    private static class SameThreadExecutorService extends AbstractExecutorService {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.WARNING);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        MatSquareBatchSolver batchSolver = new MatSquareBatchSolver(4, GeneralisedFoxOtto.class);
+        List<MatSquare> solvers = batchSolver.solveAll(Collections.nCopies(50, graphReader));
+        System.out.println(String.format("Solved %d graphs at %.1f graphs/s with %d managers", solvers.size(),
+                batchSolver.getGraphsPerSecond(), batchSolver.getNumberOfManagersCreated()));
+        batchSolver.shutdown();
+    }
+}
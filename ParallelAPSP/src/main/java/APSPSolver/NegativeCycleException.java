@@ -0,0 +1,23 @@
+package APSPSolver;
+
+import java.util.List;
+
+/**
+ * Thrown by a solver when the input graph has a cycle of negative total weight, in which case shortest paths are not
+ * well-defined for the nodes that can reach the cycle.
+ */
+public class NegativeCycleException extends RuntimeException {
+    private final List<Integer> cycle;
+
+    public NegativeCycleException(String message, List<Integer> cycle) {
+        super(message);
+        this.cycle = cycle;
+    }
+
+    /**
+     * @return the nodes of a negative cycle, in order, starting and ending with the same node
+     */
+    public List<Integer> getCycle() {
+        return this.cycle;
+    }
+}
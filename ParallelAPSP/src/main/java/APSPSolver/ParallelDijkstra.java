@@ -0,0 +1,203 @@
+package APSPSolver;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.IndexedDaryHeap;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Multithreaded version of {@link SerialDijkstra}, where the n single-source problems are sharded across the threads
+ * of a fork-join pool. To keep the relaxation loop free of allocations and boxing:
+ * <ul>
+ *     <li>The graph is stored as a {@link CSRGraph}, which is shared by all the threads</li>
+ *     <li>Each thread reuses one {@link IndexedDaryHeap} with decrease-key, instead of a priority queue of pairs
+ *     with lazy deletion</li>
+ *     <li>The distances and predecessors of each source are written into primitive arrays</li>
+ * </ul>
+ * The same predecessor convention as in {@link SerialDijkstra} is used, so P[i, i] = i and P[i, j] = -1 if there is
+ * no path from i to j.
+ */
+public class ParallelDijkstra extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static final int DEFAULT_HEAP_ARITY = 4;
+
+    private final ForkJoinPool pool;
+    private final int heapArity;
+
+    protected double[][] distances;
+    protected int[][] predecessors;
+
+    /**
+     * @param graphReader input graph, which must not have negative edge weights
+     * @param pool the fork-join pool that the sources are sharded across
+     * @param heapArity the number of children of each node in the priority queue
+     */
+    public ParallelDijkstra(GraphReader graphReader, ForkJoinPool pool, int heapArity) {
+        super(graphReader);
+        this.pool = pool;
+        this.heapArity = heapArity;
+    }
+
+    public ParallelDijkstra(GraphReader graphReader, ForkJoinPool pool) {
+        this(graphReader, pool, DEFAULT_HEAP_ARITY);
+    }
+
+    public ParallelDijkstra(GraphReader graphReader) {
+        this(graphReader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return the graph that the searches are run on, whose edge weights must all be non-negative
+     */
+    protected CSRGraph createSearchGraph() {
+        return new CSRGraph(this.graph);
+    }
+
+    @Override
+    public void solve() {
+        CSRGraph csrGraph = this.createSearchGraph();
+        this.distances = new double[this.n][];
+        this.predecessors = new int[this.n][];
+
+        // each worker thread allocates its heap once, and then reuses it for all its sources
+        ThreadLocal<IndexedDaryHeap> heaps = ThreadLocal.withInitial(
+                () -> new IndexedDaryHeap(this.n, this.heapArity));
+        // aim for a few tasks per thread, so that threads finishing early can steal work
+        int grainSize = Math.max(1, this.n / (8 * this.pool.getParallelism()));
+
+        LOGGER.info("ParallelDijkstra: Solving " + this.n + " sources with parallelism "
+                + this.pool.getParallelism() + " and grain size " + grainSize);
+        this.pool.invoke(new SourceRangeTask(csrGraph, heaps, 0, this.n, grainSize));
+    }
+
+    /**
+     * Solves the single-source problems for the sources in [from, to), splitting the range in two while it is larger
+     * than the grain size
+     */
+    private class SourceRangeTask extends RecursiveAction {
+        private final CSRGraph csrGraph;
+        private final ThreadLocal<IndexedDaryHeap> heaps;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        SourceRangeTask(CSRGraph csrGraph, ThreadLocal<IndexedDaryHeap> heaps, int from, int to, int grainSize) {
+            this.csrGraph = csrGraph;
+            this.heaps = heaps;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.grainSize) {
+                IndexedDaryHeap heap = this.heaps.get();
+                for (int source = this.from; source < this.to; source++) {
+                    solveFromSource(this.csrGraph, heap, source);
+                }
+                return;
+            }
+            int mid = (this.from + this.to) / 2;
+            invokeAll(new SourceRangeTask(this.csrGraph, this.heaps, this.from, mid, this.grainSize),
+                    new SourceRangeTask(this.csrGraph, this.heaps, mid, this.to, this.grainSize));
+        }
+    }
+
+    private void solveFromSource(CSRGraph csrGraph, IndexedDaryHeap heap, int source) {
+        double[] distance = new double[this.n];
+        int[] prev = new int[this.n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, -1);
+        distance[source] = 0.0;
+        prev[source] = source;
+
+        heap.clear();
+        heap.insertOrDecreaseKey(source, 0.0);
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            double curDist = distance[cur];
+            // go through all the neighbour edges of node cur
+            for (int pos = csrGraph.getRowStart(cur), end = csrGraph.getRowEnd(cur); pos < end; pos++) {
+                int next = csrGraph.getTarget(pos);
+                // do relaxation
+                double newDist = curDist + csrGraph.getWeight(pos);
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    prev[next] = cur;
+                    heap.insertOrDecreaseKey(next, newDist);
+                }
+            }
+        }
+
+        // each row is written by exactly one task, and ForkJoinPool::invoke makes the writes visible afterwards
+        this.distances[source] = distance;
+        this.predecessors[source] = prev;
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        int[] preds = this.predecessors[i];
+
+        if (preds[j] == -1 || i == j) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            if (preds[j] == j) {
+                throw new IllegalStateException(String.format("The predecessor list should not have self-references: Pred(%d, %d)=%d", i, j, j));
+            }
+            path.addFirst(j);
+            j = preds[j];
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return this.predecessors[i][j];
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        if (this.distances == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths length");
+        }
+        return this.distances[i][j];
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 4));
+        System.out.println(solver.getDistanceFrom(0, 4));
+    }
+}
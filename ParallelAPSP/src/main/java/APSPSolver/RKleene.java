@@ -0,0 +1,263 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import javafx.util.Pair;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared-memory APSP solver based on the recursive Kleene closure (R-Kleene). The distance matrix is split into 2 x 2
+ * blocks, and with A11, A12, A21, A22 denoting the blocks and (x) the min-plus product, the closure is computed as:
+ * <pre>
+ *     A11 = A11*
+ *     A12 = A11 (x) A12        A21 = A21 (x) A11
+ *     A22 = min(A22, A21 (x) A12)
+ *     A22 = A22*
+ *     A21 = A22 (x) A21        A12 = A12 (x) A22
+ *     A11 = min(A11, A12 (x) A21)
+ * </pre>
+ * where the closures are computed recursively and the products are also split recursively, so the algorithm is
+ * cache-oblivious. The recursion stops at blocks of at most {@code leafSize} rows, where a Floyd-Warshall kernel or a
+ * min-plus multiply-accumulate kernel is used on the row-major distance array. Independent products and independent
+ * quadrants of the products are run in parallel with fork-join.
+ *
+ * <p>All updates are done in place. Whenever a distance D[i, j] is improved to D[i, k] + D[k, j], the predecessor
+ * is set to P[k, j], so every distance always corresponds to a walk ending with the edge (P[i, j], j). Because the
+ * distances are exact at the end, the predecessors then describe shortest paths.</p>
+ */
+public class RKleene extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static final int DEFAULT_LEAF_SIZE = 64;
+
+    private final int leafSize;
+    private final ForkJoinPool pool;
+
+    // row-major n x n matrices
+    private double[] dist;
+    private int[] pred;
+
+    /**
+     * @param graphReader input graph
+     * @param leafSize the largest block size handled by the iterative leaf kernels. Should be tuned such that three
+     *                 blocks fit in the L1 or L2 cache
+     * @param pool the fork-join pool to run the recursion in
+     */
+    public RKleene(GraphReader graphReader, int leafSize, ForkJoinPool pool) {
+        super(graphReader);
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("The leaf size must be positive, but was " + leafSize);
+        }
+        this.leafSize = leafSize;
+        this.pool = pool;
+    }
+
+    public RKleene(GraphReader graphReader, int leafSize) {
+        this(graphReader, leafSize, ForkJoinPool.commonPool());
+    }
+
+    public RKleene(GraphReader graphReader) {
+        this(graphReader, DEFAULT_LEAF_SIZE);
+    }
+
+    @Override
+    public void solve() {
+        this.dist = new double[this.n * this.n];
+        this.pred = new int[this.n * this.n];
+        Arrays.fill(this.dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.pred, -1);
+        for (int i = 0; i < this.n; i++) {
+            this.dist[i * this.n + i] = 0.0;
+            this.pred[i * this.n + i] = i;
+        }
+        // in case of multiple edges between the same nodes, use the shortest one
+        List<List<Pair<Integer, Double>>> adjacencyList = this.graph.getAdjacencyList();
+        for (int i = 0; i < this.n; i++) {
+            for (Pair<Integer, Double> edge : adjacencyList.get(i)) {
+                int j = edge.getKey();
+                if (i != j && edge.getValue() < this.dist[i * this.n + j]) {
+                    this.dist[i * this.n + j] = edge.getValue();
+                    this.pred[i * this.n + j] = i;
+                }
+            }
+        }
+
+        LOGGER.info("RKleene: Computing closure of " + this.n + " x " + this.n + " matrix with leaf size "
+                + this.leafSize + " and parallelism " + this.pool.getParallelism());
+        this.pool.invoke(ForkJoinTask.adapt(() -> this.closure(0, this.n)));
+    }
+
+    /**
+     * Replaces the diagonal block with rows and columns [s0, s1) by its closure
+     */
+    private void closure(int s0, int s1) {
+        if (s1 - s0 <= this.leafSize) {
+            this.closureLeaf(s0, s1);
+            return;
+        }
+        int h = (s0 + s1) / 2;
+        // A11 = A11*
+        this.closure(s0, h);
+        // A12 = A11 (x) A12 and A21 = A21 (x) A11 are independent
+        ForkJoinTask.invokeAll(
+                ForkJoinTask.adapt(() -> this.multiplyAccumulate(s0, h, h, s1, s0, h)),
+                ForkJoinTask.adapt(() -> this.multiplyAccumulate(h, s1, s0, h, s0, h)));
+        // A22 = min(A22, A21 (x) A12)
+        this.multiplyAccumulate(h, s1, h, s1, s0, h);
+        // A22 = A22*
+        this.closure(h, s1);
+        // A21 = A22 (x) A21 and A12 = A12 (x) A22 are independent
+        ForkJoinTask.invokeAll(
+                ForkJoinTask.adapt(() -> this.multiplyAccumulate(h, s1, s0, h, h, s1)),
+                ForkJoinTask.adapt(() -> this.multiplyAccumulate(s0, h, h, s1, h, s1)));
+        // A11 = min(A11, A12 (x) A21)
+        this.multiplyAccumulate(s0, h, s0, h, h, s1);
+    }
+
+    /**
+     * Computes C = min(C, A (x) B) in place, where C is the block with rows [r0, r1) and columns [c0, c1), A is the
+     * block with rows [r0, r1) and columns [k0, k1) and B is the block with rows [k0, k1) and columns [c0, c1).
+     * Note that A or B may overlap with C, in which case only the splits that do not cause data races between
+     * parallel tasks are run in parallel.
+     */
+    private void multiplyAccumulate(int r0, int r1, int c0, int c1, int k0, int k1) {
+        int rows = r1 - r0;
+        int cols = c1 - c0;
+        int inner = k1 - k0;
+        if (rows <= this.leafSize && cols <= this.leafSize && inner <= this.leafSize) {
+            this.multiplyAccumulateLeaf(r0, r1, c0, c1, k0, k1);
+            return;
+        }
+
+        if (inner >= rows && inner >= cols) {
+            // the two halves of the inner dimension must be accumulated one after the other
+            int h = (k0 + k1) / 2;
+            this.multiplyAccumulate(r0, r1, c0, c1, k0, h);
+            this.multiplyAccumulate(r0, r1, c0, c1, h, k1);
+        } else if (rows >= cols) {
+            int h = (r0 + r1) / 2;
+            // the tasks read B = D[k0:k1, c0:c1], which the other task writes to if the inner range overlaps the rows
+            if (!overlaps(k0, k1, r0, r1)) {
+                ForkJoinTask.invokeAll(
+                        ForkJoinTask.adapt(() -> this.multiplyAccumulate(r0, h, c0, c1, k0, k1)),
+                        ForkJoinTask.adapt(() -> this.multiplyAccumulate(h, r1, c0, c1, k0, k1)));
+            } else {
+                this.multiplyAccumulate(r0, h, c0, c1, k0, k1);
+                this.multiplyAccumulate(h, r1, c0, c1, k0, k1);
+            }
+        } else {
+            int h = (c0 + c1) / 2;
+            // the tasks read A = D[r0:r1, k0:k1], which the other task writes to if the inner range overlaps the columns
+            if (!overlaps(k0, k1, c0, c1)) {
+                ForkJoinTask.invokeAll(
+                        ForkJoinTask.adapt(() -> this.multiplyAccumulate(r0, r1, c0, h, k0, k1)),
+                        ForkJoinTask.adapt(() -> this.multiplyAccumulate(r0, r1, h, c1, k0, k1)));
+            } else {
+                this.multiplyAccumulate(r0, r1, c0, h, k0, k1);
+                this.multiplyAccumulate(r0, r1, h, c1, k0, k1);
+            }
+        }
+    }
+
+    private static boolean overlaps(int a0, int a1, int b0, int b1) {
+        return a0 < b1 && b0 < a1;
+    }
+
+    /**
+     * Floyd-Warshall on the diagonal block with rows and columns [s0, s1)
+     */
+    private void closureLeaf(int s0, int s1) {
+        for (int k = s0; k < s1; k++) {
+            this.multiplyAccumulateLeaf(s0, s1, s0, s1, k, k + 1);
+        }
+    }
+
+    /**
+     * Iterative kernel for C = min(C, A (x) B). The loops are ordered i, k, j so that the innermost loop runs along
+     * contiguous rows of both B and C, and entries A[i, k] that are infinite are skipped altogether.
+     */
+    private void multiplyAccumulateLeaf(int r0, int r1, int c0, int c1, int k0, int k1) {
+        final int n = this.n;
+        final double[] dist = this.dist;
+        final int[] pred = this.pred;
+        for (int i = r0; i < r1; i++) {
+            int rowI = i * n;
+            for (int k = k0; k < k1; k++) {
+                double distIK = dist[rowI + k];
+                if (distIK == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int rowK = k * n;
+                for (int j = c0; j < c1; j++) {
+                    double otherDist = distIK + dist[rowK + j];
+                    if (otherDist < dist[rowI + j]) {
+                        dist[rowI + j] = otherDist;
+                        pred[rowI + j] = pred[rowK + j];
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.pred == null) {
+            throw new IllegalStateException("Solve must be called before querying shortest path");
+        }
+        if (i == j || this.pred[i * this.n + j] == -1) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            if (path.size() > this.n) {
+                throw new IllegalStateException(String.format("Encountered infinite loop in path from %d to %d", i, j));
+            }
+            path.addFirst(j);
+            j = this.pred[i * this.n + j];
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.pred == null) {
+            throw new IllegalStateException("Solve must be called before querying shortest path");
+        }
+        return this.pred[i * this.n + j];
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        if (this.dist == null) {
+            throw new IllegalStateException("Solve must be called before querying distance between nodes");
+        }
+        return this.dist[i * this.n + j];
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        APSPSolver solver = new RKleene(graphReader, 2);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 4));
+        System.out.println(solver.getDistanceFrom(0, 4));
+    }
+}
@@ -0,0 +1,203 @@
+package APSPSolver;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.LoggerFormatter;
+import util.RadixHeap;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Variant of {@link SerialDijkstra} for graphs where the edge weights have a bounded number of decimal places, such
+ * as the road network datasets. All weights are multiplied by the smallest power of ten that makes them integers, so
+ * that the search can use a {@link RadixHeap} on exact integer distances instead of a binary heap of doubles. The
+ * distances are scaled back when queried.
+ *
+ * <p>The scaling factor is found with {@link #getExactScalingFactor(GraphReader)}, which verifies that every scaled
+ * weight converts back to exactly the same double. Because the path lengths are then summed exactly, the returned
+ * distances are the correctly rounded path lengths, while {@link SerialDijkstra} may accumulate rounding errors.</p>
+ *
+ * <p>It can be used wherever {@link SerialDijkstra} is used, e.g. {@code RadixHeapDijkstra::new} can be passed to
+ * {@link graphReader.GraphCompressor} as the solver constructor.</p>
+ */
+public class RadixHeapDijkstra extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // 10^9 is the largest power of ten such that 10^9 * 10^9 still fits in a long
+    public static final int MAX_DECIMAL_PLACES = 9;
+    // doubles can represent all the integers up to this value exactly
+    private static final double MAX_EXACT_INTEGER = 9007199254740992.0;
+
+    private final long scalingFactor;
+
+    private double[][] distances;
+    private int[][] predecessors;
+
+    /**
+     * @param graphReader input graph
+     * @throws IllegalArgumentException if the edge weights cannot be scaled to integers exactly, see
+     * {@link #getExactScalingFactor(GraphReader)}
+     */
+    public RadixHeapDijkstra(GraphReader graphReader) {
+        super(graphReader);
+        OptionalLong scalingFactor = getExactScalingFactor(graphReader);
+        if (scalingFactor.isEmpty()) {
+            throw new IllegalArgumentException("The edge weights of the graph cannot be scaled to non-negative " +
+                    "integers with at most " + MAX_DECIMAL_PLACES + " decimal places without rounding");
+        }
+        this.scalingFactor = scalingFactor.getAsLong();
+    }
+
+    /**
+     * Finds the smallest power of ten 10^k, with k at most {@link #MAX_DECIMAL_PLACES}, such that every edge weight w
+     * is non-negative, w * 10^k is an integer that converts back to exactly w when divided by 10^k, and no simple path
+     * can have a scaled length that overflows a long.
+     *
+     * @param graphReader input graph
+     * @return the scaling factor, or empty if there is no such power of ten
+     */
+    public static OptionalLong getExactScalingFactor(GraphReader graphReader) {
+        List<Triple<Integer, Integer, Double>> edges = graphReader.getEdges();
+        long scale = 1;
+        for (int k = 0; k <= MAX_DECIMAL_PLACES; k++, scale *= 10) {
+            boolean exact = true;
+            long maxScaledWeight = 0;
+            for (Triple<Integer, Integer, Double> e : edges) {
+                double w = e.z();
+                double scaled = w * scale;
+                if (!(w >= 0) || scaled >= MAX_EXACT_INTEGER || (double) Math.round(scaled) / scale != w) {
+                    exact = false;
+                    break;
+                }
+                maxScaledWeight = Math.max(maxScaledWeight, Math.round(scaled));
+            }
+            if (exact) {
+                // a shortest path has at most n - 1 edges
+                long numEdges = Math.max(1, graphReader.getNumberOfNodes() - 1);
+                if (maxScaledWeight > 0 && maxScaledWeight > Long.MAX_VALUE / numEdges) {
+                    return OptionalLong.empty();
+                }
+                return OptionalLong.of(scale);
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    public long getScalingFactor() {
+        return this.scalingFactor;
+    }
+
+    @Override
+    public void solve() {
+        CSRGraph csrGraph = new CSRGraph(this.graph);
+        long[] scaledWeights = new long[csrGraph.getNumberOfEntries()];
+        for (int pos = 0; pos < scaledWeights.length; pos++) {
+            scaledWeights[pos] = Math.round(csrGraph.getWeight(pos) * this.scalingFactor);
+        }
+        LOGGER.info("RadixHeapDijkstra: Solving " + this.n + " sources with weights scaled by " + this.scalingFactor);
+
+        this.distances = new double[this.n][];
+        this.predecessors = new int[this.n][];
+        RadixHeap heap = new RadixHeap();
+        long[] distance = new long[this.n];
+        for (int source = 0; source < this.n; source++) {
+            int[] prev = new int[this.n];
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(prev, -1);
+            distance[source] = 0;
+            prev[source] = source;
+
+            heap.clear();
+            heap.insert(source, 0);
+            while (!heap.isEmpty()) {
+                int cur = heap.poll();
+                long curDist = heap.getLastPolledKey();
+                // we have already looked at this node with a shorter distance
+                if (curDist > distance[cur]) {
+                    continue;
+                }
+                for (int pos = csrGraph.getRowStart(cur), end = csrGraph.getRowEnd(cur); pos < end; pos++) {
+                    int next = csrGraph.getTarget(pos);
+                    long newDist = curDist + scaledWeights[pos];
+                    if (newDist < distance[next]) {
+                        distance[next] = newDist;
+                        prev[next] = cur;
+                        heap.insert(next, newDist);
+                    }
+                }
+            }
+
+            // scale the exact integer distances back
+            double[] scaledBack = new double[this.n];
+            for (int j = 0; j < this.n; j++) {
+                scaledBack[j] = distance[j] == Long.MAX_VALUE ? Double.POSITIVE_INFINITY
+                        : (double) distance[j] / this.scalingFactor;
+            }
+            this.distances[source] = scaledBack;
+            this.predecessors[source] = prev;
+        }
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        int[] preds = this.predecessors[i];
+
+        if (preds[j] == -1 || i == j) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            if (preds[j] == j) {
+                throw new IllegalStateException(String.format("The predecessor list should not have self-references: Pred(%d, %d)=%d", i, j, j));
+            }
+            path.addFirst(j);
+            j = preds[j];
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return this.predecessors[i][j];
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        if (this.distances == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths length");
+        }
+        return this.distances[i][j];
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        RadixHeapDijkstra solver = new RadixHeapDijkstra(graphReader);
+        solver.solve();
+
+        System.out.println("Scaling factor: " + solver.getScalingFactor());
+        System.out.println(solver.getShortestPath(0, 42));
+        System.out.println(solver.getDistanceFrom(0, 42));
+    }
+}
@@ -40,6 +40,14 @@ public class SerialDijkstra extends APSPSolver {
         return Optional.of(new ArrayList<>(path));
     }
 
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (this.predecessors == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return this.predecessors.get(i).get(j);
+    }
+
     @Override
     public Number getDistanceFrom(int i, int j) {
         if (this.distances == null) {
@@ -0,0 +1,185 @@
+package graphReader;
+
+/**
+ * Immutable compressed sparse row (CSR) representation of the adjacency list of a graph. The outgoing edges of node i
+ * are stored at positions [getRowStart(i), getRowEnd(i)) of the target and weight arrays, in the same order as in
+ * {@link GraphReader#getAdjacencyList()}. Unlike the adjacency list, no boxed objects are created, so it is suitable
+ * for tight relaxation loops shared between many threads.
+ */
+public class CSRGraph {
+
+    private final int n;
+    private final int[] rowOffsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    /**
+     * @param graphReader the graph to convert. If the graph is undirected, each edge is stored in both directions.
+     *                    The arrays are shared with {@link GraphReader#getCSRGraph()}, which is built once when the
+     *                    graph is read, so this does not copy the graph.
+     */
+    public CSRGraph(GraphReader graphReader) {
+        this(graphReader.getCSRGraph(), graphReader.getCSRGraph().weights);
+    }
+
+    /**
+     * Builds the adjacency list of the edges (sources[e], targets[e], weights[e]), keeping the order of the edges
+     * within each row
+     */
+    CSRGraph(int n, int[] sources, int[] targets, double[] weights, boolean isDirected) {
+        this.n = n;
+
+        // count the out-degrees, and then take prefix sums to find where each row starts
+        this.rowOffsets = new int[this.n + 1];
+        for (int e = 0; e < sources.length; e++) {
+            this.rowOffsets[sources[e] + 1]++;
+            if (!isDirected) {
+                this.rowOffsets[targets[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < this.n; i++) {
+            this.rowOffsets[i + 1] += this.rowOffsets[i];
+        }
+
+        // fill in the rows, keeping the order of the edge list
+        int numEntries = this.rowOffsets[this.n];
+        this.targets = new int[numEntries];
+        this.weights = new double[numEntries];
+        int[] nextFree = new int[this.n];
+        System.arraycopy(this.rowOffsets, 0, nextFree, 0, this.n);
+        for (int e = 0; e < sources.length; e++) {
+            int pos = nextFree[sources[e]]++;
+            this.targets[pos] = targets[e];
+            this.weights[pos] = weights[e];
+            if (!isDirected) {
+                pos = nextFree[targets[e]]++;
+                this.targets[pos] = sources[e];
+                this.weights[pos] = weights[e];
+            }
+        }
+    }
+
+    CSRGraph(int n, int[] rowOffsets, int[] targets, double[] weights) {
+        this.n = n;
+        this.rowOffsets = rowOffsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    private CSRGraph(CSRGraph other, double[] weights) {
+        this.n = other.n;
+        this.rowOffsets = other.rowOffsets;
+        this.targets = other.targets;
+        this.weights = weights;
+    }
+
+    // The arrays below are shared rather than copied, so they must not be modified. They are only exposed for
+    // GraphCache and GraphReader, which store and restore them in bulk.
+
+    int[] getRowOffsetArray() {
+        return this.rowOffsets;
+    }
+
+    int[] getTargetArray() {
+        return this.targets;
+    }
+
+    double[] getWeightArray() {
+        return this.weights;
+    }
+
+    /**
+     * Creates a graph with the same structure, but different edge weights. The structure is shared with this graph
+     * rather than copied.
+     *
+     * @param weights the new weight of each entry, in the same order as {@link #getWeight(int)}
+     * @return the reweighted graph
+     */
+    public CSRGraph withWeights(double[] weights) {
+        if (weights.length != this.targets.length) {
+            throw new IllegalArgumentException(String.format("Expected %d weights, but got %d",
+                    this.targets.length, weights.length));
+        }
+        return new CSRGraph(this, weights);
+    }
+
+    /**
+     * Creates a graph where all the entries from u to v have the given weight. If there is no such entry, one is
+     * added at the end of row u. Only the entries from u to v are changed, so for undirected graphs, this should also
+     * be called with u and v swapped.
+     *
+     * @param u start node of the edge
+     * @param v end node of the edge
+     * @param w the new weight, where positive infinity effectively removes the edge
+     * @return the updated graph
+     */
+    public CSRGraph withEdgeWeight(int u, int v, double w) {
+        boolean found = false;
+        double[] newWeights = this.weights.clone();
+        for (int pos = this.rowOffsets[u]; pos < this.rowOffsets[u + 1]; pos++) {
+            if (this.targets[pos] == v) {
+                newWeights[pos] = w;
+                found = true;
+            }
+        }
+        if (found) {
+            return new CSRGraph(this, newWeights);
+        }
+
+        // insert a new entry at the end of row u, and shift the following rows one position
+        int insertAt = this.rowOffsets[u + 1];
+        int[] newRowOffsets = this.rowOffsets.clone();
+        for (int i = u + 1; i <= this.n; i++) {
+            newRowOffsets[i]++;
+        }
+        int[] newTargets = new int[this.targets.length + 1];
+        newWeights = new double[this.weights.length + 1];
+        System.arraycopy(this.targets, 0, newTargets, 0, insertAt);
+        System.arraycopy(this.weights, 0, newWeights, 0, insertAt);
+        newTargets[insertAt] = v;
+        newWeights[insertAt] = w;
+        System.arraycopy(this.targets, insertAt, newTargets, insertAt + 1, this.targets.length - insertAt);
+        System.arraycopy(this.weights, insertAt, newWeights, insertAt + 1, this.weights.length - insertAt);
+        return new CSRGraph(this.n, newRowOffsets, newTargets, newWeights);
+    }
+
+    /**
+     * @return the smallest weight among the entries from u to v, or positive infinity if there is no such entry
+     */
+    public double getEdgeWeight(int u, int v) {
+        double w = Double.POSITIVE_INFINITY;
+        for (int pos = this.rowOffsets[u]; pos < this.rowOffsets[u + 1]; pos++) {
+            if (this.targets[pos] == v) {
+                w = Math.min(w, this.weights[pos]);
+            }
+        }
+        return w;
+    }
+
+    public int getNumberOfNodes() {
+        return this.n;
+    }
+
+    /**
+     * @return the number of stored directed edges, so undirected edges are counted twice
+     */
+    public int getNumberOfEntries() {
+        return this.targets.length;
+    }
+
+    public int getRowStart(int i) {
+        return this.rowOffsets[i];
+    }
+
+    public int getRowEnd(int i) {
+        return this.rowOffsets[i + 1];
+    }
+
+    public int getTarget(int pos) {
+        return this.targets[pos];
+    }
+
+    public double getWeight(int pos) {
+        return this.weights[pos];
+    }
+}
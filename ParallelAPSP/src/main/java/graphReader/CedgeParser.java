@@ -0,0 +1,543 @@
+package graphReader;
+
+import util.Triple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Parser for .cedge files, where each line has the four columns "edgeID fromNode toNode weight", separated by spaces
+ * or tabs. It is much faster than reading the file line by line and splitting each line with a regex:
+ * <ul>
+ *     <li>The file is memory-mapped, and split into chunks at newline boundaries, which are parsed in parallel</li>
+ *     <li>The ints and doubles are parsed by hand from the bytes, without creating any Strings. Weights with at most
+ *     15 significant digits and small exponents, which is all of them in the road network datasets, are converted
+ *     with a single correctly rounded multiplication or division, so the result is the same as with
+ *     {@link Double#parseDouble(String)}, which is used for the rest.</li>
+ *     <li>The edges are stored in primitive arrays instead of boxed triples</li>
+ * </ul>
+ * Empty lines are skipped, and columns after the fourth are ignored. If a line cannot be parsed, a
+ * {@link ParseException} is thrown with the number of the first such line in the file, whose error offset is the
+ * number of lines before it. Line numbers are found by counting the lines of each chunk, and adding the counts of
+ * the chunks before it. Graphs too large to hold the parsed edges in memory can instead be streamed one chunk at a
+ * time with {@link StreamingGraphLoader}.
+ */
+public class CedgeParser {
+
+    // the chunks are small enough to balance the load, but large enough to amortize the task overhead
+    private static final long MIN_CHUNK_BYTES = 1L << 16;
+    static final long MAX_CHUNK_BYTES = 1L << 26;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // 10^22 is the largest power of ten that is exactly representable as a double
+    private static final double[] POWERS_OF_TEN = new double[23];
+    // mantissas up to 2^53 are exactly representable as doubles
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private CedgeParser() {
+    }
+
+    public static EdgeList parse(String filename) throws ParseException {
+        return parse(Paths.get(filename), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param path the .cedge file to parse
+     * @param pool the fork-join pool that the chunks are parsed in
+     * @return the edges, in the same order as in the file
+     * @throws ParseException if the file cannot be read or a line cannot be parsed
+     */
+    public static EdgeList parse(Path path, ForkJoinPool pool) throws ParseException {
+        long chunkBytes = MAX_CHUNK_BYTES;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // aim for a few chunks per thread, so threads that finish early can help the others
+            long chunksWanted = (long) pool.getParallelism() * CHUNKS_PER_THREAD;
+            chunkBytes = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, (size + chunksWanted - 1) / chunksWanted));
+        } catch (IOException e) {
+            throw new ParseException(e.getMessage(), 0);
+        }
+        return parse(path, pool, chunkBytes);
+    }
+
+    /**
+     * @param chunkBytes the approximate size of each chunk, which must be at most {@link #MAX_CHUNK_BYTES}
+     */
+    static EdgeList parse(Path path, ForkJoinPool pool, long chunkBytes) throws ParseException {
+        Chunk[] chunks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel, chunkBytes);
+            chunks = new Chunk[boundaries.length - 1];
+            for (int c = 0; c < chunks.length; c++) {
+                chunks[c] = new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, boundaries[c],
+                        boundaries[c + 1] - boundaries[c]));
+            }
+            // the mappings stay valid after the channel is closed, but parse them while it is open anyway
+            pool.invoke(new ChunkRangeTask(chunks, 0, chunks.length));
+        } catch (IOException e) {
+            throw new ParseException(e.getMessage(), 0);
+        }
+
+        // report the first error in the file, numbering its line from the line counts of the chunks before it
+        int linesBefore = 0;
+        int numberOfEdges = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.errorMessage != null) {
+                int line = linesBefore + chunk.errorLine;
+                throw new ParseException("Unable to parse line " + (line + 1) + ": " + chunk.errorMessage, line);
+            }
+            linesBefore += chunk.numberOfLines;
+            numberOfEdges += chunk.numberOfEdges;
+        }
+
+        int[] sources = new int[numberOfEdges];
+        int[] targets = new int[numberOfEdges];
+        double[] weights = new double[numberOfEdges];
+        int offset = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.sources, 0, sources, offset, chunk.numberOfEdges);
+            System.arraycopy(chunk.targets, 0, targets, offset, chunk.numberOfEdges);
+            System.arraycopy(chunk.weights, 0, weights, offset, chunk.numberOfEdges);
+            offset += chunk.numberOfEdges;
+        }
+        return new EdgeList(sources, targets, weights);
+    }
+
+    /**
+     * Parses the file one chunk at a time on the calling thread, and passes each edge to the consumer in the order of
+     * the file instead of storing it. At most {@link #MAX_CHUNK_BYTES} of the file are mapped at a time, so the file
+     * can be read several times with little memory, see {@link StreamingGraphLoader}.
+     *
+     * @throws ParseException if the file cannot be read or a line cannot be parsed. The edges before that line have
+     * already been passed to the consumer.
+     */
+    static void stream(Path path, EdgeConsumer consumer) throws ParseException {
+        streamChunks(path, buffer -> new Chunk(buffer, consumer, null));
+    }
+
+    /**
+     * Like {@link #stream(Path, EdgeConsumer)}, but for .cnode files, where each line has the three columns
+     * "nodeID x y"
+     */
+    static void streamNodes(Path path, NodeConsumer consumer) throws ParseException {
+        streamChunks(path, buffer -> new Chunk(buffer, null, consumer));
+    }
+
+    private static void streamChunks(Path path, Function<MappedByteBuffer, Chunk> newChunk) throws ParseException {
+        int linesBefore = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel, MAX_CHUNK_BYTES);
+            for (int c = 0; c + 1 < boundaries.length; c++) {
+                Chunk chunk = newChunk.apply(channel.map(FileChannel.MapMode.READ_ONLY, boundaries[c],
+                        boundaries[c + 1] - boundaries[c]));
+                chunk.parse();
+                if (chunk.errorMessage != null) {
+                    int line = linesBefore + chunk.errorLine;
+                    throw new ParseException("Unable to parse line " + (line + 1) + ": " + chunk.errorMessage, line);
+                }
+                linesBefore += chunk.numberOfLines;
+            }
+        } catch (IOException e) {
+            throw new ParseException(e.getMessage(), 0);
+        }
+    }
+
+    /**
+     * Receives the edges of a file one at a time, see {@link #stream(Path, EdgeConsumer)}
+     */
+    @FunctionalInterface
+    interface EdgeConsumer {
+        void accept(int source, int target, double weight);
+    }
+
+    /**
+     * Receives the nodes of a .cnode file one at a time, see {@link #streamNodes(Path, NodeConsumer)}
+     */
+    @FunctionalInterface
+    interface NodeConsumer {
+        void accept(int id, double x, double y);
+    }
+
+    /**
+     * Splits the file into chunks of about chunkBytes bytes, moving each boundary forward to just after the next
+     * newline, so that no line is split between two chunks
+     *
+     * @return the start of each chunk, followed by the size of the file
+     */
+    private static long[] findChunkBoundaries(FileChannel channel, long chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long next = chunkBytes;
+        while (next < size) {
+            // find the first newline at or after next - 1
+            long pos = next - 1;
+            long boundary = size;
+            search:
+            while (pos < size) {
+                window.clear();
+                int read = channel.read(window, pos);
+                if (read <= 0) {
+                    break;
+                }
+                for (int k = 0; k < read; k++) {
+                    if (window.get(k) == '\n') {
+                        boundary = pos + k + 1;
+                        break search;
+                    }
+                }
+                pos += read;
+            }
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            next = boundary + chunkBytes;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(b -> b).toArray();
+    }
+
+    /**
+     * The part of the file between two boundaries, together with the edges parsed from it. If it has a consumer, the
+     * lines are passed to it instead.
+     */
+    private static class Chunk {
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final EdgeConsumer edgeConsumer;
+        private final NodeConsumer nodeConsumer;
+        private int pos;
+
+        int numberOfLines = 0;
+        int numberOfEdges = 0;
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        double[] weights = new double[16];
+        // the line number within the chunk of the first line that could not be parsed
+        int errorLine = -1;
+        String errorMessage = null;
+
+        Chunk(MappedByteBuffer buffer) {
+            this(buffer, null, null);
+        }
+
+        Chunk(MappedByteBuffer buffer, EdgeConsumer edgeConsumer, NodeConsumer nodeConsumer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.edgeConsumer = edgeConsumer;
+            this.nodeConsumer = nodeConsumer;
+        }
+
+        void parse() {
+            while (this.pos < this.limit) {
+                try {
+                    this.parseLine();
+                } catch (LineFormatException e) {
+                    this.errorLine = this.numberOfLines;
+                    this.errorMessage = e.getMessage();
+                    return;
+                }
+                this.numberOfLines++;
+            }
+        }
+
+        /**
+         * Parses the line starting at pos, and moves pos to the start of the next line
+         */
+        private void parseLine() throws LineFormatException {
+            this.skipSpaces();
+            if (this.atEndOfLine()) {
+                this.skipToNextLine();
+                return;
+            }
+            if (this.nodeConsumer != null) {
+                int id = this.parseInt();
+                double x = this.parseDouble();
+                double y = this.parseDouble();
+                this.skipToNextLine();
+                this.nodeConsumer.accept(id, x, y);
+                return;
+            }
+            // the first column is the edge ID, which is not used
+            this.skipToken();
+            int source = this.parseInt();
+            int target = this.parseInt();
+            double weight = this.parseDouble();
+            this.skipToNextLine();
+            if (this.edgeConsumer != null) {
+                this.edgeConsumer.accept(source, target, weight);
+                this.numberOfEdges++;
+                return;
+            }
+
+            if (this.numberOfEdges == this.sources.length) {
+                this.sources = Arrays.copyOf(this.sources, 2 * this.numberOfEdges);
+                this.targets = Arrays.copyOf(this.targets, 2 * this.numberOfEdges);
+                this.weights = Arrays.copyOf(this.weights, 2 * this.numberOfEdges);
+            }
+            this.sources[this.numberOfEdges] = source;
+            this.targets[this.numberOfEdges] = target;
+            this.weights[this.numberOfEdges] = weight;
+            this.numberOfEdges++;
+        }
+
+        private boolean isSpace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+
+        private boolean atEndOfLine() {
+            return this.pos >= this.limit || this.buffer.get(this.pos) == '\n' || this.buffer.get(this.pos) == '\r';
+        }
+
+        private boolean atEndOfToken() {
+            return this.atEndOfLine() || this.isSpace(this.buffer.get(this.pos));
+        }
+
+        private void skipSpaces() {
+            while (this.pos < this.limit && this.isSpace(this.buffer.get(this.pos))) {
+                this.pos++;
+            }
+        }
+
+        private void skipToken() {
+            while (!this.atEndOfToken()) {
+                this.pos++;
+            }
+        }
+
+        private void skipToNextLine() {
+            while (this.pos < this.limit && this.buffer.get(this.pos) != '\n') {
+                this.pos++;
+            }
+            this.pos++;
+        }
+
+        /**
+         * Moves to the start of the next column
+         */
+        private void nextColumn() throws LineFormatException {
+            this.skipSpaces();
+            if (this.atEndOfLine()) {
+                throw new LineFormatException("The line did not have " + (this.nodeConsumer != null ? 3 : 4)
+                        + " columns");
+            }
+        }
+
+        private String currentToken(int start) {
+            int end = start;
+            while (end < this.limit && !this.isSpace(this.buffer.get(end)) && this.buffer.get(end) != '\n'
+                    && this.buffer.get(end) != '\r') {
+                end++;
+            }
+            byte[] bytes = new byte[end - start];
+            for (int k = start; k < end; k++) {
+                bytes[k - start] = this.buffer.get(k);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        private int parseInt() throws LineFormatException {
+            this.nextColumn();
+            int start = this.pos;
+            boolean negative = false;
+            byte b = this.buffer.get(this.pos);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                this.pos++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (!this.atEndOfToken()) {
+                int digit = this.buffer.get(this.pos) - '0';
+                if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE + 1L) {
+                    throw new LineFormatException("For input string: \"" + this.currentToken(start) + "\"");
+                }
+                value = 10 * value + digit;
+                digits++;
+                this.pos++;
+            }
+            value = negative ? -value : value;
+            if (digits == 0 || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new LineFormatException("For input string: \"" + this.currentToken(start) + "\"");
+            }
+            return (int) value;
+        }
+
+        private double parseDouble() throws LineFormatException {
+            this.nextColumn();
+            int start = this.pos;
+            boolean negative = false;
+            byte b = this.buffer.get(this.pos);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                this.pos++;
+            }
+
+            long mantissa = 0;
+            int exponent = 0;
+            int digits = 0;
+            // set if the number is not a plain decimal, or too precise for the fast path
+            boolean slowPath = false;
+            boolean seenPoint = false;
+            while (!this.atEndOfToken()) {
+                b = this.buffer.get(this.pos);
+                if (b == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else if (b >= '0' && b <= '9') {
+                    digits++;
+                    if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                        mantissa = 10 * mantissa + (b - '0');
+                        exponent -= seenPoint ? 1 : 0;
+                    } else {
+                        slowPath = true;
+                    }
+                } else if ((b == 'e' || b == 'E') && digits > 0) {
+                    this.pos++;
+                    exponent += this.parseExponent();
+                    break;
+                } else {
+                    slowPath = true;
+                }
+                this.pos++;
+            }
+            if (!this.atEndOfToken()) {
+                slowPath = true;
+                this.skipToken();
+            }
+
+            if (digits == 0 || slowPath || exponent < -22 || exponent > 22) {
+                try {
+                    return Double.parseDouble(this.currentToken(start));
+                } catch (NumberFormatException e) {
+                    throw new LineFormatException(e.getMessage());
+                }
+            }
+            // both operands are exact, so the result is correctly rounded
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        /**
+         * @return the exponent after an 'e', or a value outside the fast path range if it is malformed
+         */
+        private int parseExponent() {
+            boolean negative = false;
+            if (this.pos < this.limit && (this.buffer.get(this.pos) == '-' || this.buffer.get(this.pos) == '+')) {
+                negative = this.buffer.get(this.pos) == '-';
+                this.pos++;
+            }
+            int value = 0;
+            int digits = 0;
+            while (!this.atEndOfToken()) {
+                int digit = this.buffer.get(this.pos) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Integer.MAX_VALUE / 2;
+                }
+                value = Math.min(1000, 10 * value + digit);
+                digits++;
+                this.pos++;
+            }
+            if (digits == 0) {
+                return Integer.MAX_VALUE / 2;
+            }
+            return negative ? -value : value;
+        }
+    }
+
+    private static class LineFormatException extends Exception {
+        LineFormatException(String message) {
+            super(message);
+        }
+    }
+
+    private static class ChunkRangeTask extends RecursiveAction {
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkRangeTask(Chunk[] chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.chunks[this.from].parse();
+                return;
+            } else if (this.to == this.from) {
+                return;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            invokeAll(new ChunkRangeTask(this.chunks, this.from, mid), new ChunkRangeTask(this.chunks, mid, this.to));
+        }
+    }
+
+    /**
+     * The edges of a graph in three parallel primitive arrays, which must not be modified
+     */
+    public static class EdgeList {
+        private final int[] sources;
+        private final int[] targets;
+        private final double[] weights;
+
+        public EdgeList(int[] sources, int[] targets, double[] weights) {
+            if (sources.length != targets.length || sources.length != weights.length) {
+                throw new IllegalArgumentException("The arrays of an edge list must have the same length");
+            }
+            this.sources = sources;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        public int getNumberOfEdges() {
+            return this.sources.length;
+        }
+
+        public int[] getSources() {
+            return this.sources;
+        }
+
+        public int[] getTargets() {
+            return this.targets;
+        }
+
+        public double[] getWeights() {
+            return this.weights;
+        }
+
+        /**
+         * @return the edges as boxed triples, in the format used by {@link GraphReader#GraphReader(List, boolean)}
+         */
+        public List<Triple<Integer, Integer, Double>> toTriples() {
+            List<Triple<Integer, Integer, Double>> triples = new ArrayList<>(this.sources.length);
+            for (int e = 0; e < this.sources.length; e++) {
+                triples.add(new Triple<>(this.sources[e], this.targets[e], this.weights[e]));
+            }
+            return triples;
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package graphReader;
+
+import APSPSolver.APSPSolver;
+import util.LoggerFormatter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a binary copy of each graph read from a .cedge file in a cache directory, so later runs can load it without
+ * parsing the text file, reindexing the nodes or compressing the graph again. If there is no valid cache file, the
+ * graph is read as usual and then written to the cache.
+ *
+ * <p>
+ *     <h3>Cache keys</h3>
+ *     Each cache file is keyed by the SHA-256 hash of the contents of the .cedge file together with the settings it
+ *     was read with: whether the graph is directed, whether it is compressed with {@link GraphCompressor}, and whether
+ *     the tables for reconstructing paths in the original graph are included. The full key is stored in the header of
+ *     the file, so a cache file of an edited .cedge file, of other settings or of an older format version is never
+ *     loaded. The file name holds the name of the .cedge file and the start of the key, so when a graph is cached,
+ *     the other cache files of a .cedge file with the same name that were written with the same settings are deleted.
+ *     This removes the files of earlier versions of an edited graph, but also means that two .cedge files with the
+ *     same name in different directories should not share a cache directory, as they would keep replacing each other.
+ * </p>
+ * <p>
+ *     <h3>File format</h3>
+ *     All values are little-endian. The file starts with a header of {@value #HEADER_SIZE} bytes holding the magic
+ *     number, the format version, the settings flags and the key, and is followed by a sequence of arrays, each
+ *     prefixed by its length as a long and padded to a multiple of 8 bytes. The arrays are memory-mapped when the
+ *     file is loaded and copied into the primitive arrays of {@link GraphReader} in bulk, without decoding them one
+ *     value at a time. The arrays are:
+ *     <ul>
+ *         <li>The graph: the original ID of each node, the reindexed edge sources, targets and weights, and the row
+ *         offsets, targets, weights and sorted targets of its {@link CSRGraph}.</li>
+ *         <li>If it is compressed: the compressed graph in the same layout, followed by the closest nodes in the
+ *         compressed graph of each node as offsets and values, the nodes of degree two, and the nodes used as ends of
+ *         compressed edges.</li>
+ *         <li>If paths are reconstructed: the source and target of each edge of the compressed graph, and the nodes
+ *         removed from it as offsets and values.</li>
+ *     </ul>
+ * </p>
+ */
+public class GraphCache {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int MAGIC = 0x47434143;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int KEY_BYTES = 32;
+
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_COMPRESSED = 2;
+    private static final int FLAG_PATHS = 4;
+
+    private static final String FILE_EXTENSION = ".graph";
+    // the source file is mapped in chunks of this size when it is hashed
+    private static final int HASH_CHUNK_BYTES = 1 << 26;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param directory the directory to keep the cache files in. It is created when the first file is written.
+     */
+    public GraphCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the graph from the cache, or reads the .cedge file and caches it
+     *
+     * @param filename path to a file where each line has the columns "edgeID fromNode toNode weight"
+     * @param isDirected whether the edges are directed
+     * @throws ParseException if there is no cache file and the .cedge file cannot be read
+     */
+    public GraphReader read(String filename, boolean isDirected) throws ParseException {
+        int flags = isDirected ? FLAG_DIRECTED : 0;
+        return this.readOrCreate(filename, flags, null, () -> new CacheContents(
+                new GraphReader(filename, isDirected))).graph;
+    }
+
+    /**
+     * Loads the compressed graph from the cache, or reads and compresses the .cedge file and caches the result. Like
+     * {@link GraphCompressor#GraphCompressor(GraphReader)}, the compressor can only be used to get the compressed
+     * graph.
+     *
+     * @param filename path to a file with an <strong>undirected</strong> graph
+     * @throws ParseException if there is no cache file and the .cedge file cannot be read
+     */
+    public GraphCompressor readCompressed(String filename) throws ParseException {
+        return this.readCompressed(filename, null);
+    }
+
+    /**
+     * Loads the compressed graph and the tables for reconstructing paths from the cache, or reads and compresses the
+     * .cedge file and caches the result
+     *
+     * @param filename path to a file with an <strong>undirected</strong> graph
+     * @param solverConstructor a APSPSolver constructor for the compressed graph, see
+     * {@link GraphCompressor#GraphCompressor(GraphReader, Function)}, or null if paths will not be reconstructed
+     * @throws ParseException if there is no cache file and the .cedge file cannot be read
+     */
+    public GraphCompressor readCompressed(String filename, Function<GraphReader, ? extends APSPSolver> solverConstructor)
+            throws ParseException {
+        int flags = FLAG_COMPRESSED | (solverConstructor != null ? FLAG_PATHS : 0);
+        return this.readOrCreate(filename, flags, solverConstructor, () -> {
+            GraphReader graph = new GraphReader(filename, false);
+            return new CacheContents(graph, solverConstructor == null ? new GraphCompressor(graph)
+                    : new GraphCompressor(graph, solverConstructor));
+        }).compressor;
+    }
+
+    /**
+     * @return the number of graphs that were loaded from a cache file
+     */
+    public int getNumberOfHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of graphs that had to be read from their .cedge file
+     */
+    public int getNumberOfMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the file that a graph with the given key is cached in
+     */
+    Path getCacheFile(String filename, byte[] key) {
+        String name = getCacheName(filename);
+        StringBuilder hex = new StringBuilder();
+        for (int k = 0; k < 8; k++) {
+            hex.append(String.format("%02x", key[k]));
+        }
+        return this.directory.resolve(name + "-" + hex + FILE_EXTENSION);
+    }
+
+    /**
+     * @return the name of the .cedge file without its extension, which starts the name of each of its cache files
+     */
+    private static String getCacheName(String filename) {
+        String name = Paths.get(filename).getFileName().toString();
+        if (name.endsWith(".cedge")) {
+            name = name.substring(0, name.length() - ".cedge".length());
+        }
+        return name;
+    }
+
+    /**
+     * Deletes the cache files of the same .cedge file name and settings as the given cache file, as they were written
+     * for other contents of the file or an older format version and will never be loaded again
+     */
+    private void deleteStaleFiles(String filename, Path cacheFile, int flags) {
+        String prefix = getCacheName(filename) + "-";
+        // the prefix is followed by 16 hex digits, so the files of "graph-2.cedge" do not match those of "graph.cedge"
+        int nameLength = prefix.length() + 16 + FILE_EXTENSION.length();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, file -> {
+            String name = file.getFileName().toString();
+            return name.length() == nameLength && name.startsWith(prefix) && name.endsWith(FILE_EXTENSION);
+        })) {
+            for (Path file : files) {
+                if (file.equals(cacheFile) || readFlags(file) != flags) {
+                    continue;
+                }
+                Files.deleteIfExists(file);
+                LOGGER.fine("GraphCache: Deleted the stale cache file " + file);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("GraphCache: Could not delete the stale cache files of " + filename + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the settings flags in the header of the cache file, of any format version, or -1 if it is not a cache
+     * file
+     */
+    private static int readFlags(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return -1;
+                }
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            return -1;
+        }
+        header.getInt();
+        return header.getInt();
+    }
+
+    /**
+     * @return the SHA-256 hash of the format version, the settings and the contents of the file
+     */
+    static byte[] computeKey(String filename, int flags) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform should support SHA-256", e);
+        }
+        digest.update(String.format("version=%d;flags=%d;", VERSION, flags).getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_CHUNK_BYTES) {
+                long bytes = Math.min(HASH_CHUNK_BYTES, size - position);
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, bytes));
+            }
+        }
+        return digest.digest();
+    }
+
+    private CacheContents readOrCreate(String filename, int flags,
+                                                Function<GraphReader, ? extends APSPSolver> solverConstructor,
+                                                GraphSupplier create) throws ParseException {
+        byte[] key;
+        try {
+            key = computeKey(filename, flags);
+        } catch (IOException e) {
+            // let the parser report why the file cannot be read
+            LOGGER.warning("GraphCache: Could not hash " + filename + ", so it is not cached: " + e.getMessage());
+            this.misses.incrementAndGet();
+            return create.get();
+        }
+
+        Path cacheFile = this.getCacheFile(filename, key);
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                CacheContents loaded = load(cacheFile, key, flags, solverConstructor);
+                this.hits.incrementAndGet();
+                LOGGER.fine("GraphCache: Loaded " + filename + " from " + cacheFile);
+                return loaded;
+            } catch (IOException e) {
+                LOGGER.warning("GraphCache: Ignoring the cache file " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        this.misses.incrementAndGet();
+        CacheContents created = create.get();
+        try {
+            this.save(cacheFile, key, flags, created);
+            LOGGER.fine("GraphCache: Cached " + filename + " in " + cacheFile);
+            this.deleteStaleFiles(filename, cacheFile, flags);
+        } catch (IOException e) {
+            // the graph can still be used, it will just be read again next time
+            LOGGER.warning("GraphCache: Could not write the cache file " + cacheFile + ": " + e.getMessage());
+        }
+        return created;
+    }
+
+    /**
+     * Writes to a temporary file that is moved into place when complete, so a run that is stopped or another run
+     * reading the same graph never sees a partial file
+     */
+    private void save(Path cacheFile, byte[] key, int flags, CacheContents contents) throws IOException {
+        Files.createDirectories(this.directory);
+        Path temporaryFile = Files.createTempFile(this.directory, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (SectionWriter out = new SectionWriter(temporaryFile)) {
+                out.writeHeader(key, flags);
+                out.writeGraph(contents.graph);
+                if ((flags & FLAG_COMPRESSED) != 0) {
+                    writeCompression(out, contents.graph.getNumberOfNodes(), contents.compressor,
+                            (flags & FLAG_PATHS) != 0);
+                }
+            }
+            try {
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void writeCompression(SectionWriter out, int n, GraphCompressor compressor, boolean withPaths)
+            throws IOException {
+        out.writeGraph(compressor.getCompressedGraph());
+
+        // the closest nodes of node i are at [offsets[i], offsets[i + 1]), and are empty if it has none
+        int[] closestOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            List<Integer> closest = compressor.closestNodesInCompressedGraph.get(i);
+            closestOffsets[i + 1] = closestOffsets[i] + (closest == null ? 0 : closest.size());
+        }
+        int[] closestValues = new int[closestOffsets[n]];
+        for (int i = 0; i < n; i++) {
+            List<Integer> closest = compressor.closestNodesInCompressedGraph.get(i);
+            for (int k = 0; closest != null && k < closest.size(); k++) {
+                closestValues[closestOffsets[i] + k] = closest.get(k);
+            }
+        }
+        out.writeInts(closestOffsets);
+        out.writeInts(closestValues);
+        out.writeInts(toSortedArray(compressor.twoDegreeNodes));
+        out.writeInts(toSortedArray(compressor.originalNodesUsedAsEdgesInCompression));
+
+        if (!withPaths) {
+            return;
+        }
+        int numPaths = 0;
+        int numPathNodes = 0;
+        for (Map<Integer, List<Integer>> row : compressor.compressedTwoDegreePaths.values()) {
+            numPaths += row.size();
+            for (List<Integer> path : row.values()) {
+                numPathNodes += path.size();
+            }
+        }
+        int[] pathSources = new int[numPaths];
+        int[] pathTargets = new int[numPaths];
+        int[] pathOffsets = new int[numPaths + 1];
+        int[] pathNodes = new int[numPathNodes];
+        int k = 0;
+        for (Map.Entry<Integer, Map<Integer, List<Integer>>> row : compressor.compressedTwoDegreePaths.entrySet()) {
+            for (Map.Entry<Integer, List<Integer>> entry : row.getValue().entrySet()) {
+                pathSources[k] = row.getKey();
+                pathTargets[k] = entry.getKey();
+                int pos = pathOffsets[k];
+                for (int node : entry.getValue()) {
+                    pathNodes[pos++] = node;
+                }
+                pathOffsets[++k] = pos;
+            }
+        }
+        out.writeInts(pathSources);
+        out.writeInts(pathTargets);
+        out.writeInts(pathOffsets);
+        out.writeInts(pathNodes);
+    }
+
+    private static int[] toSortedArray(Set<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static CacheContents load(Path cacheFile, byte[] key, int flags,
+                                               Function<GraphReader, ? extends APSPSolver> solverConstructor)
+            throws IOException {
+        try (SectionReader in = new SectionReader(cacheFile)) {
+            in.readHeader(key, flags);
+            GraphReader graph = in.readGraph((flags & FLAG_DIRECTED) != 0);
+            if ((flags & FLAG_COMPRESSED) == 0) {
+                return new CacheContents(graph);
+            }
+
+            GraphReader compressedGraph = in.readGraph(false);
+            int[] closestOffsets = in.readInts();
+            int[] closestValues = in.readInts();
+            if (closestOffsets.length != graph.getNumberOfNodes() + 1) {
+                throw new IOException("The closest nodes do not match the size of the graph");
+            }
+            Map<Integer, List<Integer>> closestNodes = new HashMap<>();
+            for (int i = 0; i < graph.getNumberOfNodes(); i++) {
+                if (closestOffsets[i] < closestOffsets[i + 1]) {
+                    closestNodes.put(i, toList(closestValues, closestOffsets[i], closestOffsets[i + 1]));
+                }
+            }
+            Set<Integer> twoDegreeNodes = toSet(in.readInts());
+            Set<Integer> usedAsEdges = toSet(in.readInts());
+
+            Map<Integer, Map<Integer, List<Integer>>> paths = null;
+            if ((flags & FLAG_PATHS) != 0) {
+                int[] pathSources = in.readInts();
+                int[] pathTargets = in.readInts();
+                int[] pathOffsets = in.readInts();
+                int[] pathNodes = in.readInts();
+                paths = new HashMap<>();
+                for (int k = 0; k < pathSources.length; k++) {
+                    List<Integer> path = pathOffsets[k] == pathOffsets[k + 1] ? Collections.emptyList()
+                            : toList(pathNodes, pathOffsets[k], pathOffsets[k + 1]);
+                    paths.computeIfAbsent(pathSources[k], u -> new HashMap<>()).put(pathTargets[k], path);
+                }
+            }
+            return new CacheContents(graph, new GraphCompressor(graph, compressedGraph, closestNodes, paths,
+                    twoDegreeNodes, usedAsEdges, solverConstructor));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("The cache file is corrupted", e);
+        }
+    }
+
+    private static List<Integer> toList(int[] values, int start, int end) {
+        List<Integer> list = new ArrayList<>(end - start);
+        for (int k = start; k < end; k++) {
+            list.add(values[k]);
+        }
+        return list;
+    }
+
+    private static Set<Integer> toSet(int[] values) {
+        Set<Integer> set = new HashSet<>(2 * values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * What is stored in a cache file: either just a graph, or a compressor together with its original graph
+     */
+    private static class CacheContents {
+        private final GraphReader graph;
+        private final GraphCompressor compressor;
+
+        CacheContents(GraphReader graph) {
+            this.graph = graph;
+            this.compressor = null;
+        }
+
+        CacheContents(GraphReader graph, GraphCompressor compressor) {
+            this.graph = graph;
+            this.compressor = compressor;
+        }
+    }
+
+    @FunctionalInterface
+    private interface GraphSupplier {
+        CacheContents get() throws ParseException;
+    }
+
+    /**
+     * Writes the sections through a direct buffer, so the arrays are copied in bulk rather than one value at a time
+     */
+    private static class SectionWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        SectionWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void writeHeader(byte[] key, int flags) throws IOException {
+            this.buffer.putInt(MAGIC);
+            this.buffer.putInt(VERSION);
+            this.buffer.putInt(flags);
+            this.buffer.putInt(0);
+            this.buffer.put(key, 0, KEY_BYTES);
+            this.buffer.put(new byte[HEADER_SIZE - 16 - KEY_BYTES]);
+        }
+
+        void writeGraph(GraphReader graph) throws IOException {
+            CSRGraph csrGraph = graph.getCSRGraph();
+            this.writeInts(graph.getOriginalIDArray());
+            this.writeInts(graph.getEdgeSourceArray());
+            this.writeInts(graph.getEdgeTargetArray());
+            this.writeDoubles(graph.getEdgeWeightArray());
+            this.writeInts(csrGraph.getRowOffsetArray());
+            this.writeInts(csrGraph.getTargetArray());
+            this.writeDoubles(csrGraph.getWeightArray());
+            this.writeInts(graph.getSortedTargetArray());
+        }
+
+        void writeInts(int[] values) throws IOException {
+            this.writeLength(values.length);
+            for (int k = 0; k < values.length; ) {
+                this.makeSpace(Integer.BYTES);
+                int count = Math.min(values.length - k, this.buffer.remaining() / Integer.BYTES);
+                this.buffer.asIntBuffer().put(values, k, count);
+                this.buffer.position(this.buffer.position() + count * Integer.BYTES);
+                k += count;
+            }
+            // keep the next section 8-byte aligned
+            if (values.length % 2 == 1) {
+                this.makeSpace(Integer.BYTES);
+                this.buffer.putInt(0);
+            }
+        }
+
+        void writeDoubles(double[] values) throws IOException {
+            this.writeLength(values.length);
+            for (int k = 0; k < values.length; ) {
+                this.makeSpace(Double.BYTES);
+                int count = Math.min(values.length - k, this.buffer.remaining() / Double.BYTES);
+                this.buffer.asDoubleBuffer().put(values, k, count);
+                this.buffer.position(this.buffer.position() + count * Double.BYTES);
+                k += count;
+            }
+        }
+
+        private void writeLength(int length) throws IOException {
+            this.makeSpace(Long.BYTES);
+            this.buffer.putLong(length);
+        }
+
+        private void makeSpace(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Memory-maps one section at a time and copies it into an array
+     */
+    private static class SectionReader implements Closeable {
+        private final FileChannel channel;
+        private long position;
+
+        SectionReader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+
+        void readHeader(byte[] key, int flags) throws IOException {
+            ByteBuffer header = this.map(HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("The file is not a graph cache of version " + VERSION);
+            }
+            byte[] fileKey = new byte[KEY_BYTES];
+            int fileFlags = header.getInt();
+            header.getInt();
+            header.get(fileKey);
+            if (fileFlags != flags || !Arrays.equals(fileKey, key)) {
+                throw new IOException("The file was cached from a different graph or with different settings");
+            }
+        }
+
+        GraphReader readGraph(boolean isDirected) throws IOException {
+            int[] originalIDs = this.readInts();
+            int[] edgeSources = this.readInts();
+            int[] edgeTargets = this.readInts();
+            double[] edgeWeights = this.readDoubles();
+            int[] rowOffsets = this.readInts();
+            int[] targets = this.readInts();
+            double[] weights = this.readDoubles();
+            int[] sortedTargets = this.readInts();
+
+            int n = originalIDs.length;
+            int m = edgeSources.length;
+            if (edgeTargets.length != m || edgeWeights.length != m || rowOffsets.length != n + 1
+                    || rowOffsets[n] != targets.length || weights.length != targets.length
+                    || sortedTargets.length != targets.length) {
+                throw new IOException("The sections of the graph have inconsistent sizes");
+            }
+            CSRGraph csrGraph = new CSRGraph(n, rowOffsets, targets, weights);
+            return new GraphReader(originalIDs, edgeSources, edgeTargets, edgeWeights, isDirected, csrGraph,
+                    sortedTargets);
+        }
+
+        int[] readInts() throws IOException {
+            int length = this.readLength();
+            int[] values = new int[length];
+            IntBuffer section = this.map((long) length * Integer.BYTES).asIntBuffer();
+            section.get(values);
+            // skip the padding
+            this.position += length % 2 == 1 ? Integer.BYTES : 0;
+            return values;
+        }
+
+        double[] readDoubles() throws IOException {
+            int length = this.readLength();
+            double[] values = new double[length];
+            DoubleBuffer section = this.map((long) length * Double.BYTES).asDoubleBuffer();
+            section.get(values);
+            return values;
+        }
+
+        private int readLength() throws IOException {
+            long length = this.map(Long.BYTES).getLong();
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("A section has an invalid length of " + length);
+            }
+            return (int) length;
+        }
+
+        private ByteBuffer map(long bytes) throws IOException {
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("A section of " + bytes + " bytes is too large to be mapped");
+            }
+            if (this.position + bytes > this.channel.size()) {
+                throw new IOException("The file ends before the section at " + this.position);
+            }
+            ByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, bytes)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.position += bytes;
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        String filename = "../test-datasets/cal-compressed-random-graphs/2000.cedge";
+        GraphCache cache = new GraphCache(Paths.get("../graph-cache"));
+        try {
+            for (int run = 0; run < 2; run++) {
+                long startTime = System.nanoTime();
+                GraphReader graphReader = cache.read(filename, false);
+                GraphCompressor compressor = cache.readCompressed(filename);
+                System.out.println(String.format("Run %d: read %d nodes, compressed to %d nodes, in %.1f ms", run,
+                        graphReader.getNumberOfNodes(), compressor.getCompressedGraph().getNumberOfNodes(),
+                        (System.nanoTime() - startTime) / 1E6));
+            }
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        System.out.println(String.format("%d cache hits and %d misses", cache.getNumberOfHits(),
+                cache.getNumberOfMisses()));
+    }
+}
@@ -24,20 +24,20 @@ public class GraphCompressor extends APSPSolver {
      * Maps from ID in original graph to list of nodes IDs both in the original and compressed graph. The codomain
      * of this mapping uses the original IDs, so they are not reindexed.
      */
-    private Map<Integer, List<Integer>> closestNodesInCompressedGraph;
+    Map<Integer, List<Integer>> closestNodesInCompressedGraph;
     /**
      * Entry (u, v) maps to a list of nodes L. The edge (u, v) should be present in the compressed graph,
      * and list L contains all the 2-degree nodes that make a path from u to v in the original graph,
      * excluding both nodes u and v.
      * If (u, v) was an edge in the original graph, the list L is simply {}. (to be consistent with the start/end exclusion above)
      */
-    private Map<Integer, Map<Integer, List<Integer>>> compressedTwoDegreePaths;
+    Map<Integer, Map<Integer, List<Integer>>> compressedTwoDegreePaths;
     /**
      * Entry (u, v) maps to the total path length of the list of nodes L, as described in {@link #compressedTwoDegreePaths}
      */
     private Map<Integer, Map<Integer, Double>> compressedTwoDegreePathLengths;
 
-    private Set<Integer> twoDegreeNodes;
+    Set<Integer> twoDegreeNodes;
 
     /**
      * Whenever we compress a path U --- a --- b -- ... -- z --- V into an edge (U, V), the nodes {U, V} are added
@@ -45,7 +45,7 @@ public class GraphCompressor extends APSPSolver {
      * because we should not search nodes that are also in the compressed graph, and sometimes these include two degree nodes
      * if we have a "Q"-pattern (as described in {@link #removeTwoDegreeNodes(GraphReader)}.
      */
-    private Set<Integer> originalNodesUsedAsEdgesInCompression;
+    Set<Integer> originalNodesUsedAsEdgesInCompression;
 
     /**
      * The passed graphReader must have read the graph as an <strong>undirected</strong> graph. This constructor
@@ -110,6 +110,35 @@ public class GraphCompressor extends APSPSolver {
 
     }
 
+    /**
+     * Restores a compressor from a compressed graph and the tables that were built when it was compressed, such as
+     * those loaded by {@link GraphCache}, so the graph does not need to be compressed again. The path lengths of the
+     * compressed edges are only needed while compressing, so they are not restored.
+     *
+     * @param graphReader the original <strong>undirected</strong> graph
+     * @param compressedGraph the graph with the two-degree nodes removed
+     * @param compressedTwoDegreePaths the nodes removed from each compressed edge, or null if paths will not be
+     *                                 reconstructed
+     * @param solverConstructor a APSPSolver constructor, or null if paths will not be reconstructed
+     */
+    GraphCompressor(GraphReader graphReader, GraphReader compressedGraph,
+                    Map<Integer, List<Integer>> closestNodesInCompressedGraph,
+                    Map<Integer, Map<Integer, List<Integer>>> compressedTwoDegreePaths,
+                    Set<Integer> twoDegreeNodes, Set<Integer> originalNodesUsedAsEdgesInCompression,
+                    Function<GraphReader, ? extends APSPSolver> solverConstructor) {
+        super(graphReader);
+        if (solverConstructor != null && compressedTwoDegreePaths == null) {
+            throw new IllegalArgumentException("The paths of the compressed edges are needed to reconstruct paths " +
+                    "with a solver");
+        }
+        this.compressedGraph = compressedGraph;
+        this.closestNodesInCompressedGraph = closestNodesInCompressedGraph;
+        this.compressedTwoDegreePaths = compressedTwoDegreePaths;
+        this.twoDegreeNodes = twoDegreeNodes;
+        this.originalNodesUsedAsEdgesInCompression = originalNodesUsedAsEdgesInCompression;
+        this.solver = solverConstructor == null ? null : solverConstructor.apply(compressedGraph);
+    }
+
     /**
      * Utility function for partially applying the generalized fox otto matrix multiplication solver so that it
      * can be passed to the graph compressor constructor.
@@ -518,6 +547,63 @@ public class GraphCompressor extends APSPSolver {
         }
     }
 
+    /**
+     * Finds the same path as {@link #getShortestPath(int, int)}, but only the last edge of it, so compressed edges in
+     * the middle of the path are not expanded
+     */
+    @Override
+    public int getPredecessor(int i, int j) {
+        if (null == this.solver) {
+            throw new IllegalStateException("This method is not available if a APSPSolver has not been provided upon construction");
+        }
+        if (i == j) {
+            return i;
+        }
+
+        // choose the start and end nodes in the same way as getShortestDistanceAndPathAux
+        double shortestDist = Integer.MAX_VALUE;
+        int pred = -1;
+        Pair<Number, List<Integer>> intermediatePath = findTwoDegreePath(i, j);
+        if (intermediatePath.getKey().doubleValue() < shortestDist) {
+            shortestDist = intermediatePath.getKey().doubleValue();
+            pred = lastNodeOrElse(intermediatePath.getValue(), i);
+        }
+        for (int start : this.closestNodesInCompressedGraph.get(i)) {
+            for (int end : this.closestNodesInCompressedGraph.get(j)) {
+                Pair<Number, List<Integer>> pathStart = findTwoDegreePath(i, start);
+                Pair<Number, List<Integer>> pathEnd = findTwoDegreePath(end, j);
+                int startCompressedID = this.compressedGraph.getNodeIDAfterReindex(start);
+                int endCompressedID = this.compressedGraph.getNodeIDAfterReindex(end);
+                double pathLength = pathStart.getKey().doubleValue() + pathEnd.getKey().doubleValue() +
+                        this.solver.getDistanceFrom(startCompressedID, endCompressedID).doubleValue();
+                if (pathLength >= shortestDist) {
+                    continue;
+                }
+                shortestDist = pathLength;
+                if (end != j) {
+                    // the path ends with end -> (two degree nodes) -> j
+                    pred = lastNodeOrElse(pathEnd.getValue(), end);
+                } else if (start == end) {
+                    // the path is i -> (two degree nodes) -> j
+                    pred = lastNodeOrElse(pathStart.getValue(), i);
+                } else {
+                    // the path ends with the last edge of the middle path, which may be a compressed edge
+                    int middlePred = this.solver.getPredecessor(startCompressedID, endCompressedID);
+                    if (middlePred == -1) {
+                        throw new IllegalStateException("There should be a path from start to end when a better distance was found");
+                    }
+                    int beforeNode = this.compressedGraph.getNodeIdBeforeReIndex(middlePred);
+                    pred = lastNodeOrElse(this.compressedTwoDegreePaths.get(beforeNode).get(end), beforeNode);
+                }
+            }
+        }
+        return pred;
+    }
+
+    private static int lastNodeOrElse(List<Integer> path, int other) {
+        return path.isEmpty() ? other : path.get(path.size() - 1);
+    }
+
     @Override
     public Number getDistanceFrom(int i, int j) {
         if (i == j) {
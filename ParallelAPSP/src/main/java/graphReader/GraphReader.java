@@ -3,81 +3,143 @@ package graphReader;
 import javafx.util.Pair;
 import util.Triple;
 
-import java.io.*;
 import java.text.ParseException;
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import util.Matrix;
 
+/**
+ * Reads a graph from a .cedge file or a list of edges, and reindexes its nodes to be 0, 1, ..., n - 1 in increasing
+ * order of their original IDs. The edges are stored in primitive arrays, in the order they were given, and a
+ * {@link CSRGraph} of the adjacency list is built once on construction:
+ * <ul>
+ *     <li>{@link #getEdges()} and {@link #getAdjacencyList()} are read-only views over these arrays, so calling
+ *     them does not copy the graph. Their elements are boxed when accessed, so tight loops should use
+ *     {@link #getCSRGraph()} instead.</li>
+ *     <li>Each row of the adjacency list is also stored in sorted order, so {@link #hasEdge(int, int)} is a binary
+ *     search that does not allocate any objects</li>
+ * </ul>
+ */
 public class GraphReader {
-    private final List<Triple<Integer, Integer, Double>> edges;
-    private final Set<Pair<Integer, Integer>> edgeSet;
-    private final Set<Integer> nodeIDs;
+    // the reindexed edges, in the order they were given
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final double[] edgeWeights;
+    // the original ID of each reindexed node, in increasing order
+    private final int[] originalIDs;
     private final int n;
     final boolean graphIsDirected;
+    private final boolean integerWeights;
 
-    private Map<Integer, Integer> nodeIDRemapping;
-    private Map<Integer, Integer> nodeIDRemappingInverse;
+    private final CSRGraph csrGraph;
+    // the targets of each row of the CSR graph, sorted in increasing order
+    private final int[] sortedTargets;
 
+    /**
+     * Reads a .cedge file with {@link CedgeParser}, which parses it in parallel on the common fork-join pool. Graphs
+     * that are too large to hold both the parsed edges and the graph in memory can be read with
+     * {@link StreamingGraphLoader} instead.
+     *
+     * @param filename path to a file where each line has the columns "edgeID fromNode toNode weight"
+     * @param isDirected whether the edges are directed
+     * @throws ParseException if the file cannot be read, or one of its lines cannot be parsed. The error offset is
+     * the number of lines before the first line that could not be parsed.
+     */
     public GraphReader(String filename, boolean isDirected) throws ParseException {
+        this(CedgeParser.parse(filename), isDirected);
+    }
+
+    public GraphReader(List<Triple<Integer, Integer, Double>> edges, boolean isDirected) {
+        this(toEdgeList(edges), isDirected);
+    }
+
+    public GraphReader(CedgeParser.EdgeList edges, boolean isDirected) {
         this.graphIsDirected = isDirected;
+        int m = edges.getNumberOfEdges();
 
-        // try to open the file
-        File file = new File(filename);
-        FileReader fr;
-        BufferedReader br;
-        try {
-            fr = new FileReader(file);
-            br = new BufferedReader(fr);
-        } catch (FileNotFoundException e) {
-            throw new ParseException(e.getMessage(), 0);
+        // keep track of what node IDs found
+        this.originalIDs = getSortedNodeIDs(edges);
+        this.n = this.originalIDs.length;
+        // save the reindexed edges
+        this.edgeSources = new int[m];
+        this.edgeTargets = new int[m];
+        this.edgeWeights = edges.getWeights().clone();
+        for (int e = 0; e < m; e++) {
+            this.edgeSources[e] = this.reindex(edges.getSources()[e]);
+            this.edgeTargets[e] = this.reindex(edges.getTargets()[e]);
         }
+        // check if the cheaper integer representation can be used
+        this.integerWeights = allWeightsAreIntegers(this.edgeWeights);
 
-        String line;
-        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
-        try {
-            // read the file line  by line
-            while ((line = br.readLine()) != null) {
-                String[] splitted = line.split("\\s+");
-                edges.add(new Triple<>(
-                        // The 2nd and 3rd column is the node ID
-                        Integer.parseInt(splitted[1]),
-                        Integer.parseInt(splitted[2]),
-                        // 4th column is weight of edge
-                        Double.parseDouble(splitted[3])
-                ));
-            }
-            fr.close();
-        } catch (IOException | NumberFormatException e) {
-            throw new ParseException("Unable to read and parse line " + (edges.size() + 1) + ": " + e.getMessage(), edges.size());
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ParseException("The line did not have 4 columns: " + e.getMessage(), edges.size());
-        }
+        // build the adjacency list, and a sorted copy of each row for quick edge queries
+        this.csrGraph = new CSRGraph(this.n, this.edgeSources, this.edgeTargets, this.edgeWeights, isDirected);
+        this.sortedTargets = sortRows(this.csrGraph);
+    }
 
-        // keep track of what node IDs found
-        this.nodeIDs = getNodeIDSet(edges);
-        this.n = this.nodeIDs.size();
-        // save the read data
-        this.edges = reIndexEdges(edges);
-        // create set for quick edge queries
-        this.edgeSet = findEdgeSet(this.edges);
+    /**
+     * @return the targets of the CSR graph, with each row sorted in increasing order
+     */
+    static int[] sortRows(CSRGraph csrGraph) {
+        int[] sortedTargets = csrGraph.getTargetArray().clone();
+        for (int i = 0; i < csrGraph.getNumberOfNodes(); i++) {
+            Arrays.sort(sortedTargets, csrGraph.getRowStart(i), csrGraph.getRowEnd(i));
+        }
+        return sortedTargets;
     }
 
-    public GraphReader(List<Triple<Integer, Integer, Double>> edges, boolean isDirected) {
+    /**
+     * Restores a graph from arrays that were already reindexed, such as those loaded by {@link GraphCache}, without
+     * building the adjacency list again
+     */
+    GraphReader(int[] originalIDs, int[] edgeSources, int[] edgeTargets, double[] edgeWeights, boolean isDirected,
+                CSRGraph csrGraph, int[] sortedTargets) {
         this.graphIsDirected = isDirected;
+        this.originalIDs = originalIDs;
+        this.n = originalIDs.length;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeWeights = edgeWeights;
+        this.integerWeights = allWeightsAreIntegers(edgeWeights);
+        this.csrGraph = csrGraph;
+        this.sortedTargets = sortedTargets;
+    }
 
-        // keep track of what node IDs found
-        this.nodeIDs = getNodeIDSet(edges);
-        this.n = this.nodeIDs.size();
-        // save the read data
-        this.edges = reIndexEdges(edges);
-        // create set for quick edge queries
-        this.edgeSet = findEdgeSet(this.edges);
+    // The arrays below are shared rather than copied, so they must not be modified. They are only exposed for
+    // GraphCache, which stores them in bulk.
+
+    int[] getOriginalIDArray() {
+        return this.originalIDs;
     }
 
+    int[] getEdgeSourceArray() {
+        return this.edgeSources;
+    }
+
+    int[] getEdgeTargetArray() {
+        return this.edgeTargets;
+    }
+
+    double[] getEdgeWeightArray() {
+        return this.edgeWeights;
+    }
+
+    int[] getSortedTargetArray() {
+        return this.sortedTargets;
+    }
+
+    private static CedgeParser.EdgeList toEdgeList(List<Triple<Integer, Integer, Double>> edges) {
+        int[] sources = new int[edges.size()];
+        int[] targets = new int[edges.size()];
+        double[] weights = new double[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            Triple<Integer, Integer, Double> edge = edges.get(e);
+            sources[e] = edge.x();
+            targets[e] = edge.y();
+            weights[e] = edge.z();
+        }
+        return new CedgeParser.EdgeList(sources, targets, weights);
+    }
 
     /**
      * Does a flood fill from the source and returns all the edges found
@@ -118,29 +180,48 @@ public class GraphReader {
         return newEdges;
     }
 
-    private Set<Pair<Integer, Integer>> findEdgeSet(List<Triple<Integer, Integer, Double>> edges) {
-        return edges.stream().map(t -> new Pair<>(t.getFirst(), t.getSecond())).collect(Collectors.toSet());
+    /**
+     * Integer.MAX_VALUE is reserved for representing the absence of an edge, so weights must lie strictly below it.
+     *
+     * @param weights the weight of each edge
+     * @return true if every edge weight is a whole number that can be represented as an int
+     */
+    private static boolean allWeightsAreIntegers(double[] weights) {
+        for (double w : weights) {
+            if (w != Math.rint(w) || Integer.MIN_VALUE > w || w >= Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Makes all the edges be indexed from 0 to n-1 where n is the number of edges in the graph
-     * @param edges
-     * @return
+     * @return the distinct node IDs found in the edges, in increasing order
      */
-    private List<Triple<Integer, Integer, Double>> reIndexEdges(List<Triple<Integer, Integer, Double>> edges) {
-        // maps from old IDs to proposed new reindexed IDs, starting at 0
-        Map<Integer, Integer> idMap = new HashMap<>();
-        for (Integer i : this.nodeIDs) {
-            idMap.put(i, idMap.size());
+    private static int[] getSortedNodeIDs(CedgeParser.EdgeList edges) {
+        int m = edges.getNumberOfEdges();
+        int[] ids = new int[2 * m];
+        System.arraycopy(edges.getSources(), 0, ids, 0, m);
+        System.arraycopy(edges.getTargets(), 0, ids, m, m);
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int k = 0; k < ids.length; k++) {
+            if (k == 0 || ids[k] != ids[k - 1]) {
+                ids[distinct++] = ids[k];
+            }
         }
-        // save in case want to recover the mappings
-        this.nodeIDRemapping = idMap;
-        this.nodeIDRemappingInverse = idMap.entrySet().stream().collect(Collectors.toMap(Entry::getValue, Entry::getKey));
+        return Arrays.copyOf(ids, distinct);
+    }
 
-        // perform remapping
-        return edges.stream().map(triple ->
-                new Triple<>(idMap.get(triple.x()), idMap.get(triple.y()), triple.z()))
-                .collect(Collectors.toList());
+    /**
+     * @return the reindexed ID of the original ID, or a negative number if there is no such node
+     */
+    private int reindex(int originalID) {
+        // the IDs are often already 0, 1, ..., n - 1
+        if (0 <= originalID && originalID < this.n && this.originalIDs[originalID] == originalID) {
+            return originalID;
+        }
+        return Arrays.binarySearch(this.originalIDs, originalID);
     }
 
     /**
@@ -151,55 +232,97 @@ public class GraphReader {
      * @return integer id in internally used graph
      */
     public int getNodeIDAfterReindex(int originalID) {
-        if (!this.nodeIDRemapping.containsKey(originalID)) {
-            throw new NullPointerException(String.format("The node ID map does not have key %d, only keys: %s", originalID, this.nodeIDRemapping.keySet()));
+        int newID = this.reindex(originalID);
+        if (newID < 0) {
+            throw new NullPointerException(String.format("The node ID map does not have key %d, only %d keys " +
+                    "from %d to %d", originalID, this.n, this.originalIDs[0], this.originalIDs[this.n - 1]));
         }
-        return this.nodeIDRemapping.get(originalID);
+        return newID;
     }
 
     public int getNodeIdBeforeReIndex(int newID) {
-        return this.nodeIDRemappingInverse.get(newID);
+        return this.originalIDs[newID];
     }
 
-    private Set<Integer> getNodeIDSet(List<Triple<Integer, Integer, Double>> edges) {
-        // Create a set of all the distinct node IDs found in the list of edges
-        Set<Integer> nodeIds = edges.stream()
-                .mapToInt(Triple::x)
-                .collect(HashSet::new, HashSet::add, AbstractCollection::addAll);
-        nodeIds.addAll(edges.stream()
-                .mapToInt(Triple::y)
-                .collect(HashSet::new, HashSet::add, AbstractCollection::addAll));
-        return nodeIds;
+    public boolean isDirected() {
+        return this.graphIsDirected;
     }
 
     public int getNumberOfNodes() {
-        return this.nodeIDs.size();
+        return this.n;
+    }
+
+    /**
+     * @return the number of edges, where an undirected edge is only counted once
+     */
+    public int getNumberOfEdges() {
+        return this.edgeSources.length;
+    }
+
+    /**
+     * @return the adjacency list of the graph, which is built once and shared by all callers. For undirected graphs,
+     * each edge is stored in both directions.
+     */
+    public CSRGraph getCSRGraph() {
+        return this.csrGraph;
     }
 
+    /**
+     * Binary search in the sorted neighbours of i. As undirected edges are stored in both directions, only one
+     * search is needed.
+     */
     public boolean hasEdge(int i, int j) {
-        boolean result = this.edgeSet.contains(new Pair<>(i, j));
-        if (this.graphIsDirected) {
-            return result;
-        } else {
-            // check the other direction as well
-            return result || this.edgeSet.contains(new Pair<>(j, i));
+        if (i < 0 || i >= this.n) {
+            return false;
         }
+        return Arrays.binarySearch(this.sortedTargets, this.csrGraph.getRowStart(i), this.csrGraph.getRowEnd(i), j) >= 0;
     }
 
+    /**
+     * @return a read-only view of the adjacency list, where the neighbours of each node are in the same order as in
+     * {@link #getCSRGraph()}. The pairs are created when they are accessed.
+     */
     public List<List<Pair<Integer, Double>>> getAdjacencyList() {
-        // initialize to have a list for each node
-        List<List<Pair<Integer, Double>>> adjList = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            adjList.add(new ArrayList<>());
+        return new AbstractList<>() {
+            @Override
+            public List<Pair<Integer, Double>> get(int i) {
+                int start = GraphReader.this.csrGraph.getRowStart(i);
+                int end = GraphReader.this.csrGraph.getRowEnd(i);
+                return new NeighbourList(start, end);
+            }
+
+            @Override
+            public int size() {
+                return GraphReader.this.n;
+            }
+        };
+    }
+
+    /**
+     * Read-only view of the entries [start, end) of the CSR graph
+     */
+    private class NeighbourList extends AbstractList<Pair<Integer, Double>> implements RandomAccess {
+        private final int start;
+        private final int end;
+
+        NeighbourList(int start, int end) {
+            this.start = start;
+            this.end = end;
         }
-        // add entries for each edge
-        for (Triple<Integer, Integer, Double> triple : edges) {
-            adjList.get(triple.x()).add(new Pair<>(triple.y(), triple.z()));
-            if (!this.graphIsDirected) {
-                adjList.get(triple.y()).add(new Pair<>(triple.x(), triple.z()));
+
+        @Override
+        public Pair<Integer, Double> get(int k) {
+            if (k < 0 || k >= this.size()) {
+                throw new IndexOutOfBoundsException("Index " + k + " out of bounds for length " + this.size());
             }
+            int pos = this.start + k;
+            return new Pair<>(GraphReader.this.csrGraph.getTarget(pos), GraphReader.this.csrGraph.getWeight(pos));
+        }
+
+        @Override
+        public int size() {
+            return this.end - this.start;
         }
-        return adjList;
     }
 
     /**
@@ -208,30 +331,111 @@ public class GraphReader {
      */
     public Matrix<Number> getAdjacencyMatrix() {
         Matrix<Number> mat = new Matrix<>(n, () -> Double.POSITIVE_INFINITY);
-        for (Triple<Integer, Integer, Double> e : edges) {
+        for (int e = 0; e < this.edgeSources.length; e++) {
+            int u = this.edgeSources[e];
+            int v = this.edgeTargets[e];
             // in case of multiple edges between same pair of nodes, use minimum weight
-            double weight = Math.min(e.z(), mat.get(e.x(), e.y()).doubleValue());
+            double weight = Math.min(this.edgeWeights[e], mat.get(u, v).doubleValue());
             if (!this.graphIsDirected) {
-                weight = Math.min(weight, mat.get(e.y(), e.x()).doubleValue());
-                mat.set(e.y(), e.x(), weight);
+                weight = Math.min(weight, mat.get(v, u).doubleValue());
+                mat.set(v, u, weight);
             }
-            mat.set(e.x(), e.y(), weight);
+            mat.set(u, v, weight);
         }
         return mat;
     }
 
+    /**
+     * @return true if all the edge weights are whole numbers, such that {@link #getIntegerAdjacencyMatrix()} can be
+     * used instead of {@link #getAdjacencyMatrix()}
+     */
+    public boolean hasIntegerWeights() {
+        return this.integerWeights;
+    }
+
+    /**
+     * Integer distances are summed with saturation at Integer.MAX_VALUE, which is also used to represent infinity, so
+     * a path that is long enough would be mistaken for no path at all. A simple path has at most n - 1 edges, so this
+     * holds if (n - 1) times the largest absolute edge weight is below Integer.MAX_VALUE.
+     *
+     * @return true if the weights are integers and every shortest distance fits below Integer.MAX_VALUE
+     */
+    public boolean hasIntegerDistances() {
+        if (!this.integerWeights) {
+            return false;
+        }
+        double maxWeight = 0.0;
+        for (double w : this.edgeWeights) {
+            maxWeight = Math.max(maxWeight, Math.abs(w));
+        }
+        return fitsIntegerDistances(this.n, maxWeight);
+    }
+
+    /**
+     * @return true if a simple path in a graph with n nodes and the given largest absolute edge weight is shorter
+     * than Integer.MAX_VALUE
+     */
+    public static boolean fitsIntegerDistances(int n, double maxWeight) {
+        return (double) Math.max(0, n - 1) * maxWeight < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Integer version of {@link #getAdjacencyMatrix()}, where the absence of an edge is represented with
+     * Integer.MAX_VALUE instead of positive infinity. If the graph contains multiple edges between the same nodes,
+     * the shortest edge is used.
+     *
+     * @return a matrix of Integers
+     */
+    public Matrix<Number> getIntegerAdjacencyMatrix() {
+        if (!this.integerWeights) {
+            throw new IllegalStateException("The graph has non-integer edge weights, so an integer adjacency matrix " +
+                    "cannot be created");
+        }
+        Matrix<Number> mat = new Matrix<>(n, () -> Integer.MAX_VALUE);
+        for (int e = 0; e < this.edgeSources.length; e++) {
+            int u = this.edgeSources[e];
+            int v = this.edgeTargets[e];
+            // in case of multiple edges between same pair of nodes, use minimum weight
+            int weight = Math.min((int) this.edgeWeights[e], mat.get(u, v).intValue());
+            if (!this.graphIsDirected) {
+                weight = Math.min(weight, mat.get(v, u).intValue());
+                mat.set(v, u, weight);
+            }
+            mat.set(u, v, weight);
+        }
+        return mat;
+    }
+
+    /**
+     * @return a read-only view of the reindexed edges, in the order they were given. The triples are created when
+     * they are accessed.
+     */
     public List<Triple<Integer, Integer, Double>> getEdges() {
-        return edges;
+        return new EdgeListView();
+    }
+
+    private class EdgeListView extends AbstractList<Triple<Integer, Integer, Double>> implements RandomAccess {
+        @Override
+        public Triple<Integer, Integer, Double> get(int e) {
+            return new Triple<>(GraphReader.this.edgeSources[e], GraphReader.this.edgeTargets[e],
+                    GraphReader.this.edgeWeights[e]);
+        }
+
+        @Override
+        public int size() {
+            return GraphReader.this.edgeSources.length;
+        }
     }
 
     public void printSummary() {
-        System.out.println("Number of edges: " + this.edges.size());
-        System.out.println("Number of nodes: " + this.nodeIDs.size());
-        System.out.println("Max ID: " +  this.nodeIDs.stream().mapToInt(v -> v).max().orElse(-1));
-        System.out.println("Min ID: " +  this.nodeIDs.stream().mapToInt(v -> v).min().orElse(-1));
+        List<Triple<Integer, Integer, Double>> edges = this.getEdges();
+        System.out.println("Number of edges: " + edges.size());
+        System.out.println("Number of nodes: " + this.n);
+        System.out.println("Max ID: " + (this.n > 0 ? this.originalIDs[this.n - 1] : -1));
+        System.out.println("Min ID: " + (this.n > 0 ? this.originalIDs[0] : -1));
         System.out.println("Some five edges:");
-        for (int i = 0; i < Math.min(5, this.edges.size()); i++) {
-            System.out.println("    " + this.edges.get(i));
+        for (int i = 0; i < Math.min(5, edges.size()); i++) {
+            System.out.println("    " + edges.get(i));
         }
 
         // compute statistics from the adjacency list
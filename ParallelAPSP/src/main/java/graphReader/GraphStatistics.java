@@ -0,0 +1,101 @@
+package graphReader;
+
+/**
+ * Summary statistics of a graph, as used to decide how to solve APSP on it
+ */
+public class GraphStatistics {
+
+    private final int numberOfNodes;
+    private final int numberOfEntries;
+    private final int maxDegree;
+    private final int numberOfTwoDegreeNodes;
+    private final boolean directed;
+    private final boolean negativeWeights;
+    private final boolean integerWeights;
+    private final boolean integerDistances;
+
+    public GraphStatistics(GraphReader graphReader) {
+        CSRGraph csrGraph = new CSRGraph(graphReader);
+        this.numberOfNodes = csrGraph.getNumberOfNodes();
+        this.numberOfEntries = csrGraph.getNumberOfEntries();
+        this.directed = graphReader.isDirected();
+        this.integerWeights = graphReader.hasIntegerWeights();
+        this.integerDistances = graphReader.hasIntegerDistances();
+
+        int maxDegree = 0;
+        int numberOfTwoDegreeNodes = 0;
+        for (int i = 0; i < this.numberOfNodes; i++) {
+            int degree = csrGraph.getRowEnd(i) - csrGraph.getRowStart(i);
+            maxDegree = Math.max(maxDegree, degree);
+            if (degree == 2) {
+                numberOfTwoDegreeNodes++;
+            }
+        }
+        this.maxDegree = maxDegree;
+        this.numberOfTwoDegreeNodes = numberOfTwoDegreeNodes;
+
+        boolean negativeWeights = false;
+        for (int pos = 0; pos < this.numberOfEntries; pos++) {
+            negativeWeights |= csrGraph.getWeight(pos) < 0;
+        }
+        this.negativeWeights = negativeWeights;
+    }
+
+    public int getNumberOfNodes() {
+        return this.numberOfNodes;
+    }
+
+    /**
+     * @return the number of directed edges, where each undirected edge counts as two
+     */
+    public int getNumberOfEntries() {
+        return this.numberOfEntries;
+    }
+
+    public double getAverageDegree() {
+        return this.numberOfNodes == 0 ? 0.0 : (double) this.numberOfEntries / this.numberOfNodes;
+    }
+
+    public int getMaxDegree() {
+        return this.maxDegree;
+    }
+
+    /**
+     * @return the number of nodes with exactly two outgoing edges, which {@link GraphCompressor} can remove from
+     * undirected graphs
+     */
+    public int getNumberOfTwoDegreeNodes() {
+        return this.numberOfTwoDegreeNodes;
+    }
+
+    public double getTwoDegreeFraction() {
+        return this.numberOfNodes == 0 ? 0.0 : (double) this.numberOfTwoDegreeNodes / this.numberOfNodes;
+    }
+
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    public boolean hasNegativeWeights() {
+        return this.negativeWeights;
+    }
+
+    public boolean hasIntegerWeights() {
+        return this.integerWeights;
+    }
+
+    /**
+     * @return true if the distances can be computed with int arithmetic, see {@link GraphReader#hasIntegerDistances()}
+     */
+    public boolean hasIntegerDistances() {
+        return this.integerDistances;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GraphStatistics(n=%d, m=%d, average degree=%.2f, max degree=%d, two-degree fraction=%.2f," +
+                        " directed=%b, negative weights=%b, integer weights=%b)", this.numberOfNodes,
+                this.numberOfEntries, getAverageDegree(), this.maxDegree, getTwoDegreeFraction(), this.directed,
+                this.negativeWeights, this.integerWeights);
+    }
+}
@@ -0,0 +1,382 @@
+package graphReader;
+
+import util.LoggerFormatter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a .cedge file into a {@link GraphReader} in two streaming passes over the file, so the peak memory use is
+ * little more than the size of the resulting graph. {@link GraphReader#GraphReader(String, boolean)} instead parses
+ * all the edges into arrays first, and then copies them while reindexing.
+ *
+ * <p>
+ *     <h3>The passes</h3>
+ *     The file is parsed one mapped chunk at a time with {@link CedgeParser}, and the edges are never stored:
+ *     <ul>
+ *         <li>The first pass records which node IDs are used and counts the degree of each node. If only the largest
+ *         connected component is kept, the nodes are also merged into components with a union-find structure.</li>
+ *         <li>Between the passes, the kept nodes are reindexed in increasing order of their IDs, like in
+ *         {@link GraphReader}, and the degrees are turned into the row offsets of the {@link CSRGraph}. The exact
+ *         sizes of all the arrays of the graph are now known, so they are allocated once.</li>
+ *         <li>The second pass writes each kept edge directly into its row of the CSR arrays and into the edge
+ *         arrays.</li>
+ *     </ul>
+ *     The result is the same as reading the file with {@link GraphReader#GraphReader(String, boolean)} and keeping
+ *     the same edges. The working arrays are indexed by node ID, so the node IDs must be non-negative and at most
+ *     {@value #MAX_NODE_ID}, and should be dense like in the road network datasets, as they take about 12 bytes per
+ *     ID up to the largest one. Files with larger or sparser IDs can be read with
+ *     {@link GraphReader#GraphReader(String, boolean)}, which only stores the IDs that are used.
+ * </p>
+ * <p>
+ *     <h3>Filters</h3>
+ *     Edges can be filtered while the file is read, so the parts of the graph that are not kept never take any
+ *     memory:
+ *     <ul>
+ *         <li>With a {@link BoundingBox}, the coordinates of the nodes are first streamed from a .cnode file, and
+ *         only the edges with both ends in the box are kept</li>
+ *         <li>Only the connected component with the most nodes can be kept. For directed graphs, this is the largest
+ *         weakly connected component.</li>
+ *     </ul>
+ * </p>
+ */
+public class StreamingGraphLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /**
+     * The largest node ID that can be loaded, which bounds the working arrays to about 800 MB
+     */
+    public static final int MAX_NODE_ID = (1 << 26) - 1;
+
+    private final String filename;
+    private final boolean isDirected;
+    private final boolean largestComponentOnly;
+    private final BoundingBox boundingBox;
+
+    private int numberOfEdgesRead;
+    private int numberOfEdgesKept;
+
+    /**
+     * Loads all the edges of the file
+     *
+     * @param filename path to a file where each line has the columns "edgeID fromNode toNode weight"
+     * @param isDirected whether the edges are directed
+     */
+    public StreamingGraphLoader(String filename, boolean isDirected) {
+        this(filename, isDirected, false, null);
+    }
+
+    /**
+     * @param filename path to a file where each line has the columns "edgeID fromNode toNode weight"
+     * @param isDirected whether the edges are directed
+     * @param largestComponentOnly whether to only keep the connected component with the most nodes
+     * @param boundingBox only keep the edges with both ends in this box, or null to keep the edges anywhere
+     */
+    public StreamingGraphLoader(String filename, boolean isDirected, boolean largestComponentOnly,
+                                BoundingBox boundingBox) {
+        this.filename = filename;
+        this.isDirected = isDirected;
+        this.largestComponentOnly = largestComponentOnly;
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * Reads the file twice and builds the graph of the kept edges
+     *
+     * @throws ParseException if a file cannot be read, a line cannot be parsed, a node ID is negative or larger than
+     * {@link #MAX_NODE_ID}, or the file changed between the two passes
+     */
+    public GraphReader load() throws ParseException {
+        Path path = Paths.get(this.filename);
+        BitSet nodesInBox = this.boundingBox == null ? null : this.boundingBox.findNodesInBox();
+
+        // first pass: find the nodes and their degrees
+        FirstPass firstPass = new FirstPass(nodesInBox);
+        CedgeParser.stream(path, firstPass);
+        if (firstPass.negativeID != null) {
+            throw new ParseException("StreamingGraphLoader requires non-negative node IDs, but found "
+                    + firstPass.negativeID, 0);
+        }
+        if (firstPass.tooLargeID != null) {
+            throw new ParseException(String.format("StreamingGraphLoader requires node IDs of at most %d, but found "
+                    + "%d", MAX_NODE_ID, firstPass.tooLargeID), 0);
+        }
+        this.numberOfEdgesRead = firstPass.edgesRead;
+
+        // the reindexed ID of each kept node, which reuses the union-find array if there is one
+        int[] newIDs;
+        if (this.largestComponentOnly) {
+            firstPass.keepLargestComponent();
+            newIDs = firstPass.parent;
+        } else {
+            newIDs = new int[firstPass.degrees.length];
+        }
+
+        // reindex the nodes in increasing order of their IDs, and find where each row of the CSR graph starts
+        BitSet keptNodes = firstPass.nodes;
+        int[] degrees = firstPass.degrees;
+        int n = keptNodes.cardinality();
+        int[] originalIDs = new int[n];
+        int[] rowOffsets = new int[n + 1];
+        int i = 0;
+        for (int id = keptNodes.nextSetBit(0); id >= 0; id = keptNodes.nextSetBit(id + 1)) {
+            originalIDs[i] = id;
+            newIDs[id] = i;
+            rowOffsets[i + 1] = rowOffsets[i] + degrees[id];
+            // the degree is not needed anymore, so keep track of the next free position of the row instead
+            degrees[id] = rowOffsets[i];
+            i++;
+        }
+        int numEntries = rowOffsets[n];
+        // undirected edges are stored in both directions
+        int m = this.isDirected ? numEntries : numEntries / 2;
+
+        // second pass: write the kept edges into the preallocated arrays
+        SecondPass secondPass = new SecondPass(nodesInBox, keptNodes, newIDs, degrees, m, numEntries);
+        CedgeParser.stream(path, secondPass);
+        if (secondPass.numberOfEdges != m || secondPass.fileChanged) {
+            throw new ParseException("The file " + this.filename + " changed while it was read", 0);
+        }
+        this.numberOfEdgesKept = m;
+
+        CSRGraph csrGraph = new CSRGraph(n, rowOffsets, secondPass.targets, secondPass.weights);
+        GraphReader graphReader = new GraphReader(originalIDs, secondPass.edgeSources, secondPass.edgeTargets,
+                secondPass.edgeWeights, this.isDirected, csrGraph, GraphReader.sortRows(csrGraph));
+        LOGGER.info(String.format("StreamingGraphLoader: Kept %d of %d edges and %d nodes from %s", m,
+                this.numberOfEdgesRead, n, this.filename));
+        return graphReader;
+    }
+
+    /**
+     * @return the number of edges in the file, as of the last call to {@link #load()}
+     */
+    public int getNumberOfEdgesRead() {
+        return this.numberOfEdgesRead;
+    }
+
+    /**
+     * @return the number of edges that passed the filters, as of the last call to {@link #load()}
+     */
+    public int getNumberOfEdgesKept() {
+        return this.numberOfEdgesKept;
+    }
+
+    private static boolean inBox(BitSet nodesInBox, int u, int v) {
+        return nodesInBox == null || (nodesInBox.get(u) && nodesInBox.get(v));
+    }
+
+    /**
+     * @return the root of x, halving the path to it on the way
+     */
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private class FirstPass implements CedgeParser.EdgeConsumer {
+        private final BitSet nodesInBox;
+        private final BitSet nodes = new BitSet();
+        private int[] degrees = new int[INITIAL_CAPACITY];
+        // the union-find structure of the components, if only the largest one is kept
+        private int[] parent;
+        private int edgesRead = 0;
+        private Integer negativeID = null;
+        private Integer tooLargeID = null;
+
+        FirstPass(BitSet nodesInBox) {
+            this.nodesInBox = nodesInBox;
+            if (StreamingGraphLoader.this.largestComponentOnly) {
+                this.parent = new int[INITIAL_CAPACITY];
+                for (int id = 0; id < this.parent.length; id++) {
+                    this.parent[id] = id;
+                }
+            }
+        }
+
+        @Override
+        public void accept(int source, int target, double weight) {
+            this.edgesRead++;
+            if (source < 0 || target < 0) {
+                this.negativeID = Math.min(source, target);
+                return;
+            }
+            if (source > MAX_NODE_ID || target > MAX_NODE_ID) {
+                this.tooLargeID = Math.max(source, target);
+                return;
+            }
+            if (!inBox(this.nodesInBox, source, target)) {
+                return;
+            }
+            this.ensureCapacity(Math.max(source, target));
+            this.nodes.set(source);
+            this.nodes.set(target);
+            this.degrees[source]++;
+            if (!StreamingGraphLoader.this.isDirected) {
+                this.degrees[target]++;
+            }
+            if (this.parent != null) {
+                int sourceRoot = find(this.parent, source);
+                int targetRoot = find(this.parent, target);
+                this.parent[Math.max(sourceRoot, targetRoot)] = Math.min(sourceRoot, targetRoot);
+            }
+        }
+
+        private void ensureCapacity(int id) {
+            if (id < this.degrees.length) {
+                return;
+            }
+            int oldCapacity = this.degrees.length;
+            int newCapacity = (int) Math.min(MAX_NODE_ID + 1L, Math.max(2L * oldCapacity, id + 1L));
+            this.degrees = Arrays.copyOf(this.degrees, newCapacity);
+            if (this.parent != null) {
+                this.parent = Arrays.copyOf(this.parent, newCapacity);
+                for (int k = oldCapacity; k < newCapacity; k++) {
+                    this.parent[k] = k;
+                }
+            }
+        }
+
+        /**
+         * Removes the nodes outside the component with the most nodes, or the one with the smallest ID among those
+         */
+        void keepLargestComponent() {
+            int[] componentSizes = new int[this.parent.length];
+            for (int id = this.nodes.nextSetBit(0); id >= 0; id = this.nodes.nextSetBit(id + 1)) {
+                componentSizes[find(this.parent, id)]++;
+            }
+            int largest = -1;
+            for (int id = this.nodes.nextSetBit(0); id >= 0; id = this.nodes.nextSetBit(id + 1)) {
+                if (largest < 0 || componentSizes[id] > componentSizes[largest]) {
+                    largest = id;
+                }
+            }
+            for (int id = this.nodes.nextSetBit(0); id >= 0; id = this.nodes.nextSetBit(id + 1)) {
+                if (find(this.parent, id) != largest) {
+                    this.nodes.clear(id);
+                }
+            }
+        }
+    }
+
+    private class SecondPass implements CedgeParser.EdgeConsumer {
+        private final BitSet nodesInBox;
+        private final BitSet keptNodes;
+        private final int[] newIDs;
+        private final int[] nextFree;
+
+        private final int[] edgeSources;
+        private final int[] edgeTargets;
+        private final double[] edgeWeights;
+        private final int[] targets;
+        private final double[] weights;
+        private int numberOfEdges = 0;
+        private boolean fileChanged = false;
+
+        SecondPass(BitSet nodesInBox, BitSet keptNodes, int[] newIDs, int[] nextFree, int m, int numEntries) {
+            this.nodesInBox = nodesInBox;
+            this.keptNodes = keptNodes;
+            this.newIDs = newIDs;
+            this.nextFree = nextFree;
+            this.edgeSources = new int[m];
+            this.edgeTargets = new int[m];
+            this.edgeWeights = new double[m];
+            this.targets = new int[numEntries];
+            this.weights = new double[numEntries];
+        }
+
+        @Override
+        public void accept(int source, int target, double weight) {
+            if (source < 0 || target < 0 || !inBox(this.nodesInBox, source, target)
+                    || !this.keptNodes.get(source) || !this.keptNodes.get(target)) {
+                return;
+            }
+            if (this.numberOfEdges == this.edgeSources.length) {
+                this.fileChanged = true;
+                return;
+            }
+            int u = this.newIDs[source];
+            int v = this.newIDs[target];
+            this.edgeSources[this.numberOfEdges] = u;
+            this.edgeTargets[this.numberOfEdges] = v;
+            this.edgeWeights[this.numberOfEdges] = weight;
+            this.numberOfEdges++;
+
+            // keep the order of the file within each row, like CSRGraph
+            int pos = this.nextFree[source]++;
+            this.targets[pos] = v;
+            this.weights[pos] = weight;
+            if (!StreamingGraphLoader.this.isDirected) {
+                pos = this.nextFree[target]++;
+                this.targets[pos] = u;
+                this.weights[pos] = weight;
+            }
+        }
+    }
+
+    /**
+     * An axis-aligned rectangle of node coordinates, which are read from a .cnode file where each line has the
+     * columns "nodeID x y". The bounds are inclusive.
+     */
+    public static class BoundingBox {
+        private final String nodeFilename;
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+
+        public BoundingBox(String nodeFilename, double minX, double minY, double maxX, double maxY) {
+            if (minX > maxX || minY > maxY) {
+                throw new IllegalArgumentException(String.format("The bounding box [%f, %f] x [%f, %f] is empty",
+                        minX, maxX, minY, maxY));
+            }
+            this.nodeFilename = nodeFilename;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        public boolean contains(double x, double y) {
+            return this.minX <= x && x <= this.maxX && this.minY <= y && y <= this.maxY;
+        }
+
+        /**
+         * @return the IDs of the nodes in the box
+         */
+        BitSet findNodesInBox() throws ParseException {
+            BitSet nodesInBox = new BitSet();
+            CedgeParser.streamNodes(Paths.get(this.nodeFilename), (id, x, y) -> {
+                if (id >= 0 && this.contains(x, y)) {
+                    nodesInBox.set(id);
+                }
+            });
+            return nodesInBox;
+        }
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+
+        StreamingGraphLoader loader = new StreamingGraphLoader("../test-datasets/OL-but-smaller.cedge", false,
+                true, null);
+        GraphReader graphReader;
+        try {
+            graphReader = loader.load();
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        graphReader.printSummary();
+    }
+}
@@ -1,21 +1,36 @@
 package main;
 
 import APSPSolver.APSPSolver;
+import APSPSolver.BatchPathReconstructor;
+import APSPSolver.MatSquare;
+import APSPSolver.MatSquareBatchSolver;
+import APSPSolver.ParallelDijkstra;
+import APSPSolver.RadixHeapDijkstra;
+import APSPSolver.SerialDijkstra;
+import graphReader.GraphCache;
 import graphReader.GraphCompressor;
 import graphReader.GraphReader;
+import javafx.util.Pair;
 import matrixMultiplication.GeneralisedFoxOtto;
 import matrixMultiplication.MinPlusProduct;
 import timingAnalysis.topology.SquareGridTopology;
 import timingAnalysis.topology.Topology;
 import org.junit.jupiter.api.BeforeAll;
+import routing.ContractionHierarchy;
+import routing.HubLabeling;
 import timingAnalysis.MultiprocessorAttributes;
 import timingAnalysis.TimedMatSquare;
 import util.LoggerFormatter;
+import util.Triple;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,6 +38,7 @@ public class Evaluation {
 
     private static final String RANDOM_GRAPH_PATH = "../test-datasets/cal-compressed-random-graphs";
     private static final String RESULT_SAVE_PATH = "../evaluation/timing-data";
+    private static final GraphCache GRAPH_CACHE = new GraphCache(Paths.get("../graph-cache"));
     private static final int AVG_REPETITIONS = 5;
     private static final Function<Integer, Topology> TOPOLOGY = SquareGridTopology::new;
     private static final Class<? extends MinPlusProduct> FOXOTTO = GeneralisedFoxOtto.class;
@@ -63,7 +79,7 @@ public class Evaluation {
     }
 
     public GraphReader getGraph(int size) throws ParseException {
-        return new GraphReader(String.format("%s/%d.cedge", RANDOM_GRAPH_PATH, size), false);
+        return GRAPH_CACHE.read(String.format("%s/%d.cedge", RANDOM_GRAPH_PATH, size), false);
     }
 
     /**
@@ -109,15 +125,14 @@ public class Evaluation {
         int ITER_OFFSET = 0;
 
         MultiprocessorAttributes multiprocessor = getSandyBridgeAttributes();
-        GraphReader cal;
+        // compress the graph, or load it from the cache
+        GraphCompressor calCompressed;
         try {
-            cal = new GraphReader("../datasets/cal.cedge", false);
+            calCompressed = GRAPH_CACHE.readCompressed("../datasets/cal.cedge");
         } catch (ParseException e) {
             e.printStackTrace();
             return;
         }
-        // compress the graph
-        GraphCompressor calCompressed = new GraphCompressor(cal);
         TimedMatSquare solver = new TimedMatSquare(calCompressed.getCompressedGraph(), p, TOPOLOGY, multiprocessor, FOXOTTO, AVG_REPETITIONS);
 
         for (int i = ITER_OFFSET; i < numRepetitions; i++) {
@@ -137,17 +152,225 @@ public class Evaluation {
         }
     }
 
+    /**
+     * Compares the wall-clock time of {@link SerialDijkstra}, which uses a binary heap of doubles, with
+     * {@link RadixHeapDijkstra}, which scales the weights to integers and uses a radix heap, on the random subgraphs
+     * of the California road network. The average time over all repetitions is logged for each problem size.
+     *
+     * @param problemSizes a list of problem sizes (in number of nodes)
+     * @param numRepetitions number of times each solver is run on each graph. An extra warm-up run is done first.
+     */
+    public void compareDijkstraPriorityQueues(List<Integer> problemSizes, int numRepetitions) {
+        for (int i : problemSizes) {
+            GraphReader graph;
+            try {
+                graph = getGraph(i);
+            } catch (ParseException e) {
+                e.printStackTrace();
+                return;
+            }
+            double binaryHeapTime = timeSolver(() -> new SerialDijkstra(graph), numRepetitions);
+            double radixHeapTime = timeSolver(() -> new RadixHeapDijkstra(graph), numRepetitions);
+            LOGGER.info(String.format("n=%d: binary heap %.2f ms, radix heap %.2f ms, speedup %.2f", i,
+                    binaryHeapTime, radixHeapTime, binaryHeapTime / radixHeapTime));
+        }
+    }
+
+    /**
+     * @return the average time in milliseconds of {@link APSPSolver#solve()}, after one warm-up run
+     */
+    private double timeSolver(Supplier<? extends APSPSolver> solverConstructor, int numRepetitions) {
+        solverConstructor.get().solve();
+        long totalTime = 0;
+        for (int r = 0; r < numRepetitions; r++) {
+            APSPSolver solver = solverConstructor.get();
+            long startTime = System.nanoTime();
+            solver.solve();
+            totalTime += System.nanoTime() - startTime;
+        }
+        return totalTime / 1E6 / numRepetitions;
+    }
+
+    /**
+     * Measures the throughput of shortest path queries on a solved random subgraph of the California road network,
+     * comparing {@link APSPSolver#getShortestPath(int, int)} with batches reconstructed in parallel by
+     * {@link BatchPathReconstructor}. JMH is not a dependency of this project, so the benchmark follows its
+     * approach by hand: the same random queries are run for a number of warm-up iterations, whose results are
+     * discarded, before the measured iterations. A checksum of the paths is kept so that the JIT cannot eliminate
+     * the work.
+     *
+     * @param problemSize number of nodes in the graph
+     * @param numQueries number of random (i, j) pairs in each iteration
+     * @param numIterations number of measured iterations, after as many warm-up iterations
+     */
+    public void measurePathQueryThroughput(int problemSize, int numQueries, int numIterations) {
+        GraphReader graph;
+        try {
+            graph = getGraph(problemSize);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        APSPSolver solver = new ParallelDijkstra(graph);
+        solver.solve();
+        BatchPathReconstructor reconstructor = new BatchPathReconstructor(solver);
+
+        Random random = new Random(42);
+        int[] sources = new int[numQueries];
+        int[] targets = new int[numQueries];
+        for (int q = 0; q < numQueries; q++) {
+            sources[q] = random.nextInt(problemSize);
+            targets[q] = random.nextInt(problemSize);
+        }
+
+        long checksum = 0;
+        long boxedTime = 0;
+        long batchTime = 0;
+        for (int iteration = -numIterations; iteration < numIterations; iteration++) {
+            long startTime = System.nanoTime();
+            for (int q = 0; q < numQueries; q++) {
+                checksum += solver.getShortestPath(sources[q], targets[q]).map(List::size).orElse(0);
+            }
+            long midTime = System.nanoTime();
+            checksum += reconstructor.getShortestPaths(sources, targets).getNodes().length;
+            long endTime = System.nanoTime();
+            // negative iterations are warm-up
+            if (iteration >= 0) {
+                boxedTime += midTime - startTime;
+                batchTime += endTime - midTime;
+            }
+        }
+        double totalQueries = (double) numQueries * numIterations;
+        LOGGER.info(String.format("n=%d: getShortestPath %.3g queries/s, batch %.3g queries/s, speedup %.2f " +
+                "(checksum %d)", problemSize, totalQueries / (boxedTime / 1E9), totalQueries / (batchTime / 1E9),
+                (double) boxedTime / batchTime, checksum));
+    }
+
+    /**
+     * Compares the time of {@link MatSquare#updateEdge(int, int, double)} with solving the whole problem again, on a
+     * random subgraph of the California road network. Random edges are alternately made 10 times shorter and then
+     * restored, so both the relaxation of decreases and the recomputation of increases are measured.
+     *
+     * @param problemSize number of nodes in the graph
+     * @param p the problem is solved by p x p processing elements
+     * @param numUpdates number of edge updates to time
+     */
+    public void compareIncrementalUpdates(int problemSize, int p, int numUpdates) {
+        GraphReader graph;
+        try {
+            graph = getGraph(problemSize);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        MatSquare solver = new MatSquare(graph, p, FOXOTTO);
+        long startTime = System.nanoTime();
+        solver.solve();
+        double solveTime = (System.nanoTime() - startTime) / 1E6;
+
+        Random random = new Random(42);
+        List<Triple<Integer, Integer, Double>> edges = graph.getEdges();
+        startTime = System.nanoTime();
+        for (int update = 0; update < numUpdates; update++) {
+            Triple<Integer, Integer, Double> edge = edges.get(random.nextInt(edges.size()));
+            solver.updateEdge(edge.x(), edge.y(), edge.z() / 10);
+            solver.updateEdge(edge.x(), edge.y(), edge.z());
+        }
+        double updateTime = (System.nanoTime() - startTime) / 1E6 / (2 * numUpdates);
+        LOGGER.info(String.format("n=%d: full solve %.2f ms, edge update %.3f ms, speedup %.1f", problemSize,
+                solveTime, updateTime, solveTime / updateTime));
+    }
+
+    /**
+     * Compares point-to-point queries with a {@link ContractionHierarchy} and a {@link HubLabeling} against looking
+     * the distances up in a table solved by {@link MatSquare}, and against {@link SerialDijkstra}, which has to solve
+     * a whole row per query. The preprocessing time of each method is logged together with the average latency of
+     * random queries, each of which also reconstructs the path.
+     *
+     * @param problemSize number of nodes in the random subgraph of the California road network
+     * @param p the table is solved by p x p processing elements
+     * @param numQueries number of random (i, j) pairs to time
+     */
+    public void compareContractionHierarchyQueries(int problemSize, int p, int numQueries) {
+        GraphReader graph;
+        try {
+            graph = getGraph(problemSize);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        Random random = new Random(42);
+        int[] sources = random.ints(numQueries, 0, problemSize).toArray();
+        int[] targets = random.ints(numQueries, 0, problemSize).toArray();
+
+        List<Pair<String, APSPSolver>> solvers = List.of(
+                new Pair<>("ContractionHierarchy", new ContractionHierarchy(graph)),
+                new Pair<>("HubLabeling", new HubLabeling(graph)),
+                new Pair<>("MatSquare", new MatSquare(graph, p, FOXOTTO)),
+                new Pair<>("SerialDijkstra", new SerialDijkstra(graph)));
+        for (Pair<String, APSPSolver> solver : solvers) {
+            long startTime = System.nanoTime();
+            solver.getValue().solve();
+            double preprocessingTime = (System.nanoTime() - startTime) / 1E6;
+            startTime = System.nanoTime();
+            long checksum = 0;
+            for (int q = 0; q < numQueries; q++) {
+                checksum += solver.getValue().getShortestPath(sources[q], targets[q]).map(List::size).orElse(0);
+            }
+            double queryTime = (System.nanoTime() - startTime) / 1E3 / numQueries;
+            LOGGER.info(String.format("n=%d: %s preprocessing %.1f ms, query %.2f us (checksum %d)", problemSize,
+                    solver.getKey(), preprocessingTime, queryTime, checksum));
+        }
+        // without preprocessing, Dijkstra has to solve a whole row for each query
+        double dijkstraRowTime = timeSolver(() -> new SerialDijkstra(graph), 1) * 1E3 / problemSize;
+        LOGGER.info(String.format("n=%d: SerialDijkstra without preprocessing %.2f us per query", problemSize,
+                dijkstraRowTime));
+    }
+
+    /**
+     * Compares the throughput of solving many copies of a small graph one at a time with {@link MatSquare#solve()},
+     * which creates a new manager and thread pool for each graph, against {@link MatSquareBatchSolver}
+     *
+     * @param problemSize number of nodes in each graph
+     * @param p each graph is solved by p x p processing elements
+     * @param numGraphs number of graphs in the batch
+     */
+    public void measureBatchThroughput(int problemSize, int p, int numGraphs) {
+        GraphReader graph;
+        try {
+            graph = getGraph(problemSize);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        List<GraphReader> graphs = Collections.nCopies(numGraphs, graph);
+
+        long startTime = System.nanoTime();
+        for (GraphReader g : graphs) {
+            new MatSquare(g, p, FOXOTTO).solve();
+        }
+        double separateThroughput = numGraphs / ((System.nanoTime() - startTime) / 1E9);
+
+        MatSquareBatchSolver batchSolver = new MatSquareBatchSolver(p, FOXOTTO);
+        batchSolver.solveAll(graphs);
+        batchSolver.shutdown();
+        LOGGER.info(String.format("n=%d: separate solves %.1f graphs/s, batch %.1f graphs/s with %d managers",
+                problemSize, separateThroughput, batchSolver.getGraphsPerSecond(),
+                batchSolver.getNumberOfManagersCreated()));
+    }
+
     public void outputPathOnCaliforniaNetwork(int p, int startNode, int endNode) {
-        GraphReader cal;
+        // compress the graph and use it as the solver, reusing the compression tables from earlier runs
+        GraphCompressor calCompressed;
         try {
-            cal = new GraphReader("../datasets/cal.cedge", false);
-//            cal = new GraphReader("../test-datasets/cal-compressed-random-graphs/500.cedge", false);
+            calCompressed = GRAPH_CACHE.readCompressed("../datasets/cal.cedge",
+                    GraphCompressor.getCurriedFoxOttoAPSPSolverConstructor(p));
+//            calCompressed = GRAPH_CACHE.readCompressed("../test-datasets/cal-compressed-random-graphs/500.cedge",
+//                    GraphCompressor.getCurriedFoxOttoAPSPSolverConstructor(p));
         } catch (ParseException e) {
             e.printStackTrace();
             return;
         }
-        // compress the graph and use it as the solver
-        GraphCompressor calCompressed = new GraphCompressor(cal, GraphCompressor.getCurriedFoxOttoAPSPSolverConstructor(p));
         APSPSolver solver = calCompressed;
 
         solver.solve();
@@ -181,6 +404,11 @@ public class Evaluation {
 //        List<Integer> ns = Arrays.asList(700);
 //        evaluation.measureScaling(128, ns, 5);
 //        evaluation.measureCalRoadNetworkExecutionTimes(128, 5);
+//        evaluation.compareDijkstraPriorityQueues(Arrays.asList(500, 1000, 1500, 2000), 3);
+//        evaluation.measurePathQueryThroughput(2000, 1000000, 5);
+//        evaluation.compareIncrementalUpdates(500, 8, 50);
+//        evaluation.compareContractionHierarchyQueries(2000, 8, 100000);
+//        evaluation.measureBatchThroughput(100, 4, 200);
 
         evaluation.outputPathOnCaliforniaNetwork(8, 1, 10);
     }
@@ -0,0 +1,168 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+import work.BlockDistribution;
+
+import java.util.List;
+
+/**
+ * This class implements the min-plus matrix product on a rectangular grid of p x q processing elements, using only
+ * row and column broadcasts. It has the same memory preconditions and results as {@link GeneralisedFoxOtto}, but
+ * unlike Fox-Otto it does not require the grid of processing elements to be square.
+ *
+ * <p>The inner dimension of the product is split into the panels given by
+ * {@link BlockDistribution#getCommonPanels}, such that each panel of columns of A is held by a single column of PEs
+ * and each panel of rows of B (and P) is held by a single row of PEs. In phase l, the owners of panel l broadcast
+ * their part of A along their row and their part of B and P along their column, and every PE then accumulates
+ * the min-plus product of the two received panels. The number of computation phases must therefore equal the number
+ * of panels, which is p when the grid is square.</p>
+ *
+ * The memory preconditions for this algorithm are:
+ * <p>At memory location (i, j), there should be the following {@code PrivateMemory} content:
+ *  <ul>
+ *      <li>"A" maps to the element A[i, j] of the left matrix</li>
+ *      <li>"B" maps to the element B[i, j] of the right matrix</li>
+ *      <li>"P" maps to the element P[i, j] of the predecessor matrix</li>
+ *  </ul>
+ * </p>
+ * <p>After work has been finished, the following results can be accessed with {@link work.Manager#getResult(String)}:
+ * <ul>
+ *     <li>"dist" the resulting min-plus matrix product</li>
+ *     <li>"pred" the resulting predecessor matrix</li>
+ * </ul>
+ * </p>
+ */
+public class BroadcastMinPlusProduct extends MinPlusProduct {
+
+    // the dimensions of this PE's own block of the input matrices
+    private final int numRows;
+    private final int numCols;
+
+    private final List<int[]> panels;
+
+    public BroadcastMinPlusProduct(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                                   CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+        this.numRows = rowDistribution.getBlockSize(i);
+        this.numCols = colDistribution.getBlockSize(j);
+        this.panels = BlockDistribution.getCommonPanels(rowDistribution, colDistribution);
+        if (numPhases != this.panels.size()) {
+            throw new IllegalArgumentException(String.format("A %d x %d grid solving a problem of size %d requires " +
+                    "%d phases, but %d phases were requested.", p, q, n, this.panels.size(), numPhases));
+        }
+    }
+
+    /**
+     * @param p number of rows of processing elements
+     * @param q number of columns of processing elements
+     * @param n problem size
+     * @return the number of computation phases needed to compute the full product
+     */
+    public static int getNumberOfPhases(int p, int q, int n) {
+        return BlockDistribution.getCommonPanels(new BlockDistribution(n, p), new BlockDistribution(n, q)).size();
+    }
+
+    @Override
+    public void initialisation() {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                // This is not the first management phase, so reinitialize input with result from
+                //   previous management iteration
+                if (presentInMemory(i2, j2, "dist")) {
+                    store(i2, j2, "A", read(i2, j2, "dist"));
+                    store(i2, j2, "B", read(i2, j2, "dist"));
+                    store(i2, j2, "P", read(i2, j2, "pred"));
+                }
+
+                // running total of least distance found so far
+                store(i2, j2, "dist", Double.POSITIVE_INFINITY);
+                // the received panels are written to "A", "B" and "P", so keep a copy of the input
+                store(i2, j2, "A_CONST", read(i2, j2, "A"));
+                store(i2, j2, "B_CONST", read(i2, j2, "B"));
+                store(i2, j2, "P_CONST", read(i2, j2, "P"));
+                // keep a default pred value in case we don't find any
+                store(i2, j2, "pred", read(i2, j2, "P"));
+
+                // we are using integer weights instead
+                if (read(i2, j2, "A") instanceof Integer) {
+                    store(i2, j2, "dist", Integer.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void computation(int l) {
+        int panelStart = panels.get(l)[0];
+        int panelSize = panels.get(l)[1] - panelStart;
+        int colOffset = colDistribution.getBlockOffset(j);
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                for (int m = 0; m < panelSize; m++) {
+                    // global index of the intermediate node
+                    int k = panelStart + m;
+
+                    double curDist = readDouble(i2, j2, "dist");
+                    double otherDist = readDouble(i2, m, "A") + readDouble(m, j2, "B");
+
+                    // found better distance
+                    if (otherDist < curDist) {
+                        store(i2, j2, "dist", otherDist);
+                        // Unlike Fox-Otto, the intermediate nodes are not visited starting from k = i', so the
+                        //   path i' -> j' -> j' may be found after a longer one. Its predecessor is then the
+                        //   original P[i', j'] rather than the P[k, j'] = j' which would cause a self-loop
+                        if (k != colOffset + j2) {
+                            store(i2, j2, "pred", readInt(m, j2, "P"));
+                        } else {
+                            store(i2, j2, "pred", readInt(i2, j2, "P_CONST"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void communicationBefore(int l) throws CommunicationChannelCongestionException {
+        int panelStart = panels.get(l)[0];
+        int panelSize = panels.get(l)[1] - panelStart;
+
+        // the column of PEs holding the columns of A in this panel broadcasts them along the rows
+        if (j == colDistribution.getBlockOf(panelStart)) {
+            int offset = panelStart - colDistribution.getBlockOffset(j);
+            for (int i2 = 0; i2 < numRows; i2++) {
+                for (int m = 0; m < panelSize; m++) {
+                    broadcastRow(readDouble(i2, offset + m, "A_CONST"));
+                }
+            }
+        }
+        // the row of PEs holding the rows of B and P in this panel broadcasts them along the columns
+        if (i == rowDistribution.getBlockOf(panelStart)) {
+            int offset = panelStart - rowDistribution.getBlockOffset(i);
+            for (int m = 0; m < panelSize; m++) {
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    broadcastCol(readDouble(offset + m, j2, "B_CONST"));
+                    broadcastCol(readDouble(offset + m, j2, "P_CONST"));
+                }
+            }
+        }
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int m = 0; m < panelSize; m++) {
+                receiveRowBroadcast(i2, m, "A");
+            }
+        }
+        for (int m = 0; m < panelSize; m++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                receiveColBroadcast(m, j2, "B");
+                receiveColBroadcast(m, j2, "P");
+            }
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException { }
+}
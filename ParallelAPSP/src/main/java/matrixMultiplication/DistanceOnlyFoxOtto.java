@@ -0,0 +1,84 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+
+/**
+ * Variant of {@link GeneralisedFoxOtto} that only computes the min-plus product "dist", without maintaining a
+ * predecessor matrix. The "P" blocks are then not shifted alongside the "B" blocks, which halves the point-to-point
+ * communication volume, and no predecessor updates are done in the computation phases.
+ *
+ * The memory preconditions for this algorithm are:
+ * <p>At memory location (i, j), there should be the following {@code PrivateMemory} content:
+ *  <ul>
+ *      <li>"A" maps to the element A[i, j] of the left matrix</li>
+ *      <li>"B" maps to the element B[i, j] of the right matrix</li>
+ *  </ul>
+ * </p>
+ * <p>After work has been finished, the following results can be accessed with {@link work.Manager#getResult(String)}:
+ * <ul>
+ *     <li>"dist" the resulting min-plus matrix product</li>
+ * </ul>
+ * </p>
+ */
+public class DistanceOnlyFoxOtto extends GeneralisedFoxOtto {
+
+    public DistanceOnlyFoxOtto(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                               CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+    }
+
+    @Override
+    public void initialisation() {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                // This is not the first management phase, so reinitialize input with result from
+                //   previous management iteration
+                if (presentInMemory(i2, j2, "dist")) {
+                    storeDouble(i2, j2, "A", readDouble(i2, j2, "dist"));
+                    storeDouble(i2, j2, "B", readDouble(i2, j2, "dist"));
+                }
+
+                // running total of least distance found so far
+                storeDouble(i2, j2, "dist", Double.POSITIVE_INFINITY);
+                // the "A" entry is never shifted, only broadcasted, so make a copy of it to prevent overwrite
+                storeDouble(i2, j2, "A_CONST", readDouble(i2, j2, "A"));
+            }
+        }
+    }
+
+    @Override
+    public void computation(int l) {
+        int innerSize = rowDistribution.getBlockSize(getInnerBlock(l));
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                // the order of the intermediate nodes does not matter when there are no predecessors to keep track of
+                double curDist = readDouble(i2, j2, "dist");
+                for (int m = 0; m < innerSize; m++) {
+                    curDist = Math.min(curDist, readDouble(i2, m, "A") + readDouble(m, j2, "B"));
+                }
+                storeDouble(i2, j2, "dist", curDist);
+            }
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException {
+        // see GeneralisedFoxOtto::communicationAfter for the block sizes
+        int sentRows = rowDistribution.getBlockSize(getInnerBlock(l));
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                send(sendLoc, j, readDouble(i2, j2, "B"));
+            }
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                receive(i2, j2, "B");
+            }
+        }
+    }
+}
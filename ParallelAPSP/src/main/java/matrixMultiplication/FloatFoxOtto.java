@@ -0,0 +1,136 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+
+/**
+ * Single precision specialisation of {@link GeneralisedFoxOtto}. The distances are stored in {@code float[]} backed
+ * private memory labels and sent and broadcast as Floats, so they take 4 bytes to store and communicate instead of
+ * 8. The predecessor matrix is still made of Integers.
+ *
+ * <p>Each edge weight is rounded to the nearest float, and every distance is then computed as a sum of at most
+ * n - 1 such weights using float additions, each of which has a relative rounding error of at most u = 2^-24. As all
+ * the weights are non-negative, the computed distance of every path is within a relative error of
+ * {@link #getRelativeErrorBound(int)} of its exact length. Since the computed shortest distance is the minimum over
+ * such paths, it is also within this relative error of the exact shortest distance.</p>
+ *
+ * <p>The memory preconditions and results are the same as for {@link GeneralisedFoxOtto}, but "A" and "B" should
+ * hold Floats.</p>
+ */
+public class FloatFoxOtto extends GeneralisedFoxOtto {
+
+    // unit roundoff of single precision floating point arithmetic
+    private static final double UNIT_ROUNDOFF = Math.pow(2, -24);
+
+    public FloatFoxOtto(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                        CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+    }
+
+    /**
+     * A path of at most n - 1 edges has its n - 1 weights rounded and is summed with at most n - 2 additions, so
+     * there are at most 2n - 3 roundings. The relative error is then bounded by the standard
+     * gamma_m = m * u / (1 - m * u), with m = 2n - 3.
+     *
+     * @param n number of nodes in the graph
+     * @return bound on |computed - exact| / exact for all the distances computed by this worker
+     */
+    public static double getRelativeErrorBound(int n) {
+        double m = Math.max(0, 2 * n - 3);
+        if (m * UNIT_ROUNDOFF >= 1) {
+            throw new IllegalArgumentException("The graph is too large for the error of single precision " +
+                    "floating point arithmetic to be bounded");
+        }
+        return m * UNIT_ROUNDOFF / (1 - m * UNIT_ROUNDOFF);
+    }
+
+    @Override
+    public void initialisation() {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                // This is not the first management phase, so reinitialize input with result from
+                //   previous management iteration
+                if (presentInMemory(i2, j2, "dist")) {
+                    storeFloat(i2, j2, "A", readFloat(i2, j2, "dist"));
+                    storeFloat(i2, j2, "B", readFloat(i2, j2, "dist"));
+                    storeInt(i2, j2, "P", readInt(i2, j2, "pred"));
+                }
+
+                // running total of least distance found so far
+                storeFloat(i2, j2, "dist", Float.POSITIVE_INFINITY);
+                // the "A" entry is never shifted, only broadcasted, so make a copy of it to prevent overwrite
+                storeFloat(i2, j2, "A_CONST", readFloat(i2, j2, "A"));
+                // keep a default pred value in case we don't find any
+                storeInt(i2, j2, "pred", readInt(i2, j2, "P"));
+            }
+        }
+    }
+
+    @Override
+    public void computation(int l) {
+        int innerBlock = getInnerBlock(l);
+        int innerSize = rowDistribution.getBlockSize(innerBlock);
+        int innerOffset = rowDistribution.getBlockOffset(innerBlock);
+        int colOffset = colDistribution.getBlockOffset(j);
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                for (int m = 0; m < innerSize; m++) {
+                    // same iteration order as in GeneralisedFoxOtto to get the predecessor pointers right
+                    int iter = (i2 + m) % innerSize;
+                    int k = innerOffset + iter;
+
+                    float curDist = readFloat(i2, j2, "dist");
+                    float otherDist = readFloat(i2, iter, "A") + readFloat(iter, j2, "B");
+
+                    // found better distance
+                    if (otherDist < curDist) {
+                        storeFloat(i2, j2, "dist", otherDist);
+                        // only update predecessor if it does not cause loops i.e. if k != j'
+                        if (k != colOffset + j2) {
+                            storeInt(i2, j2, "pred", readInt(iter, j2, "P"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void communicationBefore(int l) throws CommunicationChannelCongestionException {
+        int innerBlock = getInnerBlock(l);
+        if (j == innerBlock) {
+            for (int i2 = 0; i2 < numRows; i2++) {
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    broadcastRow(readFloat(i2, j2, "A_CONST"));
+                }
+            }
+        }
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < colDistribution.getBlockSize(innerBlock); j2++) {
+                receiveRowBroadcast(i2, j2, "A");
+            }
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException {
+        // see GeneralisedFoxOtto::communicationAfter for the block sizes
+        int sentRows = rowDistribution.getBlockSize(getInnerBlock(l));
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                send(sendLoc, j, readFloat(i2, j2, "B"));
+                send(sendLoc, j, readInt(i2, j2, "P"));
+            }
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                receive(i2, j2, "B");
+                receive(i2, j2, "P");
+            }
+        }
+    }
+}
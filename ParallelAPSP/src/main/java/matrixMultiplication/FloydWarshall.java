@@ -0,0 +1,278 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+import work.Worker;
+
+/**
+ * This class implements the blocked Floyd-Warshall algorithm on a square grid of p x p processing elements, where
+ * PE(i, j) holds block (i, j) of the distance and predecessor matrices. Unlike repeated squaring, the transitive
+ * closure is computed with a single run of the manager, doing O(n^3) work in total instead of O(n^3 log n).
+ *
+ * <p>The algorithm consists of p rounds, one for each pivot block b, and each round is split into two computation
+ * phases, so 2p phases are required in total:
+ * <ol>
+ *     <li>Phase 2b: The diagonal block D[b, b] has been broadcast along row b and column b of PEs. These PEs compute
+ *     its closure D[b, b]* locally with Floyd-Warshall, and use it to update their own block with
+ *     D[b, j] = D[b, b]* (x) D[b, j] if in row b and D[i, b] = D[i, b] (x) D[b, b]* if in column b. Afterwards, the
+ *     updated pivot row blocks are broadcast along the columns and the pivot column blocks along the rows.</li>
+ *     <li>Phase 2b + 1: All the remaining PEs update their block with D[i, j] = min(D[i, j], D[i, b] (x) D[b, j]).
+ *     Afterwards, the next diagonal block D[b + 1, b + 1] is broadcast along its row and column.</li>
+ * </ol>
+ * Here, (x) denotes the min-plus product. Whenever a distance D[i', j'] is improved through an intermediate node k,
+ * the predecessor is updated to P[k, j'].</p>
+ *
+ * The memory preconditions for this algorithm are:
+ * <p>At memory location (i, j), there should be the following {@code PrivateMemory} content:
+ *  <ul>
+ *      <li>"A" maps to the element A[i, j] of the distance matrix, with 0 on the diagonal</li>
+ *      <li>"P" maps to the element P[i, j] of the predecessor matrix</li>
+ *  </ul>
+ * </p>
+ * <p>After work has been finished, the following results can be accessed with {@link work.Manager#getResult(String)}:
+ * <ul>
+ *     <li>"dist" the shortest distances between all pairs of nodes</li>
+ *     <li>"pred" the corresponding predecessor matrix</li>
+ * </ul>
+ * </p>
+ */
+public class FloydWarshall extends Worker {
+
+    // the dimensions of this PE's own block
+    private final int numRows;
+    private final int numCols;
+
+    public FloydWarshall(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                         CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+        if (p != q) {
+            throw new IllegalArgumentException("The blocked Floyd-Warshall algorithm requires a square grid of " +
+                    "processing elements, but got a " + p + " x " + q + " grid.");
+        }
+        if (numPhases != 2 * p) {
+            throw new IllegalArgumentException(String.format("The blocked Floyd-Warshall algorithm requires %d " +
+                    "phases on a %d x %d grid, but %d phases were requested.", 2 * p, p, p, numPhases));
+        }
+        this.numRows = rowDistribution.getBlockSize(i);
+        this.numCols = colDistribution.getBlockSize(j);
+    }
+
+    @Override
+    public void initialisation() {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                storeDouble(i2, j2, "dist", readDouble(i2, j2, "A"));
+                storeInt(i2, j2, "pred", readInt(i2, j2, "P"));
+            }
+        }
+    }
+
+    @Override
+    public void computation(int l) {
+        int b = l / 2;
+        // the pivot block row b and column b
+        int pivotSize = rowDistribution.getBlockSize(b);
+
+        if (l % 2 == 0) {
+            if (i != b && j != b) {
+                return;
+            }
+            // compute the closure of the received diagonal block locally
+            double[][] pivotDist = new double[pivotSize][pivotSize];
+            int[][] pivotPred = new int[pivotSize][pivotSize];
+            for (int i2 = 0; i2 < pivotSize; i2++) {
+                for (int j2 = 0; j2 < pivotSize; j2++) {
+                    pivotDist[i2][j2] = readDouble(i2, j2, "D_PIVOT");
+                    pivotPred[i2][j2] = readInt(i2, j2, "P_PIVOT");
+                }
+            }
+            for (int k = 0; k < pivotSize; k++) {
+                for (int i2 = 0; i2 < pivotSize; i2++) {
+                    for (int j2 = 0; j2 < pivotSize; j2++) {
+                        if (pivotDist[i2][k] + pivotDist[k][j2] < pivotDist[i2][j2]) {
+                            pivotDist[i2][j2] = pivotDist[i2][k] + pivotDist[k][j2];
+                            pivotPred[i2][j2] = pivotPred[k][j2];
+                        }
+                    }
+                }
+            }
+
+            if (i == b && j == b) {
+                // the diagonal block is simply replaced by its closure
+                for (int i2 = 0; i2 < pivotSize; i2++) {
+                    for (int j2 = 0; j2 < pivotSize; j2++) {
+                        storeDouble(i2, j2, "dist", pivotDist[i2][j2]);
+                        storeInt(i2, j2, "pred", pivotPred[i2][j2]);
+                    }
+                }
+            } else if (i == b) {
+                updatePivotRowBlock(pivotDist);
+            } else {
+                updatePivotColumnBlock(pivotDist, pivotPred);
+            }
+        } else if (i != b && j != b) {
+            // D[i, j] = min(D[i, j], D[i, b] (x) D[b, j]), where D[i, b] is in "D_ROW" and D[b, j] in "D_COL"
+            for (int i2 = 0; i2 < numRows; i2++) {
+                for (int m = 0; m < pivotSize; m++) {
+                    double rowDist = readDouble(i2, m, "D_ROW");
+                    if (rowDist == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    for (int j2 = 0; j2 < numCols; j2++) {
+                        double otherDist = rowDist + readDouble(m, j2, "D_COL");
+                        if (otherDist < readDouble(i2, j2, "dist")) {
+                            storeDouble(i2, j2, "dist", otherDist);
+                            storeInt(i2, j2, "pred", readInt(m, j2, "P_COL"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes D[b, j] = D[b, b]* (x) D[b, j], where the intermediate node k lies in block b. The old values of
+     * D[b, j] are used on the right-hand side, so the updates are buffered.
+     *
+     * @param pivotDist closure of the diagonal block
+     */
+    private void updatePivotRowBlock(double[][] pivotDist) {
+        double[][] oldDist = new double[numRows][numCols];
+        int[][] oldPred = new int[numRows][numCols];
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                oldDist[i2][j2] = readDouble(i2, j2, "dist");
+                oldPred[i2][j2] = readInt(i2, j2, "pred");
+            }
+        }
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int k = 0; k < numRows; k++) {
+                if (pivotDist[i2][k] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    double otherDist = pivotDist[i2][k] + oldDist[k][j2];
+                    if (otherDist < readDouble(i2, j2, "dist")) {
+                        storeDouble(i2, j2, "dist", otherDist);
+                        // the destination lies outside block b, so k is never the destination itself
+                        storeInt(i2, j2, "pred", oldPred[k][j2]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes D[i, b] = D[i, b] (x) D[b, b]*, where the intermediate node k lies in block b.
+     *
+     * @param pivotDist closure of the diagonal block
+     * @param pivotPred predecessors of the closure of the diagonal block
+     */
+    private void updatePivotColumnBlock(double[][] pivotDist, int[][] pivotPred) {
+        double[][] oldDist = new double[numRows][numCols];
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                oldDist[i2][j2] = readDouble(i2, j2, "dist");
+            }
+        }
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int k = 0; k < numCols; k++) {
+                if (oldDist[i2][k] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    // going through k = j' gives the same distance, so it is never a strict improvement
+                    double otherDist = oldDist[i2][k] + pivotDist[k][j2];
+                    if (otherDist < readDouble(i2, j2, "dist")) {
+                        storeDouble(i2, j2, "dist", otherDist);
+                        storeInt(i2, j2, "pred", pivotPred[k][j2]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * PE(b, b) broadcasts its block of the distance and predecessor matrices along its row and column.
+     *
+     * @param b ID of the pivot block
+     */
+    private void broadcastDiagonalBlock(int b) throws CommunicationChannelCongestionException {
+        int pivotSize = rowDistribution.getBlockSize(b);
+        if (i == b && j == b) {
+            for (int i2 = 0; i2 < pivotSize; i2++) {
+                for (int j2 = 0; j2 < pivotSize; j2++) {
+                    broadcastRow(readDouble(i2, j2, "dist"));
+                    broadcastRow(readInt(i2, j2, "pred"));
+                    broadcastCol(readDouble(i2, j2, "dist"));
+                    broadcastCol(readInt(i2, j2, "pred"));
+                }
+            }
+        }
+        if (i == b) {
+            for (int i2 = 0; i2 < pivotSize; i2++) {
+                for (int j2 = 0; j2 < pivotSize; j2++) {
+                    receiveRowBroadcast(i2, j2, "D_PIVOT");
+                    receiveRowBroadcast(i2, j2, "P_PIVOT");
+                }
+            }
+        } else if (j == b) {
+            for (int i2 = 0; i2 < pivotSize; i2++) {
+                for (int j2 = 0; j2 < pivotSize; j2++) {
+                    receiveColBroadcast(i2, j2, "D_PIVOT");
+                    receiveColBroadcast(i2, j2, "P_PIVOT");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void communicationBefore(int l) throws CommunicationChannelCongestionException {
+        // the later diagonal blocks are broadcast at the end of the previous round
+        if (l == 0) {
+            broadcastDiagonalBlock(0);
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException {
+        int b = l / 2;
+        int pivotSize = rowDistribution.getBlockSize(b);
+
+        if (l % 2 == 0) {
+            // the updated pivot row blocks are sent down the columns
+            if (i == b && j != b) {
+                for (int i2 = 0; i2 < numRows; i2++) {
+                    for (int j2 = 0; j2 < numCols; j2++) {
+                        broadcastCol(readDouble(i2, j2, "dist"));
+                        broadcastCol(readInt(i2, j2, "pred"));
+                    }
+                }
+            }
+            // and the updated pivot column blocks are sent along the rows
+            if (j == b && i != b) {
+                for (int i2 = 0; i2 < numRows; i2++) {
+                    for (int j2 = 0; j2 < numCols; j2++) {
+                        broadcastRow(readDouble(i2, j2, "dist"));
+                    }
+                }
+            }
+            if (i != b && j != b) {
+                for (int m = 0; m < pivotSize; m++) {
+                    for (int j2 = 0; j2 < numCols; j2++) {
+                        receiveColBroadcast(m, j2, "D_COL");
+                        receiveColBroadcast(m, j2, "P_COL");
+                    }
+                }
+                for (int i2 = 0; i2 < numRows; i2++) {
+                    for (int m = 0; m < pivotSize; m++) {
+                        receiveRowBroadcast(i2, m, "D_ROW");
+                    }
+                }
+            }
+        } else if (b + 1 < p) {
+            broadcastDiagonalBlock(b + 1);
+        }
+    }
+}
@@ -28,11 +28,28 @@ import memoryModel.PrivateMemory;
  */
 public class GeneralisedFoxOtto extends MinPlusProduct {
 
-    private final int subMatrixSize;
+    // the dimensions of this PE's own block of the input matrices
+    protected final int numRows;
+    protected final int numCols;
 
     public GeneralisedFoxOtto(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory, CommunicationManager communicationManager) {
         super(i, j, p, n, numPhases, privateMemory, communicationManager);
-        this.subMatrixSize = n / p;
+        if (p != q) {
+            throw new IllegalArgumentException("The Fox-Otto algorithm requires a square grid of processing elements, " +
+                    "but got a " + p + " x " + q + " grid. Use BroadcastMinPlusProduct instead.");
+        }
+        this.numRows = rowDistribution.getBlockSize(i);
+        this.numCols = colDistribution.getBlockSize(j);
+    }
+
+    /**
+     * In phase l, this PE combines the A block in column (i + l) % p with the B block in row (i + l) % p
+     *
+     * @param l a non-negative integer representing number of computation phases already completed
+     * @return the block ID along the inner dimension of the product
+     */
+    protected int getInnerBlock(int l) {
+        return (i + l) % p;
     }
 
     /**
@@ -43,8 +60,8 @@ public class GeneralisedFoxOtto extends MinPlusProduct {
      */
     @Override
     public void initialisation() {
-        for (int i2 = 0; i2 < subMatrixSize; i2++) {
-            for (int j2 = 0; j2 < subMatrixSize; j2++) {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
                 // This is not the first management phase, so reinitialize input with result from
                 //   previous management iteration
                 if (presentInMemory(i2, j2, "dist")) {
@@ -73,19 +90,25 @@ public class GeneralisedFoxOtto extends MinPlusProduct {
      */
     @Override
     public void computation(int l) {
+        // the received A block is numRows x innerSize and the B block is innerSize x numCols
+        int innerBlock = getInnerBlock(l);
+        int innerSize = rowDistribution.getBlockSize(innerBlock);
+        int innerOffset = rowDistribution.getBlockOffset(innerBlock);
+        int colOffset = colDistribution.getBlockOffset(j);
+
         // handle the whole sub-matrix
-        for (int i2 = 0; i2 < subMatrixSize; i2++) {
-            for (int j2 = 0; j2 < subMatrixSize; j2++) {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
 
-                // We are partially computing C[size * i + i2, size * j + j2] at corresponding PE, so let
-                //   i' = size * i + i2, j' = size * j + j2
-                for (int m = 0; m < subMatrixSize; m++) {
+                // We are partially computing C[rowOffset + i2, colOffset + j2] at corresponding PE, so let
+                //   i' = rowOffset + i2, j' = colOffset + j2
+                for (int m = 0; m < innerSize; m++) {
                     // When computing C[i', j'] at l=0, which should start with k such that
                     //   k = i'. This is to be consistent with the non-generalized version and
                     //   is necessary to get the predecessor pointers right
-                    int iter = (i2 + m) % subMatrixSize;
+                    int iter = (i2 + m) % innerSize;
                     // In this iteration, we are computing A[i', k] + B[k, j'], where
-                    int k = (subMatrixSize * (i + l) + iter) % n;
+                    int k = innerOffset + iter;
 
                     double curDist = readDouble(i2, j2, "dist");
                     double otherDist = readDouble(i2, iter, "A") + readDouble(iter, j2, "B");
@@ -94,7 +117,7 @@ public class GeneralisedFoxOtto extends MinPlusProduct {
                     if (otherDist < curDist) {
                         store(i2, j2, "dist", otherDist);
                         // only update predecessor if it does not cause loops i.e. if k != j'
-                        if (k != subMatrixSize * j + j2) {
+                        if (k != colOffset + j2) {
                             store(i2, j2, "pred", readInt(iter, j2, "P"));
                         }
                     }
@@ -105,14 +128,19 @@ public class GeneralisedFoxOtto extends MinPlusProduct {
 
     @Override
     public void communicationBefore(int l) throws CommunicationChannelCongestionException {
-        // operate on the whole sub-matrix
-        for (int i2 = 0; i2 < subMatrixSize; i2++) {
-            for (int j2 = 0; j2 < subMatrixSize; j2++) {
-                // one PE in each row uses the highway to broadcast its sub-matrix A,
-                //   starting with the diagonal and then shifting it right
-                if (j == (i + l) % p) {
+        // one PE in each row uses the highway to broadcast its sub-matrix A,
+        //   starting with the diagonal and then shifting it right
+        int innerBlock = getInnerBlock(l);
+        if (j == innerBlock) {
+            for (int i2 = 0; i2 < numRows; i2++) {
+                for (int j2 = 0; j2 < numCols; j2++) {
                     broadcastRow(readDouble(i2, j2, "A_CONST"));
                 }
+            }
+        }
+        // the broadcast block has as many columns as the broadcasting PE
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < colDistribution.getBlockSize(innerBlock); j2++) {
                 receiveRowBroadcast(i2, j2, "A");
             }
         }
@@ -121,14 +149,21 @@ public class GeneralisedFoxOtto extends MinPlusProduct {
 
     @Override
     public void communicationAfter(int l) throws CommunicationChannelCongestionException {
-        // we shift B and P upwards, wrapping around if necessary
-        for (int i2 = 0; i2 < subMatrixSize; i2++) {
-            for (int j2 = 0; j2 < subMatrixSize; j2++) {
-                // we must wrap around if reach the end when sending data North
-                int sendLoc = i == 0 ? (p - 1) : i - 1;
-
+        // we shift B and P upwards, wrapping around if necessary. The B block currently held has as many rows as
+        //   the inner block of this phase, and the block received from the PE below is the one we need in the
+        //   next phase, which has the same number of rows as the inner block of that PE in this phase
+        int sentRows = rowDistribution.getBlockSize(getInnerBlock(l));
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        // we must wrap around if reach the end when sending data North
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
                 send(sendLoc, j, readDouble(i2, j2, "B"));
                 send(sendLoc, j, readDouble(i2, j2, "P"));
+            }
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
                 receive(i2, j2, "B");
                 receive(i2, j2, "P");
             }
@@ -0,0 +1,131 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+
+/**
+ * Integer specialisation of {@link GeneralisedFoxOtto}. The input matrices A and B must hold Integers, where
+ * Integer.MAX_VALUE represents the absence of an edge. All private memory labels are then backed by {@code int[]}
+ * arrays, the distances are summed with {@link #saturatingAdd(int, int)} and all the sent and broadcast values are
+ * Integers, which only take 4 bytes to communicate instead of 8.
+ *
+ * <p>The memory preconditions and results are the same as for {@link GeneralisedFoxOtto}, except that "dist" holds
+ * Integers, so it should be read with {@link work.Manager#getResult(String, boolean)} with {@code asInt} set.</p>
+ *
+ * <p>A finite distance that saturates at Integer.MAX_VALUE can no longer be told apart from infinity, so the graph
+ * must satisfy {@link graphReader.GraphReader#hasIntegerDistances()}, which MatSquare checks before using this
+ * kernel.</p>
+ */
+public class IntegerFoxOtto extends GeneralisedFoxOtto {
+
+    public IntegerFoxOtto(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                          CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+    }
+
+    /**
+     * Adds two distances, where Integer.MAX_VALUE represents infinity. Sums that do not fit in an int are clamped
+     * to the range of int, so they can never wrap around and appear shorter than they are.
+     *
+     * @param a a distance, or Integer.MAX_VALUE
+     * @param b a distance, or Integer.MAX_VALUE
+     * @return a + b, saturated at Integer.MAX_VALUE and Integer.MIN_VALUE
+     */
+    public static int saturatingAdd(int a, int b) {
+        if (a == Integer.MAX_VALUE || b == Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        long sum = (long) a + b;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, sum));
+    }
+
+    @Override
+    public void initialisation() {
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                // This is not the first management phase, so reinitialize input with result from
+                //   previous management iteration
+                if (presentInMemory(i2, j2, "dist")) {
+                    storeInt(i2, j2, "A", readInt(i2, j2, "dist"));
+                    storeInt(i2, j2, "B", readInt(i2, j2, "dist"));
+                    storeInt(i2, j2, "P", readInt(i2, j2, "pred"));
+                }
+
+                // running total of least distance found so far, starting at infinity
+                storeInt(i2, j2, "dist", Integer.MAX_VALUE);
+                // the "A" entry is never shifted, only broadcasted, so make a copy of it to prevent overwrite
+                storeInt(i2, j2, "A_CONST", readInt(i2, j2, "A"));
+                // keep a default pred value in case we don't find any
+                storeInt(i2, j2, "pred", readInt(i2, j2, "P"));
+            }
+        }
+    }
+
+    @Override
+    public void computation(int l) {
+        int innerBlock = getInnerBlock(l);
+        int innerSize = rowDistribution.getBlockSize(innerBlock);
+        int innerOffset = rowDistribution.getBlockOffset(innerBlock);
+        int colOffset = colDistribution.getBlockOffset(j);
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                for (int m = 0; m < innerSize; m++) {
+                    // same iteration order as in GeneralisedFoxOtto to get the predecessor pointers right
+                    int iter = (i2 + m) % innerSize;
+                    int k = innerOffset + iter;
+
+                    int curDist = readInt(i2, j2, "dist");
+                    int otherDist = saturatingAdd(readInt(i2, iter, "A"), readInt(iter, j2, "B"));
+
+                    // found better distance
+                    if (otherDist < curDist) {
+                        storeInt(i2, j2, "dist", otherDist);
+                        // only update predecessor if it does not cause loops i.e. if k != j'
+                        if (k != colOffset + j2) {
+                            storeInt(i2, j2, "pred", readInt(iter, j2, "P"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void communicationBefore(int l) throws CommunicationChannelCongestionException {
+        int innerBlock = getInnerBlock(l);
+        if (j == innerBlock) {
+            for (int i2 = 0; i2 < numRows; i2++) {
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    broadcastRow(readInt(i2, j2, "A_CONST"));
+                }
+            }
+        }
+        for (int i2 = 0; i2 < numRows; i2++) {
+            for (int j2 = 0; j2 < colDistribution.getBlockSize(innerBlock); j2++) {
+                receiveRowBroadcast(i2, j2, "A");
+            }
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException {
+        // see GeneralisedFoxOtto::communicationAfter for the block sizes
+        int sentRows = rowDistribution.getBlockSize(getInnerBlock(l));
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                send(sendLoc, j, readInt(i2, j2, "B"));
+                send(sendLoc, j, readInt(i2, j2, "P"));
+            }
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            for (int j2 = 0; j2 < numCols; j2++) {
+                receive(i2, j2, "B");
+                receive(i2, j2, "P");
+            }
+        }
+    }
+}
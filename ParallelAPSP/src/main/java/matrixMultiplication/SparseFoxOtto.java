@@ -0,0 +1,189 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationManager;
+import memoryModel.PrivateMemory;
+
+/**
+ * Sparsity-aware variant of {@link GeneralisedFoxOtto}. In the first squarings of {@link APSPSolver.MatSquare} on a
+ * road network, most rows of the distance matrix only have a handful of finite entries, so many of the broadcast A
+ * blocks and shifted B blocks have entirely infinite rows. Such rows can never improve any distance, so this worker
+ * avoids both communicating and multiplying them.
+ *
+ * <h3>Row summaries</h3>
+ * <p>Each PE keeps a summary "A_ROW_FINITE" of its A block and "B_ROW_FINITE" of the B block it currently holds,
+ * holding 1 at (i2, 0) if row i2 of the block has at least one finite entry and 0 otherwise. They are updated
+ * whenever the blocks are stored: in initialisation, and when a new B block is received in communicationAfter.</p>
+ *
+ * <p>Receives are only matched against the sent data when the communication phase is flushed, so a PE can only
+ * decide which rows to receive from a summary that arrived in an earlier communication phase:
+ * <ul>
+ *     <li>The B summary is sent north in communicationBefore of phase l, right before the B and P rows it describes
+ *     are shifted in communicationAfter of phase l. Only the finite rows are shifted, and the receiver fills in the
+ *     rows it did not receive with infinity.</li>
+ *     <li>The A summary of phase l + 1 is broadcast along the row in communicationAfter of phase l. After the last
+ *     phase, the summary of the next squaring's first A block, which is the diagonal block of "dist", is shipped
+ *     instead, so phase 0 of a continued squaring is pruned as well. When there is no previous squaring, nothing is
+ *     known about the first A block, and all of its rows are broadcast.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>In the computation, the rows of the received A block that were not sent are skipped, and so are the individual
+ * entries A[i', k] and rows B[k, *] that are infinite. The intermediate nodes k are still visited in the same order
+ * for each entry C[i', j'] as in {@link GeneralisedFoxOtto}, so the predecessor pointers are the same.</p>
+ *
+ * <p>The memory preconditions and results are the same as for {@link GeneralisedFoxOtto}.</p>
+ */
+public class SparseFoxOtto extends GeneralisedFoxOtto {
+
+    public SparseFoxOtto(int i, int j, int p, int n, int numPhases, PrivateMemory privateMemory,
+                         CommunicationManager communicationManager) {
+        super(i, j, p, n, numPhases, privateMemory, communicationManager);
+    }
+
+    @Override
+    public void initialisation() {
+        // the previous squaring shipped the summary of the first A block if this is a continuation
+        boolean isContinuation = presentInMemory(0, 0, "dist");
+        super.initialisation();
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            storeInt(i2, 0, "A_ROW_FINITE", isRowFinite(i2, numCols, "A_CONST") ? 1 : 0);
+            // in phase 0, this PE holds its own B block
+            storeInt(i2, 0, "B_ROW_FINITE", isRowFinite(i2, numCols, "B") ? 1 : 0);
+            if (!isContinuation) {
+                storeInt(i2, 0, "A_RECEIVED_ROW_FINITE", 1);
+            }
+        }
+    }
+
+    /**
+     * @param i2 the row of the block
+     * @param numCols the number of columns of the block
+     * @param label the memory label of the block
+     * @return true if the row has at least one finite entry
+     */
+    private boolean isRowFinite(int i2, int numCols, String label) {
+        for (int j2 = 0; j2 < numCols; j2++) {
+            if (readDouble(i2, j2, label) != Double.POSITIVE_INFINITY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void computation(int l) {
+        int innerBlock = getInnerBlock(l);
+        int innerSize = rowDistribution.getBlockSize(innerBlock);
+        int innerOffset = rowDistribution.getBlockOffset(innerBlock);
+        int colOffset = colDistribution.getBlockOffset(j);
+
+        for (int i2 = 0; i2 < numRows; i2++) {
+            // this row of A was not broadcast, as it cannot improve any distance
+            if (readInt(i2, 0, "A_RECEIVED_ROW_FINITE") == 0) {
+                continue;
+            }
+            // the loops over m and j2 are swapped compared to GeneralisedFoxOtto so that infinite entries of A can
+            //   be skipped, but each C[i', j'] still visits the intermediate nodes in the same order
+            for (int m = 0; m < innerSize; m++) {
+                int iter = (i2 + m) % innerSize;
+                int k = innerOffset + iter;
+
+                double aDist = readDouble(i2, iter, "A");
+                if (aDist == Double.POSITIVE_INFINITY || readInt(iter, 0, "B_ROW_FINITE") == 0) {
+                    continue;
+                }
+
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    double otherDist = aDist + readDouble(iter, j2, "B");
+
+                    // found better distance
+                    if (otherDist < readDouble(i2, j2, "dist")) {
+                        storeDouble(i2, j2, "dist", otherDist);
+                        // only update predecessor if it does not cause loops i.e. if k != j'
+                        if (k != colOffset + j2) {
+                            storeInt(i2, j2, "pred", readInt(iter, j2, "P"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void communicationBefore(int l) throws CommunicationChannelCongestionException {
+        int innerBlock = getInnerBlock(l);
+        // only the rows of A with finite entries are broadcast. The broadcaster received its own summary along with
+        //   the rest of the row, so it uses the same one as the receivers
+        for (int i2 = 0; i2 < numRows; i2++) {
+            if (readInt(i2, 0, "A_RECEIVED_ROW_FINITE") == 1) {
+                if (j == innerBlock) {
+                    for (int j2 = 0; j2 < numCols; j2++) {
+                        broadcastRow(readDouble(i2, j2, "A_CONST"));
+                    }
+                }
+                for (int j2 = 0; j2 < colDistribution.getBlockSize(innerBlock); j2++) {
+                    receiveRowBroadcast(i2, j2, "A");
+                }
+            }
+        }
+
+        // tell the PE above which rows of B will be shifted to it after this phase
+        int sentRows = rowDistribution.getBlockSize(innerBlock);
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            send(sendLoc, j, readInt(i2, 0, "B_ROW_FINITE"));
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            receive(i2, 0, "B_RECEIVED_ROW_FINITE");
+        }
+    }
+
+    @Override
+    public void communicationAfter(int l) throws CommunicationChannelCongestionException {
+        // shift the finite rows of B and P upwards in the same way as GeneralisedFoxOtto
+        int sentRows = rowDistribution.getBlockSize(getInnerBlock(l));
+        int receivedRows = rowDistribution.getBlockSize((i + 1 + l) % p);
+        int sendLoc = i == 0 ? (p - 1) : i - 1;
+        for (int i2 = 0; i2 < sentRows; i2++) {
+            if (readInt(i2, 0, "B_ROW_FINITE") == 1) {
+                for (int j2 = 0; j2 < numCols; j2++) {
+                    send(sendLoc, j, readDouble(i2, j2, "B"));
+                    send(sendLoc, j, readDouble(i2, j2, "P"));
+                }
+            }
+        }
+        for (int i2 = 0; i2 < receivedRows; i2++) {
+            int rowIsFinite = readInt(i2, 0, "B_RECEIVED_ROW_FINITE");
+            for (int j2 = 0; j2 < numCols; j2++) {
+                if (rowIsFinite == 1) {
+                    receive(i2, j2, "B");
+                    receive(i2, j2, "P");
+                } else {
+                    // the row was not sent, so overwrite what is left of the previous block. P is never read
+                    //   for infinite entries of B, so it is left as is
+                    storeDouble(i2, j2, "B", Double.POSITIVE_INFINITY);
+                }
+            }
+            storeInt(i2, 0, "B_ROW_FINITE", rowIsFinite);
+        }
+
+        // ship the summary of the A block broadcast in the next phase. After the last phase, this is the diagonal
+        //   block of the result, which the next squaring starts with
+        boolean isLastPhase = l + 1 == numPhases;
+        if (j == getInnerBlock(l + 1)) {
+            for (int i2 = 0; i2 < numRows; i2++) {
+                if (isLastPhase) {
+                    broadcastRow(isRowFinite(i2, numCols, "dist") ? 1 : 0);
+                } else {
+                    broadcastRow(readInt(i2, 0, "A_ROW_FINITE"));
+                }
+            }
+        }
+        for (int i2 = 0; i2 < numRows; i2++) {
+            receiveRowBroadcast(i2, 0, "A_RECEIVED_ROW_FINITE");
+        }
+    }
+}
@@ -9,7 +9,7 @@ import java.util.logging.Logger;
 
 /**
  * <p>A CommunicationManager instance can be used as a "fine-grained monitor" for simulating the point-to-point and
- * broadcasting communication happening in a multiprocessor where the processing elements are arranged in a square
+ * broadcasting communication happening in a multiprocessor where the processing elements are arranged in a p x q
  * grid and interconnected through some topology specified in the constructor. Only one instance of this class should
  * be made per simulated multiprocessor, and since this class' method are all thread-safe, all the processing elements
  * can invoke methods on the CommunicationManager object concurrently in a safe manner.</p>
@@ -43,6 +43,7 @@ public class CommunicationManager {
     private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
 
     private int p;
+    private int q;
     protected Matrix<PrivateMemory> privateMemories;
 
     // broadcasting
@@ -60,10 +61,17 @@ public class CommunicationManager {
     protected final Matrix<Optional<Pair<Integer, Integer>>> senderToRecipientID;
     private final Matrix<Queue<Triple<Integer, Integer, String>>> receiveArguments;
 
+    /**
+     * @return the number of rows of processing elements
+     */
     public int getProcessingElementGridSize() {
         return p;
     }
 
+    public int getProcessingElementGridColumns() {
+        return q;
+    }
+
     public Matrix<PrivateMemory> getPrivateMemories() {
         return privateMemories;
     }
@@ -73,7 +81,8 @@ public class CommunicationManager {
      * @param communicationManager
      */
     public CommunicationManager(CommunicationManager communicationManager) {
-        this(communicationManager.getProcessingElementGridSize(), communicationManager.getPrivateMemories());
+        this(communicationManager.getProcessingElementGridSize(), communicationManager.getProcessingElementGridColumns(),
+                communicationManager.getPrivateMemories());
     }
 
     /**
@@ -85,28 +94,44 @@ public class CommunicationManager {
      * @param privateMemories a matrix of private memories of type T
      */
     public CommunicationManager(int p, Matrix<PrivateMemory> privateMemories) {
+        this(p, p, privateMemories);
+    }
+
+    /**
+     * Constructs a CommunicationManager handling a rectangular grid of p x q processing elements, where p is the
+     * number of rows and q is the number of columns. There is then one row broadcast highway for each of the p rows
+     * and one column broadcast highway for each of the q columns.
+     *
+     * @param p a positive integer
+     * @param q a positive integer
+     * @param privateMemories a p x q matrix of private memories
+     */
+    public CommunicationManager(int p, int q, Matrix<PrivateMemory> privateMemories) {
         this.p = p;
+        this.q = q;
         this.privateMemories = privateMemories;
 
         // broadcasting
-        // we will only have p elements at all times
-        this.colBroadcastData = new ArrayList<>(p);
+        // we will only have p row highways and q column highways at all times
+        this.colBroadcastData = new ArrayList<>(q);
         this.rowBroadcastData = new ArrayList<>(p);
-        this.colBroadcasterID = new ArrayList<>(p);
+        this.colBroadcasterID = new ArrayList<>(q);
         this.rowBroadcasterID = new ArrayList<>(p);
         for (int i = 0; i < p; i++) {
-            this.colBroadcastData.add(new LinkedList<>());
             this.rowBroadcastData.add(new LinkedList<>());
-            this.colBroadcasterID.add(Optional.empty());
             this.rowBroadcasterID.add(Optional.empty());
         }
-        this.rowBroadcastReceiveArguments = new Matrix<>(p, LinkedList::new);
-        this.colBroadcastReceiveArguments = new Matrix<>(p, LinkedList::new);
+        for (int j = 0; j < q; j++) {
+            this.colBroadcastData.add(new LinkedList<>());
+            this.colBroadcasterID.add(Optional.empty());
+        }
+        this.rowBroadcastReceiveArguments = new Matrix<>(p, q, LinkedList::new);
+        this.colBroadcastReceiveArguments = new Matrix<>(p, q, LinkedList::new);
 
         // point-to-point
-        this.sentData = new Matrix<>(p, LinkedList::new);
-        this.senderToRecipientID = new Matrix<>(p, Optional::empty);
-        this.receiveArguments = new Matrix<>(p, LinkedList::new);
+        this.sentData = new Matrix<>(p, q, LinkedList::new);
+        this.senderToRecipientID = new Matrix<>(p, q, Optional::empty);
+        this.receiveArguments = new Matrix<>(p, q, LinkedList::new);
     }
 
     /**
@@ -273,7 +298,7 @@ public class CommunicationManager {
     synchronized public void flush() throws InconsistentCommunicationChannelUsageException {
         // we handle the point-to-point communication first
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 Queue<Number> sentDataQueue = this.sentData.get(i, j);
                 Queue<Triple<Integer, Integer, String>> receiveArgumentsQueue = this.receiveArguments.get(i, j);
 
@@ -300,7 +325,7 @@ public class CommunicationManager {
             Queue<Number> rowBroadcastDataQueue = this.rowBroadcastData.get(i);;
 
             // check for inconsistencies
-            for (int pj = 0; pj < this.p; pj++) {
+            for (int pj = 0; pj < this.q; pj++) {
                 // no broadcaster when expected one
                 if (!this.rowBroadcastReceiveArguments.get(i, pj).isEmpty() && rowBroadcastDataQueue.isEmpty()) {
                     throw new InconsistentCommunicationChannelUsageException("Processing element in row " + i
@@ -310,7 +335,7 @@ public class CommunicationManager {
 
             while (!rowBroadcastDataQueue.isEmpty()) {
                 Number value = rowBroadcastDataQueue.poll();
-                for (int j = 0; j < this.p; j++) {
+                for (int j = 0; j < this.q; j++) {
                     Queue<Triple<Integer, Integer, String>> rowReceiveArgumentsQueue = this.rowBroadcastReceiveArguments.get(i, j);
                     Triple<Integer, Integer, String> args = rowReceiveArgumentsQueue.poll();
                     // nothing to do
@@ -333,7 +358,7 @@ public class CommunicationManager {
         }
 
         // we then handle column-broadcasting
-        for (int j = 0; j < this.p; j++) {
+        for (int j = 0; j < this.q; j++) {
             Queue<Number> colBroadcastDataQueue = this.colBroadcastData.get(j);
 
             // check for inconsistencies
@@ -373,7 +398,9 @@ public class CommunicationManager {
         this.senderToRecipientID.setAll(Optional::empty);
         for (int i = 0; i < this.p; i++) {
             this.rowBroadcasterID.set(i, Optional.empty());
-            this.colBroadcasterID.set(i, Optional.empty());
+        }
+        for (int j = 0; j < this.q; j++) {
+            this.colBroadcasterID.set(j, Optional.empty());
         }
     }
 }
@@ -1,16 +1,19 @@
 package memoryModel;
 
-import util.Matrix;
-
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class PrivateMemory {
-    // used in case we have a 1 x 1 private memory layout
-    private Map<String, Number> singleMemory;
+    // each label is backed by a primitive array of size k * k, holding either ints, floats or doubles
+    private final Map<String, int[]> intMemory;
+    private final Map<String, float[]> floatMemory;
+    private final Map<String, double[]> doubleMemory;
 
-    // used in the general case
-    private Matrix<Map<String, Number>> matrixMemory;
+    // keeps track of which of the positions (mi, mj) have been written to for each label
+    private final Map<String, BitSet> presentPositions;
 
     private final int k;
 
@@ -20,16 +23,20 @@ public class PrivateMemory {
      * with {@code label} to distinguish multiple numbers stored in the same location. Initializing the PrivateMemory
      * with k > 1 is suitable when a processing element should handle more than one cell of the input matrix.
      *
+     * <p>The values of each label are stored unboxed in a primitive array. The type of the array is decided by the
+     * first value stored with that label, so a label only ever holding Integers or Floats is backed by an
+     * {@code int[]} or {@code float[]}, which halves the memory footprint compared to doubles. If a wider value is
+     * later stored with the label, in the order int, float, double, all the values with that label are converted
+     * to the wider type. Narrower values are converted to the type of the label.</p>
+     *
      * @param k size of the square matrix
      */
     public PrivateMemory(int k) {
         this.k = k;
-
-        if (k == 1) {
-            this.singleMemory = new HashMap<>();
-        } else {
-            this.matrixMemory = new Matrix<>(k, HashMap::new);
-        }
+        this.intMemory = new HashMap<>();
+        this.floatMemory = new HashMap<>();
+        this.doubleMemory = new HashMap<>();
+        this.presentPositions = new HashMap<>();
     }
 
     // shorthands for the non-general cases
@@ -42,6 +49,10 @@ public class PrivateMemory {
         return this.getInt(0, 0, label);
     }
 
+    public float getFloat(String label) {
+        return this.getFloat(0, 0, label);
+    }
+
     public double getDouble(String label) {
         return this.getDouble(0, 0, label);
     }
@@ -52,8 +63,9 @@ public class PrivateMemory {
 
 
     /**
-     * Every value is stored in a boxed Number, regardless of its type. When getters are used, the value is casted
-     * according to the getter used, or inferred if the default getter is used.
+     * The value is stored unboxed, in an int, float or double array depending on the type of values previously
+     * stored with the same label. When getters are used, the value is casted according to the getter used, or
+     * inferred from the type of the label if the default getter is used.
      *
      * @param mi an integer ID
      * @param mj an integer ID
@@ -62,53 +74,220 @@ public class PrivateMemory {
      *          the value is automatically boxed.
      */
     public void set(int mi, int  mj, String label, Number n) {
-        assert 0 <= mi && mi < this.k;
-        assert 0 <= mj && mj < this.k;
-
-        if (!(n instanceof Double || n instanceof Integer)) {
+        if (n instanceof Integer) {
+            this.setInt(mi, mj, label, n.intValue());
+        } else if (n instanceof Float) {
+            this.setFloat(mi, mj, label, n.floatValue());
+        } else if (n instanceof Double) {
+            this.setDouble(mi, mj, label, n.doubleValue());
+        } else {
             throw new RuntimeException("The type of Number n is not supported: " + n.getClass().getCanonicalName());
         }
+    }
 
-        if (this.k == 1) {
-            this.singleMemory.put(label, n);
+    /**
+     * Stores an int without boxing it. If the label already holds floats or doubles, the value is converted.
+     *
+     * @param mi an integer ID
+     * @param mj an integer ID
+     * @param label a string label
+     * @param n the value to store
+     */
+    public void setInt(int mi, int mj, String label, int n) {
+        int index = this.getIndex(mi, mj);
+
+        double[] doubleValues = this.doubleMemory.get(label);
+        float[] floatValues = this.floatMemory.get(label);
+        if (doubleValues != null) {
+            doubleValues[index] = n;
+        } else if (floatValues != null) {
+            floatValues[index] = n;
         } else {
-            this.matrixMemory.get(mi, mj).put(label, n);
+            this.intMemory.computeIfAbsent(label, l -> new int[this.k * this.k])[index] = n;
         }
+        this.markPresent(label, index);
     }
 
-    public Number get(int mi, int mj, String label) {
-        assert 0 <= mi && mi < this.k;
-        assert 0 <= mj && mj < this.k;
+    /**
+     * Stores a float without boxing it. If the label currently holds ints, they are all converted to floats first,
+     * and if it holds doubles, the value is converted to a double.
+     *
+     * @param mi an integer ID
+     * @param mj an integer ID
+     * @param label a string label
+     * @param n the value to store
+     */
+    public void setFloat(int mi, int mj, String label, float n) {
+        int index = this.getIndex(mi, mj);
 
-        if (this.k == 1) {
-            if (!this.singleMemory.containsKey(label)) {
-                throw new IllegalStateException(String.format("singleMemory does not contain label %s, "
-                        + "only labels %s.", label, this.singleMemory.keySet()));
-            }
-            return this.singleMemory.get(label);
+        double[] doubleValues = this.doubleMemory.get(label);
+        if (doubleValues != null) {
+            doubleValues[index] = n;
         } else {
-            if (!this.matrixMemory.get(mi, mj).containsKey(label)) {
-                throw new IllegalStateException(String.format("matrixMemory does not contain label %s at (%d, %d), "
-                        + "only labels %s.", label, mi, mj, this.singleMemory.keySet()));
+            float[] floatValues = this.floatMemory.get(label);
+            if (floatValues == null) {
+                floatValues = new float[this.k * this.k];
+                // promote the label to floats
+                int[] intValues = this.intMemory.remove(label);
+                if (intValues != null) {
+                    for (int x = 0; x < intValues.length; x++) {
+                        floatValues[x] = intValues[x];
+                    }
+                }
+                this.floatMemory.put(label, floatValues);
             }
-            return this.matrixMemory.get(mi, mj).get(label);
+            floatValues[index] = n;
         }
+        this.markPresent(label, index);
+    }
+
+    /**
+     * Stores a double without boxing it. If the label currently holds ints or floats, they are all converted to
+     * doubles first.
+     *
+     * @param mi an integer ID
+     * @param mj an integer ID
+     * @param label a string label
+     * @param n the value to store
+     */
+    public void setDouble(int mi, int mj, String label, double n) {
+        int index = this.getIndex(mi, mj);
+
+        double[] doubleValues = this.doubleMemory.get(label);
+        if (doubleValues == null) {
+            doubleValues = new double[this.k * this.k];
+            // promote the label to doubles
+            int[] intValues = this.intMemory.remove(label);
+            float[] floatValues = this.floatMemory.remove(label);
+            if (intValues != null) {
+                for (int x = 0; x < intValues.length; x++) {
+                    doubleValues[x] = intValues[x];
+                }
+            } else if (floatValues != null) {
+                for (int x = 0; x < floatValues.length; x++) {
+                    doubleValues[x] = floatValues[x];
+                }
+            }
+            this.doubleMemory.put(label, doubleValues);
+        }
+        doubleValues[index] = n;
+        this.markPresent(label, index);
+    }
+
+    /**
+     * @return an Integer, Float or Double depending on the type of array backing the label
+     */
+    public Number get(int mi, int mj, String label) {
+        int index = this.getPresentIndex(mi, mj, label);
+
+        int[] intValues = this.intMemory.get(label);
+        if (intValues != null) {
+            return intValues[index];
+        }
+        float[] floatValues = this.floatMemory.get(label);
+        if (floatValues != null) {
+            return floatValues[index];
+        }
+        return this.doubleMemory.get(label)[index];
     }
 
     public double getDouble(int mi, int mj, String label) {
-        return this.get(mi, mj, label).doubleValue();
+        int index = this.getPresentIndex(mi, mj, label);
+
+        double[] doubleValues = this.doubleMemory.get(label);
+        if (doubleValues != null) {
+            return doubleValues[index];
+        }
+        float[] floatValues = this.floatMemory.get(label);
+        if (floatValues != null) {
+            return floatValues[index];
+        }
+        return this.intMemory.get(label)[index];
+    }
+
+    public float getFloat(int mi, int mj, String label) {
+        int index = this.getPresentIndex(mi, mj, label);
+
+        float[] floatValues = this.floatMemory.get(label);
+        if (floatValues != null) {
+            return floatValues[index];
+        }
+        double[] doubleValues = this.doubleMemory.get(label);
+        if (doubleValues != null) {
+            return (float) doubleValues[index];
+        }
+        return this.intMemory.get(label)[index];
     }
 
     public int getInt(int mi, int mj, String label) {
-        return this.get(mi, mj, label).intValue();
+        int index = this.getPresentIndex(mi, mj, label);
+
+        int[] intValues = this.intMemory.get(label);
+        if (intValues != null) {
+            return intValues[index];
+        }
+        float[] floatValues = this.floatMemory.get(label);
+        if (floatValues != null) {
+            return (int) floatValues[index];
+        }
+        return (int) this.doubleMemory.get(label)[index];
     }
 
     public boolean contains(int mi, int mj, String label) {
-        if (this.k == 1) {
-            return  this.singleMemory.containsKey(label);
-        } else {
-            return this.matrixMemory.get(mi, mj).containsKey(label);
+        BitSet present = this.presentPositions.get(label);
+        return present != null && present.get(this.getIndex(mi, mj));
+    }
+
+    /**
+     * Removes all the values, so that no label is present at any position. The arrays backing the labels are kept,
+     * so storing the same labels again does not allocate any memory.
+     */
+    public void clear() {
+        this.presentPositions.values().forEach(BitSet::clear);
+    }
+
+    /**
+     * @return the number of bytes taken up by the arrays backing all the labels, excluding bookkeeping
+     */
+    public long getSizeInBytes() {
+        long numInts = this.intMemory.values().stream().mapToLong(a -> a.length).sum();
+        long numFloats = this.floatMemory.values().stream().mapToLong(a -> a.length).sum();
+        long numDoubles = this.doubleMemory.values().stream().mapToLong(a -> a.length).sum();
+        return numInts * Integer.BYTES + numFloats * Float.BYTES + numDoubles * Double.BYTES;
+    }
+
+    private int getIndex(int mi, int mj) {
+        assert 0 <= mi && mi < this.k;
+        assert 0 <= mj && mj < this.k;
+        return mi * this.k + mj;
+    }
+
+    private void markPresent(String label, int index) {
+        this.presentPositions.computeIfAbsent(label, l -> new BitSet(this.k * this.k)).set(index);
+    }
+
+    private int getPresentIndex(int mi, int mj, String label) {
+        int index = this.getIndex(mi, mj);
+        BitSet present = this.presentPositions.get(label);
+        if (present == null || !present.get(index)) {
+            if (this.k == 1) {
+                throw new IllegalStateException(String.format("singleMemory does not contain label %s, "
+                        + "only labels %s.", label, this.getLabelsAt(index)));
+            } else {
+                throw new IllegalStateException(String.format("matrixMemory does not contain label %s at (%d, %d), "
+                        + "only labels %s.", label, mi, mj, this.getLabelsAt(index)));
+            }
         }
+        return index;
     }
-}
 
+    private Set<String> getLabelsAt(int index) {
+        Set<String> labels = new TreeSet<>();
+        this.presentPositions.forEach((label, present) -> {
+            if (present.get(index)) {
+                labels.add(label);
+            }
+        });
+        return labels;
+    }
+}
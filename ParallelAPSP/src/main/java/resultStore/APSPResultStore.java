@@ -0,0 +1,389 @@
+package resultStore;
+
+import APSPSolver.APSPSolver;
+import APSPSolver.ParallelDijkstra;
+import graphReader.GraphReader;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compact binary store of a solved APSP problem, which serves distance and shortest path queries by memory-mapping the
+ * file. Once written with {@link #write}, a query service can {@link #open(Path)} the result in milliseconds without
+ * re-solving, and without creating a boxed object per entry.
+ *
+ * <p>The file consists of a {@value #HEADER_SIZE} byte header, followed by the n x n distance matrix and the n x n
+ * predecessor matrix, both in little-endian byte order. The header contains, as 4 byte integers: the magic number,
+ * the format version, n, the size of a distance in bytes (4 for float, 8 for double), the size of a predecessor in
+ * bytes (2 for short, 4 for int) and the tile size, followed by the 8 byte offsets of the distance and predecessor
+ * sections. The matrices are either stored row-major, which suits reconstructing paths as they only read a single
+ * row, or in row-major order of T x T tiles, which suits reading blocks of the matrix. In the tiled layout, the
+ * matrix is padded to a multiple of T.</p>
+ *
+ * <p>Predecessors follow the convention of {@link APSPSolver#getPredecessor(int, int)}, so -1 means that there is no
+ * path. Short predecessors therefore support graphs with at most {@value Short#MAX_VALUE} nodes.</p>
+ */
+public class APSPResultStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int MAGIC = 0x41505350;
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    // the file is mapped in chunks, as a single mapping cannot exceed 2 GB
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    public enum DistanceType {
+        FLOAT(4), DOUBLE(8);
+
+        private final int size;
+
+        DistanceType(int size) {
+            this.size = size;
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+    }
+
+    public enum PredecessorType {
+        SHORT(2), INT(4);
+
+        private final int size;
+
+        PredecessorType(int size) {
+            this.size = size;
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final Layout layout;
+
+    private APSPResultStore(FileChannel channel, MappedByteBuffer[] chunks, Layout layout) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.layout = layout;
+    }
+
+    /**
+     * Describes where each entry is stored in the file
+     */
+    private static class Layout {
+        final int n;
+        final DistanceType distanceType;
+        final PredecessorType predecessorType;
+        // 0 for the row-major layout
+        final int tileSize;
+        final int tilesPerRow;
+        final long numEntries;
+        final long distanceOffset;
+        final long predecessorOffset;
+        final long fileSize;
+
+        Layout(int n, DistanceType distanceType, PredecessorType predecessorType, int tileSize) {
+            this.n = n;
+            this.distanceType = distanceType;
+            this.predecessorType = predecessorType;
+            this.tileSize = tileSize;
+            this.tilesPerRow = tileSize == 0 ? 0 : (n + tileSize - 1) / tileSize;
+            long side = tileSize == 0 ? n : (long) this.tilesPerRow * tileSize;
+            this.numEntries = side * side;
+            this.distanceOffset = HEADER_SIZE;
+            // keep the sections 8-byte aligned, so that no entry straddles two chunks
+            this.predecessorOffset = align(this.distanceOffset + this.numEntries * distanceType.getSize());
+            this.fileSize = align(this.predecessorOffset + this.numEntries * predecessorType.getSize());
+        }
+
+        private static long align(long offset) {
+            return (offset + 7) & ~7L;
+        }
+
+        long getIndex(int i, int j) {
+            if (this.tileSize == 0) {
+                return (long) i * this.n + j;
+            }
+            long tile = (long) (i / this.tileSize) * this.tilesPerRow + j / this.tileSize;
+            return tile * this.tileSize * this.tileSize + (long) (i % this.tileSize) * this.tileSize
+                    + j % this.tileSize;
+        }
+
+        /**
+         * @return the (i, j) coordinates of each index, in the order they are stored, where padding has i or j >= n
+         */
+        int[] getCoordinates(long index) {
+            if (this.tileSize == 0) {
+                return new int[]{(int) (index / this.n), (int) (index % this.n)};
+            }
+            long tileArea = (long) this.tileSize * this.tileSize;
+            long tile = index / tileArea;
+            int within = (int) (index % tileArea);
+            int i = (int) (tile / this.tilesPerRow) * this.tileSize + within / this.tileSize;
+            int j = (int) (tile % this.tilesPerRow) * this.tileSize + within % this.tileSize;
+            return new int[]{i, j};
+        }
+    }
+
+    /**
+     * Writes the result of a solved solver to a file
+     *
+     * @param solver a solver that {@link APSPSolver#solve()} has been called on
+     * @param n the number of nodes in the graph
+     * @param path the file to write to, which is replaced if it exists
+     * @param distanceType the precision of the stored distances
+     * @param predecessorType the size of the stored predecessors
+     * @param tileSize the size of the tiles, or 0 for the row-major layout
+     */
+    public static void write(APSPSolver solver, int n, Path path, DistanceType distanceType,
+                             PredecessorType predecessorType, int tileSize) throws IOException {
+        if (tileSize < 0) {
+            throw new IllegalArgumentException("The tile size must be non-negative, but was " + tileSize);
+        }
+        if (predecessorType == PredecessorType.SHORT && n > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Short predecessors support at most " + Short.MAX_VALUE
+                    + " nodes, but the graph has " + n);
+        }
+        Layout layout = new Layout(n, distanceType, predecessorType, tileSize);
+        LOGGER.info(String.format("APSPResultStore: Writing %d x %d result of %d bytes to %s", n, n,
+                layout.fileSize, path));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(n);
+            buffer.putInt(distanceType.getSize());
+            buffer.putInt(predecessorType.getSize());
+            buffer.putInt(tileSize);
+            buffer.putLong(layout.distanceOffset);
+            buffer.putLong(layout.predecessorOffset);
+            buffer.position(HEADER_SIZE);
+
+            for (long index = 0; index < layout.numEntries; index++) {
+                int[] coordinates = layout.getCoordinates(index);
+                boolean padding = coordinates[0] >= n || coordinates[1] >= n;
+                double distance = padding ? Double.POSITIVE_INFINITY
+                        : solver.getDistanceFrom(coordinates[0], coordinates[1]).doubleValue();
+                flushIfFull(channel, buffer, distanceType.getSize());
+                if (distanceType == DistanceType.FLOAT) {
+                    buffer.putFloat((float) distance);
+                } else {
+                    buffer.putDouble(distance);
+                }
+            }
+            padTo(channel, buffer, layout.predecessorOffset);
+            for (long index = 0; index < layout.numEntries; index++) {
+                int[] coordinates = layout.getCoordinates(index);
+                boolean padding = coordinates[0] >= n || coordinates[1] >= n;
+                int pred = padding ? -1 : solver.getPredecessor(coordinates[0], coordinates[1]);
+                flushIfFull(channel, buffer, predecessorType.getSize());
+                if (predecessorType == PredecessorType.SHORT) {
+                    buffer.putShort((short) pred);
+                } else {
+                    buffer.putInt(pred);
+                }
+            }
+            padTo(channel, buffer, layout.fileSize);
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() < required) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes zeroes until the file has reached the given offset
+     */
+    private static void padTo(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (channel.position() + buffer.position() < offset) {
+            flushIfFull(channel, buffer, 1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Memory-maps a result written by {@link #write}
+     *
+     * @param path the file to read
+     * @return a store that serves queries from the file
+     * @throws IOException if the file cannot be read, or is not a valid result file
+     */
+    public static APSPResultStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("The file " + path + " is not an APSP result file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported APSP result file version " + version);
+            }
+            int n = header.getInt();
+            int distanceSize = header.getInt();
+            int predecessorSize = header.getInt();
+            int tileSize = header.getInt();
+            Layout layout = new Layout(n,
+                    distanceSize == 4 ? DistanceType.FLOAT : DistanceType.DOUBLE,
+                    predecessorSize == 2 ? PredecessorType.SHORT : PredecessorType.INT,
+                    tileSize);
+            if (layout.distanceType.getSize() != distanceSize || layout.predecessorType.getSize() != predecessorSize
+                    || header.getLong() != layout.distanceOffset || header.getLong() != layout.predecessorOffset
+                    || channel.size() < layout.fileSize) {
+                throw new IOException("The header of " + path + " is inconsistent with its contents");
+            }
+
+            int numChunks = (int) ((layout.fileSize + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                long start = c * CHUNK_SIZE;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(CHUNK_SIZE, layout.fileSize - start));
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new APSPResultStore(channel, chunks, layout);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getNumberOfNodes() {
+        return this.layout.n;
+    }
+
+    public DistanceType getDistanceType() {
+        return this.layout.distanceType;
+    }
+
+    public PredecessorType getPredecessorType() {
+        return this.layout.predecessorType;
+    }
+
+    /**
+     * @return the tile size, or 0 if the matrices are stored row-major
+     */
+    public int getTileSize() {
+        return this.layout.tileSize;
+    }
+
+    private void checkNodes(int i, int j) {
+        if (i < 0 || i >= this.layout.n || j < 0 || j >= this.layout.n) {
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) is outside the %d x %d result", i, j,
+                    this.layout.n, this.layout.n));
+        }
+    }
+
+    public double getDistance(int i, int j) {
+        checkNodes(i, j);
+        long offset = this.layout.distanceOffset + this.layout.getIndex(i, j) * this.layout.distanceType.getSize();
+        MappedByteBuffer chunk = this.chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & (CHUNK_SIZE - 1));
+        return this.layout.distanceType == DistanceType.FLOAT ? chunk.getFloat(position) : chunk.getDouble(position);
+    }
+
+    /**
+     * Same as {@link #getDistance(int, int)}, but boxed as a Float or Double depending on the stored precision, to
+     * match {@link APSPSolver#getDistanceFrom(int, int)}
+     */
+    public Number getDistanceFrom(int i, int j) {
+        double distance = this.getDistance(i, j);
+        return this.layout.distanceType == DistanceType.FLOAT ? (Number) (float) distance : (Number) distance;
+    }
+
+    /**
+     * @return the node before j on a shortest path from i to j, i if i = j, or -1 if there is no path from i to j
+     */
+    public int getPredecessor(int i, int j) {
+        checkNodes(i, j);
+        long offset = this.layout.predecessorOffset
+                + this.layout.getIndex(i, j) * this.layout.predecessorType.getSize();
+        MappedByteBuffer chunk = this.chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & (CHUNK_SIZE - 1));
+        return this.layout.predecessorType == PredecessorType.SHORT ? chunk.getShort(position) : chunk.getInt(position);
+    }
+
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        if (i == j || this.getPredecessor(i, j) == -1) {
+            return Optional.empty();
+        }
+
+        Deque<Integer> path = new LinkedList<>();
+        do {
+            int pred = this.getPredecessor(i, j);
+            if (pred == j || pred == -1) {
+                throw new IllegalStateException(String.format("The stored predecessors are inconsistent: Pred(%d, %d)=%d", i, j, pred));
+            } else if (path.size() > this.layout.n) {
+                throw new IllegalStateException(String.format("Encountered infinite loop in path from %d to %d", i, j));
+            }
+            path.addFirst(j);
+            j = pred;
+        } while (i != j);
+        path.addFirst(i);
+        return Optional.of(new ArrayList<>(path));
+    }
+
+    /**
+     * Closes the file. The mapped memory is released once the store is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+
+        Path path = Paths.get("cal-1000.apsp");
+        APSPResultStore.write(solver, graphReader.getNumberOfNodes(), path, DistanceType.FLOAT,
+                PredecessorType.SHORT, 0);
+        try (APSPResultStore store = APSPResultStore.open(path)) {
+            System.out.println(store.getShortestPath(0, 42));
+            System.out.println(store.getDistanceFrom(0, 42));
+        }
+    }
+}
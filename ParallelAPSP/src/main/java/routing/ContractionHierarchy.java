@@ -0,0 +1,612 @@
+package routing;
+
+import APSPSolver.APSPSolver;
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.IndexedDaryHeap;
+import util.LoggerFormatter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Contraction hierarchy index for point-to-point shortest path queries on road networks, where an n x n table of
+ * all the shortest paths is too large, and {@link graphReader.GraphCompressor} only removes chains of two-degree
+ * nodes.
+ *
+ * <p>
+ *     <h3>Preprocessing</h3>
+ *     {@link #solve()} contracts the nodes one at a time in order of importance. Contracting a node v removes it from
+ *     the graph, and for each pair of neighbours u -> v -> w, adds a shortcut u -> w of the same length, unless a
+ *     witness search finds a path from u to w avoiding v that is no longer. The importance of a node is its edge
+ *     difference, which is the number of shortcuts its contraction would add minus the number of edges it would
+ *     remove, plus the number of its neighbours that have already been contracted, which spreads the contractions
+ *     evenly over the graph. The importances change as the graph is contracted, so they are updated lazily: the node
+ *     with the lowest importance is only contracted if it is still the lowest after recomputing it.
+ * </p>
+ * <p>
+ *     <h3>Queries</h3>
+ *     Every edge and shortcut leads either up or down the order of contraction. A shortest path from s to t can
+ *     always be found as an upward path from s, followed by a downward path to t, so a query runs Dijkstra forward
+ *     from s and backward from t, only relaxing upward edges, and each search stops once its smallest key is no
+ *     smaller than the best path found. The shortcuts on the path are then unpacked recursively into the edges of
+ *     the original graph. Queries can be run concurrently, as each thread has its own search state.
+ * </p>
+ *
+ * The index can be written to a file with {@link #save(Path)} and read back with {@link #load(GraphReader, Path)},
+ * so the preprocessing only has to be done once per graph.
+ */
+public class ContractionHierarchy extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int MAGIC = 0x43484958;
+    private static final int VERSION = 1;
+    // the witness searches give up after settling this many nodes, and then the shortcut is added to be safe
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    // the position of each node in the contraction order
+    private int[] rank;
+    // upward edges u -> w with rank[w] > rank[u], stored at u, where the middle node is -1 for original edges
+    private UpwardGraph forward;
+    // upward edges x -> u with rank[x] > rank[u], stored at u with the source x as the target
+    private UpwardGraph backward;
+    private int numberOfShortcuts;
+    private ThreadLocal<QueryState> queryStates;
+
+    public ContractionHierarchy(GraphReader graphReader) {
+        super(graphReader);
+    }
+
+    /**
+     * The upward edges of the hierarchy in compressed sparse row format
+     */
+    private static class UpwardGraph {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+        final int[] middles;
+
+        UpwardGraph(int[] offsets, int[] targets, double[] weights, int[] middles) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.middles = middles;
+        }
+
+        /**
+         * @return the position of the edge between u and target in row u
+         */
+        int find(int u, int target) {
+            for (int pos = this.offsets[u]; pos < this.offsets[u + 1]; pos++) {
+                if (this.targets[pos] == target) {
+                    return pos;
+                }
+            }
+            throw new IllegalStateException(String.format("The hierarchy has no edge between %d and %d", u, target));
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(this.targets.length);
+            for (int offset : this.offsets) {
+                out.writeInt(offset);
+            }
+            for (int pos = 0; pos < this.targets.length; pos++) {
+                out.writeInt(this.targets[pos]);
+                out.writeDouble(this.weights[pos]);
+                out.writeInt(this.middles[pos]);
+            }
+        }
+
+        static UpwardGraph read(DataInputStream in, int n) throws IOException {
+            int numEdges = in.readInt();
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i <= n; i++) {
+                offsets[i] = in.readInt();
+            }
+            int[] targets = new int[numEdges];
+            double[] weights = new double[numEdges];
+            int[] middles = new int[numEdges];
+            for (int pos = 0; pos < numEdges; pos++) {
+                targets[pos] = in.readInt();
+                weights[pos] = in.readDouble();
+                middles[pos] = in.readInt();
+            }
+            return new UpwardGraph(offsets, targets, weights, middles);
+        }
+    }
+
+    /**
+     * An edge of the graph during the contraction, where the middle node is -1 for original edges
+     */
+    private static class Arc {
+        final double weight;
+        final int middle;
+
+        Arc(double weight, int middle) {
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    /**
+     * A shortcut from one remaining node to another that is found while contracting a node
+     */
+    private static class Shortcut {
+        final int from;
+        final int to;
+        final Arc arc;
+
+        Shortcut(int from, int to, Arc arc) {
+            this.from = from;
+            this.to = to;
+            this.arc = arc;
+        }
+    }
+
+    /**
+     * Contracts all the nodes and builds the upward graphs used by the queries
+     *
+     * @throws IllegalArgumentException if the graph has negative edge weights
+     */
+    @Override
+    public void solve() {
+        long startTime = System.nanoTime();
+        CSRGraph csrGraph = new CSRGraph(this.graph);
+
+        // the remaining graph, where only the cheapest of parallel edges is kept
+        List<Map<Integer, Arc>> out = new ArrayList<>();
+        List<Map<Integer, Arc>> in = new ArrayList<>();
+        for (int v = 0; v < this.n; v++) {
+            out.add(new HashMap<>());
+            in.add(new HashMap<>());
+        }
+        for (int u = 0; u < this.n; u++) {
+            for (int pos = csrGraph.getRowStart(u); pos < csrGraph.getRowEnd(u); pos++) {
+                int v = csrGraph.getTarget(pos);
+                double w = csrGraph.getWeight(pos);
+                if (w < 0) {
+                    throw new IllegalArgumentException("Contraction hierarchies require non-negative edge weights, "
+                            + "but (" + u + ", " + v + ") has weight " + w);
+                }
+                Arc existing = out.get(u).get(v);
+                if (u != v && (existing == null || w < existing.weight)) {
+                    Arc arc = new Arc(w, -1);
+                    out.get(u).put(v, arc);
+                    in.get(v).put(u, arc);
+                }
+            }
+        }
+
+        WitnessSearch witnessSearch = new WitnessSearch(this.n);
+        int[] contractedNeighbours = new int[this.n];
+        IndexedDaryHeap order = new IndexedDaryHeap(this.n, 4);
+        for (int v = 0; v < this.n; v++) {
+            order.insertOrDecreaseKey(v, this.getImportance(v, out, in, contractedNeighbours, witnessSearch));
+        }
+
+        this.rank = new int[this.n];
+        List<List<int[]>> forwardEdges = new ArrayList<>();
+        List<List<int[]>> backwardEdges = new ArrayList<>();
+        List<Double> forwardWeights = new ArrayList<>();
+        List<Double> backwardWeights = new ArrayList<>();
+        this.numberOfShortcuts = 0;
+        int nextRank = 0;
+        while (!order.isEmpty()) {
+            int v = order.poll();
+            // lazy update: only contract v if it is still the least important node
+            double importance = this.getImportance(v, out, in, contractedNeighbours, witnessSearch);
+            if (!order.isEmpty() && importance > order.getKey(order.peek())) {
+                order.insertOrDecreaseKey(v, importance);
+                continue;
+            }
+
+            // all the remaining neighbours will be ranked higher than v
+            this.rank[v] = nextRank++;
+            List<int[]> vForward = new ArrayList<>();
+            for (Map.Entry<Integer, Arc> e : out.get(v).entrySet()) {
+                vForward.add(new int[]{e.getKey(), e.getValue().middle, forwardWeights.size()});
+                forwardWeights.add(e.getValue().weight);
+            }
+            List<int[]> vBackward = new ArrayList<>();
+            for (Map.Entry<Integer, Arc> e : in.get(v).entrySet()) {
+                vBackward.add(new int[]{e.getKey(), e.getValue().middle, backwardWeights.size()});
+                backwardWeights.add(e.getValue().weight);
+            }
+            forwardEdges.add(vForward);
+            backwardEdges.add(vBackward);
+
+            this.numberOfShortcuts += this.contract(v, out, in, witnessSearch, true);
+            for (int w : out.get(v).keySet()) {
+                in.get(w).remove(v);
+                contractedNeighbours[w]++;
+            }
+            for (int u : in.get(v).keySet()) {
+                out.get(u).remove(v);
+                contractedNeighbours[u]++;
+            }
+            out.set(v, Collections.emptyMap());
+            in.set(v, Collections.emptyMap());
+        }
+
+        // the edge lists were added in the order of contraction, so map them back to node IDs
+        int[] nodeByRank = new int[this.n];
+        for (int v = 0; v < this.n; v++) {
+            nodeByRank[this.rank[v]] = v;
+        }
+        this.forward = toUpwardGraph(forwardEdges, forwardWeights, nodeByRank);
+        this.backward = toUpwardGraph(backwardEdges, backwardWeights, nodeByRank);
+        this.queryStates = ThreadLocal.withInitial(() -> new QueryState(this.n));
+
+        LOGGER.info(String.format("ContractionHierarchy: Contracted %d nodes with %d shortcuts in %.3f s", this.n,
+                this.numberOfShortcuts, (System.nanoTime() - startTime) / 1E9));
+    }
+
+    private UpwardGraph toUpwardGraph(List<List<int[]>> edgesByRank, List<Double> weights, int[] nodeByRank) {
+        int[] offsets = new int[this.n + 1];
+        for (int r = 0; r < this.n; r++) {
+            offsets[nodeByRank[r] + 1] = edgesByRank.get(r).size();
+        }
+        for (int v = 0; v < this.n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[this.n]];
+        double[] edgeWeights = new double[offsets[this.n]];
+        int[] middles = new int[offsets[this.n]];
+        for (int r = 0; r < this.n; r++) {
+            int pos = offsets[nodeByRank[r]];
+            for (int[] edge : edgesByRank.get(r)) {
+                targets[pos] = edge[0];
+                middles[pos] = edge[1];
+                edgeWeights[pos] = weights.get(edge[2]);
+                pos++;
+            }
+        }
+        return new UpwardGraph(offsets, targets, edgeWeights, middles);
+    }
+
+    private double getImportance(int v, List<Map<Integer, Arc>> out, List<Map<Integer, Arc>> in,
+                                 int[] contractedNeighbours, WitnessSearch witnessSearch) {
+        int shortcuts = this.contract(v, out, in, witnessSearch, false);
+        int edgeDifference = shortcuts - out.get(v).size() - in.get(v).size();
+        return edgeDifference + contractedNeighbours[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract v, and adds them to the remaining graph if requested
+     *
+     * @return the number of shortcuts needed
+     */
+    private int contract(int v, List<Map<Integer, Arc>> out, List<Map<Integer, Arc>> in,
+                         WitnessSearch witnessSearch, boolean addShortcuts) {
+        int shortcuts = 0;
+        List<Shortcut> newShortcuts = new ArrayList<>();
+        for (Map.Entry<Integer, Arc> incoming : in.get(v).entrySet()) {
+            int u = incoming.getKey();
+            double toV = incoming.getValue().weight;
+            double maxCost = 0.0;
+            for (Map.Entry<Integer, Arc> outgoing : out.get(v).entrySet()) {
+                if (outgoing.getKey() != u) {
+                    maxCost = Math.max(maxCost, toV + outgoing.getValue().weight);
+                }
+            }
+            witnessSearch.run(u, v, maxCost, out);
+            for (Map.Entry<Integer, Arc> outgoing : out.get(v).entrySet()) {
+                int w = outgoing.getKey();
+                double viaV = toV + outgoing.getValue().weight;
+                if (w != u && witnessSearch.getDistance(w) > viaV) {
+                    shortcuts++;
+                    if (addShortcuts) {
+                        newShortcuts.add(new Shortcut(u, w, new Arc(viaV, v)));
+                    }
+                }
+            }
+        }
+        // the shortcuts are added after all the witness searches, which must not use them
+        for (Shortcut shortcut : newShortcuts) {
+            Arc existing = out.get(shortcut.from).get(shortcut.to);
+            if (existing == null || shortcut.arc.weight < existing.weight) {
+                out.get(shortcut.from).put(shortcut.to, shortcut.arc);
+                in.get(shortcut.to).put(shortcut.from, shortcut.arc);
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Dijkstra in the remaining graph that skips the node being contracted, and stops once the distances exceed the
+     * longest path through it or too many nodes have been settled
+     */
+    private static class WitnessSearch {
+        private final double[] distance;
+        private final IndexedDaryHeap heap;
+        private final List<Integer> touched = new ArrayList<>();
+
+        WitnessSearch(int n) {
+            this.distance = new double[n];
+            Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+            this.heap = new IndexedDaryHeap(n, 4);
+        }
+
+        void run(int source, int excluded, double maxCost, List<Map<Integer, Arc>> out) {
+            for (int v : this.touched) {
+                this.distance[v] = Double.POSITIVE_INFINITY;
+            }
+            this.touched.clear();
+            this.heap.clear();
+
+            this.distance[source] = 0.0;
+            this.touched.add(source);
+            this.heap.insertOrDecreaseKey(source, 0.0);
+            int settled = 0;
+            while (!this.heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int cur = this.heap.poll();
+                if (this.distance[cur] > maxCost) {
+                    break;
+                }
+                settled++;
+                for (Map.Entry<Integer, Arc> e : out.get(cur).entrySet()) {
+                    int next = e.getKey();
+                    double newDist = this.distance[cur] + e.getValue().weight;
+                    if (next != excluded && newDist < this.distance[next]) {
+                        if (this.distance[next] == Double.POSITIVE_INFINITY) {
+                            this.touched.add(next);
+                        }
+                        this.distance[next] = newDist;
+                        this.heap.insertOrDecreaseKey(next, newDist);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return an upper bound on the distance to v that avoids the excluded node, or infinity if none was found
+         */
+        double getDistance(int v) {
+            return this.distance[v];
+        }
+    }
+
+    /**
+     * The state of the forward and backward searches of one thread, which is reset after each query
+     */
+    private static class QueryState {
+        final double[][] distance = new double[2][];
+        final int[][] parentEdge = new int[2][];
+        final int[][] parentNode = new int[2][];
+        final IndexedDaryHeap[] heaps = new IndexedDaryHeap[2];
+        final List<List<Integer>> touched = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+
+        QueryState(int n) {
+            for (int dir = 0; dir < 2; dir++) {
+                this.distance[dir] = new double[n];
+                Arrays.fill(this.distance[dir], Double.POSITIVE_INFINITY);
+                this.parentEdge[dir] = new int[n];
+                this.parentNode[dir] = new int[n];
+                this.heaps[dir] = new IndexedDaryHeap(n, 4);
+            }
+        }
+
+        void reset() {
+            for (int dir = 0; dir < 2; dir++) {
+                for (int v : this.touched.get(dir)) {
+                    this.distance[dir][v] = Double.POSITIVE_INFINITY;
+                }
+                this.touched.get(dir).clear();
+                this.heaps[dir].clear();
+            }
+        }
+    }
+
+    /**
+     * Runs the bidirectional upward search from i to j
+     *
+     * @return the node where the two searches meet on a shortest path, or -1 if there is no path
+     */
+    private int query(QueryState state, int i, int j) {
+        if (this.rank == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        state.reset();
+        UpwardGraph[] graphs = {this.forward, this.backward};
+        int[] sources = {i, j};
+        for (int dir = 0; dir < 2; dir++) {
+            state.distance[dir][sources[dir]] = 0.0;
+            state.parentEdge[dir][sources[dir]] = -1;
+            state.touched.get(dir).add(sources[dir]);
+            state.heaps[dir].insertOrDecreaseKey(sources[dir], 0.0);
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int dir = 0;
+        while (true) {
+            // alternate between the directions, skipping a direction that cannot improve the best path
+            boolean forwardDone = state.heaps[0].isEmpty()
+                    || state.heaps[0].getKey(state.heaps[0].peek()) >= best;
+            boolean backwardDone = state.heaps[1].isEmpty()
+                    || state.heaps[1].getKey(state.heaps[1].peek()) >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            dir = forwardDone ? 1 : backwardDone ? 0 : 1 - dir;
+
+            int cur = state.heaps[dir].poll();
+            double curDist = state.distance[dir][cur];
+            double total = curDist + state.distance[1 - dir][cur];
+            if (total < best) {
+                best = total;
+                meeting = cur;
+            }
+            UpwardGraph upward = graphs[dir];
+            double[] distance = state.distance[dir];
+            for (int pos = upward.offsets[cur]; pos < upward.offsets[cur + 1]; pos++) {
+                int next = upward.targets[pos];
+                double newDist = curDist + upward.weights[pos];
+                if (newDist < distance[next]) {
+                    if (distance[next] == Double.POSITIVE_INFINITY) {
+                        state.touched.get(dir).add(next);
+                    }
+                    distance[next] = newDist;
+                    state.parentEdge[dir][next] = pos;
+                    state.parentNode[dir][next] = cur;
+                    state.heaps[dir].insertOrDecreaseKey(next, newDist);
+                }
+            }
+        }
+        return meeting;
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        QueryState state = this.getQueryState();
+        int meeting = this.query(state, i, j);
+        return meeting == -1 ? Double.POSITIVE_INFINITY : state.distance[0][meeting] + state.distance[1][meeting];
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        QueryState state = this.getQueryState();
+        int meeting = this.query(state, i, j);
+        if (meeting == -1 || i == j) {
+            return Optional.empty();
+        }
+
+        // collect the upward edges from i to the meeting node, as (from, to, middle) triples
+        Deque<int[]> edges = new ArrayDeque<>();
+        int v = meeting;
+        while (v != i) {
+            int pos = state.parentEdge[0][v];
+            int u = state.parentNode[0][v];
+            edges.addFirst(new int[]{u, v, this.forward.middles[pos]});
+            v = u;
+        }
+        // and the downward edges from the meeting node to j, which are stored at their lower end
+        v = meeting;
+        while (v != j) {
+            int pos = state.parentEdge[1][v];
+            int w = state.parentNode[1][v];
+            edges.addLast(new int[]{v, w, this.backward.middles[pos]});
+            v = w;
+        }
+
+        List<Integer> path = new ArrayList<>();
+        path.add(i);
+        for (int[] edge : edges) {
+            this.unpack(edge[0], edge[1], edge[2], path);
+        }
+        return Optional.of(path);
+    }
+
+    private QueryState getQueryState() {
+        if (this.queryStates == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        return this.queryStates.get();
+    }
+
+    /**
+     * Appends the original nodes after u on the edge or shortcut from u to w, ending with w
+     */
+    private void unpack(int u, int w, int middle, List<Integer> path) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{u, w, middle});
+        while (!stack.isEmpty()) {
+            int[] edge = stack.pop();
+            if (edge[2] == -1) {
+                path.add(edge[1]);
+                continue;
+            }
+            // the middle node was contracted before both ends, so u -> m is stored backward at m, and m -> w forward
+            int m = edge[2];
+            int second = this.forward.find(m, edge[1]);
+            int first = this.backward.find(m, edge[0]);
+            stack.push(new int[]{m, edge[1], this.forward.middles[second]});
+            stack.push(new int[]{edge[0], m, this.backward.middles[first]});
+        }
+    }
+
+    /**
+     * @return the number of shortcuts added by the contraction
+     */
+    public int getNumberOfShortcuts() {
+        if (this.rank == null) {
+            throw new IllegalStateException("The solve method must be called before querying the hierarchy");
+        }
+        return this.numberOfShortcuts;
+    }
+
+    /**
+     * Writes the hierarchy to a file, so it can be read with {@link #load(GraphReader, Path)} without contracting
+     * the graph again
+     */
+    public void save(Path path) throws IOException {
+        if (this.rank == null) {
+            throw new IllegalStateException("The solve method must be called before saving the hierarchy");
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.n);
+            out.writeInt(this.numberOfShortcuts);
+            for (int r : this.rank) {
+                out.writeInt(r);
+            }
+            this.forward.write(out);
+            this.backward.write(out);
+        }
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #save(Path)}, which is ready for queries without calling {@link #solve()}
+     *
+     * @param graphReader the graph that the hierarchy was built from
+     * @param path the file to read
+     * @throws IOException if the file cannot be read, or was not built from a graph of the same size
+     */
+    public static ContractionHierarchy load(GraphReader graphReader, Path path) throws IOException {
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graphReader);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("The file " + path + " is not a contraction hierarchy");
+            }
+            int n = in.readInt();
+            if (n != hierarchy.n) {
+                throw new IOException(String.format("The hierarchy has %d nodes, but the graph has %d", n,
+                        hierarchy.n));
+            }
+            hierarchy.numberOfShortcuts = in.readInt();
+            hierarchy.rank = new int[n];
+            for (int v = 0; v < n; v++) {
+                hierarchy.rank[v] = in.readInt();
+            }
+            hierarchy.forward = UpwardGraph.read(in, n);
+            hierarchy.backward = UpwardGraph.read(in, n);
+        }
+        hierarchy.queryStates = ThreadLocal.withInitial(() -> new QueryState(hierarchy.n));
+        return hierarchy;
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/2000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        APSPSolver solver = new ContractionHierarchy(graphReader);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 1999));
+        System.out.println(solver.getDistanceFrom(0, 1999));
+    }
+}
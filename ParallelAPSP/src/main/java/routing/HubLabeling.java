@@ -0,0 +1,598 @@
+package routing;
+
+import APSPSolver.APSPSolver;
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.IndexedDaryHeap;
+import util.LoggerFormatter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two-hop hub labeling distance oracle, built with pruned landmark labeling. Every node v gets a label, which is a
+ * list of (hub, distance) pairs, such that for every pair of nodes s and t, some hub on a shortest path from s to t
+ * is in the out-label of s and in the in-label of t. The distance is then the minimum of d(s, h) + d(h, t) over the
+ * common hubs h, which is found by merging the two labels, as they are sorted by hub. For undirected graphs, the in-
+ * and out-labels are the same.
+ *
+ * <p>
+ *     <h3>Construction</h3>
+ *     The nodes are ordered by decreasing degree, and a pruned Dijkstra is run from each hub h in that order. When a
+ *     node v is settled at distance d, and the labels found so far already give a distance of at most d between h
+ *     and v, v is pruned: it is not labelled and its edges are not relaxed. Otherwise, h is added to the in-label of v
+ *     (and a backward search does the same for the out-labels of directed graphs). The early, highly connected hubs
+ *     cover most of the shortest paths, so the later searches are pruned quickly, and the labels stay small on road
+ *     networks.
+ *
+ *     To build the labels in parallel, the hubs are processed in batches of the size of the pool, where the searches
+ *     of a batch run concurrently and are only pruned by the labels of the earlier batches. The labels are still
+ *     correct, but might be slightly larger than with the sequential order.
+ * </p>
+ * <p>
+ *     <h3>Storage</h3>
+ *     The labels are stored in flat primitive arrays, with the labels of node v at [offset[v], offset[v + 1]). Each
+ *     entry also stores the node before v on the shortest path from the hub, so shortest paths can be reconstructed.
+ *     {@link #save(Path)} writes these arrays to a file, which {@link #load(GraphReader, Path)} memory-maps, so the
+ *     oracle can be queried without reading the whole file onto the heap. The index takes
+ *     {@link #getAverageLabelSize()} x 16 bytes per node, compared to 12 n bytes per node for a table of all the
+ *     distances and predecessors.
+ * </p>
+ */
+public class HubLabeling extends APSPSolver {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int MAGIC = 0x48554c42;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final ForkJoinPool pool;
+
+    private IntBuffer nodeByRank;
+    private Labels inLabels;
+    // the same as the in-labels for undirected graphs
+    private Labels outLabels;
+
+    public HubLabeling(GraphReader graphReader, ForkJoinPool pool) {
+        super(graphReader);
+        this.pool = pool;
+    }
+
+    public HubLabeling(GraphReader graphReader) {
+        this(graphReader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * The labels of all the nodes, sorted by the rank of the hub within each label
+     */
+    private static class Labels {
+        final IntBuffer offsets;
+        final IntBuffer hubs;
+        final IntBuffer parents;
+        final DoubleBuffer distances;
+
+        Labels(IntBuffer offsets, IntBuffer hubs, IntBuffer parents, DoubleBuffer distances) {
+            this.offsets = offsets;
+            this.hubs = hubs;
+            this.parents = parents;
+            this.distances = distances;
+        }
+
+        int size() {
+            return this.hubs.limit();
+        }
+
+        /**
+         * @return the position of the hub in the label of v, or -1 if it is not in the label
+         */
+        int find(int v, int hubRank) {
+            int lo = this.offsets.get(v);
+            int hi = this.offsets.get(v + 1) - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int midHub = this.hubs.get(mid);
+                if (midHub < hubRank) {
+                    lo = mid + 1;
+                } else if (midHub > hubRank) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The labels while they are being built, which grow by appending hubs in increasing rank
+     */
+    private static class LabelBuilder {
+        final int[][] hubs;
+        final int[][] parents;
+        final double[][] distances;
+        final int[] sizes;
+
+        LabelBuilder(int n) {
+            this.hubs = new int[n][4];
+            this.parents = new int[n][4];
+            this.distances = new double[n][4];
+            this.sizes = new int[n];
+        }
+
+        void add(int v, int hubRank, int parent, double distance) {
+            int size = this.sizes[v];
+            if (size == this.hubs[v].length) {
+                this.hubs[v] = Arrays.copyOf(this.hubs[v], 2 * size);
+                this.parents[v] = Arrays.copyOf(this.parents[v], 2 * size);
+                this.distances[v] = Arrays.copyOf(this.distances[v], 2 * size);
+            }
+            this.hubs[v][size] = hubRank;
+            this.parents[v][size] = parent;
+            this.distances[v][size] = distance;
+            this.sizes[v]++;
+        }
+
+        Labels toLabels() {
+            int n = this.sizes.length;
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] = offsets[v] + this.sizes[v];
+            }
+            int[] flatHubs = new int[offsets[n]];
+            int[] flatParents = new int[offsets[n]];
+            double[] flatDistances = new double[offsets[n]];
+            for (int v = 0; v < n; v++) {
+                System.arraycopy(this.hubs[v], 0, flatHubs, offsets[v], this.sizes[v]);
+                System.arraycopy(this.parents[v], 0, flatParents, offsets[v], this.sizes[v]);
+                System.arraycopy(this.distances[v], 0, flatDistances, offsets[v], this.sizes[v]);
+            }
+            return new Labels(IntBuffer.wrap(offsets), IntBuffer.wrap(flatHubs), IntBuffer.wrap(flatParents),
+                    DoubleBuffer.wrap(flatDistances));
+        }
+    }
+
+    /**
+     * The label entries found by one pruned search, which are added to the labels once the batch is done
+     */
+    private static class SearchResult {
+        final int hubRank;
+        final List<int[]> nodesAndParents = new ArrayList<>();
+        final List<Double> distances = new ArrayList<>();
+
+        SearchResult(int hubRank) {
+            this.hubRank = hubRank;
+        }
+    }
+
+    /**
+     * Builds the labels of all the nodes
+     *
+     * @throws IllegalArgumentException if the graph has negative edge weights
+     */
+    @Override
+    public void solve() {
+        long startTime = System.nanoTime();
+        CSRGraph forwardGraph = new CSRGraph(this.graph);
+        for (int pos = 0; pos < forwardGraph.getNumberOfEntries(); pos++) {
+            if (forwardGraph.getWeight(pos) < 0) {
+                throw new IllegalArgumentException("Hub labeling requires non-negative edge weights");
+            }
+        }
+        boolean directed = this.graph.isDirected();
+        ReverseGraph backwardGraph = directed ? new ReverseGraph(forwardGraph) : null;
+
+        // order the nodes by decreasing degree, breaking ties by ID
+        int[] degree = new int[this.n];
+        for (int v = 0; v < this.n; v++) {
+            degree[v] += forwardGraph.getRowEnd(v) - forwardGraph.getRowStart(v);
+            if (directed) {
+                degree[v] += backwardGraph.offsets[v + 1] - backwardGraph.offsets[v];
+            }
+        }
+        Integer[] order = new Integer[this.n];
+        for (int v = 0; v < this.n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> degree[a] != degree[b] ? Integer.compare(degree[b], degree[a])
+                : Integer.compare(a, b));
+        int[] rankArray = new int[this.n];
+        int[] nodeByRankArray = new int[this.n];
+        for (int r = 0; r < this.n; r++) {
+            nodeByRankArray[r] = order[r];
+            rankArray[order[r]] = r;
+        }
+
+        LabelBuilder in = new LabelBuilder(this.n);
+        LabelBuilder out = directed ? new LabelBuilder(this.n) : in;
+        ThreadLocal<SearchState> states = ThreadLocal.withInitial(() -> new SearchState(this.n));
+        int batchSize = this.pool.getParallelism();
+        LOGGER.info("HubLabeling: Building labels for " + this.n + " nodes in batches of " + batchSize);
+
+        for (int batchStart = 0; batchStart < this.n; batchStart += batchSize) {
+            List<Callable<SearchResult[]>> searches = new ArrayList<>();
+            for (int r = batchStart; r < Math.min(this.n, batchStart + batchSize); r++) {
+                int hubRank = r;
+                int hub = nodeByRankArray[r];
+                searches.add(() -> {
+                    SearchState state = states.get();
+                    // forward search labels the in-labels, and is pruned with the out-label of the hub
+                    SearchResult forward = state.run(hub, hubRank, out, in,
+                            forwardGraph::getRowStart, forwardGraph::getRowEnd, forwardGraph::getTarget,
+                            forwardGraph::getWeight);
+                    SearchResult backward = !directed ? null : state.run(hub, hubRank, in, out,
+                            v -> backwardGraph.offsets[v], v -> backwardGraph.offsets[v + 1],
+                            pos -> backwardGraph.targets[pos], pos -> backwardGraph.weights[pos]);
+                    return new SearchResult[]{forward, backward};
+                });
+            }
+
+            // the labels are only read during the searches, and are extended in rank order once they are done
+            List<SearchResult[]> results = new ArrayList<>();
+            try {
+                for (Future<SearchResult[]> future : this.pool.invokeAll(searches)) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("A pruned search failed", e);
+            }
+            for (SearchResult[] result : results) {
+                addToLabels(result[0], in);
+                if (directed) {
+                    addToLabels(result[1], out);
+                }
+            }
+        }
+
+        this.nodeByRank = IntBuffer.wrap(nodeByRankArray);
+        this.inLabels = in.toLabels();
+        this.outLabels = directed ? out.toLabels() : this.inLabels;
+        LOGGER.info(String.format("HubLabeling: Built labels with an average size of %.1f in %.3f s",
+                this.getAverageLabelSize(), (System.nanoTime() - startTime) / 1E9));
+    }
+
+    private static void addToLabels(SearchResult result, LabelBuilder labels) {
+        for (int k = 0; k < result.distances.size(); k++) {
+            int[] nodeAndParent = result.nodesAndParents.get(k);
+            labels.add(nodeAndParent[0], result.hubRank, nodeAndParent[1], result.distances.get(k));
+        }
+    }
+
+    /**
+     * The incoming edges of each node, for the backward searches on directed graphs
+     */
+    private static class ReverseGraph {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+
+        ReverseGraph(CSRGraph graph) {
+            int n = graph.getNumberOfNodes();
+            this.offsets = new int[n + 1];
+            for (int pos = 0; pos < graph.getNumberOfEntries(); pos++) {
+                this.offsets[graph.getTarget(pos) + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                this.offsets[v + 1] += this.offsets[v];
+            }
+            this.targets = new int[graph.getNumberOfEntries()];
+            this.weights = new double[graph.getNumberOfEntries()];
+            int[] nextFree = Arrays.copyOf(this.offsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int pos = graph.getRowStart(u); pos < graph.getRowEnd(u); pos++) {
+                    int p = nextFree[graph.getTarget(pos)]++;
+                    this.targets[p] = u;
+                    this.weights[p] = graph.getWeight(pos);
+                }
+            }
+        }
+    }
+
+    private interface IntToInt {
+        int apply(int value);
+    }
+
+    private interface IntToDouble {
+        double apply(int value);
+    }
+
+    /**
+     * The arrays of one thread's pruned searches, which are reset after each search
+     */
+    private static class SearchState {
+        final double[] distance;
+        final int[] parent;
+        // the distances from the label of the hub, indexed by the rank of each of its hubs
+        final double[] hubDistance;
+        final IndexedDaryHeap heap;
+        final List<Integer> touched = new ArrayList<>();
+
+        SearchState(int n) {
+            this.distance = new double[n];
+            this.parent = new int[n];
+            this.hubDistance = new double[n];
+            Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+            Arrays.fill(this.hubDistance, Double.POSITIVE_INFINITY);
+            this.heap = new IndexedDaryHeap(n, 4);
+        }
+
+        /**
+         * Runs a pruned Dijkstra from the hub
+         *
+         * @param hubLabels the labels used for the side of the hub, such as the out-labels for a forward search
+         * @param nodeLabels the labels used for the other side, which the search adds the hub to
+         */
+        SearchResult run(int hub, int hubRank, LabelBuilder hubLabels, LabelBuilder nodeLabels,
+                         IntToInt rowStart, IntToInt rowEnd, IntToInt target, IntToDouble weight) {
+            SearchResult result = new SearchResult(hubRank);
+            for (int k = 0; k < hubLabels.sizes[hub]; k++) {
+                this.hubDistance[hubLabels.hubs[hub][k]] = hubLabels.distances[hub][k];
+            }
+
+            this.distance[hub] = 0.0;
+            this.parent[hub] = hub;
+            this.touched.add(hub);
+            this.heap.clear();
+            this.heap.insertOrDecreaseKey(hub, 0.0);
+            while (!this.heap.isEmpty()) {
+                int cur = this.heap.poll();
+                double curDist = this.distance[cur];
+                // prune if the existing labels already cover the pair with a path that is no longer
+                boolean covered = false;
+                for (int k = 0; k < nodeLabels.sizes[cur] && !covered; k++) {
+                    covered = this.hubDistance[nodeLabels.hubs[cur][k]] + nodeLabels.distances[cur][k] <= curDist;
+                }
+                if (covered) {
+                    continue;
+                }
+                result.nodesAndParents.add(new int[]{cur, this.parent[cur]});
+                result.distances.add(curDist);
+                for (int pos = rowStart.apply(cur), end = rowEnd.apply(cur); pos < end; pos++) {
+                    int next = target.apply(pos);
+                    double newDist = curDist + weight.apply(pos);
+                    if (newDist < this.distance[next]) {
+                        if (this.distance[next] == Double.POSITIVE_INFINITY) {
+                            this.touched.add(next);
+                        }
+                        this.distance[next] = newDist;
+                        this.parent[next] = cur;
+                        this.heap.insertOrDecreaseKey(next, newDist);
+                    }
+                }
+            }
+
+            for (int v : this.touched) {
+                this.distance[v] = Double.POSITIVE_INFINITY;
+            }
+            this.touched.clear();
+            for (int k = 0; k < hubLabels.sizes[hub]; k++) {
+                this.hubDistance[hubLabels.hubs[hub][k]] = Double.POSITIVE_INFINITY;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Merges the out-label of i with the in-label of j
+     *
+     * @return the positions of the best common hub in the two labels, or null if there is none
+     */
+    private int[] findBestHub(int i, int j) {
+        if (this.inLabels == null) {
+            throw new IllegalStateException("The solve method must be called before querying shortest paths");
+        }
+        int a = this.outLabels.offsets.get(i);
+        int aEnd = this.outLabels.offsets.get(i + 1);
+        int b = this.inLabels.offsets.get(j);
+        int bEnd = this.inLabels.offsets.get(j + 1);
+        double best = Double.POSITIVE_INFINITY;
+        int[] bestPositions = null;
+        while (a < aEnd && b < bEnd) {
+            int hubA = this.outLabels.hubs.get(a);
+            int hubB = this.inLabels.hubs.get(b);
+            if (hubA < hubB) {
+                a++;
+            } else if (hubA > hubB) {
+                b++;
+            } else {
+                double d = this.outLabels.distances.get(a) + this.inLabels.distances.get(b);
+                if (d < best) {
+                    best = d;
+                    bestPositions = new int[]{a, b};
+                }
+                a++;
+                b++;
+            }
+        }
+        return bestPositions;
+    }
+
+    @Override
+    public Number getDistanceFrom(int i, int j) {
+        int[] positions = this.findBestHub(i, j);
+        return positions == null ? Double.POSITIVE_INFINITY
+                : this.outLabels.distances.get(positions[0]) + this.inLabels.distances.get(positions[1]);
+    }
+
+    @Override
+    public Optional<List<Integer>> getShortestPath(int i, int j) {
+        int[] positions = this.findBestHub(i, j);
+        if (positions == null || i == j) {
+            return Optional.empty();
+        }
+        int hubRank = this.outLabels.hubs.get(positions[0]);
+        int hub = this.nodeByRank.get(hubRank);
+
+        // the parents of the out-labels lead from i towards the hub
+        List<Integer> path = new ArrayList<>();
+        int v = i;
+        int pos = positions[0];
+        while (v != hub) {
+            path.add(v);
+            v = this.outLabels.parents.get(pos);
+            pos = this.outLabels.find(v, hubRank);
+        }
+        // and the parents of the in-labels lead from j back to the hub
+        Deque<Integer> tail = new ArrayDeque<>();
+        v = j;
+        pos = positions[1];
+        while (v != hub) {
+            tail.addFirst(v);
+            v = this.inLabels.parents.get(pos);
+            pos = this.inLabels.find(v, hubRank);
+        }
+        path.add(hub);
+        path.addAll(tail);
+        return Optional.of(path);
+    }
+
+    /**
+     * @return the average number of hubs in a label, over both the in- and out-labels of directed graphs
+     */
+    public double getAverageLabelSize() {
+        if (this.inLabels == null) {
+            throw new IllegalStateException("The solve method must be called before querying the labels");
+        }
+        if (this.inLabels == this.outLabels) {
+            return (double) this.inLabels.size() / this.n;
+        }
+        return (this.inLabels.size() + this.outLabels.size()) / (2.0 * this.n);
+    }
+
+    /**
+     * Writes the labels to a file, which can be memory-mapped with {@link #load(GraphReader, Path)}. The file starts
+     * with a header of {@value #HEADER_SIZE} bytes, followed by the node order and then the in- and out-labels, each
+     * as their distances, offsets, hubs and parents. Every section starts at a multiple of 8 bytes.
+     */
+    public void save(Path path) throws IOException {
+        if (this.inLabels == null) {
+            throw new IllegalStateException("The solve method must be called before saving the labels");
+        }
+        boolean directed = this.inLabels != this.outLabels;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.n);
+            out.writeInt(directed ? 1 : 0);
+            out.writeInt(this.inLabels.size());
+            out.writeInt(directed ? this.outLabels.size() : 0);
+            out.write(new byte[HEADER_SIZE - 24]);
+            writeInts(out, this.nodeByRank);
+            writeLabels(out, this.inLabels);
+            if (directed) {
+                writeLabels(out, this.outLabels);
+            }
+        }
+    }
+
+    private static void writeLabels(DataOutputStream out, Labels labels) throws IOException {
+        for (int k = 0; k < labels.distances.limit(); k++) {
+            out.writeDouble(labels.distances.get(k));
+        }
+        writeInts(out, labels.offsets);
+        writeInts(out, labels.hubs);
+        writeInts(out, labels.parents);
+    }
+
+    private static void writeInts(DataOutputStream out, IntBuffer values) throws IOException {
+        for (int k = 0; k < values.limit(); k++) {
+            out.writeInt(values.get(k));
+        }
+        // keep the next section 8-byte aligned
+        if (values.limit() % 2 == 1) {
+            out.writeInt(0);
+        }
+    }
+
+    /**
+     * Memory-maps labels written by {@link #save(Path)}, which are ready for queries without calling
+     * {@link #solve()}
+     *
+     * @param graphReader the graph that the labels were built from
+     * @param path the file to read
+     * @throws IOException if the file cannot be read, or was not built from a graph of the same size
+     */
+    public static HubLabeling load(GraphReader graphReader, Path path) throws IOException {
+        HubLabeling labeling = new HubLabeling(graphReader);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("The file " + path + " is not a hub labeling");
+            }
+            int n = header.getInt();
+            if (n != labeling.n || header.getInt() != (graphReader.isDirected() ? 1 : 0)) {
+                throw new IOException(String.format("The labels were built for a graph with %d nodes, but the graph "
+                        + "has %d nodes or a different direction", n, labeling.n));
+            }
+            int inSize = header.getInt();
+            int outSize = header.getInt();
+
+            long[] position = {HEADER_SIZE};
+            labeling.nodeByRank = mapInts(channel, position, n);
+            labeling.inLabels = mapLabels(channel, position, n, inSize);
+            labeling.outLabels = graphReader.isDirected() ? mapLabels(channel, position, n, outSize)
+                    : labeling.inLabels;
+        }
+        // the mappings stay valid after the channel is closed
+        return labeling;
+    }
+
+    private static Labels mapLabels(FileChannel channel, long[] position, int n, int size) throws IOException {
+        DoubleBuffer distances = map(channel, position, (long) size * Double.BYTES).asDoubleBuffer();
+        IntBuffer offsets = mapInts(channel, position, n + 1);
+        IntBuffer hubs = mapInts(channel, position, size);
+        IntBuffer parents = mapInts(channel, position, size);
+        return new Labels(offsets, hubs, parents, distances);
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long[] position, int count) throws IOException {
+        IntBuffer values = map(channel, position, (long) count * Integer.BYTES).asIntBuffer();
+        // skip the padding
+        position[0] += count % 2 == 1 ? Integer.BYTES : 0;
+        return values;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] position, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("A section of " + bytes + " bytes is too large to be mapped");
+        }
+        if (position[0] + bytes > channel.size()) {
+            throw new IOException("The file ends before the section at " + position[0]);
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position[0], bytes);
+        position[0] += bytes;
+        return buffer;
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/2000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        HubLabeling solver = new HubLabeling(graphReader);
+        solver.solve();
+
+        System.out.println(solver.getShortestPath(0, 1999));
+        System.out.println(solver.getDistanceFrom(0, 1999));
+    }
+}
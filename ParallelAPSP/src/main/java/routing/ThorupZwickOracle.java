@@ -0,0 +1,511 @@
+package routing;
+
+import graphReader.CSRGraph;
+import graphReader.GraphReader;
+import util.IndexedDaryHeap;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Approximate distance oracle by Thorup and Zwick, for undirected graphs that are too large for any of the exact
+ * APSP solvers. For an integer k >= 1, it answers distance queries in O(k) time with a stretch of at most 2k - 1,
+ * meaning that d(u, v) <= estimate(u, v) <= (2k - 1) d(u, v), using O(k n^(1 + 1/k)) expected space. Larger k
+ * therefore trades accuracy for space, and k = 1 stores all the exact distances.
+ *
+ * <p>
+ *     <h3>Construction</h3>
+ *     A hierarchy of samples V = A_0, A_1, ..., A_(k-1), A_k = {} is chosen, where each node of A_(i-1) is in A_i
+ *     with probability n^(-1/k). Each component of the graph gets at least one node in A_(k-1), so that connected
+ *     pairs always get a finite estimate. For every level i, a multi-source Dijkstra from A_i finds the closest node
+ *     p_i(v) in A_i to every v. The bunch of v is then the set of nodes w in A_i \ A_(i+1), for any i, that are
+ *     closer to v than p_(i+1)(v). The bunches are found from the other side: the cluster of w is found with a
+ *     Dijkstra from w that only visits nodes that w is closer to than A_(i+1). The k sample searches and the
+ *     cluster searches are all run in parallel.
+ * </p>
+ * <p>
+ *     <h3>Queries</h3>
+ *     Starting with w = u and i = 0, while w is not in the bunch of v, i is increased, u and v are swapped and
+ *     w = p_i(u). The estimate is then d(w, u) + d(w, v), which are both stored. The bunches are stored as open
+ *     addressing hash tables in flat arrays, so each of the at most k membership tests takes expected O(1) time.
+ * </p>
+ *
+ * The accuracy can be checked with {@link #measureStretch(int, long)}, which compares the estimates with exact
+ * distances from sampled sources.
+ */
+public class ThorupZwickOracle {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // the number of cluster searches done by each task
+    private static final int CLUSTERS_PER_TASK = 64;
+
+    private final GraphReader graph;
+    private final int n;
+    private final int k;
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    private CSRGraph csrGraph;
+    // nearest[i][v] is p_i(v), the closest node in A_i to v, and distanceToSample[i][v] is its distance
+    private int[][] nearest;
+    private double[][] distanceToSample;
+    // the bunch of v is a hash table at [bunchOffsets[v], bunchOffsets[v + 1]), where unused slots are -1
+    private int[] bunchOffsets;
+    private int[] bunchNodes;
+    private double[] bunchDistances;
+    private long numberOfBunchEntries;
+
+    /**
+     * @param graphReader undirected input graph, which must not have negative edge weights
+     * @param k the stretch parameter, giving a stretch of at most 2k - 1
+     * @param seed seed for sampling the hierarchy
+     * @param pool the fork-join pool that the searches are run in
+     */
+    public ThorupZwickOracle(GraphReader graphReader, int k, long seed, ForkJoinPool pool) {
+        if (graphReader.isDirected()) {
+            throw new IllegalArgumentException("The Thorup-Zwick oracle only supports undirected graphs");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("The stretch parameter k must be at least 1, but was " + k);
+        }
+        this.graph = graphReader;
+        this.n = graphReader.getNumberOfNodes();
+        this.k = k;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    public ThorupZwickOracle(GraphReader graphReader, int k) {
+        this(graphReader, k, 42, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Samples the hierarchy, and finds the nearest samples and bunches of all the nodes
+     *
+     * @throws IllegalArgumentException if the graph has negative edge weights
+     */
+    public void build() {
+        long startTime = System.nanoTime();
+        this.csrGraph = new CSRGraph(this.graph);
+        for (int pos = 0; pos < this.csrGraph.getNumberOfEntries(); pos++) {
+            if (this.csrGraph.getWeight(pos) < 0) {
+                throw new IllegalArgumentException("The Thorup-Zwick oracle requires non-negative edge weights");
+            }
+        }
+
+        // level[v] is the largest i such that v is in A_i
+        int[] level = this.sampleLevels();
+
+        // find p_i(v) for every level, where level k is empty
+        this.nearest = new int[this.k + 1][];
+        this.distanceToSample = new double[this.k + 1][];
+        this.nearest[this.k] = new int[this.n];
+        this.distanceToSample[this.k] = new double[this.n];
+        Arrays.fill(this.nearest[this.k], -1);
+        Arrays.fill(this.distanceToSample[this.k], Double.POSITIVE_INFINITY);
+        List<Callable<Void>> sampleSearches = new ArrayList<>();
+        for (int i = 0; i < this.k; i++) {
+            int sampleLevel = i;
+            sampleSearches.add(() -> {
+                this.findNearestSamples(sampleLevel, level);
+                return null;
+            });
+        }
+        invokeAllAndWait(this.pool, sampleSearches);
+
+        // find the cluster of every node, in tasks of a few nodes each
+        ThreadLocal<ClusterSearch> searches = ThreadLocal.withInitial(() -> new ClusterSearch(this.n));
+        List<Callable<ClusterEntries>> clusterTasks = new ArrayList<>();
+        for (int start = 0; start < this.n; start += CLUSTERS_PER_TASK) {
+            int from = start;
+            int to = Math.min(this.n, start + CLUSTERS_PER_TASK);
+            clusterTasks.add(() -> {
+                ClusterSearch search = searches.get();
+                ClusterEntries entries = new ClusterEntries();
+                for (int w = from; w < to; w++) {
+                    search.run(w, this.distanceToSample[level[w] + 1], entries);
+                }
+                return entries;
+            });
+        }
+        List<ClusterEntries> clusters = invokeAllAndWait(this.pool, clusterTasks);
+        this.buildBunches(clusters);
+
+        LOGGER.info(String.format("ThorupZwickOracle: Built oracle with k=%d and %d bunch entries (%.1f per node) " +
+                "in %.3f s", this.k, this.numberOfBunchEntries, (double) this.numberOfBunchEntries / this.n,
+                (System.nanoTime() - startTime) / 1E9));
+    }
+
+    /**
+     * @return the largest sample level of each node, making sure that every component has a node at level k - 1
+     */
+    private int[] sampleLevels() {
+        Random random = new Random(this.seed);
+        double probability = Math.pow(this.n, -1.0 / this.k);
+        int[] level = new int[this.n];
+        for (int v = 0; v < this.n; v++) {
+            while (level[v] < this.k - 1 && random.nextDouble() < probability) {
+                level[v]++;
+            }
+        }
+
+        // flood fill each component, and promote its first node if none of its nodes reached the top level
+        int[] component = new int[this.n];
+        Arrays.fill(component, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int source = 0; source < this.n; source++) {
+            if (component[source] != -1) {
+                continue;
+            }
+            boolean hasTopLevel = false;
+            component[source] = source;
+            queue.add(source);
+            while (!queue.isEmpty()) {
+                int cur = queue.poll();
+                hasTopLevel |= level[cur] == this.k - 1;
+                for (int pos = this.csrGraph.getRowStart(cur); pos < this.csrGraph.getRowEnd(cur); pos++) {
+                    int next = this.csrGraph.getTarget(pos);
+                    if (component[next] == -1) {
+                        component[next] = source;
+                        queue.add(next);
+                    }
+                }
+            }
+            if (!hasTopLevel) {
+                level[source] = this.k - 1;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Runs a multi-source Dijkstra from all the nodes in A_i
+     */
+    private void findNearestSamples(int i, int[] level) {
+        double[] distance = new double[this.n];
+        int[] closest = new int[this.n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(closest, -1);
+        IndexedDaryHeap heap = new IndexedDaryHeap(this.n, 4);
+        for (int v = 0; v < this.n; v++) {
+            if (level[v] >= i) {
+                distance[v] = 0.0;
+                closest[v] = v;
+                heap.insertOrDecreaseKey(v, 0.0);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int cur = heap.poll();
+            for (int pos = this.csrGraph.getRowStart(cur); pos < this.csrGraph.getRowEnd(cur); pos++) {
+                int next = this.csrGraph.getTarget(pos);
+                double newDist = distance[cur] + this.csrGraph.getWeight(pos);
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    closest[next] = closest[cur];
+                    heap.insertOrDecreaseKey(next, newDist);
+                }
+            }
+        }
+        this.nearest[i] = closest;
+        this.distanceToSample[i] = distance;
+    }
+
+    /**
+     * Dijkstra from w that only visits the nodes v with d(w, v) < d(A_(i+1), v), which form the cluster of w
+     */
+    private class ClusterSearch {
+        private final double[] distance;
+        private final IndexedDaryHeap heap;
+        private final List<Integer> touched = new ArrayList<>();
+
+        ClusterSearch(int n) {
+            this.distance = new double[n];
+            Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+            this.heap = new IndexedDaryHeap(n, 4);
+        }
+
+        /**
+         * Appends a (v, w, d(w, v)) entry for each node v in the cluster of w
+         */
+        void run(int w, double[] limit, ClusterEntries entries) {
+            CSRGraph csr = ThorupZwickOracle.this.csrGraph;
+            this.distance[w] = 0.0;
+            this.touched.add(w);
+            this.heap.clear();
+            this.heap.insertOrDecreaseKey(w, 0.0);
+            while (!this.heap.isEmpty()) {
+                int cur = this.heap.poll();
+                entries.add(cur, w, this.distance[cur]);
+                for (int pos = csr.getRowStart(cur); pos < csr.getRowEnd(cur); pos++) {
+                    int next = csr.getTarget(pos);
+                    double newDist = this.distance[cur] + csr.getWeight(pos);
+                    if (newDist < this.distance[next] && newDist < limit[next]) {
+                        if (this.distance[next] == Double.POSITIVE_INFINITY) {
+                            this.touched.add(next);
+                        }
+                        this.distance[next] = newDist;
+                        this.heap.insertOrDecreaseKey(next, newDist);
+                    }
+                }
+            }
+            for (int v : this.touched) {
+                this.distance[v] = Double.POSITIVE_INFINITY;
+            }
+            this.touched.clear();
+        }
+    }
+
+    /**
+     * The (v, w, d(w, v)) entries of the clusters found by one task, in growable primitive arrays
+     */
+    private static class ClusterEntries {
+        private int size = 0;
+        private int[] nodes = new int[16];
+        private int[] centres = new int[16];
+        private double[] distances = new double[16];
+
+        void add(int v, int w, double distance) {
+            if (this.size == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, 2 * this.size);
+                this.centres = Arrays.copyOf(this.centres, 2 * this.size);
+                this.distances = Arrays.copyOf(this.distances, 2 * this.size);
+            }
+            this.nodes[this.size] = v;
+            this.centres[this.size] = w;
+            this.distances[this.size] = distance;
+            this.size++;
+        }
+    }
+
+    /**
+     * Stores the bunch of each node as a hash table with at most half of its slots used
+     */
+    private void buildBunches(List<ClusterEntries> clusters) {
+        int[] bunchSizes = new int[this.n];
+        this.numberOfBunchEntries = 0;
+        for (ClusterEntries cluster : clusters) {
+            for (int e = 0; e < cluster.size; e++) {
+                bunchSizes[cluster.nodes[e]]++;
+            }
+            this.numberOfBunchEntries += cluster.size;
+        }
+        this.bunchOffsets = new int[this.n + 1];
+        for (int v = 0; v < this.n; v++) {
+            int capacity = Integer.highestOneBit(Math.max(1, 2 * bunchSizes[v] - 1)) << 1;
+            long end = (long) this.bunchOffsets[v] + capacity;
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("The bunches have too many entries, so a larger k should be used");
+            }
+            this.bunchOffsets[v + 1] = (int) end;
+        }
+        this.bunchNodes = new int[this.bunchOffsets[this.n]];
+        this.bunchDistances = new double[this.bunchOffsets[this.n]];
+        Arrays.fill(this.bunchNodes, -1);
+        for (ClusterEntries cluster : clusters) {
+            for (int e = 0; e < cluster.size; e++) {
+                int slot = this.findSlot(cluster.nodes[e], cluster.centres[e]);
+                this.bunchNodes[slot] = cluster.centres[e];
+                this.bunchDistances[slot] = cluster.distances[e];
+            }
+        }
+    }
+
+    /**
+     * Linear probing in the hash table of v
+     *
+     * @return the slot of w in the bunch of v, or the empty slot where it would be inserted
+     */
+    private int findSlot(int v, int w) {
+        int start = this.bunchOffsets[v];
+        int mask = this.bunchOffsets[v + 1] - start - 1;
+        // scramble the node ID, as nearby IDs are often in the same bunch
+        int slot = (w * 0x9E3779B9) >>> 7 & mask;
+        while (this.bunchNodes[start + slot] != -1 && this.bunchNodes[start + slot] != w) {
+            slot = (slot + 1) & mask;
+        }
+        return start + slot;
+    }
+
+    /**
+     * @return an estimate of the distance between i and j, which is at least the exact distance and at most
+     * {@link #getStretchBound()} times it, or positive infinity if there is no path
+     */
+    public double getDistanceEstimate(int i, int j) {
+        if (this.bunchNodes == null) {
+            throw new IllegalStateException("The build method must be called before querying distances");
+        }
+        int u = i;
+        int v = j;
+        int w = u;
+        int level = 0;
+        int slot = this.findSlot(v, w);
+        while (this.bunchNodes[slot] != w) {
+            level++;
+            if (level == this.k) {
+                // every node of A_(k-1) in the component of v is in its bunch, so u and v are not connected
+                return Double.POSITIVE_INFINITY;
+            }
+            int tmp = u;
+            u = v;
+            v = tmp;
+            w = this.nearest[level][u];
+            slot = this.findSlot(v, w);
+        }
+        return this.distanceToSample[level][u] + this.bunchDistances[slot];
+    }
+
+    /**
+     * @return the worst-case ratio between the estimated and exact distances, which is 2k - 1
+     */
+    public int getStretchBound() {
+        return 2 * this.k - 1;
+    }
+
+    /**
+     * @return the total size of all the bunches, which is O(k n^(1 + 1/k)) in expectation
+     */
+    public long getNumberOfBunchEntries() {
+        return this.numberOfBunchEntries;
+    }
+
+    /**
+     * Compares the estimates with the exact distances from a few random sources to all the nodes they can reach,
+     * which are found with the same Dijkstra as {@link APSPSolver.SerialDijkstra}, so this is feasible on graphs
+     * where full APSP is not.
+     *
+     * @param numSources number of sources to sample
+     * @param seed seed for choosing the sources
+     * @return the distribution of the stretch over the sampled pairs
+     */
+    public StretchReport measureStretch(int numSources, long seed) {
+        Random random = new Random(seed);
+        double[] distance = new double[this.n];
+        IndexedDaryHeap heap = new IndexedDaryHeap(this.n, 4);
+        List<Double> stretches = new ArrayList<>();
+        int exact = 0;
+        for (int sample = 0; sample < numSources; sample++) {
+            int source = random.nextInt(this.n);
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            distance[source] = 0.0;
+            heap.clear();
+            heap.insertOrDecreaseKey(source, 0.0);
+            while (!heap.isEmpty()) {
+                int cur = heap.poll();
+                for (int pos = this.csrGraph.getRowStart(cur); pos < this.csrGraph.getRowEnd(cur); pos++) {
+                    int next = this.csrGraph.getTarget(pos);
+                    double newDist = distance[cur] + this.csrGraph.getWeight(pos);
+                    if (newDist < distance[next]) {
+                        distance[next] = newDist;
+                        heap.insertOrDecreaseKey(next, newDist);
+                    }
+                }
+            }
+            for (int target = 0; target < this.n; target++) {
+                if (target == source || distance[target] == Double.POSITIVE_INFINITY || distance[target] == 0.0) {
+                    continue;
+                }
+                double stretch = this.getDistanceEstimate(source, target) / distance[target];
+                stretches.add(stretch);
+                exact += stretch <= 1.0 + 1E-9 ? 1 : 0;
+            }
+        }
+        StretchReport report = new StretchReport(stretches, exact, this.getStretchBound());
+        LOGGER.info("ThorupZwickOracle: " + report);
+        return report;
+    }
+
+    /**
+     * Summary of the ratios between the estimated and exact distances of a sample of pairs
+     */
+    public static class StretchReport {
+        private final int numberOfPairs;
+        private final double fractionExact;
+        private final double meanStretch;
+        private final double p99Stretch;
+        private final double maxStretch;
+        private final int stretchBound;
+
+        StretchReport(List<Double> stretches, int exact, int stretchBound) {
+            Collections.sort(stretches);
+            this.numberOfPairs = stretches.size();
+            this.fractionExact = stretches.isEmpty() ? 1.0 : (double) exact / stretches.size();
+            this.meanStretch = stretches.stream().mapToDouble(s -> s).average().orElse(1.0);
+            this.p99Stretch = stretches.isEmpty() ? 1.0
+                    : stretches.get(Math.min(stretches.size() - 1, (int) (0.99 * stretches.size())));
+            this.maxStretch = stretches.isEmpty() ? 1.0 : stretches.get(stretches.size() - 1);
+            this.stretchBound = stretchBound;
+        }
+
+        public int getNumberOfPairs() {
+            return this.numberOfPairs;
+        }
+
+        public double getFractionExact() {
+            return this.fractionExact;
+        }
+
+        public double getMeanStretch() {
+            return this.meanStretch;
+        }
+
+        public double getP99Stretch() {
+            return this.p99Stretch;
+        }
+
+        public double getMaxStretch() {
+            return this.maxStretch;
+        }
+
+        /**
+         * @return true if no sampled pair exceeded the stretch guaranteed by the oracle, allowing for rounding errors
+         */
+        public boolean isWithinBound() {
+            return this.maxStretch <= this.stretchBound * (1.0 + 1E-9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StretchReport(pairs=%d, exact=%.1f%%, mean=%.4f, p99=%.4f, max=%.4f, bound=%d)",
+                    this.numberOfPairs, 100 * this.fractionExact, this.meanStretch, this.p99Stretch,
+                    this.maxStretch, this.stretchBound);
+        }
+    }
+
+    private static <T> List<T> invokeAllAndWait(ForkJoinPool pool, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("A search of the oracle construction failed", e);
+        }
+        return results;
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/2000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        for (int k = 1; k <= 4; k++) {
+            ThorupZwickOracle oracle = new ThorupZwickOracle(graphReader, k);
+            oracle.build();
+            oracle.measureStretch(50, 0);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package solverPlanner;
+
+/**
+ * Description of the machine that APSP is solved on, as used by {@link SolverPlanner}
+ */
+public class MachineProfile {
+
+    private final int cores;
+    private final long maxHeapBytes;
+
+    /**
+     * @param cores the number of threads that can run in parallel
+     * @param maxHeapBytes the maximum heap size available to the solver
+     */
+    public MachineProfile(int cores, long maxHeapBytes) {
+        if (cores < 1) {
+            throw new IllegalArgumentException("The number of cores must be positive, but was " + cores);
+        }
+        if (maxHeapBytes < 1) {
+            throw new IllegalArgumentException("The heap size must be positive, but was " + maxHeapBytes);
+        }
+        this.cores = cores;
+        this.maxHeapBytes = maxHeapBytes;
+    }
+
+    /**
+     * @return a profile with the number of processors and maximum heap size of the running JVM
+     */
+    public static MachineProfile ofCurrentJVM() {
+        Runtime runtime = Runtime.getRuntime();
+        return new MachineProfile(runtime.availableProcessors(), runtime.maxMemory());
+    }
+
+    public int getCores() {
+        return this.cores;
+    }
+
+    public long getMaxHeapBytes() {
+        return this.maxHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MachineProfile(cores=%d, heap=%d MiB)", this.cores, this.maxHeapBytes >> 20);
+    }
+}
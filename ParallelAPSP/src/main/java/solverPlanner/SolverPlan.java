@@ -0,0 +1,148 @@
+package solverPlanner;
+
+import APSPSolver.*;
+import graphReader.GraphCompressor;
+import graphReader.GraphReader;
+import matrixMultiplication.MinPlusProduct;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * A choice of APSP solver and its parameters, together with the estimated cost of running it, as produced by
+ * {@link SolverPlanner}. After {@link #solve(GraphReader)} has been called, the measured runtime is logged next to
+ * the estimate, so that the cost model of the planner can be calibrated.
+ */
+public class SolverPlan {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public enum Algorithm {
+        PARALLEL_DIJKSTRA,
+        RADIX_HEAP_DIJKSTRA,
+        JOHNSON,
+        R_KLEENE,
+        MAT_SQUARE
+    }
+
+    private final Algorithm algorithm;
+    private final boolean compressed;
+    private final int cores;
+    // only used by MAT_SQUARE
+    private final int p;
+    private final Class<? extends MinPlusProduct> kernel;
+    private final double estimatedSeconds;
+    private final long estimatedBytes;
+    private double measuredSeconds = Double.NaN;
+
+    SolverPlan(Algorithm algorithm, boolean compressed, int cores, int p, Class<? extends MinPlusProduct> kernel,
+               double estimatedSeconds, long estimatedBytes) {
+        this.algorithm = algorithm;
+        this.compressed = compressed;
+        this.cores = cores;
+        this.p = p;
+        this.kernel = kernel;
+        this.estimatedSeconds = estimatedSeconds;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * Creates the planned solver, wrapped in a {@link GraphCompressor} if the plan uses compression
+     *
+     * @param graphReader the graph that the plan was made for
+     * @return a solver that has not been solved yet
+     */
+    public APSPSolver createSolver(GraphReader graphReader) {
+        Function<GraphReader, APSPSolver> solverConstructor;
+        switch (this.algorithm) {
+            case PARALLEL_DIJKSTRA:
+                solverConstructor = graph -> new ParallelDijkstra(graph, new ForkJoinPool(this.cores));
+                break;
+            case RADIX_HEAP_DIJKSTRA:
+                solverConstructor = RadixHeapDijkstra::new;
+                break;
+            case JOHNSON:
+                solverConstructor = graph -> new Johnson(graph, new ForkJoinPool(this.cores));
+                break;
+            case R_KLEENE:
+                solverConstructor = graph -> new RKleene(graph, RKleene.DEFAULT_LEAF_SIZE,
+                        new ForkJoinPool(this.cores));
+                break;
+            case MAT_SQUARE:
+                solverConstructor = graph -> new MatSquare(graph, this.p, this.kernel);
+                break;
+            default:
+                throw new IllegalStateException("Unknown algorithm " + this.algorithm);
+        }
+        return this.compressed ? new GraphCompressor(graphReader, solverConstructor)
+                : solverConstructor.apply(graphReader);
+    }
+
+    /**
+     * Creates the planned solver and solves APSP with it, logging the measured runtime next to the estimate
+     *
+     * @param graphReader the graph that the plan was made for
+     * @return the solved solver
+     */
+    public APSPSolver solve(GraphReader graphReader) {
+        long startTime = System.nanoTime();
+        APSPSolver solver = this.createSolver(graphReader);
+        solver.solve();
+        this.measuredSeconds = (System.nanoTime() - startTime) / 1E9;
+        LOGGER.info(String.format("SolverPlan: %s was estimated to take %.3f s and took %.3f s (measured / " +
+                "estimated = %.2f)", this, this.estimatedSeconds, this.measuredSeconds,
+                this.measuredSeconds / this.estimatedSeconds));
+        return solver;
+    }
+
+    public Algorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    public boolean isCompressed() {
+        return this.compressed;
+    }
+
+    public int getCores() {
+        return this.cores;
+    }
+
+    /**
+     * @return the dimension of the grid of processing elements, which is only used by {@link Algorithm#MAT_SQUARE}
+     */
+    public int getP() {
+        return this.p;
+    }
+
+    /**
+     * @return the min-plus product implementation, or null if the algorithm is not {@link Algorithm#MAT_SQUARE}
+     */
+    public Class<? extends MinPlusProduct> getKernel() {
+        return this.kernel;
+    }
+
+    public double getEstimatedSeconds() {
+        return this.estimatedSeconds;
+    }
+
+    public long getEstimatedBytes() {
+        return this.estimatedBytes;
+    }
+
+    /**
+     * @return the runtime of the last call to {@link #solve(GraphReader)}, or NaN if it has not been called
+     */
+    public double getMeasuredSeconds() {
+        return this.measuredSeconds;
+    }
+
+    @Override
+    public String toString() {
+        String parameters = this.algorithm == Algorithm.MAT_SQUARE
+                ? String.format("p=%d, kernel=%s", this.p, this.kernel.getSimpleName())
+                : String.format("cores=%d", this.cores);
+        return String.format("SolverPlan(%s, %s, compressed=%b, estimate=%.3f s, %d MiB)", this.algorithm,
+                parameters, this.compressed, this.estimatedSeconds, this.estimatedBytes >> 20);
+    }
+}
@@ -0,0 +1,188 @@
+package solverPlanner;
+
+import APSPSolver.MatSquare;
+import APSPSolver.RadixHeapDijkstra;
+import graphReader.GraphCompressor;
+import graphReader.GraphReader;
+import graphReader.GraphStatistics;
+import matrixMultiplication.GeneralisedFoxOtto;
+import matrixMultiplication.IntegerFoxOtto;
+import matrixMultiplication.MinPlusProduct;
+import solverPlanner.SolverPlan.Algorithm;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses an APSP solver and its parameters from the statistics of the input graph and a description of the machine.
+ * Every applicable solver, both with and without {@link graphReader.GraphCompressor} for undirected graphs, gets a
+ * cost estimate from a simple model of its work and memory use, and the cheapest plan that fits in the heap is chosen.
+ *
+ * <p>The cost constants are seconds per unit of work, measured on a single core with the random subgraphs of the
+ * California road network:
+ * <ul>
+ *     <li>{@link APSPSolver.ParallelDijkstra}: n (m + n) log2(n) relaxations and heap operations, split over the
+ *     cores</li>
+ *     <li>{@link APSPSolver.RadixHeapDijkstra}: n (m + n) operations on a single core. This is about 5 times
+ *     cheaper than {@link APSPSolver.SerialDijkstra} with its binary heap, but the d-ary heap and CSR graph of
+ *     ParallelDijkstra close most of that gap</li>
+ *     <li>{@link APSPSolver.Johnson}: the Dijkstra cost plus n m for Bellman-Ford on a single core</li>
+ *     <li>{@link APSPSolver.RKleene}: n^3 min-plus operations, split over the cores</li>
+ *     <li>{@link MatSquare}: n^3 operations per squaring in the simulated processing elements, split over the cores,
+ *     with ceil(log2 h) squarings for the estimated hop diameter h</li>
+ * </ul>
+ * For the compressed plans, the graph is compressed while planning, and the costs are estimated from the size, the
+ * edge weights and the hop diameter of the compressed graph, plus the cost of compressing it again. The measured
+ * runtime is logged next to the estimate by {@link SolverPlan#solve(GraphReader)}, so the constants can be
+ * recalibrated over time.</p>
+ */
+public class SolverPlanner {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    static final double DIJKSTRA_SECONDS_PER_OPERATION = 4.5E-9;
+    static final double RADIX_HEAP_SECONDS_PER_OPERATION = 4.2E-8;
+    static final double BELLMAN_FORD_SECONDS_PER_OPERATION = 2E-9;
+    static final double R_KLEENE_SECONDS_PER_OPERATION = 1.2E-9;
+    static final double MAT_SQUARE_SECONDS_PER_OPERATION = 1.3E-7;
+    static final double COMPRESSION_SECONDS_PER_ELEMENT = 1E-6;
+
+    // memory per entry of the n x n result, e.g. a double distance and an int predecessor
+    private static final long PRIMITIVE_BYTES_PER_ENTRY = 12;
+    // private memories of the processing elements and the boxed result matrices
+    private static final long MAT_SQUARE_BYTES_PER_ENTRY = 100;
+    // hash maps of the compressed paths kept by the graph compressor
+    private static final long COMPRESSION_BYTES_PER_ELEMENT = 200;
+
+    private final MachineProfile machine;
+
+    public SolverPlanner(MachineProfile machine) {
+        this.machine = machine;
+    }
+
+    /**
+     * Creates a planner for the machine the JVM is running on
+     */
+    public SolverPlanner() {
+        this(MachineProfile.ofCurrentJVM());
+    }
+
+    /**
+     * @param graphReader input graph
+     * @return the cheapest plan that fits in the heap. If no plan fits, the plan using the least memory is returned
+     */
+    public SolverPlan plan(GraphReader graphReader) {
+        List<SolverPlan> candidates = this.getCandidatePlans(graphReader);
+        SolverPlan chosen = candidates.stream()
+                .filter(plan -> plan.getEstimatedBytes() <= this.machine.getMaxHeapBytes())
+                .findFirst()
+                .orElseGet(() -> {
+                    LOGGER.warning("SolverPlanner: No plan is estimated to fit in the heap of " + this.machine
+                            + ", so the plan using the least memory is chosen");
+                    return candidates.stream().min(Comparator.comparingLong(SolverPlan::getEstimatedBytes)).get();
+                });
+        LOGGER.info("SolverPlanner: Chose " + chosen + " for " + this.machine);
+        return chosen;
+    }
+
+    /**
+     * @param graphReader input graph
+     * @return all the applicable plans, sorted by estimated runtime
+     */
+    public List<SolverPlan> getCandidatePlans(GraphReader graphReader) {
+        GraphStatistics statistics = new GraphStatistics(graphReader);
+        LOGGER.fine("SolverPlanner: Planning for " + statistics);
+
+        List<SolverPlan> candidates = new ArrayList<>();
+        double n = statistics.getNumberOfNodes();
+        double m = statistics.getNumberOfEntries();
+        this.addPlans(candidates, graphReader, statistics, false, n, m, 0.0, 0);
+
+        // removing two-degree nodes is only supported for undirected graphs. The compressed graph is built here, as
+        //   its merged edge weights decide whether the radix heap can be used, and its paths have fewer edges
+        if (!statistics.isDirected() && !statistics.hasNegativeWeights()
+                && statistics.getNumberOfTwoDegreeNodes() > 0) {
+            GraphReader compressedGraph = new GraphCompressor(graphReader).getCompressedGraph();
+            GraphStatistics compressedStatistics = new GraphStatistics(compressedGraph);
+            if (compressedStatistics.getNumberOfNodes() == 0) {
+                // everything was compressed away, so there is nothing to plan the solver for
+                return this.sortCandidates(candidates);
+            }
+            double overheadSeconds = COMPRESSION_SECONDS_PER_ELEMENT * (n + m);
+            long overheadBytes = (long) (COMPRESSION_BYTES_PER_ELEMENT * (n + m));
+            this.addPlans(candidates, compressedGraph, compressedStatistics, true,
+                    compressedStatistics.getNumberOfNodes(), compressedStatistics.getNumberOfEntries(),
+                    overheadSeconds, overheadBytes);
+        }
+
+        return this.sortCandidates(candidates);
+    }
+
+    private List<SolverPlan> sortCandidates(List<SolverPlan> candidates) {
+        candidates.sort(Comparator.comparingDouble(SolverPlan::getEstimatedSeconds));
+        for (SolverPlan candidate : candidates) {
+            LOGGER.fine("SolverPlanner: Candidate " + candidate);
+        }
+        return candidates;
+    }
+
+    /**
+     * @param graphReader the graph the solver is run on, which is the compressed graph if compressed is true
+     * @param statistics the statistics of that graph
+     */
+    private void addPlans(List<SolverPlan> candidates, GraphReader graphReader, GraphStatistics statistics,
+                          boolean compressed, double n, double m, double overheadSeconds, long overheadBytes) {
+        int cores = this.machine.getCores();
+        double log2n = Math.max(1.0, Math.log(n) / Math.log(2));
+        long primitiveBytes = (long) (PRIMITIVE_BYTES_PER_ENTRY * n * n) + overheadBytes;
+        double dijkstraSeconds = DIJKSTRA_SECONDS_PER_OPERATION * n * (m + n) * log2n / cores;
+
+        if (!statistics.hasNegativeWeights()) {
+            candidates.add(new SolverPlan(Algorithm.PARALLEL_DIJKSTRA, compressed, cores, 0, null,
+                    dijkstraSeconds + overheadSeconds, primitiveBytes));
+            if (RadixHeapDijkstra.getExactScalingFactor(graphReader).isPresent()) {
+                candidates.add(new SolverPlan(Algorithm.RADIX_HEAP_DIJKSTRA, compressed, cores, 0, null,
+                        RADIX_HEAP_SECONDS_PER_OPERATION * n * (m + n) + overheadSeconds, primitiveBytes));
+            }
+        } else {
+            candidates.add(new SolverPlan(Algorithm.JOHNSON, compressed, cores, 0, null,
+                    dijkstraSeconds + BELLMAN_FORD_SECONDS_PER_OPERATION * n * m + overheadSeconds, primitiveBytes));
+        }
+
+        candidates.add(new SolverPlan(Algorithm.R_KLEENE, compressed, cores, 0, null,
+                R_KLEENE_SECONDS_PER_OPERATION * n * n * n / cores + overheadSeconds, primitiveBytes));
+
+        // the simulated processing elements each run in their own thread, so use about one per core
+        int p = (int) Math.max(1, Math.min(n, Math.floor(Math.sqrt(cores))));
+        // the int kernel saturates at its infinity sentinel, so it is only used if every distance fits below it
+        Class<? extends MinPlusProduct> kernel = statistics.hasIntegerDistances()
+                ? IntegerFoxOtto.class
+                : GeneralisedFoxOtto.class;
+        int hopDiameter = MatSquare.estimateHopDiameter(graphReader, 8, 42);
+        int squarings = Math.max(1, (int) Math.ceil(Math.log(hopDiameter) / Math.log(2)));
+        candidates.add(new SolverPlan(Algorithm.MAT_SQUARE, compressed, cores, p, kernel,
+                MAT_SQUARE_SECONDS_PER_OPERATION * n * n * n * squarings / cores + overheadSeconds,
+                (long) (MAT_SQUARE_BYTES_PER_ENTRY * n * n) + overheadBytes));
+    }
+
+    public static void main(String[] args) {
+        LoggerFormatter.setupLogger(LOGGER, Level.FINE);
+
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        SolverPlanner planner = new SolverPlanner();
+        SolverPlan plan = planner.plan(graphReader);
+        plan.solve(graphReader);
+    }
+}
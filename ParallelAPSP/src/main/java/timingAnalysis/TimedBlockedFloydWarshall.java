@@ -0,0 +1,60 @@
+package timingAnalysis;
+
+import APSPSolver.BlockedFloydWarshall;
+import graphReader.GraphReader;
+import matrixMultiplication.FloydWarshall;
+import timingAnalysis.topology.Topology;
+import work.Manager;
+import work.WorkerInstantiationException;
+
+import java.util.function.Function;
+
+public class TimedBlockedFloydWarshall extends BlockedFloydWarshall {
+
+    private final int numRepetitionsPerPhase;
+    private final Function<Integer, ? extends Topology> topologyFunction;
+    private final MultiprocessorAttributes multiprocessorAttributes;
+
+    private TimedManager timedManager;
+
+    /**
+     * Performs the same functionality as {@link BlockedFloydWarshall}, but with the timing functionality described in
+     * {@link TimedMatSquare}, so that the two algorithms can be compared. After {@link #solve()} is called, the timing
+     * analysis can be retrieved with {@link #getTimingAnalysisResults()}.
+     *
+     * @param graphReader Container for the input graph of that APSP should be solved for
+     * @param p The processing element lattice dimension
+     * @param topologyFunction a constructor for a {@link Topology} class, indicating the memory topology of the
+     *                         processing elements
+     * @param multiprocessorAttributes A specification of the multiprocessor hardware
+     * @param numRepetitionsPerPhase The number of times to run each {@link work.Worker#computation(int)} when
+     *                               measuring the computation time. The average of all these runs will be used.
+     */
+    public TimedBlockedFloydWarshall(GraphReader graphReader, int p, Function<Integer, ? extends Topology> topologyFunction,
+                                     MultiprocessorAttributes multiprocessorAttributes, int numRepetitionsPerPhase) {
+        super(graphReader, p);
+        this.topologyFunction = topologyFunction;
+        this.multiprocessorAttributes = multiprocessorAttributes;
+        this.numRepetitionsPerPhase = numRepetitionsPerPhase;
+    }
+
+    @Override
+    public void solve() {
+        try {
+            Manager manager = new Manager(this.n, this.p, this.getNumberOfPhases(), this.prepareInitialMemory(),
+                    FloydWarshall.class);
+            this.timedManager = new TimedManager(manager, this.multiprocessorAttributes, this.topologyFunction);
+            this.timedManager.enableFoxOttoTimeAveraging(this.numRepetitionsPerPhase);
+        } catch (WorkerInstantiationException e) {
+            System.err.println("The solver was not able to complete: ");
+            e.printStackTrace();
+            return;
+        }
+
+        this.manageWork(this.timedManager);
+    }
+
+    public TimingAnalysisResult getTimingAnalysisResults() {
+        return this.timedManager.getTimingAnalysisResult();
+    }
+}
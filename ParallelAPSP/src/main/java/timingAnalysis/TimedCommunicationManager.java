@@ -32,6 +32,7 @@ public class TimedCommunicationManager extends CommunicationManager {
 
     // processing element grid size
     private final int p;
+    private final int q;
 
     private final Topology memoryTopology;
     private final MultiprocessorAttributes multiprocessorAttributes;
@@ -41,6 +42,7 @@ public class TimedCommunicationManager extends CommunicationManager {
     private final Matrix<Double> cumulativeWorkerCommunicationTimes;
     private final Matrix<Double> cumulativeWorkerStallTimes;
     private final Matrix<Double> cumulativeWorkerComputationTimes;
+    private final Matrix<Long> cumulativeWorkerBytesSent;
 
     // keep track of number of bytes sent, so can compute with bandwidth later
     private final Matrix<Integer> workerBytesSent;
@@ -68,25 +70,27 @@ public class TimedCommunicationManager extends CommunicationManager {
                                      Topology memoryTopology, MultiprocessorAttributes multiprocessorAttributes) {
         super(communicationManager);
         this.p = communicationManager.getProcessingElementGridSize();
+        this.q = communicationManager.getProcessingElementGridColumns();
         this.timedWorkers = timedWorkers;
         this.memoryTopology = memoryTopology;
         this.multiprocessorAttributes = multiprocessorAttributes;
 
         // timing trackers (these are cumulative so never reset)
-        this.currentWorkerTimes = new Matrix<>(this.p, () -> 0.0);
-        this.cumulativeWorkerCommunicationTimes = new Matrix<>(this.p, () -> 0.0);
-        this.cumulativeWorkerStallTimes = new Matrix<>(this.p, () -> 0.0);
-        this.cumulativeWorkerComputationTimes = new Matrix<>(this.p, () -> 0.0);
+        this.currentWorkerTimes = new Matrix<>(this.p, this.q, () -> 0.0);
+        this.cumulativeWorkerCommunicationTimes = new Matrix<>(this.p, this.q, () -> 0.0);
+        this.cumulativeWorkerStallTimes = new Matrix<>(this.p, this.q, () -> 0.0);
+        this.cumulativeWorkerComputationTimes = new Matrix<>(this.p, this.q, () -> 0.0);
+        this.cumulativeWorkerBytesSent = new Matrix<>(this.p, this.q, () -> 0L);
 
         // num bytes sent trackers (reset after each communication phase)
-        this.workerBytesSent = new Matrix<>(this.p, () -> 0);
-        this.workerRowBroadcastBytesSent = new Matrix<>(this.p, () -> 0);
-        this.workerColBroadcastBytesSent = new Matrix<>(this.p, () -> 0);
+        this.workerBytesSent = new Matrix<>(this.p, this.q, () -> 0);
+        this.workerRowBroadcastBytesSent = new Matrix<>(this.p, this.q, () -> 0);
+        this.workerColBroadcastBytesSent = new Matrix<>(this.p, this.q, () -> 0);
 
         // keep track of sending distance, based on topology
-        this.sendingDistance = new Matrix<>(this.p, () -> 0);
-        this.isReceivingRowBroadcast = new Matrix<>(this.p, () -> false);
-        this.isReceivingColBroadcast = new Matrix<>(this.p, () -> false);
+        this.sendingDistance = new Matrix<>(this.p, this.q, () -> 0);
+        this.isReceivingRowBroadcast = new Matrix<>(this.p, this.q, () -> false);
+        this.isReceivingColBroadcast = new Matrix<>(this.p, this.q, () -> false);
 
         // for convenience
         this.communicationPhasesCompleted = 0;
@@ -104,6 +108,8 @@ public class TimedCommunicationManager extends CommunicationManager {
             return Double.BYTES;
         } else if (n instanceof Integer) {
             return Integer.BYTES;
+        } else if (n instanceof Float) {
+            return Float.BYTES;
         } else if (n instanceof Long) {
             return Long.BYTES;
         } else if (n instanceof Short) {
@@ -174,7 +180,7 @@ public class TimedCommunicationManager extends CommunicationManager {
         // We first add all the communication time associated with sending/broadcasting data (not counting stalls)
         //   as well as time spent on any computation phases between this flush and the previous one
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 // computation time in nanoseconds
                 double computationTime = this.timedWorkers.get(i, j).getElapsedTime();
                 // if we have two communication phases right after each other, we should assume zero computation
@@ -202,6 +208,11 @@ public class TimedCommunicationManager extends CommunicationManager {
                         this.cumulativeWorkerCommunicationTimes.get(i, j) + sendTime);
                 this.cumulativeWorkerComputationTimes.set(i, j,
                         this.cumulativeWorkerComputationTimes.get(i, j) + computationTime);
+                // count each broadcast value once, regardless of the number of receivers
+                this.cumulativeWorkerBytesSent.set(i, j, this.cumulativeWorkerBytesSent.get(i, j)
+                        + this.workerBytesSent.get(i, j)
+                        + this.workerRowBroadcastBytesSent.get(i, j)
+                        + this.workerColBroadcastBytesSent.get(i, j));
             }
         }
 
@@ -212,7 +223,7 @@ public class TimedCommunicationManager extends CommunicationManager {
         // We now account for the communication time causes by stalls: If worker W1 receives data from W2 and
         //   W1 finishes computation first, it needs to stall until W2 has sent the data.
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 // Post-condition of iteration(i, j):
                 //   currentWorkerTimes[i, j] is the time of Worker[i, j] after preceding computation
                 //   phase and the communication phase that is being flushed, accounting for latency, stalls, etc.
@@ -275,4 +286,8 @@ public class TimedCommunicationManager extends CommunicationManager {
     public Matrix<Double> getWorkerComputationTimes() {
         return cumulativeWorkerComputationTimes;
     }
+
+    public Matrix<Long> getWorkerBytesSent() {
+        return cumulativeWorkerBytesSent;
+    }
 }
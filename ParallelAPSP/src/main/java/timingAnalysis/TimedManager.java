@@ -17,6 +17,7 @@ import java.util.function.Function;
 public class TimedManager extends Manager {
 
     private final int p;
+    private final int q;
     private final int problemSize;
     private final Matrix<TimedWorker> timedWorkers;
     private final TimedCommunicationManager timedCommunicationManager;
@@ -28,19 +29,34 @@ public class TimedManager extends Manager {
      *
      * @param manager the manager to decorate
      * @param multiprocessorAttributes a specification of the communication and computation hardware used
-     * @param memoryTopology a constructor taking a non-negative integer and giving an object that subtypes Topology
+     * @param memoryTopology a constructor taking a non-negative integer and giving an object that subtypes Topology.
+     *                       Only square grids of processing elements can be described this way.
      * @throws WorkerInstantiationException if the timed workers fail to instantiate
      */
     public TimedManager(Manager manager, MultiprocessorAttributes multiprocessorAttributes,
                         Function<Integer, ? extends Topology> memoryTopology) throws WorkerInstantiationException {
+        this(manager, multiprocessorAttributes, getSquareTopology(manager, memoryTopology));
+    }
+
+    /**
+     * Same as {@link #TimedManager(Manager, MultiprocessorAttributes, Function)}, but takes an already created
+     * topology, which is needed when the manager has a rectangular grid of processing elements.
+     *
+     * @param manager the manager to decorate
+     * @param multiprocessorAttributes a specification of the communication and computation hardware used
+     * @param topology the memory topology of the p x q processing elements
+     * @throws WorkerInstantiationException if the timed workers fail to instantiate
+     */
+    public TimedManager(Manager manager, MultiprocessorAttributes multiprocessorAttributes,
+                        Topology topology) throws WorkerInstantiationException {
         super(manager);
 
         this.p = manager.getProcessingElementGridSize();
+        this.q = manager.getProcessingElementGridColumns();
         this.problemSize = manager.getProblemSize();
 
         // We decorate the communication manager with timing analyses functionality
-        Topology topology = memoryTopology.apply(this.p);
-        this.timedWorkers = new Matrix<>(this.p);
+        this.timedWorkers = new Matrix<>(this.p, this.q);
         this.timedCommunicationManager = new TimedCommunicationManager(manager.getCommunicationManager(),
                 this.timedWorkers, topology, multiprocessorAttributes);
         // then use it instead of the existing one with dynamic dispatch
@@ -48,7 +64,7 @@ public class TimedManager extends Manager {
 
         // decorate all the workers with timing behaviour
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 // save a reference so we can extract times later
                 TimedWorker tw = new TimedWorker(manager.getWorker(i, j));
                 this.timedWorkers.set(i, j, tw);
@@ -58,9 +74,17 @@ public class TimedManager extends Manager {
         }
     }
 
+    private static Topology getSquareTopology(Manager manager, Function<Integer, ? extends Topology> memoryTopology) {
+        if (manager.getProcessingElementGridSize() != manager.getProcessingElementGridColumns()) {
+            throw new IllegalArgumentException("A topology for a rectangular grid of processing elements must be " +
+                    "provided directly when the grid is not square.");
+        }
+        return memoryTopology.apply(manager.getProcessingElementGridSize());
+    }
+
     public void enableFoxOttoTimeAveraging(int num_iters) {
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 this.timedWorkers.get(i, j).enableAverageComputeTimes(num_iters);
             }
         }
@@ -1,6 +1,7 @@
 package timingAnalysis;
 
 import APSPSolver.MatSquare;
+import graphReader.GraphCache;
 import graphReader.GraphCompressor;
 import graphReader.GraphReader;
 import matrixMultiplication.FoxOtto;
@@ -14,8 +15,10 @@ import util.Matrix;
 import work.Manager;
 import work.WorkerInstantiationException;
 
+import java.nio.file.Paths;
 import java.text.ParseException;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -25,7 +28,7 @@ public class TimedMatSquare extends MatSquare {
     private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
 
     private final int numRepetitionsPerPhase;
-    private final Function<Integer, Topology> topologyFunction;
+    private final BiFunction<Integer, Integer, ? extends Topology> topologyFunction;
 
     private TimedManager timedManager;
     private final MultiprocessorAttributes multiprocessorAttributes;
@@ -52,7 +55,28 @@ public class TimedMatSquare extends MatSquare {
     public TimedMatSquare(GraphReader graphReader, int p, Function<Integer, Topology> topologyFunction,
                           MultiprocessorAttributes multiprocessorAttributes,
                           Class<? extends MinPlusProduct> minPlusProductImplementation, int numRepetitionsPerPhase) {
-        super(graphReader, p, minPlusProductImplementation);
+        this(graphReader, p, p, (rows, cols) -> topologyFunction.apply(rows), multiprocessorAttributes,
+                minPlusProductImplementation, numRepetitionsPerPhase);
+    }
+
+    /**
+     * Same as {@link #TimedMatSquare(GraphReader, int, Function, MultiprocessorAttributes, Class, int)}, but with a
+     * rectangular grid of p x q processing elements.
+     *
+     * @param graphReader Container for the input graph of that APSP should be solved for
+     * @param p number of rows of processing elements
+     * @param q number of columns of processing elements
+     * @param topologyFunction a constructor for a {@link Topology} class, taking the number of rows and columns
+     * @param multiprocessorAttributes A specification of the multiprocessor hardware
+     * @param minPlusProductImplementation An implementation of {@link MinPlusProduct} supporting p x q grids
+     * @param numRepetitionsPerPhase The number of times to run each {@link work.Worker#computation(int)} when
+     *                               measuring the computation time
+     */
+    public TimedMatSquare(GraphReader graphReader, int p, int q,
+                          BiFunction<Integer, Integer, ? extends Topology> topologyFunction,
+                          MultiprocessorAttributes multiprocessorAttributes,
+                          Class<? extends MinPlusProduct> minPlusProductImplementation, int numRepetitionsPerPhase) {
+        super(graphReader, p, q, minPlusProductImplementation);
         this.numRepetitionsPerPhase = numRepetitionsPerPhase;
         this.topologyFunction = topologyFunction;
         this.multiprocessorAttributes = multiprocessorAttributes;
@@ -75,8 +99,10 @@ public class TimedMatSquare extends MatSquare {
 
         // create the timed manager
         try {
-            Manager manager = new Manager(this.n, this.p, this.p, initialMemory, this.minPlusProductImplementation);
-            this.timedManager = new TimedManager(manager, this.multiprocessorAttributes, this.topologyFunction);
+            Manager manager = new Manager(this.n, this.p, this.q, this.getNumberOfPhases(), initialMemory,
+                    this.minPlusProductImplementation);
+            this.timedManager = new TimedManager(manager, this.multiprocessorAttributes,
+                    this.topologyFunction.apply(this.p, this.q));
             this.timedManager.enableFoxOttoTimeAveraging(this.numRepetitionsPerPhase);
         } catch (WorkerInstantiationException e) {
             System.err.println("The solver was not able to complete: ");
@@ -95,9 +121,11 @@ public class TimedMatSquare extends MatSquare {
         int n = 400;
         String filename = "cal-compressed-random-graphs/" + String.valueOf(n);
 
-        GraphReader graphReader;
+        // reuse the compressed graph from earlier runs if the file has not changed
+        GraphCompressor graphCompressor;
         try {
-            graphReader = new GraphReader("../test-datasets/" + filename + ".cedge", false);
+            graphCompressor = new GraphCache(Paths.get("../graph-cache"))
+                    .readCompressed("../test-datasets/" + filename + ".cedge");
         } catch (ParseException e) {
             e.printStackTrace();
             return;
@@ -105,9 +133,7 @@ public class TimedMatSquare extends MatSquare {
 
         LoggerFormatter.setupLogger(LOGGER, Level.INFO);
 
-        // Don't compress the graph
-        GraphCompressor graphCompressor = new GraphCompressor(graphReader);
-        graphReader = graphCompressor.getCompressedGraph();
+        GraphReader graphReader = graphCompressor.getCompressedGraph();
 
         TimedMatSquare solver = new TimedMatSquare(graphReader,
                 8, SquareGridTopology::new, new MultiprocessorAttributes(),
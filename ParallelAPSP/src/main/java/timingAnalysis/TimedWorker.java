@@ -64,6 +64,27 @@ public class TimedWorker extends Worker {
         }
     }
 
+    @Override
+    public void storeInt(int mi, int mj, String label, int value) {
+        if (!this.readonly) {
+            worker.storeInt(mi, mj, label, value);
+        }
+    }
+
+    @Override
+    public void storeFloat(int mi, int mj, String label, float value) {
+        if (!this.readonly) {
+            worker.storeFloat(mi, mj, label, value);
+        }
+    }
+
+    @Override
+    public void storeDouble(int mi, int mj, String label, double value) {
+        if (!this.readonly) {
+            worker.storeDouble(mi, mj, label, value);
+        }
+    }
+
     @Override
     protected Callable<Object> getComputationCallable(int l) {
         return () -> {
@@ -26,7 +26,7 @@ public class TimingAnalysisResult {
         Matrix<Double> communicationTimes = new Matrix<>(this.communicationManager.getWorkerCommunicationTimes());
         // add time the workers stall
         for (int i = 0; i < this.communicationManager.getProcessingElementGridSize(); i++) {
-            for (int j = 0; j < this.communicationManager.getProcessingElementGridSize(); j++) {
+            for (int j = 0; j < this.communicationManager.getProcessingElementGridColumns(); j++) {
                 communicationTimes.set(i, j, communicationTimes.get(i, j) +
                         this.communicationManager.getWorkerStallTimes().get(i, j));
             }
@@ -42,6 +42,21 @@ public class TimingAnalysisResult {
         return this.communicationManager.getWorkerCommunicationTimes();
     }
 
+    /**
+     * @return matrix where entry (i, j) is the number of bytes PE(i, j) has sent through point-to-point communication
+     * and broadcasting. A broadcast value is only counted once.
+     */
+    public Matrix<Long> getBytesSent() {
+        return this.communicationManager.getWorkerBytesSent();
+    }
+
+    /**
+     * @return the total number of bytes sent by all the processing elements
+     */
+    public long getTotalBytesSent() {
+        return this.getBytesSent().toList().stream().mapToLong(Long::longValue).sum();
+    }
+
     public Matrix<Double> getTotalExecutionTimes() {
         return this.communicationManager.getTotalWorkerTimes();
     }
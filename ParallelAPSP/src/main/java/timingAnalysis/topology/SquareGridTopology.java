@@ -4,15 +4,27 @@ import java.lang.Math;
 
 public class SquareGridTopology implements Topology {
     private int n;
+    private int m;
 
     public SquareGridTopology(int n) {
+        this(n, n);
+    }
+
+    /**
+     * A grid of n rows and m columns of processing elements, wrapping around in both directions
+     *
+     * @param n number of rows
+     * @param m number of columns
+     */
+    public SquareGridTopology(int n, int m) {
         this.n = n;
+        this.m = m;
     }
 
     @Override
     synchronized public int distance(int i1, int j1, int i2, int j2) {
         int horizontalDistance = Math.min(Math.abs(i2 - i1), n - Math.abs(i2 - i1));
-        int verticalDistance   = Math.min(Math.abs(j2 - j1), n - Math.abs(j2 - j1));
+        int verticalDistance   = Math.min(Math.abs(j2 - j1), m - Math.abs(j2 - j1));
         return horizontalDistance + verticalDistance;
     }
 }
@@ -0,0 +1,158 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed min-heap over the elements {0, 1, ..., n - 1} with primitive double keys, supporting decrease-key. Each
+ * node in the heap has d children, so a larger d gives a shallower heap and cheaper decrease-key operations, at the
+ * cost of more comparisons per removal.
+ *
+ * <p>The heap is meant to be reused across many runs, such as one Dijkstra run per source node. {@link #clear()}
+ * only touches the elements currently in the heap, so no O(n) reset is needed between runs.</p>
+ */
+public class IndexedDaryHeap {
+
+    private final int d;
+    // heap[0..size) holds the elements, and position[e] is the index of element e in heap, or -1 if absent
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    public IndexedDaryHeap(int capacity, int d) {
+        if (d < 2) {
+            throw new IllegalArgumentException("The heap arity must be at least 2, but was " + d);
+        }
+        this.d = d;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.position, -1);
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean contains(int element) {
+        return this.position[element] != -1;
+    }
+
+    public double getKey(int element) {
+        if (!contains(element)) {
+            throw new NoSuchElementException("Element " + element + " is not in the heap");
+        }
+        return this.keys[element];
+    }
+
+    /**
+     * Inserts the element with the given key, or lowers its key if it is already present with a larger key.
+     *
+     * @return true if the heap was changed
+     */
+    public boolean insertOrDecreaseKey(int element, double key) {
+        int pos = this.position[element];
+        if (pos == -1) {
+            pos = this.size++;
+            this.heap[pos] = element;
+            this.position[element] = pos;
+        } else if (key >= this.keys[element]) {
+            return false;
+        }
+        this.keys[element] = key;
+        siftUp(pos);
+        return true;
+    }
+
+    /**
+     * @return the element with the smallest key, without removing it
+     */
+    public int peek() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        return this.heap[0];
+    }
+
+    /**
+     * Removes the element with the smallest key
+     *
+     * @return the removed element
+     */
+    public int poll() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        int min = this.heap[0];
+        this.position[min] = -1;
+        this.size--;
+        if (this.size > 0) {
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int pos = 0; pos < this.size; pos++) {
+            this.position[this.heap[pos]] = -1;
+        }
+        this.size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int element = this.heap[pos];
+        double key = this.keys[element];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / this.d;
+            int parent = this.heap[parentPos];
+            if (this.keys[parent] <= key) {
+                break;
+            }
+            // move the parent down instead of swapping
+            this.heap[pos] = parent;
+            this.position[parent] = pos;
+            pos = parentPos;
+        }
+        this.heap[pos] = element;
+        this.position[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = this.heap[pos];
+        double key = this.keys[element];
+        while (true) {
+            int firstChild = pos * this.d + 1;
+            if (firstChild >= this.size) {
+                break;
+            }
+            // find the child with the smallest key
+            int lastChild = Math.min(firstChild + this.d, this.size);
+            int minPos = firstChild;
+            double minKey = this.keys[this.heap[firstChild]];
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                double childKey = this.keys[this.heap[c]];
+                if (childKey < minKey) {
+                    minKey = childKey;
+                    minPos = c;
+                }
+            }
+            if (minKey >= key) {
+                break;
+            }
+            int child = this.heap[minPos];
+            this.heap[pos] = child;
+            this.position[child] = pos;
+            pos = minPos;
+        }
+        this.heap[pos] = element;
+        this.position[element] = pos;
+    }
+}
@@ -9,8 +9,10 @@ import java.util.stream.Stream;
 
 public class Matrix<T> {
     private List<List<T>> matrix;
-    // we only have square matrices
+    // number of rows
     private final int n;
+    // number of columns, which is equal to n unless the matrix was explicitly created as a rectangular one
+    private final int m;
 
     /**
      * Creates an empty matrix of size n x n. Any call to getters on an empty matrix will
@@ -19,11 +21,22 @@ public class Matrix<T> {
      * @param n size of the square matrix
      */
     public Matrix(int n) {
+        this(n, n);
+    }
+
+    /**
+     * Creates an empty matrix with n rows and m columns. All entries are set to {@code null}.
+     *
+     * @param n number of rows
+     * @param m number of columns
+     */
+    public Matrix(int n, int m) {
         this.n = n;
+        this.m = m;
         this.matrix = new ArrayList<>();
         for (int i = 0; i < n; i++) {
             List<T> row = new ArrayList<>();
-            for (int j = 0; j < n; j++) {
+            for (int j = 0; j < m; j++) {
                 row.add(null);
             }
             this.matrix.add(row);
@@ -31,12 +44,17 @@ public class Matrix<T> {
     }
 
     public Matrix(int n, Supplier<T> defaultValueSupplier) {
+        this(n, n, defaultValueSupplier);
+    }
+
+    public Matrix(int n, int m, Supplier<T> defaultValueSupplier) {
         this.n = n;
-        // fill the matrix with n x n grid of specified fillValue
+        this.m = m;
+        // fill the matrix with n x m grid of specified fillValue
         this.matrix  = new ArrayList<>();
         for (int i = 0; i < n; i++) {
-            // invoke supplier n times
-            List<T> row = Stream.generate(defaultValueSupplier).limit(n).collect(Collectors.toList());
+            // invoke supplier m times
+            List<T> row = Stream.generate(defaultValueSupplier).limit(m).collect(Collectors.toList());
             this.matrix.add(row);
         }
     }
@@ -46,6 +64,7 @@ public class Matrix<T> {
         assert startValues[0].length == n;
 
         this.n = n;
+        this.m = n;
         this.matrix = new ArrayList<>();
         for (int i = 0; i < this.n; i++) {
             this.matrix.add(Arrays.asList(startValues[i]));
@@ -58,11 +77,12 @@ public class Matrix<T> {
      */
     public Matrix(Matrix<T> matrix) {
         this.n = matrix.n;
+        this.m = matrix.m;
 
         this.matrix = new ArrayList<>(this.n);
         for (int i = 0; i < this.n; i++) {
-            this.matrix.add(new ArrayList<>(this.n));
-            for (int j = 0; j < this.n; j++) {
+            this.matrix.add(new ArrayList<>(this.m));
+            for (int j = 0; j < this.m; j++) {
                 this.matrix.get(i).add(matrix.get(i, j));
             }
         }
@@ -77,8 +97,8 @@ public class Matrix<T> {
     }
 
     public void setRow(int i, List<T> values) {
-        assert values.size() == this.n;
-        for (int j = 0; j < this.n; j++) {
+        assert values.size() == this.m;
+        for (int j = 0; j < this.m; j++) {
             this.set(i, j, values.get(j));
         }
     }
@@ -91,10 +111,10 @@ public class Matrix<T> {
     }
 
     public void setAll(Supplier<T> valueSupplier) {
-        // fill the matrix with n x n grid of specified fillValue
+        // fill the matrix with n x m grid of specified fillValue
         for (int i = 0; i < n; i++) {
-            // invoke supplier n times
-            List<T> row = Stream.generate(valueSupplier).limit(n).collect(Collectors.toList());
+            // invoke supplier m times
+            List<T> row = Stream.generate(valueSupplier).limit(m).collect(Collectors.toList());
             this.matrix.set(i, row);
         }
     }
@@ -111,7 +131,7 @@ public class Matrix<T> {
             if (i > 0) {
                 sb.append("\n");
             }
-            for (int j = 0; j < n; j++) {
+            for (int j = 0; j < m; j++) {
                 if (j > 0) {
                     sb.append(" ");
                 }
@@ -139,11 +159,11 @@ public class Matrix<T> {
             return false;
         }
         Matrix<?> other = (Matrix<?>) obj;
-        if (other.n != this.n) {
+        if (other.n != this.n || other.m != this.m) {
             return false;
         }
         for (int i = 0; i < this.n; i++) {
-            for (int j = 0; j < this.n; j++) {
+            for (int j = 0; j < this.m; j++) {
                 if (!other.get(i, j).equals(this.get(i, j))) {
                     return false;
                 }
@@ -152,10 +172,21 @@ public class Matrix<T> {
         return true;
     }
 
+    /**
+     * @return the number of rows, which for square matrices is also the number of columns
+     */
     public int size() {
         return this.n;
     }
 
+    public int getNumberOfRows() {
+        return this.n;
+    }
+
+    public int getNumberOfColumns() {
+        return this.m;
+    }
+
     public static void main(String[] args) {
         Matrix<Double> m = new Matrix<>(5, () -> 3.14);
         m.set(2, 1, 42.0);
@@ -0,0 +1,114 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone priority queue over the elements {0, 1, ..., n - 1} with non-negative long keys, as used by Dijkstra's
+ * algorithm with integer edge weights. A key may only be inserted if it is at least as large as the key of the last
+ * polled element.
+ *
+ * <p>Bucket 0 holds the entries with a key equal to the last polled key, and bucket b > 0 holds the entries whose key
+ * first differs from the last polled key in bit b - 1. When bucket 0 runs empty, the smallest key in the first
+ * non-empty bucket becomes the new last key, and the entries of that bucket are redistributed into lower buckets.
+ * Every entry can only move down at most 64 times, so each operation takes amortised O(log C) time for keys of at
+ * most C, independent of the number of entries.</p>
+ *
+ * <p>There is no decrease-key operation. Instead, an element is inserted again with its lower key, and the caller
+ * should skip polled entries whose key, available through {@link #getLastPolledKey()}, is out of date.</p>
+ */
+public class RadixHeap {
+
+    private static final int NUM_BUCKETS = 65;
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private final int[][] bucketElements = new int[NUM_BUCKETS][];
+    private final long[][] bucketKeys = new long[NUM_BUCKETS][];
+    private final int[] bucketSizes = new int[NUM_BUCKETS];
+    private long lastKey;
+    private int size;
+
+    public RadixHeap() {
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            this.bucketElements[b] = new int[INITIAL_BUCKET_CAPACITY];
+            this.bucketKeys[b] = new long[INITIAL_BUCKET_CAPACITY];
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the key of the element returned by the last call to {@link #poll()}
+     */
+    public long getLastPolledKey() {
+        return this.lastKey;
+    }
+
+    public void insert(int element, long key) {
+        if (key < this.lastKey) {
+            throw new IllegalArgumentException(String.format("The key %d is smaller than the last polled key %d",
+                    key, this.lastKey));
+        }
+        addToBucket(getBucket(key), element, key);
+        this.size++;
+    }
+
+    /**
+     * Removes an element with the smallest key
+     *
+     * @return the removed element
+     */
+    public int poll() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        if (this.bucketSizes[0] == 0) {
+            int b = 1;
+            while (this.bucketSizes[b] == 0) {
+                b++;
+            }
+            // the smallest key of this bucket becomes the new reference point
+            int bucketSize = this.bucketSizes[b];
+            int[] elements = this.bucketElements[b];
+            long[] keys = this.bucketKeys[b];
+            long minKey = keys[0];
+            for (int e = 1; e < bucketSize; e++) {
+                minKey = Math.min(minKey, keys[e]);
+            }
+            this.lastKey = minKey;
+            // all the entries now agree with the last key on bit b - 1 and above, so they move to lower buckets
+            this.bucketSizes[b] = 0;
+            for (int e = 0; e < bucketSize; e++) {
+                addToBucket(getBucket(keys[e]), elements[e], keys[e]);
+            }
+        }
+        this.size--;
+        return this.bucketElements[0][--this.bucketSizes[0]];
+    }
+
+    public void clear() {
+        Arrays.fill(this.bucketSizes, 0);
+        this.size = 0;
+        this.lastKey = 0;
+    }
+
+    private int getBucket(long key) {
+        return key == this.lastKey ? 0 : 64 - Long.numberOfLeadingZeros(key ^ this.lastKey);
+    }
+
+    private void addToBucket(int b, int element, long key) {
+        int pos = this.bucketSizes[b]++;
+        if (pos == this.bucketElements[b].length) {
+            this.bucketElements[b] = Arrays.copyOf(this.bucketElements[b], 2 * pos);
+            this.bucketKeys[b] = Arrays.copyOf(this.bucketKeys[b], 2 * pos);
+        }
+        this.bucketElements[b][pos] = element;
+        this.bucketKeys[b][pos] = key;
+    }
+}
@@ -0,0 +1,108 @@
+package work;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Describes how the n rows (or columns) of an input matrix are split into contiguous blocks among p rows (or columns)
+ * of processing elements. When n is not divisible by p, the first {@code n % p} blocks hold one element more than the
+ * remaining ones, so the last rows and columns of processing elements get the smaller blocks. This way, no padding
+ * with dummy nodes is required and the block sizes never differ by more than one.
+ */
+public class BlockDistribution {
+
+    private final int n;
+    private final int p;
+
+    private final int smallBlockSize;
+    private final int numLargeBlocks;
+
+    /**
+     * @param n non-negative problem size
+     * @param p positive number of blocks. If it exceeds n, the last {@code p - n} blocks are empty
+     */
+    public BlockDistribution(int n, int p) {
+        if (p <= 0 || n < 0) {
+            throw new IllegalArgumentException(String.format("A problem of size %d cannot be distributed among %d " +
+                    "processing elements.", n, p));
+        }
+        this.n = n;
+        this.p = p;
+        this.smallBlockSize = n / p;
+        this.numLargeBlocks = n % p;
+    }
+
+    public int getProblemSize() {
+        return this.n;
+    }
+
+    public int getNumberOfBlocks() {
+        return this.p;
+    }
+
+    /**
+     * @param b block ID in the range [0, p)
+     * @return the number of elements in block b
+     */
+    public int getBlockSize(int b) {
+        return b < this.numLargeBlocks ? this.smallBlockSize + 1 : this.smallBlockSize;
+    }
+
+    /**
+     * @param b block ID in the range [0, p]
+     * @return the global index of the first element of block b. For b = p, n is returned.
+     */
+    public int getBlockOffset(int b) {
+        return b * this.smallBlockSize + Math.min(b, this.numLargeBlocks);
+    }
+
+    /**
+     * @param index global index in the range [0, n)
+     * @return the ID of the block containing the element with the given index
+     */
+    public int getBlockOf(int index) {
+        assert 0 <= index && index < this.n;
+        int largeBlocksEnd = this.numLargeBlocks * (this.smallBlockSize + 1);
+        if (index < largeBlocksEnd) {
+            return index / (this.smallBlockSize + 1);
+        } else {
+            return this.numLargeBlocks + (index - largeBlocksEnd) / this.smallBlockSize;
+        }
+    }
+
+    public int getMaxBlockSize() {
+        return this.getBlockSize(0);
+    }
+
+    /**
+     * Splits [0, n) into the coarsest set of contiguous panels such that each panel lies entirely within one block of
+     * both of the provided distributions. The panels are returned in increasing order as a list of
+     * {@code {start, end}} pairs, with the end being exclusive. If the two distributions are equal, the panels are
+     * exactly the blocks.
+     *
+     * @param rows a block distribution
+     * @param cols another block distribution of the same problem size
+     * @return list of panels
+     */
+    public static List<int[]> getCommonPanels(BlockDistribution rows, BlockDistribution cols) {
+        if (rows.n != cols.n) {
+            throw new IllegalArgumentException("The two block distributions must have the same problem size");
+        }
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        for (int b = 0; b <= rows.p; b++) {
+            boundaries.add(rows.getBlockOffset(b));
+        }
+        for (int b = 0; b <= cols.p; b++) {
+            boundaries.add(cols.getBlockOffset(b));
+        }
+
+        List<int[]> panels = new ArrayList<>(boundaries.size() - 1);
+        Integer start = boundaries.pollFirst();
+        for (int end : boundaries) {
+            panels.add(new int[]{start, end});
+            start = end;
+        }
+        return panels;
+    }
+}
@@ -18,10 +18,15 @@ public class Manager {
 
     // number of rows and columns in input
     private final int n;
-    // number of processing elements
+    // number of rows and columns of processing elements
     private final int p;
+    private final int q;
     private final int numComputationPhases;
 
+    // how the input rows and columns are spread across the PE grid
+    private final BlockDistribution rowDistribution;
+    private final BlockDistribution colDistribution;
+
     private final Class<? extends Worker> algorithm;
 
     private CommunicationManager communicationManager;
@@ -29,6 +34,8 @@ public class Manager {
     private final Matrix<Worker> workers;
 
     private ExecutorService executorService;
+    // false if the executor was provided with setExecutorService, in which case it is shared and must not be shut down
+    private boolean ownsExecutorService = true;
     private boolean workHasBeenDone = false;
 
     /**
@@ -41,16 +48,20 @@ public class Manager {
         // copy all the references
         this.n = manager.n;
         this.p = manager.p;
+        this.q = manager.q;
+        this.rowDistribution = manager.rowDistribution;
+        this.colDistribution = manager.colDistribution;
         this.numComputationPhases = manager.numComputationPhases;
         this.communicationManager = manager.communicationManager;
         this.privateMemoryMatrix = manager.privateMemoryMatrix;
         this.executorService = manager.executorService;
+        this.ownsExecutorService = manager.ownsExecutorService;
         this.workers = manager.workers;
         this.algorithm = manager.algorithm;
     }
 
     /**
-     * Creates a Manager. Upon construction, the manager will creates a CommunicationManager, and a matrix of n x n workers.
+     * Creates a Manager. Upon construction, the manager will creates a CommunicationManager, and a matrix of p x p workers.
      * The workers will start their execution when {@link #doWork} is called, which will block until all workers have
      * finished. If any error occurs during execution, such as {@link CommunicationChannelCongestionException}
      * or {@link InconsistentCommunicationChannelUsageException}, an exception will be thrown.
@@ -65,36 +76,58 @@ public class Manager {
      */
     public Manager(int n, int p, int numComputationPhases, Map<String, Matrix<Number>> initialMemoryContent,
                    Class<? extends Worker> workerClass) throws WorkerInstantiationException {
+        this(n, p, p, numComputationPhases, initialMemoryContent, workerClass);
+    }
+
+    /**
+     * Creates a Manager with a rectangular grid of p x q workers. The n x n input is spread across the workers according
+     * to a {@link BlockDistribution} of the rows among the p rows of workers and the columns among the q columns of
+     * workers. If n is not divisible by p or q, the last rows or columns of workers receive blocks that are one
+     * element smaller than the others, so no padding is needed.
+     *
+     * @param n integer - the problem size
+     * @param p number of rows of workers
+     * @param q number of columns of workers
+     * @param numComputationPhases the number of computation phases each worker should perform
+     * @param initialMemoryContent a map from private memory access labels to the content stored in each worker's memory.
+     *                             This parameter may be null, in which case all workers start with empty memory.
+     * @param workerClass a subtype of Worker, specifying that computation and communication each individual worker should do
+     * @throws WorkerInstantiationException if any of the workers are not able to be constructed
+     */
+    public Manager(int n, int p, int q, int numComputationPhases, Map<String, Matrix<Number>> initialMemoryContent,
+                   Class<? extends Worker> workerClass) throws WorkerInstantiationException {
         this.n = n;
         this.p = p;
+        this.q = q;
         this.numComputationPhases = numComputationPhases;
         this.algorithm = workerClass;
 
-        // not possible to divide up memory evenly
-        if (n % p != 0) {
+        // not possible to give every PE at least one row and column
+        if (p > n || q > n) {
             throw new IllegalArgumentException(String.format("The passed initial memory does to distribute well among the PEs." +
-                    " A matrix of size %d cannot be spread among %d PEs.", n, p));
+                    " A matrix of size %d cannot be spread among %d x %d PEs.", n, p, q));
         }
-
-        // no memory provided
-        if (null == initialMemoryContent) {
-            // the private memory is used to fetch the results after computation, so save a reference to it
-            this.privateMemoryMatrix =  new Matrix<>(p, () -> new PrivateMemory(n / p));
-        } else {
-            this.privateMemoryMatrix = new Matrix<>(this.p, () -> new PrivateMemory(n / p));
+        this.rowDistribution = new BlockDistribution(n, p);
+        this.colDistribution = new BlockDistribution(n, q);
+
+        // every PE gets a private memory large enough to hold its own block as well as any block it receives
+        int memorySize = Math.max(this.rowDistribution.getMaxBlockSize(), this.colDistribution.getMaxBlockSize());
+        // the private memory is used to fetch the results after computation, so save a reference to it
+        this.privateMemoryMatrix = new Matrix<>(p, q, () -> new PrivateMemory(memorySize));
+        if (null != initialMemoryContent) {
             this.setPrivateMemory(initialMemoryContent);
         }
 
-        this.communicationManager = new CommunicationManager(this.p, this.privateMemoryMatrix);
+        this.communicationManager = new CommunicationManager(this.p, this.q, this.privateMemoryMatrix);
 
         // set up the worker factory
         WorkerFactory workerFactory = new WorkerFactory(workerClass);
         workerFactory.init(this.communicationManager);
 
         // and create all the workers
-        this.workers = new Matrix<>(this.p);
+        this.workers = new Matrix<>(this.p, this.q);
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 Worker w = workerFactory.createWorker(i, j, this.p, this.n, numComputationPhases, privateMemoryMatrix.get(i, j));
                 this.workers.set(i, j, w);
             }
@@ -106,8 +139,6 @@ public class Manager {
      * @param memoryContent a map from string labels to numbers to distribute to each processing element
      */
     public void setPrivateMemory(Map<String, Matrix<Number>> memoryContent) {
-        int matSizePerPE = n / p;
-
         // validate input
         for (String s : memoryContent.keySet()) {
             // mismatch in dimension
@@ -119,12 +150,14 @@ public class Manager {
 
         // initialize the private memory
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            int rowOffset = this.rowDistribution.getBlockOffset(i);
+            for (int j = 0; j < this.q; j++) {
+                int colOffset = this.colDistribution.getBlockOffset(j);
                 for (String s : memoryContent.keySet()) {
-                    for (int mi = 0; mi < matSizePerPE; mi++) {
-                        for (int mj = 0; mj < matSizePerPE; mj++) {
+                    for (int mi = 0; mi < this.rowDistribution.getBlockSize(i); mi++) {
+                        for (int mj = 0; mj < this.colDistribution.getBlockSize(j); mj++) {
                             privateMemoryMatrix.get(i, j).set(mi, mj, s, memoryContent.get(s).get(
-                                    i * matSizePerPE + mi, j * matSizePerPE + mj
+                                    rowOffset + mi, colOffset + mj
                             ));
                         }
                     }
@@ -133,6 +166,19 @@ public class Manager {
         }
     }
 
+    /**
+     * Removes all the content of the private memories, e.g. the results of a previous call to {@link #doWork}, so
+     * that the manager can be reused with new input from {@link #setPrivateMemory(Map)}
+     */
+    public void clearPrivateMemory() {
+        for (int i = 0; i < this.p; i++) {
+            for (int j = 0; j < this.q; j++) {
+                this.privateMemoryMatrix.get(i, j).clear();
+            }
+        }
+        this.workHasBeenDone = false;
+    }
+
     public Manager(int n, int numComputationPhases, Map<String, Matrix<Number>> initialMemoryContent,
                    Class<? extends Worker> workerClass) throws WorkerInstantiationException {
         this(n, n, numComputationPhases, initialMemoryContent, workerClass);
@@ -147,9 +193,9 @@ public class Manager {
      * @return a list of futures produced by the ExecutorService
      */
     private List<Future<?>> startWorkerExecution(int phaseNumber, Worker.WorkerPhases phaseType) {
-        List<Future<?>> workerFutures = new ArrayList<>(this.p * this.p);
+        List<Future<?>> workerFutures = new ArrayList<>(this.p * this.q);
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 Callable<Object> workerTask;
                 switch (phaseType) {
                     case INITIALISATION:
@@ -188,7 +234,9 @@ public class Manager {
                 f.get();
             } catch (InterruptedException | ExecutionException e) {
                 // don't do any more work, because one or more workers have failed
-                this.executorService.shutdown();
+                if (this.ownsExecutorService) {
+                    this.executorService.shutdown();
+                }
                 // unwrap communication channel exception from execution exception
                 if (e.getCause() instanceof CommunicationChannelException) {
                     throw (CommunicationChannelException) e.getCause();
@@ -220,10 +268,12 @@ public class Manager {
      *   from from PrivateMemory in case access is attempted with a label that does not exist.
      */
     public void doWork() throws CommunicationChannelException, WorkersFailedToCompleteException {
-        LOGGER.log(Level.INFO, "Manager is starting {0} phases of work with {1} workers.", new Object[]{this.numComputationPhases, this.p * this.p});
+        LOGGER.log(Level.INFO, "Manager is starting {0} phases of work with {1} workers.", new Object[]{this.numComputationPhases, this.p * this.q});
 
-        // create the executor service which will manage the worker computation
-        this.executorService = Executors.newFixedThreadPool(MAX_CONCURRENT_THREADS);
+        // create the executor service which will manage the worker computation, unless a shared one was provided
+        if (this.ownsExecutorService) {
+            this.executorService = Executors.newFixedThreadPool(MAX_CONCURRENT_THREADS);
+        }
 
         List<Future<?>> workerFutures;
 
@@ -259,15 +309,41 @@ public class Manager {
         }
 
         LOGGER.log(Level.INFO, "Manager has completed {0} phases of work.", this.numComputationPhases);
-        this.executorService.shutdown();
+        if (this.ownsExecutorService) {
+            this.executorService.shutdown();
+        }
 
         this.workHasBeenDone = true;
     }
 
+    /**
+     * Makes {@link #doWork} run the workers on the given executor, instead of creating a new thread pool for every
+     * call. The executor is never shut down by the manager, so it can be kept alive and shared by many managers.
+     *
+     * @param executorService a long-lived executor, or null to go back to creating a thread pool in each call
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        this.ownsExecutorService = executorService == null;
+    }
+
     public Matrix<Number> getResult(String label) {
         return this.getResult(label, false);
     }
 
+    /**
+     * @return the total number of bytes used to store values in the private memories of all the processing elements
+     */
+    public long getPrivateMemorySizeInBytes() {
+        long size = 0;
+        for (int i = 0; i < this.p; i++) {
+            for (int j = 0; j < this.q; j++) {
+                size += this.privateMemoryMatrix.get(i, j).getSizeInBytes();
+            }
+        }
+        return size;
+    }
+
     /**
      * Returns the result of computation. A String label matching the memory location the workers store their result
      * in should be provided. This method creates a matrix of the Numbers found within each Worker's private memory
@@ -283,17 +359,18 @@ public class Manager {
             return new Matrix<>(this.p);
         } else {
             // spread each PE's private memory across the result matrix
-            int matSizePerPE = this.n / this.p;
             Matrix<Number> resultMatrix = new Matrix<>(this.n);
             for (int i = 0; i < this.p; i++) {
-                for (int j = 0; j < this.p; j++) {
-                    for (int mi = 0; mi < matSizePerPE; mi++) {
-                        for (int mj = 0; mj < matSizePerPE; mj++) {
+                int rowOffset = this.rowDistribution.getBlockOffset(i);
+                for (int j = 0; j < this.q; j++) {
+                    int colOffset = this.colDistribution.getBlockOffset(j);
+                    for (int mi = 0; mi < this.rowDistribution.getBlockSize(i); mi++) {
+                        for (int mj = 0; mj < this.colDistribution.getBlockSize(j); mj++) {
                             if (asInt) {
-                                resultMatrix.set(i * matSizePerPE + mi, j * matSizePerPE + mj,
+                                resultMatrix.set(rowOffset + mi, colOffset + mj,
                                         this.workers.get(i, j).readInt(mi, mj, label));
                             } else {
-                                resultMatrix.set(i * matSizePerPE + mi, j * matSizePerPE + mj,
+                                resultMatrix.set(rowOffset + mi, colOffset + mj,
                                         this.workers.get(i, j).readDouble(mi, mj, label));
                             }
                         }
@@ -305,10 +382,20 @@ public class Manager {
         }
     }
 
+    /**
+     * @return the number of rows of processing elements
+     */
     public int getProcessingElementGridSize() {
         return this.p;
     }
 
+    /**
+     * @return the number of columns of processing elements
+     */
+    public int getProcessingElementGridColumns() {
+        return this.q;
+    }
+
     public int getProblemSize() {
         return this.n;
     }
@@ -343,7 +430,7 @@ public class Manager {
         WorkerFactory workerFactory = new WorkerFactory(this.algorithm);
         workerFactory.init(communicationManager);
         for (int i = 0; i < this.p; i++) {
-            for (int j = 0; j < this.p; j++) {
+            for (int j = 0; j < this.q; j++) {
                 Worker newWorker = workerFactory.createWorker(i, j, this.p, this.n, this.numComputationPhases,
                         this.workers.get(i, j).getPrivateMemory());
                 this.workers.set(i, j, newWorker);
@@ -29,9 +29,14 @@ public abstract class Worker implements Runnable {
     protected final int i;
     protected final int j;
     protected final int p;
+    protected final int q;
     protected final int n;
     protected final int numPhases;
 
+    // how the rows and columns of the input matrix are spread among the PE grid
+    protected final BlockDistribution rowDistribution;
+    protected final BlockDistribution colDistribution;
+
     private final PrivateMemory privateMemory;
     private final CommunicationManager communicationManager;
 
@@ -39,8 +44,11 @@ public abstract class Worker implements Runnable {
         this.i = worker.i;
         this.j = worker.j;
         this.p = worker.p;
+        this.q = worker.q;
         this.n = worker.n;
         this.numPhases = worker.numPhases;
+        this.rowDistribution = worker.rowDistribution;
+        this.colDistribution = worker.colDistribution;
 
         this.privateMemory = worker.getPrivateMemory();
         this.communicationManager = worker.communicationManager;
@@ -52,7 +60,8 @@ public abstract class Worker implements Runnable {
      *
      * @param i non-negative row ID of worker
      * @param j non-negative column ID of worker
-     * @param p non-negative integer such that the number of workers == p ^ 2
+     * @param p non-negative integer number of rows of workers. The number of columns, q, is taken from the
+     *          communication manager, and is equal to p if no communication manager is provided
      * @param numPhases number of computation phases to be performed during execution
      * @param privateMemory the worker's own private memory. May already contain values
      * @param communicationManager a reference to a unique communication manager.
@@ -62,8 +71,11 @@ public abstract class Worker implements Runnable {
         this.i = i;
         this.j = j;
         this.p = p;
+        this.q = null == communicationManager ? p : communicationManager.getProcessingElementGridColumns();
         this.n = n;
         this.numPhases = numPhases;
+        this.rowDistribution = new BlockDistribution(n, p);
+        this.colDistribution = new BlockDistribution(n, this.q);
 
         this.privateMemory = privateMemory;
         this.communicationManager = communicationManager;
@@ -129,7 +141,11 @@ public abstract class Worker implements Runnable {
     }
 
     protected int readInt(int mi, int mj, String label) {
-        return this.read(mi, mj, label).intValue();
+        return this.privateMemory.getInt(mi, mj, label);
+    }
+
+    protected float readFloat(int mi, int mj, String label) {
+        return this.privateMemory.getFloat(mi, mj, label);
     }
 
     protected double readDouble(String label) {
@@ -137,7 +153,7 @@ public abstract class Worker implements Runnable {
     }
 
     protected double readDouble(int mi, int mj, String label) {
-        return this.read(mi, mj, label).doubleValue();
+        return this.privateMemory.getDouble(mi, mj, label);
     }
 
     // ================ Methods for storing to private memory ==================
@@ -152,6 +168,19 @@ public abstract class Worker implements Runnable {
         this.privateMemory.set(mi, mj, label, value);
     }
 
+    // unboxed variants of store, used in the inner loops of computation phases
+    public void storeInt(int mi, int mj, String label, int value) {
+        this.privateMemory.setInt(mi, mj, label, value);
+    }
+
+    public void storeFloat(int mi, int mj, String label, float value) {
+        this.privateMemory.setFloat(mi, mj, label, value);
+    }
+
+    public void storeDouble(int mi, int mj, String label, double value) {
+        this.privateMemory.setDouble(mi, mj, label, value);
+    }
+
     // ================ Methods for point to point communication ================
 
     protected void send(int i, int j, Number value) throws CommunicationChannelCongestionException {
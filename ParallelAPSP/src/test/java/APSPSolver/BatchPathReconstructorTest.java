@@ -0,0 +1,128 @@
+package APSPSolver;
+
+import APSPSolver.BatchPathReconstructor.PathArena;
+import graphReader.GraphReader;
+import matrixMultiplication.FoxOtto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPathReconstructorTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    private void assertSameAsSolver(APSPSolver solver, int n) {
+        BatchPathReconstructor reconstructor = new BatchPathReconstructor(solver);
+        int[] sources = new int[n * n];
+        int[] targets = new int[n * n];
+        for (int q = 0; q < n * n; q++) {
+            sources[q] = q / n;
+            targets[q] = q % n;
+        }
+
+        // ACT
+        PathArena paths = reconstructor.getShortestPaths(sources, targets);
+
+        // ASSERT
+        assertEquals(n * n, paths.getNumberOfPaths());
+        for (int q = 0; q < n * n; q++) {
+            assertEquals(solver.getShortestPath(sources[q], targets[q]), paths.getPath(q),
+                    "The shortest path produced is correct: " + sources[q] + " -> " + targets[q]);
+        }
+    }
+
+    @Test
+    void batchGivesSameResultAsParallelDijkstra() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/300.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+
+        assertSameAsSolver(solver, graphReader.getNumberOfNodes());
+    }
+
+    @Test
+    void batchGivesSameResultAsMatSquare() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new MatSquare(graphReader, FoxOtto.class);
+        solver.solve();
+
+        assertSameAsSolver(solver, graphReader.getNumberOfNodes());
+    }
+
+    @Test
+    void singlePathIsWrittenIntoBuffer() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+        BatchPathReconstructor reconstructor = new BatchPathReconstructor(solver);
+        int[] buffer = new int[20];
+        List<Integer> expected = solver.getShortestPath(0, 4).get();
+
+        // ACT
+        int length = reconstructor.getShortestPath(0, 4, buffer, 3);
+
+        // ASSERT
+        assertEquals(expected.size(), length);
+        for (int k = 0; k < length; k++) {
+            assertEquals(expected.get(k), buffer[3 + k]);
+        }
+        assertEquals(0, reconstructor.getShortestPath(2, 2, buffer, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> reconstructor.getShortestPath(0, 4, new int[1], 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> reconstructor.getShortestPaths(new int[]{0, 1}, new int[]{4}));
+        assertEquals(Optional.empty(), reconstructor.getShortestPaths(new int[]{1}, new int[]{1}).getPath(0));
+    }
+
+    @Test
+    void graphWhosePredecessorTableDoesNotFitInAnArrayIsRejected() {
+        // SETUP
+        // a path with 46342 nodes, whose 46342^2 predecessors do not fit in an int array
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
+        for (int i = 0; i + 1 < 46342; i++) {
+            edges.add(new Triple<>(i, i + 1, 1.0));
+        }
+        APSPSolver solver = new SerialDijkstra(new GraphReader(edges, true));
+
+        // ACT and ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new BatchPathReconstructor(solver));
+    }
+}
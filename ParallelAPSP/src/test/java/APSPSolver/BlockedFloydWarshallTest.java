@@ -0,0 +1,88 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockedFloydWarshallTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void blockedFloydWarshallGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new BlockedFloydWarshall(graphReader, 2);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void blockedFloydWarshallGivesCorrectResultOnSmallGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // one node per processing element
+        APSPSolver solver = new BlockedFloydWarshall(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void blockedFloydWarshallGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // uneven blocks of sizes 29 and 28
+        APSPSolver solver = new BlockedFloydWarshall(graphReader, 7);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+}
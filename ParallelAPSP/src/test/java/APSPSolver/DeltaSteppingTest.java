@@ -0,0 +1,135 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameDistancesAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSteppingTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void deltaSteppingGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new DeltaStepping(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void deltaSteppingGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new DeltaStepping(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void deltaSteppingGivesCorrectResultWithLargeBuckets() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // all the nodes end up in the first bucket, so the frontiers are large enough to be relaxed in parallel
+        APSPSolver solver = new DeltaStepping(graphReader, 100.0, new ForkJoinPool(4));
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void singleSourceResultMatchesFullSolve() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        DeltaStepping solver = new DeltaStepping(graphReader, 0.5);
+
+        // ACT
+        DeltaStepping.SingleSourceResult result = solver.solveSingleSource(3);
+        solver.solve();
+
+        // ASSERT
+        assertEquals(3, result.getSource());
+        assertEquals(3, result.getPredecessor(3));
+        for (int j = 0; j < graphReader.getNumberOfNodes(); j++) {
+            assertEquals(solver.getDistanceFrom(3, j).doubleValue(), result.getDistance(j));
+            assertEquals(solver.getShortestPath(3, j), result.getShortestPath(j));
+        }
+    }
+
+    @Test
+    void zeroWeightEdgesDoNotCreatePredecessorCycles() {
+        // SETUP
+        GraphReader graphReader = new GraphReader(Arrays.asList(
+                new Triple<>(0, 1, 1.0),
+                new Triple<>(1, 2, 0.0),
+                new Triple<>(2, 3, 0.0),
+                new Triple<>(3, 1, 0.0),
+                new Triple<>(3, 4, 2.0)), false);
+
+        APSPSolver solver = new DeltaStepping(graphReader, 1.0);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+}
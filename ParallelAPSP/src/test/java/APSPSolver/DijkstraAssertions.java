@@ -0,0 +1,96 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import javafx.util.Pair;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Assertions shared by the tests of the APSP solvers, which compare a solved solver against {@link SerialDijkstra}
+ * on the same graph
+ */
+public final class DijkstraAssertions {
+
+    private DijkstraAssertions() {
+    }
+
+    /**
+     * Checks that the solver gives the same distances and exactly the same shortest paths as SerialDijkstra, which
+     * holds for solvers that break ties between shortest paths in the same way
+     *
+     * @param graphReader the graph the solver was created with
+     * @param solver a solver that has already been solved
+     */
+    public static void assertSameAsDijkstra(GraphReader graphReader, APSPSolver solver) {
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+        dijkstraSolver.solve();
+
+        int numNodes = graphReader.getNumberOfNodes();
+        for (int i = 0; i < numNodes; i++) {
+            for (int j = 0; j < numNodes; j++) {
+                // expected is first item, actual is second item
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        solver.getDistanceFrom(i, j).doubleValue(), 1E-5, "The distance from node " + i
+                                + " to node " + j + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), solver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j + " with dist="
+                                + solver.getDistanceFrom(i, j));
+                assertPredecessorOnPath(solver, i, j, solver.getShortestPath(i, j));
+            }
+        }
+    }
+
+    /**
+     * Checks that the solver gives the same distances as SerialDijkstra, and that each of its paths is a shortest
+     * path. The paths may differ from Dijkstra's if there are several shortest paths.
+     *
+     * @param graphReader the graph the solver was created with
+     * @param solver a solver that has already been solved
+     */
+    public static void assertSameDistancesAsDijkstra(GraphReader graphReader, APSPSolver solver) {
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+        dijkstraSolver.solve();
+        List<List<Pair<Integer, Double>>> adjacencyList = graphReader.getAdjacencyList();
+
+        int numNodes = graphReader.getNumberOfNodes();
+        for (int i = 0; i < numNodes; i++) {
+            for (int j = 0; j < numNodes; j++) {
+                double expected = dijkstraSolver.getDistanceFrom(i, j).doubleValue();
+                assertEquals(expected, solver.getDistanceFrom(i, j).doubleValue(), 1E-9,
+                        "The distance from node " + i + " to node " + j + " is correct");
+                Optional<List<Integer>> path = solver.getShortestPath(i, j);
+                assertEquals(dijkstraSolver.getShortestPath(i, j).isPresent(), path.isPresent());
+                assertPredecessorOnPath(solver, i, j, path);
+                if (path.isEmpty()) {
+                    continue;
+                }
+                assertEquals(i, path.get().get(0));
+                assertEquals(j, path.get().get(path.get().size() - 1));
+                // use the lightest of any parallel edges
+                double pathLength = 0.0;
+                for (int k = 0; k + 1 < path.get().size(); k++) {
+                    int to = path.get().get(k + 1);
+                    pathLength += adjacencyList.get(path.get().get(k)).stream()
+                            .filter(e -> e.getKey() == to)
+                            .mapToDouble(Pair::getValue)
+                            .min()
+                            .orElseThrow();
+                }
+                assertEquals(expected, pathLength, 1E-9, "The path " + path.get() + " has the shortest length");
+            }
+        }
+    }
+
+    /**
+     * Checks that {@link APSPSolver#getPredecessor(int, int)} gives the node before j on the solver's own shortest
+     * path, which is what the solvers that override it must agree with
+     */
+    public static void assertPredecessorOnPath(APSPSolver solver, int i, int j, Optional<List<Integer>> path) {
+        int expected = i == j ? i : path.map(p -> p.get(p.size() - 2)).orElse(-1);
+        assertEquals(expected, solver.getPredecessor(i, j), "The predecessor of node " + j + " on the path from node "
+                + i + " is correct");
+    }
+}
@@ -0,0 +1,106 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JohnsonTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    private void assertSameAsReference(GraphReader graphReader, APSPSolver referenceSolver) {
+        APSPSolver solver = new Johnson(graphReader);
+
+        // ACT
+        solver.solve();
+        referenceSolver.solve();
+
+        // ASSERT
+        int numNodes = graphReader.getNumberOfNodes();
+        for (int i = 0; i < numNodes; i++) {
+            for (int j = 0; j < numNodes; j++) {
+                // expected is first item, actual is second item
+                assertEquals(referenceSolver.getDistanceFrom(i, j).doubleValue(),
+                        solver.getDistanceFrom(i, j).doubleValue(), 1E-6, "The distance from node " + i
+                                + " to node " + j + " is correct");
+                assertEquals(referenceSolver.getShortestPath(i, j), solver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j);
+            }
+        }
+    }
+
+    @Test
+    void johnsonGivesCorrectResultOnNonNegativeDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        assertSameAsReference(graphReader, new SerialDijkstra(graphReader));
+    }
+
+    @Test
+    void johnsonGivesCorrectResultWithNegativeEdges() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // adding p[u] - p[v] to every edge (u, v) gives many negative edges, but does not change the weight of any
+        // cycle, so there are no negative cycles
+        Random random = new Random(42);
+        double[] p = random.doubles(graphReader.getNumberOfNodes(), 0.0, 5.0).toArray();
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
+        for (Triple<Integer, Integer, Double> e : graphReader.getEdges()) {
+            edges.add(new Triple<>(e.x(), e.y(), e.z() + p[e.x()] - p[e.y()]));
+        }
+        GraphReader negativeGraph = new GraphReader(edges, true);
+        assertTrue(edges.stream().anyMatch(e -> e.z() < 0));
+
+        // the recursive Kleene closure does not rely on the weights being non-negative
+        assertSameAsReference(negativeGraph, new RKleene(negativeGraph));
+    }
+
+    @Test
+    void negativeCycleIsDetected() {
+        // SETUP
+        GraphReader graphReader = new GraphReader(Arrays.asList(
+                new Triple<>(0, 1, 1.0),
+                new Triple<>(1, 2, 2.0),
+                new Triple<>(2, 3, -4.0),
+                new Triple<>(3, 1, 1.0),
+                new Triple<>(3, 4, 1.0)), true);
+        Johnson solver = new Johnson(graphReader);
+
+        // ACT
+        NegativeCycleException e = assertThrows(NegativeCycleException.class, solver::solve);
+
+        // ASSERT
+        List<Integer> cycle = e.getCycle();
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), new HashSet<>(cycle));
+    }
+}
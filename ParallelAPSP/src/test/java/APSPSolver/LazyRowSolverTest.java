@@ -0,0 +1,136 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyRowSolverTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void lazySolverGivesSameResultAsParallelDijkstra() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/300.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        int n = graphReader.getNumberOfNodes();
+        APSPSolver parallelSolver = new ParallelDijkstra(graphReader);
+        // only room for 10 rows, so most rows are evicted and solved again
+        LazyRowSolver lazySolver = new LazyRowSolver(graphReader, 10 * LazyRowSolver.getRowBytes(n));
+
+        // ACT
+        parallelSolver.solve();
+        lazySolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(parallelSolver.getDistanceFrom(i, j), lazySolver.getDistanceFrom(i, j),
+                        "The distance from node " + i + " to node " + j + " is correct");
+                assertEquals(parallelSolver.getShortestPath(i, j), lazySolver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j);
+            }
+        }
+        assertEquals(10, lazySolver.getMaxCachedRows());
+        assertEquals(10, lazySolver.getNumberOfCachedRows());
+        assertEquals(n, lazySolver.getMisses());
+        assertEquals(n - 10, lazySolver.getEvictions());
+        assertEquals(2L * n * n - n, lazySolver.getHits());
+    }
+
+    @Test
+    void leastRecentlyUsedRowIsEvicted() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        LazyRowSolver solver = new LazyRowSolver(graphReader, 2 * LazyRowSolver.getRowBytes(9));
+        assertThrows(IllegalStateException.class, () -> solver.getDistanceFrom(0, 1));
+        solver.solve();
+
+        // ACT
+        solver.getDistanceFrom(0, 1);
+        solver.getDistanceFrom(1, 2);
+        // row 0 is now the most recently used, so row 1 is evicted next
+        solver.getDistanceFrom(0, 3);
+        solver.getDistanceFrom(2, 3);
+        solver.getDistanceFrom(0, 4);
+        solver.getDistanceFrom(1, 4);
+
+        // ASSERT
+        assertEquals(2, solver.getHits());
+        assertEquals(4, solver.getMisses());
+        assertEquals(2, solver.getEvictions());
+    }
+
+    @Test
+    void concurrentQueriesSolveEachRowOnce() throws InterruptedException {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/2000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        LazyRowSolver solver = new LazyRowSolver(graphReader);
+        solver.solve();
+        int numThreads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Number> results = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Number distance = solver.getDistanceFrom(42, 1000);
+                synchronized (results) {
+                    results.add(distance);
+                }
+            }));
+        }
+
+        // ACT
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // ASSERT
+        assertEquals(numThreads, results.size());
+        assertEquals(1, results.stream().distinct().count());
+        assertEquals(1, solver.getMisses());
+        assertEquals(numThreads - 1, solver.getHits() + solver.getDeduplicatedQueries());
+    }
+}
@@ -0,0 +1,108 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import matrixMultiplication.GeneralisedFoxOtto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatSquareBatchSolverTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void batchGivesSameResultAsSolvingEachGraph() {
+        // SETUP
+        List<GraphReader> distinctGraphs = new ArrayList<>();
+        try {
+            distinctGraphs.add(new GraphReader("../test-datasets/7-node-example.cedge", true));
+            distinctGraphs.add(new GraphReader("../test-datasets/9-node-example.cedge", false));
+            distinctGraphs.add(new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false));
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // a different graph of the same size, so a manager is reused with new input
+        List<Triple<Integer, Integer, Double>> scaledEdges = new ArrayList<>();
+        for (Triple<Integer, Integer, Double> edge : distinctGraphs.get(2).getEdges()) {
+            scaledEdges.add(new Triple<>(edge.x(), edge.y(), edge.z() * (1 + edge.x() % 3)));
+        }
+        distinctGraphs.add(new GraphReader(scaledEdges, false));
+        // interleave the sizes, so managers are reused by graphs that are not solved back to back
+        List<GraphReader> graphs = new ArrayList<>();
+        for (int copy = 0; copy < 4; copy++) {
+            graphs.addAll(distinctGraphs);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        MatSquareBatchSolver batchSolver = new MatSquareBatchSolver(3, GeneralisedFoxOtto.class, executorService);
+
+        // ACT
+        List<MatSquare> solvers = batchSolver.solveAll(graphs);
+        // the executor is still usable afterwards
+        List<MatSquare> secondBatch = batchSolver.solveAll(distinctGraphs);
+        executorService.shutdown();
+
+        // ASSERT
+        assertEquals(graphs.size(), solvers.size());
+        for (int g = 0; g < graphs.size(); g++) {
+            GraphReader graph = graphs.get(g);
+            APSPSolver expected = new MatSquare(graph, 3, GeneralisedFoxOtto.class);
+            expected.solve();
+            MatSquare actual = g < distinctGraphs.size() ? secondBatch.get(g) : solvers.get(g);
+            for (MatSquare solver : List.of(actual, solvers.get(g))) {
+                for (int i = 0; i < graph.getNumberOfNodes(); i++) {
+                    for (int j = 0; j < graph.getNumberOfNodes(); j++) {
+                        assertEquals(expected.getDistanceFrom(i, j), solver.getDistanceFrom(i, j),
+                                "The distance from node " + i + " to node " + j + " is correct");
+                        assertEquals(expected.getShortestPath(i, j), solver.getShortestPath(i, j),
+                                "The shortest path produced is correct: " + i + " -> " + j);
+                    }
+                }
+            }
+        }
+        // at most one manager per size and thread
+        assertTrue(batchSolver.getNumberOfManagersCreated() <= 3 * 3);
+        assertTrue(batchSolver.getNumberOfManagersCreated() < graphs.size() + distinctGraphs.size());
+        assertTrue(batchSolver.getGraphsPerSecond() > 0);
+    }
+
+    @Test
+    void graphsWithAtMostOneNodeAreSolved() {
+        // SETUP
+        // a single node with a self-loop, and a graph without any nodes
+        GraphReader singleNode = new GraphReader(List.of(new Triple<>(7, 7, 2.0)), true);
+        GraphReader empty = new GraphReader(List.of(), true);
+        MatSquareBatchSolver batchSolver = new MatSquareBatchSolver(3, GeneralisedFoxOtto.class);
+
+        // ACT
+        List<MatSquare> solvers = batchSolver.solveAll(List.of(singleNode, empty, singleNode));
+        batchSolver.shutdown();
+
+        // ASSERT
+        assertEquals(1, singleNode.getNumberOfNodes());
+        assertEquals(0, empty.getNumberOfNodes());
+        assertEquals(3, solvers.size());
+        assertEquals(0.0, solvers.get(0).getDistanceFrom(0, 0).doubleValue());
+        assertEquals(Optional.empty(), solvers.get(0).getShortestPath(0, 0));
+        assertEquals(0, solvers.get(2).getPredecessor(0, 0));
+        assertEquals(0, batchSolver.getNumberOfManagersCreated(), "No grid of processing elements is needed");
+    }
+}
@@ -2,13 +2,23 @@ package APSPSolver;
 
 import graphReader.GraphCompressor;
 import graphReader.GraphReader;
+import matrixMultiplication.BroadcastMinPlusProduct;
+import matrixMultiplication.DistanceOnlyFoxOtto;
+import matrixMultiplication.FloatFoxOtto;
 import matrixMultiplication.FoxOtto;
 import matrixMultiplication.GeneralisedFoxOtto;
+import matrixMultiplication.IntegerFoxOtto;
+import matrixMultiplication.SparseFoxOtto;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import util.LoggerFormatter;
+import util.Matrix;
+import util.Triple;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -241,4 +251,488 @@ class MatSquareTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    // we now test rectangular grids and uneven block sizes
+
+    @Test
+    void rectangularGridAPSPAlgorithmGivesCorrectResultOnSmallGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // 2 x 3 grid where the 9 nodes are split into row blocks of sizes 5, 4 and column blocks of size 3
+        APSPSolver matrixSolver = new MatSquare(graphReader, 2, 3, BroadcastMinPlusProduct.class);
+        // dijkstra solver
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                // expected is first item, actual is second item
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j),
+                        matrixSolver.getDistanceFrom(i, j), "The distance from node " + i + " to node " + j
+                                + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), matrixSolver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j + " with dist="
+                                + matrixSolver.getDistanceFrom(i, j));
+            }
+        }
+    }
+
+    @Test
+    void rectangularGridAPSPAlgorithmGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // 3 x 7 processing elements, where neither dimension divides the problem size
+        APSPSolver matrixSolver = new MatSquare(graphReader, 3, 7, BroadcastMinPlusProduct.class);
+        // dijkstra solver
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        int num_nodes = graphReader.getNumberOfNodes();
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < num_nodes; i++) {
+            for (int j = 0; j < num_nodes; j++) {
+                // expected is first item, actual is second item
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        matrixSolver.getDistanceFrom(i, j).doubleValue(), 1E-5, "The distance from node " + i + " to node " + j
+                                + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), matrixSolver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j + " with dist="
+                                + matrixSolver.getDistanceFrom(i, j));
+            }
+        }
+    }
+
+    // we now test the integer specialisation
+
+    @Test
+    void integerAPSPAlgorithmGivesCorrectResultOnSmallGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        assertTrue(graphReader.hasIntegerWeights(), "The example graph only has integer weights");
+        // integer fox otto solver with uneven blocks of sizes 5 and 4
+        APSPSolver matrixSolver = new MatSquare(graphReader, 2, IntegerFoxOtto.class);
+        // dijkstra solver
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                // expected is first item, actual is second item
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        matrixSolver.getDistanceFrom(i, j).doubleValue(), "The distance from node " + i
+                                + " to node " + j + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), matrixSolver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j + " with dist="
+                                + matrixSolver.getDistanceFrom(i, j));
+            }
+        }
+    }
+
+    @Test
+    void integerAPSPAlgorithmRejectsNonIntegerWeights() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // ACT & ASSERT
+        assertFalse(graphReader.hasIntegerWeights());
+        assertThrows(IllegalArgumentException.class, () -> new MatSquare(graphReader, 4, IntegerFoxOtto.class));
+    }
+
+    @Test
+    void integerAPSPAlgorithmRejectsDistancesThatReachTheSentinel() {
+        // SETUP
+        // the path 0 - 1 - 2 has length 2^31, which would saturate to the infinity sentinel Integer.MAX_VALUE
+        double w = 1 << 30;
+        GraphReader tooLong = new GraphReader(List.of(new Triple<>(0, 1, w), new Triple<>(1, 2, w)), false);
+        GraphReader shortEnough = new GraphReader(List.of(new Triple<>(0, 1, w / 2), new Triple<>(1, 2, w / 2)),
+                false);
+        MatSquare solver = new MatSquare(shortEnough, 1, IntegerFoxOtto.class);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertTrue(tooLong.hasIntegerWeights());
+        assertFalse(tooLong.hasIntegerDistances());
+        assertThrows(IllegalArgumentException.class, () -> new MatSquare(tooLong, 1, IntegerFoxOtto.class));
+        assertTrue(shortEnough.hasIntegerDistances());
+        assertEquals(w, solver.getDistanceFrom(0, 2).doubleValue());
+        assertThrows(IllegalArgumentException.class, () -> solver.updateEdge(0, 1, w),
+                "An updated edge may not make the distances reach the sentinel either");
+    }
+
+    @Test
+    void saturatingAddDoesNotOverflow() {
+        assertEquals(Integer.MAX_VALUE, IntegerFoxOtto.saturatingAdd(Integer.MAX_VALUE, 5));
+        assertEquals(Integer.MAX_VALUE, IntegerFoxOtto.saturatingAdd(-5, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, IntegerFoxOtto.saturatingAdd(Integer.MAX_VALUE - 1, 2));
+        assertEquals(Integer.MIN_VALUE, IntegerFoxOtto.saturatingAdd(Integer.MIN_VALUE, -1));
+        assertEquals(7, IntegerFoxOtto.saturatingAdd(3, 4));
+    }
+
+    // we now test the single precision specialisation
+
+    @Test
+    void floatAPSPAlgorithmIsWithinErrorBoundOnCaliforniaGraphs() {
+        for (int size : new int[]{10, 100, 200}) {
+            // SETUP
+            GraphReader graphReader;
+            try {
+                graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/" + size + ".cedge", false);
+            } catch (ParseException e) {
+                e.printStackTrace();
+                fail("The test data could not be read");
+                return;
+            }
+            MatSquare floatSolver = new MatSquare(graphReader, 4, FloatFoxOtto.class);
+            MatSquare doubleSolver = new MatSquare(graphReader, 4, GeneralisedFoxOtto.class);
+            APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+            int numNodes = graphReader.getNumberOfNodes();
+            double errorBound = FloatFoxOtto.getRelativeErrorBound(numNodes);
+
+            // ACT
+            floatSolver.solve();
+            doubleSolver.solve();
+            dijkstraSolver.solve();
+
+            // ASSERT
+            for (int i = 0; i < numNodes; i++) {
+                for (int j = 0; j < numNodes; j++) {
+                    double expected = dijkstraSolver.getDistanceFrom(i, j).doubleValue();
+                    assertEquals(expected, floatSolver.getDistanceFrom(i, j).doubleValue(), errorBound * expected,
+                            "The distance from node " + i + " to node " + j + " is within the error bound");
+                }
+            }
+            assertTrue(floatSolver.getPrivateMemorySizeInBytes() < doubleSolver.getPrivateMemorySizeInBytes(),
+                    "The single precision distances take up less memory");
+        }
+    }
+
+    // we now test the sparsity-aware version
+
+    @Test
+    void sparseAPSPAlgorithmGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // uneven blocks of sizes 29 and 28
+        APSPSolver matrixSolver = new MatSquare(graphReader, 7, SparseFoxOtto.class);
+        // dijkstra solver
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        int num_nodes = graphReader.getNumberOfNodes();
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < num_nodes; i++) {
+            for (int j = 0; j < num_nodes; j++) {
+                // expected is first item, actual is second item
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        matrixSolver.getDistanceFrom(i, j).doubleValue(), 1E-5, "The distance from node " + i + " to node " + j
+                                + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), matrixSolver.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j + " with dist="
+                                + matrixSolver.getDistanceFrom(i, j));
+            }
+        }
+    }
+
+    // we now test the distance-only version
+
+    @Test
+    void distanceOnlyAPSPAlgorithmReconstructsShortestPaths() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver matrixSolver = new MatSquare(graphReader, 4, DistanceOnlyFoxOtto.class);
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+        Matrix<Number> adjacencyMatrix = graphReader.getAdjacencyMatrix();
+
+        int num_nodes = graphReader.getNumberOfNodes();
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        for (int i = 0; i < num_nodes; i++) {
+            for (int j = 0; j < num_nodes; j++) {
+                double expected = dijkstraSolver.getDistanceFrom(i, j).doubleValue();
+                assertEquals(expected, matrixSolver.getDistanceFrom(i, j).doubleValue(), 1E-5,
+                        "The distance from node " + i + " to node " + j + " is correct");
+
+                // there may be several shortest paths, so check that the reconstructed one is valid and optimal
+                Optional<List<Integer>> path = matrixSolver.getShortestPath(i, j);
+                assertEquals(dijkstraSolver.getShortestPath(i, j).isPresent(), path.isPresent());
+                if (path.isPresent()) {
+                    List<Integer> nodes = path.get();
+                    assertEquals(i, nodes.get(0));
+                    assertEquals(j, nodes.get(nodes.size() - 1));
+                    double length = 0.0;
+                    for (int x = 0; x + 1 < nodes.size(); x++) {
+                        length += adjacencyMatrix.get(nodes.get(x), nodes.get(x + 1)).doubleValue();
+                    }
+                    assertEquals(expected, length, 1E-5, "The path " + nodes + " is a shortest path");
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanceOnlyAPSPAlgorithmReconstructsPathsThroughZeroWeightCycles() {
+        // SETUP
+        // 3 -> 1 -> 2 -> 3 is a zero-weight cycle, so both 0 and 3 are tight predecessors of 1, but only 0 leads
+        //   back to the source without revisiting a node on the path
+        List<Triple<Integer, Integer, Double>> edges = List.of(new Triple<>(3, 1, 0.0), new Triple<>(0, 1, 1.0),
+                new Triple<>(1, 2, 0.0), new Triple<>(2, 3, 0.0));
+        GraphReader graphReader = new GraphReader(edges, true);
+        MatSquare matrixSolver = new MatSquare(graphReader, DistanceOnlyFoxOtto.class);
+        int source = graphReader.getNodeIDAfterReindex(0);
+        int target = graphReader.getNodeIDAfterReindex(2);
+
+        // ACT
+        matrixSolver.solve();
+        Optional<List<Integer>> path = matrixSolver.getShortestPath(source, target);
+
+        // ASSERT
+        assertEquals(1.0, matrixSolver.getDistanceFrom(source, target).doubleValue());
+        assertEquals(Optional.of(List.of(source, graphReader.getNodeIDAfterReindex(1), target)), path);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                int finalI = i;
+                int finalJ = j;
+                assertDoesNotThrow(() -> matrixSolver.getShortestPath(finalI, finalJ));
+            }
+        }
+    }
+
+    // we now test bounding the number of squarings by the hop diameter
+
+    @Test
+    void fewerSquaringsAreDoneWhenShortestPathsHaveFewEdges() {
+        // SETUP
+        // in a star, every shortest path has at most 2 edges, so a single squaring suffices instead of log2(64) = 6
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
+        for (int leaf = 1; leaf < 64; leaf++) {
+            edges.add(new Triple<>(0, leaf, (double) leaf));
+        }
+        GraphReader graphReader = new GraphReader(edges, false);
+        MatSquare matrixSolver = new MatSquare(graphReader, 4, GeneralisedFoxOtto.class);
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        // ACT
+        matrixSolver.solve();
+        dijkstraSolver.solve();
+
+        // ASSERT
+        assertEquals(1, matrixSolver.getNumberOfSquarings());
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        matrixSolver.getDistanceFrom(i, j).doubleValue(), "The distance from node " + i
+                                + " to node " + j + " is correct");
+                assertEquals(dijkstraSolver.getShortestPath(i, j), matrixSolver.getShortestPath(i, j));
+            }
+        }
+    }
+
+    @Test
+    void incompleteDistanceMatrixIsNotClosed() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        MatSquare matrixSolver = new MatSquare(graphReader, 3, GeneralisedFoxOtto.class);
+        matrixSolver.solve();
+        Matrix<Number> distMatrix = new Matrix<>(9, 9, () -> 0.0);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                distMatrix.set(i, j, matrixSolver.getDistanceFrom(i, j));
+            }
+        }
+
+        // ACT
+        boolean closedBefore = matrixSolver.isClosed(distMatrix);
+        // pretend the shortest path from 0 to 4 has not been found yet
+        distMatrix.set(0, 4, distMatrix.get(0, 4).doubleValue() + 1.0);
+        boolean closedAfter = matrixSolver.isClosed(distMatrix);
+
+        // ASSERT
+        assertTrue(closedBefore);
+        assertFalse(closedAfter);
+        assertTrue(MatSquare.estimateHopDiameter(graphReader, 9, 0) >= 2);
+    }
+
+    /**
+     * Checks the updated solver against Dijkstra on a graph built from the updated edges, which is reindexed again.
+     * Nodes that have lost all their edges are not in that graph, and can then only reach themselves.
+     */
+    private void assertSameAsUpdatedGraph(MatSquare solver, List<Triple<Integer, Integer, Double>> updatedEdges,
+                                          boolean isDirected, int n) {
+        GraphReader updatedGraph = new GraphReader(updatedEdges, isDirected);
+        APSPSolver dijkstraSolver = new SerialDijkstra(updatedGraph);
+        dijkstraSolver.solve();
+        Matrix<Number> adjacencyMatrix = updatedGraph.getAdjacencyMatrix();
+        boolean[] hasEdges = new boolean[n];
+        for (int k = 0; k < updatedGraph.getNumberOfNodes(); k++) {
+            hasEdges[updatedGraph.getNodeIdBeforeReIndex(k)] = true;
+        }
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double expected;
+                if (hasEdges[i] && hasEdges[j]) {
+                    expected = dijkstraSolver.getDistanceFrom(updatedGraph.getNodeIDAfterReindex(i),
+                            updatedGraph.getNodeIDAfterReindex(j)).doubleValue();
+                } else {
+                    expected = i == j ? 0.0 : Double.POSITIVE_INFINITY;
+                }
+                assertEquals(expected, solver.getDistanceFrom(i, j).doubleValue(), 1E-5,
+                        "The distance from node " + i + " to node " + j + " is correct");
+                // the path may differ from Dijkstra's if there are ties, so check that it has the right length
+                Optional<List<Integer>> path = solver.getShortestPath(i, j);
+                assertEquals(i != j && expected != Double.POSITIVE_INFINITY, path.isPresent());
+                if (path.isPresent()) {
+                    double length = 0.0;
+                    for (int k = 1; k < path.get().size(); k++) {
+                        length += adjacencyMatrix.get(updatedGraph.getNodeIDAfterReindex(path.get().get(k - 1)),
+                                updatedGraph.getNodeIDAfterReindex(path.get().get(k))).doubleValue();
+                    }
+                    assertEquals(expected, length, 1E-5, "The path from " + i + " to " + j + " is a shortest path");
+                }
+            }
+        }
+    }
+
+    @Test
+    void updateEdgeKeepsResultConsistentOnUndirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/100.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        int n = graphReader.getNumberOfNodes();
+        MatSquare matrixSolver = new MatSquare(graphReader, 4, GeneralisedFoxOtto.class);
+        matrixSolver.solve();
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>(graphReader.getEdges());
+        Triple<Integer, Integer, Double> decreased = edges.get(0);
+        Triple<Integer, Integer, Double> increased = edges.get(10);
+        int newEnd = graphReader.hasEdge(0, n - 1) ? n - 2 : n - 1;
+
+        // ACT
+        matrixSolver.updateEdge(decreased.x(), decreased.y(), decreased.z() / 10);
+        edges.set(0, new Triple<>(decreased.x(), decreased.y(), decreased.z() / 10));
+        matrixSolver.updateEdge(increased.x(), increased.y(), increased.z() + 1.0);
+        edges.set(10, new Triple<>(increased.x(), increased.y(), increased.z() + 1.0));
+        // add a new shortcut
+        matrixSolver.updateEdge(0, newEnd, 0.01);
+        edges.add(new Triple<>(0, newEnd, 0.01));
+
+        // ASSERT
+        assertSameAsUpdatedGraph(matrixSolver, edges, false, n);
+    }
+
+    @Test
+    void updateEdgeCanRemoveEdgeFromDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        int n = graphReader.getNumberOfNodes();
+        MatSquare matrixSolver = new MatSquare(graphReader, FoxOtto.class);
+        MatSquare distanceOnlySolver = new MatSquare(graphReader, DistanceOnlyFoxOtto.class);
+        matrixSolver.solve();
+        distanceOnlySolver.solve();
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>(graphReader.getEdges());
+        // the edges on the shortest path from 0 to 4 are removed one by one
+        List<Integer> path = matrixSolver.getShortestPath(0, 4).orElseThrow();
+        int u = path.get(0);
+        int v = path.get(1);
+
+        for (int k = 0; k + 1 < path.size(); k++) {
+            int from = path.get(k);
+            int to = path.get(k + 1);
+
+            // ACT
+            matrixSolver.updateEdge(from, to, Double.POSITIVE_INFINITY);
+            distanceOnlySolver.updateEdge(from, to, Double.POSITIVE_INFINITY);
+            edges.removeIf(e -> e.x() == from && e.y() == to);
+
+            // ASSERT
+            assertSameAsUpdatedGraph(matrixSolver, edges, true, n);
+            assertSameAsUpdatedGraph(distanceOnlySolver, edges, true, n);
+        }
+        assertThrows(IllegalArgumentException.class, () -> matrixSolver.updateEdge(u, v, -1.0));
+        assertThrows(IllegalStateException.class,
+                () -> new MatSquare(graphReader, FoxOtto.class).updateEdge(u, v, 1.0));
+    }
+}
@@ -0,0 +1,88 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDijkstraTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void parallelDijkstraGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void parallelDijkstraGivesCorrectResultOnSmallGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new ParallelDijkstra(graphReader, new ForkJoinPool(3), 2);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void parallelDijkstraGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // several threads, so that the source ranges are split and the heaps reused
+        APSPSolver solver = new ParallelDijkstra(graphReader, new ForkJoinPool(4));
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+}
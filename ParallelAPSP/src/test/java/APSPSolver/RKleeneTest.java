@@ -0,0 +1,89 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RKleeneTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void rKleeneGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // recurse all the way down to single nodes
+        APSPSolver solver = new RKleene(graphReader, 1);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void rKleeneGivesCorrectResultOnSmallGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new RKleene(graphReader, 2);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void rKleeneGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/500.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // a small leaf size and several threads, so that the parallel splits are exercised
+        APSPSolver solver = new RKleene(graphReader, 16, new ForkJoinPool(4));
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameAsDijkstra(graphReader, solver);
+    }
+}
@@ -0,0 +1,87 @@
+package APSPSolver;
+
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameDistancesAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixHeapDijkstraTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void radixHeapDijkstraGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new RadixHeapDijkstra(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void radixHeapDijkstraGivesCorrectResultOnLargeGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        APSPSolver solver = new RadixHeapDijkstra(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void smallestExactScalingFactorIsFound() {
+        GraphReader graphReader = new GraphReader(Arrays.asList(
+                new Triple<>(0, 1, 0.5),
+                new Triple<>(1, 2, 1.25),
+                new Triple<>(2, 0, 3.0)), false);
+
+        assertEquals(100, RadixHeapDijkstra.getExactScalingFactor(graphReader).orElseThrow());
+    }
+
+    @Test
+    void weightsThatCannotBeScaledExactlyAreRejected() {
+        GraphReader graphReader = new GraphReader(Arrays.asList(
+                new Triple<>(0, 1, 1.0 / 3),
+                new Triple<>(1, 2, 1.0)), false);
+
+        assertTrue(RadixHeapDijkstra.getExactScalingFactor(graphReader).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new RadixHeapDijkstra(graphReader));
+    }
+}
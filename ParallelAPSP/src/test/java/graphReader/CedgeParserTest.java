@@ -0,0 +1,121 @@
+package graphReader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CedgeParserTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void parserGivesSameEdgesAsSplittingEachLine() throws IOException {
+        for (String filename : List.of("../test-datasets/7-node-example.cedge",
+                "../test-datasets/cal-compressed-random-graphs/2000.cedge", "../test-datasets/OL-but-smaller.cedge")) {
+            // SETUP
+            List<String> lines = Files.readAllLines(Paths.get(filename));
+
+            // ACT
+            CedgeParser.EdgeList edges;
+            try {
+                // tiny chunks, so that most lines are near a chunk boundary
+                edges = CedgeParser.parse(Paths.get(filename), new ForkJoinPool(3), 64);
+            } catch (ParseException e) {
+                e.printStackTrace();
+                fail("The test data could not be read");
+                return;
+            }
+
+            // ASSERT
+            assertEquals(lines.size(), edges.getNumberOfEdges());
+            for (int e = 0; e < lines.size(); e++) {
+                String[] splitted = lines.get(e).split("\\s+");
+                assertEquals(Integer.parseInt(splitted[1]), edges.getSources()[e]);
+                assertEquals(Integer.parseInt(splitted[2]), edges.getTargets()[e]);
+                // the weights should be bit for bit the same as with Double.parseDouble
+                assertEquals(Double.parseDouble(splitted[3]), edges.getWeights()[e], 0.0,
+                        "The weight on line " + (e + 1) + " of " + filename + " is parsed exactly");
+            }
+        }
+    }
+
+    @Test
+    void unusualNumberFormatsAreParsed() throws IOException, ParseException {
+        // SETUP
+        Path file = this.tempDir.resolve("formats.cedge");
+        String[] weights = {"1", "-2.5", "0.1", "3e2", "1.5E-3", "+7", "12345678901234567890.5", "0.30000000000000004",
+                "Infinity", "4.9e-324", "1e23"};
+        StringBuilder content = new StringBuilder();
+        for (int e = 0; e < weights.length; e++) {
+            // mix tabs, windows line endings and extra columns
+            content.append(e).append('\t').append(e).append("  ").append(-e).append(' ').append(weights[e])
+                    .append(e % 2 == 0 ? "\r\n" : " extra\n");
+        }
+        // an empty line, and no newline at the end
+        content.append("\n99 5 6 0.5");
+        Files.writeString(file, content.toString());
+
+        // ACT
+        CedgeParser.EdgeList edges = CedgeParser.parse(file, new ForkJoinPool(2), 16);
+
+        // ASSERT
+        assertEquals(weights.length + 1, edges.getNumberOfEdges());
+        for (int e = 0; e < weights.length; e++) {
+            assertEquals(e, edges.getSources()[e]);
+            assertEquals(-e, edges.getTargets()[e]);
+            assertEquals(Double.parseDouble(weights[e]), edges.getWeights()[e], 0.0);
+        }
+        assertEquals(6, edges.getTargets()[weights.length]);
+        assertEquals(0.5, edges.getWeights()[weights.length]);
+    }
+
+    @Test
+    void errorsReportTheFirstBadLine() throws IOException {
+        // SETUP
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 1000; line++) {
+            if (line == 600) {
+                content.append("600 1 2\n");
+            } else if (line == 800) {
+                content.append("800 1 two 3.0\n");
+            } else {
+                content.append(line).append(' ').append(line).append(' ').append(line + 1).append(" 1.0\n");
+            }
+        }
+        Path file = this.tempDir.resolve("bad.cedge");
+        Files.writeString(file, content.toString());
+
+        // ACT
+        ParseException exception = assertThrows(ParseException.class,
+                () -> CedgeParser.parse(file, new ForkJoinPool(4), 100));
+        ParseException missingFile = assertThrows(ParseException.class,
+                () -> new GraphReader(this.tempDir.resolve("missing.cedge").toString(), false));
+
+        // ASSERT
+        assertEquals(600, exception.getErrorOffset(), "The error offset is the number of lines before it");
+        assertTrue(exception.getMessage().contains("line 601"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("4 columns"), exception.getMessage());
+        assertEquals(0, missingFile.getErrorOffset());
+    }
+}
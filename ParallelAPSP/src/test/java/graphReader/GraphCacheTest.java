@@ -0,0 +1,145 @@
+package graphReader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphCacheTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void cachedGraphIsIdenticalToTheParsedGraph(@TempDir Path cacheDirectory) {
+        // SETUP
+        String filename = "../test-datasets/cal-compressed-random-graphs/2000.cedge";
+        GraphCache cache = new GraphCache(cacheDirectory);
+        GraphReader parsed;
+        GraphReader cached;
+
+        // ACT
+        try {
+            parsed = cache.read(filename, false);
+            cached = cache.read(filename, false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // ASSERT
+        assertEquals(1, cache.getNumberOfMisses(), "The graph is parsed once");
+        assertEquals(1, cache.getNumberOfHits(), "The graph is loaded from the cache the second time");
+        assertNotSame(parsed, cached);
+        assertEquals(parsed.getNumberOfNodes(), cached.getNumberOfNodes());
+        assertEquals(parsed.isDirected(), cached.isDirected());
+        assertEquals(parsed.hasIntegerWeights(), cached.hasIntegerWeights());
+        assertEquals(parsed.getEdges(), cached.getEdges());
+        assertEquals(parsed.getAdjacencyList(), cached.getAdjacencyList());
+        for (int i = 0; i < parsed.getNumberOfNodes(); i++) {
+            int originalID = parsed.getNodeIdBeforeReIndex(i);
+            assertEquals(originalID, cached.getNodeIdBeforeReIndex(i));
+            assertEquals(i, cached.getNodeIDAfterReindex(originalID));
+        }
+        for (int i = 0; i < parsed.getNumberOfNodes(); i += 7) {
+            for (int j = 0; j < parsed.getNumberOfNodes(); j++) {
+                assertEquals(parsed.hasEdge(i, j), cached.hasEdge(i, j));
+            }
+        }
+    }
+
+    @Test
+    void changingTheFileOrTheSettingsGivesANewCacheFile(@TempDir Path directory) throws IOException {
+        // SETUP
+        Path source = directory.resolve("graph.cedge");
+        Files.copy(Paths.get("../test-datasets/9-node-example.cedge"), source);
+        Path cacheDirectory = directory.resolve("cache");
+        GraphCache cache = new GraphCache(cacheDirectory);
+
+        // ACT
+        GraphReader undirected;
+        GraphReader directed;
+        GraphReader edited;
+        try {
+            undirected = cache.read(source.toString(), false);
+            directed = cache.read(source.toString(), true);
+            cache.read(source.toString(), true);
+            // add an edge to a new node
+            Files.writeString(source, "100 0 100 1.5\n", StandardOpenOption.APPEND);
+            edited = cache.read(source.toString(), false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // ASSERT
+        assertEquals(3, cache.getNumberOfMisses(), "Each new combination of contents and settings is parsed");
+        assertEquals(1, cache.getNumberOfHits(), "The directed graph is loaded from the cache the second time");
+        assertFalse(undirected.isDirected());
+        assertTrue(directed.isDirected());
+        assertEquals(undirected.getNumberOfNodes() + 1, edited.getNumberOfNodes(),
+                "The edited file is not served from the old cache file");
+        try (var files = Files.list(cacheDirectory)) {
+            assertEquals(2, files.count(), "The cache file of the file before it was edited is deleted, the one "
+                    + "with other settings is kept, and there are no temporary files");
+        }
+    }
+
+    @Test
+    void cachedCompressorReconstructsTheSamePaths(@TempDir Path cacheDirectory) {
+        // SETUP
+        String filename = "../test-datasets/cal-100.cedge";
+        GraphCache cache = new GraphCache(cacheDirectory);
+        GraphCompressor fresh;
+        GraphCompressor cached;
+        GraphCompressor compressionOnly;
+        int n;
+
+        // ACT
+        try {
+            n = new GraphReader(filename, false).getNumberOfNodes();
+            fresh = cache.readCompressed(filename, GraphCompressor.getCurriedFoxOttoAPSPSolverConstructor(2));
+            cached = cache.readCompressed(filename, GraphCompressor.getCurriedFoxOttoAPSPSolverConstructor(2));
+            compressionOnly = cache.readCompressed(filename);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        fresh.solve();
+        cached.solve();
+
+        // ASSERT
+        assertEquals(2, cache.getNumberOfMisses(), "Compressing with and without path tables are different keys");
+        assertEquals(1, cache.getNumberOfHits());
+        assertEquals(fresh.getCompressedGraph().getEdges(), cached.getCompressedGraph().getEdges());
+        assertEquals(fresh.getCompressedGraph().getEdges(), compressionOnly.getCompressedGraph().getEdges());
+        for (int i = 0; i < fresh.getCompressedGraph().getNumberOfNodes(); i++) {
+            assertEquals(fresh.getCompressedGraph().getNodeIdBeforeReIndex(i),
+                    cached.getCompressedGraph().getNodeIdBeforeReIndex(i));
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(fresh.getShortestPath(i, j), cached.getShortestPath(i, j));
+                assertEquals(fresh.getDistanceFrom(i, j).doubleValue(), cached.getDistanceFrom(i, j).doubleValue());
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package graphReader;
 
 import APSPSolver.APSPSolver;
+import APSPSolver.DijkstraAssertions;
 import APSPSolver.SerialDijkstra;
 import APSPSolver.MatSquare;
 import javafx.util.Pair;
@@ -141,6 +142,7 @@ class GraphCompressorTest {
                         "The reconstructed path is correct");
                 assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(), compressSolver.getDistanceFrom(i, j).doubleValue(),
                         1E-7, "The distance between the nodes is correct");
+                DijkstraAssertions.assertPredecessorOnPath(compressSolver, i, j, compressSolver.getShortestPath(i, j));
             }
         }
     }
@@ -0,0 +1,91 @@
+package graphReader;
+
+import javafx.util.Pair;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphReaderTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void nodesAreReindexedInIncreasingOrderOfTheirIDs() {
+        // SETUP
+        List<Triple<Integer, Integer, Double>> edges = List.of(
+                new Triple<>(1000, -5, 1.0),
+                new Triple<>(42, 1000, 2.5),
+                new Triple<>(-5, 7, 3.0));
+
+        // ACT
+        GraphReader graphReader = new GraphReader(edges, true);
+
+        // ASSERT
+        assertEquals(4, graphReader.getNumberOfNodes());
+        assertEquals(3, graphReader.getNumberOfEdges());
+        int[] originalIDs = {-5, 7, 42, 1000};
+        for (int i = 0; i < originalIDs.length; i++) {
+            assertEquals(i, graphReader.getNodeIDAfterReindex(originalIDs[i]));
+            assertEquals(originalIDs[i], graphReader.getNodeIdBeforeReIndex(i));
+        }
+        assertThrows(NullPointerException.class, () -> graphReader.getNodeIDAfterReindex(8));
+        assertEquals(new Triple<>(3, 0, 1.0), graphReader.getEdges().get(0));
+        assertEquals(new Triple<>(2, 3, 2.5), graphReader.getEdges().get(1));
+    }
+
+    @Test
+    void edgeQueriesAndViewsMatchTheEdgeList() {
+        for (boolean isDirected : new boolean[]{true, false}) {
+            // SETUP
+            List<Triple<Integer, Integer, Double>> edges = List.of(
+                    new Triple<>(0, 3, 1.0),
+                    new Triple<>(0, 1, 2.0),
+                    new Triple<>(2, 0, 3.0),
+                    new Triple<>(0, 3, 0.5),
+                    new Triple<>(3, 2, 4.0));
+
+            // ACT
+            GraphReader graphReader = new GraphReader(edges, isDirected);
+            List<List<Pair<Integer, Double>>> adjacencyList = graphReader.getAdjacencyList();
+            CSRGraph csrGraph = graphReader.getCSRGraph();
+
+            // ASSERT
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    boolean expected = false;
+                    for (Triple<Integer, Integer, Double> e : edges) {
+                        expected |= (e.x() == i && e.y() == j) || (!isDirected && e.x() == j && e.y() == i);
+                    }
+                    assertEquals(expected, graphReader.hasEdge(i, j), "Edge " + i + " -> " + j);
+                }
+                // the views follow the CSR graph, which keeps the order of the edges
+                assertEquals(csrGraph.getRowEnd(i) - csrGraph.getRowStart(i), adjacencyList.get(i).size());
+                for (int k = 0; k < adjacencyList.get(i).size(); k++) {
+                    int pos = csrGraph.getRowStart(i) + k;
+                    assertEquals(new Pair<>(csrGraph.getTarget(pos), csrGraph.getWeight(pos)), adjacencyList.get(i).get(k));
+                }
+            }
+            assertFalse(graphReader.hasEdge(-1, 0));
+            assertFalse(graphReader.hasEdge(0, 4));
+            List<Pair<Integer, Double>> expectedRow = isDirected
+                    ? List.of(new Pair<>(3, 1.0), new Pair<>(1, 2.0), new Pair<>(3, 0.5))
+                    : List.of(new Pair<>(3, 1.0), new Pair<>(1, 2.0), new Pair<>(2, 3.0), new Pair<>(3, 0.5));
+            assertEquals(expectedRow, adjacencyList.get(0));
+            assertThrows(UnsupportedOperationException.class, () -> adjacencyList.get(0).add(new Pair<>(1, 1.0)));
+            assertEquals(5, graphReader.getEdges().size());
+            assertEquals(0.5, graphReader.getAdjacencyMatrix().get(0, 3).doubleValue());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package graphReader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingGraphLoaderTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void streamedGraphIsTheSameAsTheParsedGraph() {
+        for (boolean isDirected : new boolean[]{false, true}) {
+            // SETUP
+            String filename = isDirected ? "../test-datasets/7-node-example.cedge"
+                    : "../test-datasets/cal-compressed-random-graphs/2000.cedge";
+            StreamingGraphLoader loader = new StreamingGraphLoader(filename, isDirected);
+            GraphReader parsed;
+            GraphReader streamed;
+
+            // ACT
+            try {
+                parsed = new GraphReader(filename, isDirected);
+                streamed = loader.load();
+            } catch (ParseException e) {
+                e.printStackTrace();
+                fail("The test data could not be read");
+                return;
+            }
+
+            // ASSERT
+            assertEquals(parsed.getNumberOfEdges(), loader.getNumberOfEdgesRead());
+            assertEquals(parsed.getNumberOfEdges(), loader.getNumberOfEdgesKept());
+            assertEquals(parsed.getNumberOfNodes(), streamed.getNumberOfNodes());
+            assertEquals(parsed.hasIntegerWeights(), streamed.hasIntegerWeights());
+            assertEquals(parsed.getEdges(), streamed.getEdges());
+            assertEquals(parsed.getAdjacencyList(), streamed.getAdjacencyList());
+            for (int i = 0; i < parsed.getNumberOfNodes(); i++) {
+                assertEquals(parsed.getNodeIdBeforeReIndex(i), streamed.getNodeIdBeforeReIndex(i));
+                for (int j = 0; j < parsed.getNumberOfNodes(); j++) {
+                    assertEquals(parsed.hasEdge(i, j), streamed.hasEdge(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    void onlyTheLargestComponentIsKept(@TempDir Path directory) throws IOException {
+        // SETUP
+        // the largest component is 3 - 5 - 8 - 9, and 12 - 13 - 14 is smaller
+        Path edges = directory.resolve("graph.cedge");
+        Files.writeString(edges, "0 12 13 1.0\n1 3 5 2.0\n2 5 8 1.5\n3 13 14 1.0\n4 9 8 4.0\n5 3 9 0.5\n");
+        Path negative = directory.resolve("negative.cedge");
+        Files.writeString(negative, "0 1 2 1.0\n1 2 -3 1.0\n");
+        Path tooLarge = directory.resolve("too-large.cedge");
+        Files.writeString(tooLarge, String.format("0 1 2 1.0\n1 2 %d 1.0\n", StreamingGraphLoader.MAX_NODE_ID + 1));
+        StreamingGraphLoader loader = new StreamingGraphLoader(edges.toString(), false, true, null);
+        GraphReader graphReader;
+
+        // ACT
+        try {
+            graphReader = loader.load();
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // ASSERT
+        assertEquals(6, loader.getNumberOfEdgesRead());
+        assertEquals(4, loader.getNumberOfEdgesKept());
+        GraphReader expected = new GraphReader(List.of(new Triple<>(3, 5, 2.0), new Triple<>(5, 8, 1.5),
+                new Triple<>(9, 8, 4.0), new Triple<>(3, 9, 0.5)), false);
+        assertEquals(4, graphReader.getNumberOfNodes());
+        assertEquals(expected.getEdges(), graphReader.getEdges());
+        assertEquals(expected.getAdjacencyList(), graphReader.getAdjacencyList());
+        int[] originalIDs = {3, 5, 8, 9};
+        for (int i = 0; i < originalIDs.length; i++) {
+            assertEquals(originalIDs[i], graphReader.getNodeIdBeforeReIndex(i));
+        }
+        assertThrows(ParseException.class, () -> new StreamingGraphLoader(negative.toString(), false).load(),
+                "Negative node IDs cannot index the working arrays");
+        assertThrows(ParseException.class, () -> new StreamingGraphLoader(tooLarge.toString(), false).load(),
+                "Node IDs above the limit would need too large working arrays");
+    }
+
+    @Test
+    void onlyEdgesInsideTheBoundingBoxAreKept(@TempDir Path directory) throws IOException {
+        // SETUP
+        // the path 0 - 1 - 2 - 3 - 4 leaves the box at node 4, and 5 - 6 is a separate edge inside the box
+        Path nodes = directory.resolve("graph.cnode");
+        Files.writeString(nodes, "0 0.1 0.1\n1 0.2 0.1\n2 0.3 0.2\n3 0.4 0.4\n4 0.9 0.4\n5 0.1 0.5\n6 0.2 0.5\n");
+        Path edges = directory.resolve("graph.cedge");
+        Files.writeString(edges, "0 0 1 1.0\n1 1 2 1.0\n2 2 3 1.0\n3 3 4 1.0\n4 5 6 1.0\n5 4 6 1.0\n");
+        StreamingGraphLoader.BoundingBox box =
+                new StreamingGraphLoader.BoundingBox(nodes.toString(), 0.0, 0.0, 0.5, 0.5);
+        GraphReader inBox;
+        GraphReader largestInBox;
+
+        // ACT
+        try {
+            inBox = new StreamingGraphLoader(edges.toString(), false, false, box).load();
+            largestInBox = new StreamingGraphLoader(edges.toString(), false, true, box).load();
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+
+        // ASSERT
+        assertEquals(6, inBox.getNumberOfNodes());
+        assertEquals(4, inBox.getNumberOfEdges());
+        assertThrows(NullPointerException.class, () -> inBox.getNodeIDAfterReindex(4),
+                "Node 4 is outside the box");
+        assertTrue(inBox.hasEdge(inBox.getNodeIDAfterReindex(6), inBox.getNodeIDAfterReindex(5)));
+        assertEquals(4, largestInBox.getNumberOfNodes());
+        assertEquals(3, largestInBox.getNumberOfEdges());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, largestInBox.getNodeIdBeforeReIndex(i));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingGraphLoader.BoundingBox(nodes.toString(), 1.0, 0.0, 0.0, 1.0));
+    }
+}
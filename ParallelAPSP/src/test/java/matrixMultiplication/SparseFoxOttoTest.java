@@ -0,0 +1,139 @@
+package matrixMultiplication;
+
+import memoryModel.CommunicationChannelCongestionException;
+import memoryModel.CommunicationChannelException;
+import memoryModel.CommunicationManager;
+import memoryModel.InconsistentCommunicationChannelUsageException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+import util.Matrix;
+import work.Manager;
+import work.Worker;
+import work.WorkerInstantiationException;
+import work.WorkersFailedToCompleteException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseFoxOttoTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    /**
+     * Counts the number of values broadcast and sent point-to-point in each communication phase
+     */
+    private static class CountingCommunicationManager extends CommunicationManager {
+
+        private final List<Integer> broadcasts = new ArrayList<>();
+        private final List<Integer> sends = new ArrayList<>();
+        private int currentBroadcasts = 0;
+        private int currentSends = 0;
+
+        CountingCommunicationManager(CommunicationManager communicationManager) {
+            super(communicationManager);
+        }
+
+        @Override
+        public synchronized void broadcastRow(int i, int j, Number value) throws CommunicationChannelCongestionException {
+            currentBroadcasts++;
+            super.broadcastRow(i, j, value);
+        }
+
+        @Override
+        public synchronized void sendData(int sendI, int sendJ, int receiveI, int receiveJ, Number value)
+                throws CommunicationChannelCongestionException {
+            currentSends++;
+            super.sendData(sendI, sendJ, receiveI, receiveJ, value);
+        }
+
+        @Override
+        public synchronized void flush() throws InconsistentCommunicationChannelUsageException {
+            broadcasts.add(currentBroadcasts);
+            sends.add(currentSends);
+            currentBroadcasts = 0;
+            currentSends = 0;
+            super.flush();
+        }
+    }
+
+    /**
+     * Squares the matrix twice with the given algorithm, counting the communication
+     *
+     * @return the manager holding the result of the second squaring
+     */
+    private Manager squareTwice(Matrix<Number> adjMatrix, Matrix<Number> predMatrix,
+                                Class<? extends Worker> algorithm) {
+        Manager m;
+        try {
+            m = new Manager(8, 4, 4, Map.of("A", adjMatrix, "B", adjMatrix, "P", predMatrix), algorithm);
+            m.setCommunicationManager(new CountingCommunicationManager(m.getCommunicationManager()));
+        } catch (WorkerInstantiationException e) {
+            e.printStackTrace();
+            fail("The manager or worker factory could not be created");
+            return null;
+        }
+        try {
+            // the second squaring continues from the "dist" and "pred" left in memory by the first
+            m.doWork();
+            m.doWork();
+        } catch (CommunicationChannelException | WorkersFailedToCompleteException e) {
+            e.printStackTrace();
+            fail("The workers could not successfully finish their work");
+        }
+        return m;
+    }
+
+    @Test
+    void sparseFoxOttoSendsFewerValuesAndGivesSameResult() {
+        // SETUP
+        // a directed path 0 -> 1 -> ... -> 7 without self-loops, so each squaring doubles the hop length and most
+        //   rows of the 2 x 2 blocks are entirely infinite
+        Matrix<Number> adjMatrix = new Matrix<>(8, () -> INF);
+        Matrix<Number> predMatrix = new Matrix<>(8);
+        for (int i = 0; i < 8; i++) {
+            if (i + 1 < 8) {
+                adjMatrix.set(i, i + 1, 1.0 + i);
+            }
+            for (int j = 0; j < 8; j++) {
+                predMatrix.set(i, j, j == i + 1 ? i : j);
+            }
+        }
+
+        // ACT
+        Manager general = squareTwice(adjMatrix, predMatrix, GeneralisedFoxOtto.class);
+        Manager sparse = squareTwice(adjMatrix, predMatrix, SparseFoxOtto.class);
+
+        // ASSERT
+        assertEquals(general.getResult("dist"), sparse.getResult("dist"));
+        assertEquals(general.getResult("pred", true), sparse.getResult("pred", true));
+        // the flushes alternate between communicationBefore and communicationAfter, and each squaring has 4 phases
+        CountingCommunicationManager generalCounts = (CountingCommunicationManager) general.getCommunicationManager();
+        CountingCommunicationManager sparseCounts = (CountingCommunicationManager) sparse.getCommunicationManager();
+        assertEquals(16, sparseCounts.broadcasts.size());
+        int phaseZeroOfSecondSquaring = 8;
+        assertTrue(sparseCounts.broadcasts.get(phaseZeroOfSecondSquaring)
+                        < generalCounts.broadcasts.get(phaseZeroOfSecondSquaring),
+                "The summary shipped after the first squaring prunes the first broadcast of the second");
+        int generalShifted = 0;
+        int sparseShifted = 0;
+        for (int flush = 1; flush < 16; flush += 2) {
+            generalShifted += generalCounts.sends.get(flush);
+            sparseShifted += sparseCounts.sends.get(flush);
+            assertTrue(sparseCounts.sends.get(flush) <= generalCounts.sends.get(flush));
+        }
+        assertTrue(sparseShifted < generalShifted, "The infinite rows of B and P are not shifted");
+    }
+}
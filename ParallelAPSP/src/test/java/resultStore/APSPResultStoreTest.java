@@ -0,0 +1,132 @@
+package resultStore;
+
+import APSPSolver.APSPSolver;
+import APSPSolver.MatSquare;
+import APSPSolver.ParallelDijkstra;
+import graphReader.GraphReader;
+import matrixMultiplication.FoxOtto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import resultStore.APSPResultStore.DistanceType;
+import resultStore.APSPResultStore.PredecessorType;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class APSPResultStoreTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    private void assertSameAsSolver(APSPSolver solver, APSPResultStore store, int n, double delta) {
+        assertEquals(n, store.getNumberOfNodes());
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(solver.getDistanceFrom(i, j).doubleValue(), store.getDistance(i, j), delta,
+                        "The distance from node " + i + " to node " + j + " is correct");
+                assertEquals(solver.getPredecessor(i, j), store.getPredecessor(i, j),
+                        "The predecessor of " + i + " -> " + j + " is correct");
+                assertEquals(solver.getShortestPath(i, j), store.getShortestPath(i, j),
+                        "The shortest path produced is correct: " + i + " -> " + j);
+            }
+        }
+    }
+
+    private GraphReader readGraph(String path, boolean directed) {
+        try {
+            return new GraphReader(path, directed);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return null;
+        }
+    }
+
+    @Test
+    void rowMajorStoreGivesSameResultAsSolver() throws IOException {
+        // SETUP
+        GraphReader graphReader = readGraph("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        int n = graphReader.getNumberOfNodes();
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+        Path path = this.tempDir.resolve("200.apsp");
+
+        // ACT
+        APSPResultStore.write(solver, n, path, DistanceType.DOUBLE, PredecessorType.INT, 0);
+
+        // ASSERT
+        assertEquals(APSPResultStore.HEADER_SIZE + 12L * n * n, Files.size(path));
+        try (APSPResultStore store = APSPResultStore.open(path)) {
+            assertEquals(DistanceType.DOUBLE, store.getDistanceType());
+            assertEquals(0, store.getTileSize());
+            assertSameAsSolver(solver, store, n, 0.0);
+        }
+    }
+
+    @Test
+    void tiledCompactStoreGivesSameResultAsSolver() throws IOException {
+        // SETUP
+        GraphReader graphReader = readGraph("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        int n = graphReader.getNumberOfNodes();
+        APSPSolver solver = new ParallelDijkstra(graphReader);
+        solver.solve();
+        Path path = this.tempDir.resolve("200-tiled.apsp");
+
+        // ACT
+        // 200 is not a multiple of 64, so the last tiles are padded
+        APSPResultStore.write(solver, n, path, DistanceType.FLOAT, PredecessorType.SHORT, 64);
+
+        // ASSERT
+        assertEquals(APSPResultStore.HEADER_SIZE + 6L * 256 * 256, Files.size(path));
+        try (APSPResultStore store = APSPResultStore.open(path)) {
+            assertEquals(PredecessorType.SHORT, store.getPredecessorType());
+            assertEquals(64, store.getTileSize());
+            assertTrue(store.getDistanceFrom(0, 1) instanceof Float);
+            assertSameAsSolver(solver, store, n, 1E-5);
+        }
+    }
+
+    @Test
+    void storeKeepsMatSquarePredecessors() throws IOException {
+        // SETUP
+        GraphReader graphReader = readGraph("../test-datasets/7-node-example.cedge", true);
+        int n = graphReader.getNumberOfNodes();
+        APSPSolver solver = new MatSquare(graphReader, FoxOtto.class);
+        solver.solve();
+        Path path = this.tempDir.resolve("7.apsp");
+
+        // ACT
+        APSPResultStore.write(solver, n, path, DistanceType.DOUBLE, PredecessorType.SHORT, 3);
+
+        // ASSERT
+        try (APSPResultStore store = APSPResultStore.open(path)) {
+            assertSameAsSolver(solver, store, n, 0.0);
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getDistance(0, n));
+        }
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws IOException {
+        // SETUP
+        Path path = this.tempDir.resolve("not-a-result.apsp");
+        Files.write(path, new byte[]{1, 2, 3});
+
+        // ACT and ASSERT
+        assertThrows(IOException.class, () -> APSPResultStore.open(path));
+    }
+}
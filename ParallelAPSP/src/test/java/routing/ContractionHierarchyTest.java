@@ -0,0 +1,101 @@
+package routing;
+
+import APSPSolver.APSPSolver;
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameDistancesAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void hierarchyGivesCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new ContractionHierarchy(graphReader);
+
+        // ACT
+        assertThrows(IllegalStateException.class, () -> solver.getDistanceFrom(0, 1));
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void hierarchyGivesCorrectResultOnRoadNetwork() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/300.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new ContractionHierarchy(graphReader);
+
+        // ACT
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void loadedHierarchyGivesSameResult() throws IOException {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graphReader);
+        hierarchy.solve();
+        Path path = this.tempDir.resolve("200.ch");
+
+        // ACT
+        hierarchy.save(path);
+        ContractionHierarchy loaded = ContractionHierarchy.load(graphReader, path);
+
+        // ASSERT
+        assertEquals(hierarchy.getNumberOfShortcuts(), loaded.getNumberOfShortcuts());
+        int n = graphReader.getNumberOfNodes();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(hierarchy.getDistanceFrom(i, j), loaded.getDistanceFrom(i, j));
+                assertEquals(hierarchy.getShortestPath(i, j), loaded.getShortestPath(i, j));
+            }
+        }
+    }
+}
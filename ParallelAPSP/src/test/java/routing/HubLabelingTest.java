@@ -0,0 +1,102 @@
+package routing;
+
+import APSPSolver.APSPSolver;
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerFormatter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameDistancesAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HubLabelingTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void labelsGiveCorrectResultOnSmallDirectedGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver solver = new HubLabeling(graphReader);
+
+        // ACT
+        assertThrows(IllegalStateException.class, () -> solver.getDistanceFrom(0, 1));
+        solver.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, solver);
+    }
+
+    @Test
+    void labelsBuiltInParallelGiveCorrectResultOnRoadNetwork() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/300.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        HubLabeling sequential = new HubLabeling(graphReader, new ForkJoinPool(1));
+        // the searches of a batch cannot prune each other, so the labels may be larger
+        HubLabeling parallel = new HubLabeling(graphReader, new ForkJoinPool(4));
+
+        // ACT
+        sequential.solve();
+        parallel.solve();
+
+        // ASSERT
+        assertSameDistancesAsDijkstra(graphReader, sequential);
+        assertSameDistancesAsDijkstra(graphReader, parallel);
+        assertTrue(sequential.getAverageLabelSize() <= parallel.getAverageLabelSize());
+        assertTrue(sequential.getAverageLabelSize() < graphReader.getNumberOfNodes() / 4.0);
+    }
+
+    @Test
+    void loadedLabelsGiveSameResult() throws IOException {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/7-node-example.cedge", true);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        HubLabeling labeling = new HubLabeling(graphReader);
+        labeling.solve();
+        Path path = this.tempDir.resolve("7.hl");
+
+        // ACT
+        labeling.save(path);
+        HubLabeling loaded = HubLabeling.load(graphReader, path);
+
+        // ASSERT
+        assertEquals(labeling.getAverageLabelSize(), loaded.getAverageLabelSize());
+        assertSameDistancesAsDijkstra(graphReader, loaded);
+    }
+}
@@ -0,0 +1,119 @@
+package routing;
+
+import APSPSolver.APSPSolver;
+import APSPSolver.SerialDijkstra;
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LoggerFormatter;
+
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThorupZwickOracleTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void estimatesAreWithinStretchBoundOfDijkstra() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/300.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+        dijkstraSolver.solve();
+        int n = graphReader.getNumberOfNodes();
+
+        for (int k = 1; k <= 3; k++) {
+            // ACT
+            ThorupZwickOracle oracle = new ThorupZwickOracle(graphReader, k, k, new ForkJoinPool(3));
+            oracle.build();
+
+            // ASSERT
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    double exact = dijkstraSolver.getDistanceFrom(i, j).doubleValue();
+                    double estimate = oracle.getDistanceEstimate(i, j);
+                    if (exact == Double.POSITIVE_INFINITY) {
+                        assertEquals(Double.POSITIVE_INFINITY, estimate);
+                    } else if (k == 1) {
+                        assertEquals(exact, estimate, 1E-9, "The oracle is exact for k=1");
+                    } else {
+                        assertTrue(estimate >= exact - 1E-9, "The estimate is never too short");
+                        assertTrue(estimate <= (2 * k - 1) * exact + 1E-9, String.format(
+                                "The estimate %f from %d to %d is within stretch %d of %f", estimate, i, j,
+                                2 * k - 1, exact));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void disconnectedNodesHaveInfiniteEstimates() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/9-node-example.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+        dijkstraSolver.solve();
+        int n = graphReader.getNumberOfNodes();
+
+        // ACT
+        ThorupZwickOracle oracle = new ThorupZwickOracle(graphReader, 2);
+        oracle.build();
+
+        // ASSERT
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double exact = dijkstraSolver.getDistanceFrom(i, j).doubleValue();
+                assertEquals(exact == Double.POSITIVE_INFINITY, oracle.getDistanceEstimate(i, j) == Double.POSITIVE_INFINITY,
+                        "Only disconnected pairs have infinite estimates");
+            }
+        }
+    }
+
+    @Test
+    void stretchReportMatchesGuarantee() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        ThorupZwickOracle oracle = new ThorupZwickOracle(graphReader, 3);
+        oracle.build();
+
+        // ACT
+        ThorupZwickOracle.StretchReport report = oracle.measureStretch(20, 0);
+
+        // ASSERT
+        assertTrue(report.getNumberOfPairs() > 0);
+        assertTrue(report.isWithinBound(), "No sampled pair exceeds the stretch bound: " + report);
+        assertTrue(report.getMeanStretch() >= 1.0);
+        assertTrue(oracle.getNumberOfBunchEntries() < (long) graphReader.getNumberOfNodes() * graphReader.getNumberOfNodes(),
+                "The oracle uses less space than full APSP");
+    }
+}
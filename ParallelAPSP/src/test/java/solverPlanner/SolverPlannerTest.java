@@ -0,0 +1,168 @@
+package solverPlanner;
+
+import APSPSolver.APSPSolver;
+import APSPSolver.SerialDijkstra;
+import graphReader.GraphReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import solverPlanner.SolverPlan.Algorithm;
+import util.LoggerFormatter;
+import util.Triple;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static APSPSolver.DijkstraAssertions.assertSameDistancesAsDijkstra;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverPlannerTest {
+
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    private static final long ONE_GIGABYTE = 1L << 30;
+
+    @BeforeAll
+    static void setupLogger() {
+        LoggerFormatter.setupLogger(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void chosenPlanSolvesSparseRoadGraph() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        SolverPlanner planner = new SolverPlanner(new MachineProfile(4, ONE_GIGABYTE));
+        APSPSolver dijkstraSolver = new SerialDijkstra(graphReader);
+
+        // ACT
+        SolverPlan plan = planner.plan(graphReader);
+        APSPSolver solver = plan.solve(graphReader);
+        dijkstraSolver.solve();
+
+        // ASSERT
+        // the O(n^3) solvers should never be chosen for a sparse graph
+        assertNotEquals(Algorithm.R_KLEENE, plan.getAlgorithm());
+        assertNotEquals(Algorithm.MAT_SQUARE, plan.getAlgorithm());
+        assertTrue(plan.getMeasuredSeconds() > 0);
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 200; j++) {
+                assertEquals(dijkstraSolver.getDistanceFrom(i, j).doubleValue(),
+                        solver.getDistanceFrom(i, j).doubleValue(), 1E-9);
+            }
+        }
+    }
+
+    @Test
+    void cubicSolverIsChosenForDenseGraph() {
+        // SETUP
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                if (i != j) {
+                    edges.add(new Triple<>(i, j, 1.0 + (i * 31 + j * 17) % 10));
+                }
+            }
+        }
+        GraphReader graphReader = new GraphReader(edges, true);
+        SolverPlanner planner = new SolverPlanner(new MachineProfile(8, ONE_GIGABYTE));
+
+        // ACT
+        SolverPlan plan = planner.plan(graphReader);
+
+        // ASSERT
+        assertEquals(Algorithm.R_KLEENE, plan.getAlgorithm());
+        assertFalse(plan.isCompressed());
+    }
+
+    @Test
+    void negativeWeightsExcludeDijkstra() {
+        // SETUP
+        GraphReader graphReader = new GraphReader(List.of(
+                new Triple<>(0, 1, 4.0),
+                new Triple<>(0, 2, 1.0),
+                new Triple<>(2, 1, -2.0),
+                new Triple<>(1, 3, 1.0)), true);
+        SolverPlanner planner = new SolverPlanner(new MachineProfile(2, ONE_GIGABYTE));
+
+        // ACT
+        List<SolverPlan> candidates = planner.getCandidatePlans(graphReader);
+
+        // ASSERT
+        assertTrue(candidates.stream().anyMatch(plan -> plan.getAlgorithm() == Algorithm.JOHNSON));
+        assertTrue(candidates.stream().noneMatch(plan -> plan.getAlgorithm() == Algorithm.PARALLEL_DIJKSTRA
+                || plan.getAlgorithm() == Algorithm.RADIX_HEAP_DIJKSTRA || plan.isCompressed()));
+    }
+
+    @Test
+    void planThatDoesNotFitInHeapIsAvoided() {
+        // SETUP
+        GraphReader graphReader;
+        try {
+            graphReader = new GraphReader("../test-datasets/cal-compressed-random-graphs/1000.cedge", false);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        // only the compressed graph fits in 8 MB, as the uncompressed primitive result takes 12 MB
+        SolverPlanner planner = new SolverPlanner(new MachineProfile(1, 8L << 20));
+
+        // ACT
+        SolverPlan plan = planner.plan(graphReader);
+
+        // ASSERT
+        assertTrue(plan.isCompressed());
+        assertTrue(plan.getEstimatedBytes() <= 8L << 20);
+    }
+
+    @Test
+    void compressedRadixHeapPlansCanBeSolved() {
+        // SETUP
+        // a ring with integer weights and a chord at every fifth node, so the other nodes have degree two and are
+        //   merged into edges whose weights are still integers
+        List<Triple<Integer, Integer, Double>> edges = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            edges.add(new Triple<>(i, (i + 1) % 60, 1.0 + i % 3));
+            if (i % 5 == 0) {
+                edges.add(new Triple<>(i, (i + 10) % 60, 7.0));
+            }
+        }
+        List<GraphReader> graphs = new ArrayList<>();
+        try {
+            graphs.add(new GraphReader(edges, false));
+            // the merged decimal weights of the road network can often not be scaled exactly
+            graphs.add(new GraphReader("../test-datasets/cal-compressed-random-graphs/200.cedge", false));
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("The test data could not be read");
+            return;
+        }
+        SolverPlanner planner = new SolverPlanner(new MachineProfile(1, ONE_GIGABYTE));
+
+        for (GraphReader graphReader : graphs) {
+            // ACT
+            List<SolverPlan> radixPlans = new ArrayList<>();
+            for (SolverPlan plan : planner.getCandidatePlans(graphReader)) {
+                if (plan.getAlgorithm() == Algorithm.RADIX_HEAP_DIJKSTRA && plan.isCompressed()) {
+                    radixPlans.add(plan);
+                }
+            }
+
+            // ASSERT
+            if (graphReader == graphs.get(0)) {
+                assertEquals(1, radixPlans.size(), "The integer weights stay integers when compressed");
+            }
+            for (SolverPlan plan : radixPlans) {
+                assertSameDistancesAsDijkstra(graphReader, plan.solve(graphReader));
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package timingAnalysis;
 
 import graphReader.GraphReader;
+import matrixMultiplication.DistanceOnlyFoxOtto;
 import matrixMultiplication.GeneralisedFoxOtto;
 import memoryModel.CommunicationChannelException;
 import timingAnalysis.topology.SquareGridTopology;
@@ -154,6 +155,8 @@ class TimedCommunicationManagerTest {
         assertEquals(3.1, sendTimes.get(0, 0) * 1E-9, 0.01);
         assertEquals(3.1, sendTimes.get(0, 1) * 1E-9, 0.01);
         assertEquals(3.1, sendTimes.get(0, 2) * 1E-9, 0.01);
+        // the 10 items are all Integers
+        assertEquals(40L, result.getBytesSent().get(0, 0));
     }
 
     @Test
@@ -191,4 +194,40 @@ class TimedCommunicationManagerTest {
         }
     }
 
+    @Test
+    void distanceOnlySolveSendsFewerBytes() {
+        // SETUP
+        TimedMatSquare fullSolver;
+        TimedMatSquare distanceOnlySolver;
+        try {
+            GraphReader graphReader = new GraphReader("../test-datasets/cal-small-50.cedge", false);
+            fullSolver = new TimedMatSquare(graphReader, 4, SquareGridTopology::new, new MultiprocessorAttributes(),
+                    GeneralisedFoxOtto.class, 1);
+            distanceOnlySolver = new TimedMatSquare(graphReader, 4, SquareGridTopology::new,
+                    new MultiprocessorAttributes(), DistanceOnlyFoxOtto.class, 1);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            fail("Could not read graph");
+            return;
+        }
+
+        // ACT
+        fullSolver.solve();
+        distanceOnlySolver.solve();
+        long fullBytes = fullSolver.getTimingAnalysisResults().getTotalBytesSent();
+        long distanceOnlyBytes = distanceOnlySolver.getTimingAnalysisResults().getTotalBytesSent();
+        LOGGER.info(String.format("Full solve sent %d bytes, distance-only solve sent %d bytes", fullBytes,
+                distanceOnlyBytes));
+
+        // ASSERT
+        // each PE broadcasts its A block once per product, while the B and P blocks are shifted in each of the
+        //   4 phases, so the full solve sends 1 + 4 + 4 blocks for every 1 + 4 blocks of the distance-only solve
+        assertEquals(fullBytes * 5, distanceOnlyBytes * 9, "The distance-only solve does not send P");
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 50; j++) {
+                assertEquals(fullSolver.getDistanceFrom(i, j).doubleValue(),
+                        distanceOnlySolver.getDistanceFrom(i, j).doubleValue(), 1E-5);
+            }
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedDaryHeapTest {
+
+    @Test
+    @DisplayName("Elements are polled in order of their keys after decrease-key operations")
+    void pollsInKeyOrder() {
+        // SETUP
+        int n = 1000;
+        Random random = new Random(42);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, 3);
+        double[] expectedKeys = new double[n];
+
+        // ACT
+        for (int e = 0; e < n; e++) {
+            expectedKeys[e] = random.nextDouble();
+            heap.insertOrDecreaseKey(e, expectedKeys[e]);
+        }
+        for (int r = 0; r < 2 * n; r++) {
+            int e = random.nextInt(n);
+            double key = random.nextDouble();
+            // only decreasing the key has an effect
+            assertEquals(key < expectedKeys[e], heap.insertOrDecreaseKey(e, key));
+            expectedKeys[e] = Math.min(expectedKeys[e], key);
+        }
+
+        // ASSERT
+        double lastKey = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < n; r++) {
+            int e = heap.poll();
+            assertFalse(heap.contains(e));
+            assertTrue(expectedKeys[e] >= lastKey, "The keys are polled in non-decreasing order");
+            lastKey = expectedKeys[e];
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A cleared heap can be reused")
+    void clearResetsHeap() {
+        IndexedDaryHeap heap = new IndexedDaryHeap(5, 2);
+        heap.insertOrDecreaseKey(3, 1.0);
+        heap.insertOrDecreaseKey(1, 2.0);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(3));
+
+        heap.insertOrDecreaseKey(1, 5.0);
+        heap.insertOrDecreaseKey(4, 4.0);
+        assertEquals(4, heap.poll());
+        assertEquals(1, heap.poll());
+    }
+}
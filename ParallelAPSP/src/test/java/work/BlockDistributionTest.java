@@ -0,0 +1,58 @@
+package work;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockDistributionTest {
+
+    @Test
+    void lastBlocksAreSmallerWhenProblemSizeIsNotDivisible() {
+        // SETUP
+        BlockDistribution distribution = new BlockDistribution(10, 4);
+
+        // ASSERT
+        assertEquals(3, distribution.getBlockSize(0));
+        assertEquals(3, distribution.getBlockSize(1));
+        assertEquals(2, distribution.getBlockSize(2));
+        assertEquals(2, distribution.getBlockSize(3));
+        assertEquals(0, distribution.getBlockOffset(0));
+        assertEquals(6, distribution.getBlockOffset(2));
+        assertEquals(10, distribution.getBlockOffset(4));
+        assertEquals(3, distribution.getMaxBlockSize());
+    }
+
+    @Test
+    void everyIndexIsFoundInTheBlockCoveringIt() {
+        // SETUP
+        BlockDistribution distribution = new BlockDistribution(23, 5);
+
+        // ASSERT
+        for (int index = 0; index < 23; index++) {
+            int b = distribution.getBlockOf(index);
+            assertTrue(distribution.getBlockOffset(b) <= index && index < distribution.getBlockOffset(b + 1),
+                    "Index " + index + " lies within block " + b);
+        }
+    }
+
+    @Test
+    void commonPanelsRefineBothDistributions() {
+        // SETUP
+        BlockDistribution rows = new BlockDistribution(12, 2);
+        BlockDistribution cols = new BlockDistribution(12, 3);
+
+        // ACT
+        List<int[]> panels = BlockDistribution.getCommonPanels(rows, cols);
+
+        // ASSERT
+        assertEquals(4, panels.size());
+        assertArrayEquals(new int[]{0, 4}, panels.get(0));
+        assertArrayEquals(new int[]{4, 6}, panels.get(1));
+        assertArrayEquals(new int[]{6, 8}, panels.get(2));
+        assertArrayEquals(new int[]{8, 12}, panels.get(3));
+        // a square grid gives one panel per block
+        assertEquals(3, BlockDistribution.getCommonPanels(cols, cols).size());
+    }
+}